@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.benchmark;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Message;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * Generates synthetic choreography specifications of a given shape and size for the benchmarks.
+ * <p>
+ * The generation is deterministic: the same shape, number of transitions and number of participants always produce
+ * the same specification.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ChoreographySpecificationGenerator {
+   private static final int FAN_OUT = 32;
+
+   /**
+    * The shapes of the generated choreography specifications.
+    */
+   public enum Shape {
+      /** a single sequence of states, without branching states. */
+      LINEAR_CHAIN,
+      /** a sequence of branching states, each one with {@code FAN_OUT} branches
+       * that join in the next branching state. */
+      WIDE_FAN_OUT,
+      /** a sequence of diamonds, each one made of a branching state with two branches that join. */
+      DEEP_DIAMONDS
+   }
+
+   private final int participantCount;
+   private final Set<Participant> participants = new LinkedHashSet<Participant>();
+   private final Set<State> states = new LinkedHashSet<State>();
+   private final Set<Message> messages = new LinkedHashSet<Message>();
+   private final Set<Transition> transitions = new LinkedHashSet<Transition>();
+
+   private ChoreographySpecificationGenerator(final int participantCount) {
+      this.participantCount = participantCount;
+      for (int i = 0; i < participantCount; i++) {
+         participants.add(new Participant("p" + i));
+      }
+   }
+
+   /**
+    * Generates a choreography specification.
+    *
+    * @param shape
+    *           the shape of the specification.
+    * @param transitionCount
+    *           the number of transitions of the specification, at least one.
+    * @param participantCount
+    *           the number of participants of the specification, at least two.
+    */
+   public static ChoreographySpecification generate(final Shape shape, final int transitionCount,
+         final int participantCount) {
+      ChoreographySpecificationGenerator generator = new ChoreographySpecificationGenerator(participantCount);
+      switch (shape) {
+      case LINEAR_CHAIN:
+         generator.linearChain(transitionCount);
+         break;
+      case WIDE_FAN_OUT:
+         generator.fanOut(transitionCount, FAN_OUT);
+         break;
+      case DEEP_DIAMONDS:
+         generator.fanOut(transitionCount, 2);
+         break;
+      default:
+         throw new IllegalArgumentException(shape.name());
+      }
+      return new ChoreographySpecification(generator.participants, generator.states, new State("s0"),
+            generator.messages, generator.transitions);
+   }
+
+   private void linearChain(final int transitionCount) {
+      for (int i = 0; i < transitionCount; i++) {
+         addTransition(i, i + 1);
+      }
+   }
+
+   private void fanOut(final int transitionCount, final int width) {
+      // each layer goes from a branching state to the next one through width branch states
+      int state = 0;
+      while (transitions.size() < transitionCount) {
+         int join = state + width + 1;
+         for (int branch = 1; branch <= width && transitions.size() < transitionCount; branch++) {
+            addTransition(state, state + branch);
+            if (transitions.size() < transitionCount) {
+               addTransition(state + branch, join);
+            }
+         }
+         state = join;
+      }
+   }
+
+   private void addTransition(final int sourceState, final int targetState) {
+      int index = transitions.size();
+      // participants take turns, so that consecutive transitions belong to different coordination delegates
+      Participant sourceParticipant = new Participant("p" + index % participantCount);
+      Participant targetParticipant = new Participant("p" + (index / participantCount + index + 1) % participantCount);
+      if (sourceParticipant.equals(targetParticipant)) {
+         targetParticipant = new Participant("p" + (index + 1) % participantCount);
+      }
+      State source = new State("s" + sourceState);
+      State target = new State("s" + targetState);
+      Message message = new Message("m" + index);
+      states.add(source);
+      states.add(target);
+      messages.add(message);
+      transitions.add(
+            new SendingMessageActionTransition(source, target, sourceParticipant, targetParticipant, message));
+   }
+
+}
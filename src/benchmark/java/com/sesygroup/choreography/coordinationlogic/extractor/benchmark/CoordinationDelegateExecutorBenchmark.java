@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.benchmark.ChoreographySpecificationGenerator.Shape;
+import com.sesygroup.choreography.coordinationlogic.extractor.runtime.CoordinationDelegateExecutor;
+import com.sesygroup.choreography.coordinationlogic.extractor.runtime.CoordinationDelegateTable;
+
+/**
+ * Dispatch throughput of the largest coordination delegate of a generated specification, replaying the same random
+ * walk of {@value #STEPS} messages through a {@link CoordinationDelegateExecutor} and through an interpreter that
+ * scans the transitions of the {@link AbstractParticipantBehavior}. The walk restarts from the initial state whenever
+ * it reaches a terminal state.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinationDelegateExecutorBenchmark {
+   private static final int STEPS = 1024;
+   private static final int RESET = -1;
+
+   @Param({"LINEAR_CHAIN", "WIDE_FAN_OUT", "DEEP_DIAMONDS"})
+   private Shape shape;
+
+   @Param({"10", "1000"})
+   private int transitions;
+
+   @Param({"3", "32"})
+   private int participants;
+
+   private AbstractParticipantBehavior abstractParticipantBehavior;
+   private CoordinationDelegateExecutor coordinationDelegateExecutor;
+   private int[] walk;
+   private Message[] walkMessages;
+
+   @Setup
+   public void setUp() {
+      abstractParticipantBehavior = new CoordinationLogicExtractor(
+            ChoreographySpecificationGenerator.generate(shape, transitions, participants)).generate().values()
+                  .stream().max(Comparator.comparingInt(behavior -> behavior.getTransitions().size())).get();
+      CoordinationDelegateTable coordinationDelegateTable = new CoordinationDelegateTable(abstractParticipantBehavior);
+      coordinationDelegateExecutor = new CoordinationDelegateExecutor(coordinationDelegateTable);
+
+      walk = new int[STEPS];
+      walkMessages = new Message[STEPS];
+      Random random = new Random(42);
+      int state = coordinationDelegateTable.getInitialState();
+      for (int step = 0; step < STEPS; step++) {
+         if (coordinationDelegateTable.isTerminal(state)) {
+            walk[step] = RESET;
+            state = coordinationDelegateTable.getInitialState();
+            continue;
+         }
+         int message;
+         do {
+            message = random.nextInt(coordinationDelegateTable.getMessageCount());
+         } while (!coordinationDelegateTable.isEnabled(state, message));
+         walk[step] = message;
+         walkMessages[step] = coordinationDelegateTable.getMessage(message);
+         state = coordinationDelegateTable.getNextState(state, message);
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(STEPS)
+   public int stepTable() {
+      coordinationDelegateExecutor.reset();
+      for (int step = 0; step < STEPS; step++) {
+         if (walk[step] == RESET) {
+            coordinationDelegateExecutor.reset();
+         } else {
+            coordinationDelegateExecutor.step(walk[step]);
+         }
+      }
+      return coordinationDelegateExecutor.getCurrentState();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(STEPS)
+   public State stepInterpreted() {
+      State state = abstractParticipantBehavior.getInitialState();
+      for (int step = 0; step < STEPS; step++) {
+         state = walk[step] == RESET ? abstractParticipantBehavior.getInitialState() : step(state, walkMessages[step]);
+      }
+      return state;
+   }
+
+   /**
+    * Visits the internal action closure of the given state breadth first, scanning all the transitions for each state.
+    */
+   private State step(final State state, final Message message) {
+      Set<State> visitedStates = new HashSet<State>();
+      Deque<State> statesToVisit = new ArrayDeque<State>();
+      visitedStates.add(state);
+      statesToVisit.add(state);
+      while (!statesToVisit.isEmpty()) {
+         State closureState = statesToVisit.poll();
+         for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+            if (!closureState.equals(transition.getSourceState())) {
+               continue;
+            }
+            if (transition instanceof InternalActionTransition) {
+               if (visitedStates.add(transition.getTargetState())) {
+                  statesToVisit.add(transition.getTargetState());
+               }
+            } else if (transition instanceof SendActionTransition
+                  && message.equals(((SendActionTransition) transition).getMessage())
+                  || transition instanceof ReceiveActionTransition
+                        && message.equals(((ReceiveActionTransition) transition).getMessage())) {
+               return transition.getTargetState();
+            }
+         }
+      }
+      return state;
+   }
+
+}
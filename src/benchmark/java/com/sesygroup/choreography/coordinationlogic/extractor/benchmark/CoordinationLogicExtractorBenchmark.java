@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.CompiledCoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.benchmark.ChoreographySpecificationGenerator.Shape;
+
+/**
+ * Throughput and latency of {@link CoordinationLogicExtractor#generate()} and
+ * {@link CompiledCoordinationLogicExtractor#generate()}, run it with {@code -prof gc} to get the allocation rate.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinationLogicExtractorBenchmark {
+
+   @Param({"LINEAR_CHAIN", "WIDE_FAN_OUT", "DEEP_DIAMONDS"})
+   private Shape shape;
+
+   @Param({"10", "1000", "100000"})
+   private int transitions;
+
+   @Param({"3", "32"})
+   private int participants;
+
+   private ChoreographySpecification choreographySpecification;
+
+   @Setup
+   public void setUp() {
+      choreographySpecification = ChoreographySpecificationGenerator.generate(shape, transitions, participants);
+   }
+
+   @Benchmark
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate() {
+      return new CoordinationLogicExtractor(choreographySpecification).generate();
+   }
+
+   @Benchmark
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generateCompiled() {
+      return new CompiledCoordinationLogicExtractor(choreographySpecification).generate();
+   }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.coordinationlogic.extractor.ChoreographySpecificationIndex;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractorUtils;
+import com.sesygroup.choreography.coordinationlogic.extractor.ParticipantInteractionGraph;
+import com.sesygroup.choreography.coordinationlogic.extractor.benchmark.ChoreographySpecificationGenerator.Shape;
+
+/**
+ * Throughput and latency of the {@link CoordinationLogicExtractorUtils} queries, both on a choreography specification
+ * (which builds an index per query) and on a prebuilt {@link ChoreographySpecificationIndex}. The per-state queries
+ * visit every state of the specification.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinationLogicExtractorUtilsBenchmark {
+
+   @Param({"LINEAR_CHAIN", "WIDE_FAN_OUT", "DEEP_DIAMONDS"})
+   private Shape shape;
+
+   @Param({"10", "1000", "100000"})
+   private int transitions;
+
+   @Param({"3", "32"})
+   private int participants;
+
+   private ChoreographySpecification choreographySpecification;
+   private ChoreographySpecificationIndex choreographySpecificationIndex;
+   private List<State> states;
+
+   @Setup
+   public void setUp() {
+      choreographySpecification = ChoreographySpecificationGenerator.generate(shape, transitions, participants);
+      choreographySpecificationIndex = new ChoreographySpecificationIndex(choreographySpecification);
+      states = new ArrayList<State>(choreographySpecification.getStates());
+   }
+
+   @Benchmark
+   public ChoreographySpecificationIndex buildIndex() {
+      return new ChoreographySpecificationIndex(choreographySpecification);
+   }
+
+   @Benchmark
+   public Collection<Pair<Participant, Participant>> findCoordinationDelegatesToBeCreated() {
+      return CoordinationLogicExtractorUtils.findCoordinationDelegatesToBeCreated(choreographySpecification);
+   }
+
+   @Benchmark
+   public ParticipantInteractionGraph findParticipantInteractionGraph() {
+      return CoordinationLogicExtractorUtils.findParticipantInteractionGraph(choreographySpecification);
+   }
+
+   @Benchmark
+   public List<State> findBranchingStates() {
+      return CoordinationLogicExtractorUtils.findBranchingStates(choreographySpecification);
+   }
+
+   @Benchmark
+   public int isBranchingState() {
+      int branchingStates = 0;
+      for (State state : states) {
+         if (CoordinationLogicExtractorUtils.isBranchingState(choreographySpecificationIndex, state)) {
+            branchingStates++;
+         }
+      }
+      return branchingStates;
+   }
+
+   @Benchmark
+   public int findAllOutgoingTransition() {
+      int outgoingTransitions = 0;
+      for (State state : states) {
+         List<Transition> transitions
+               = CoordinationLogicExtractorUtils.findAllOutgoingTransition(choreographySpecificationIndex, state);
+         outgoingTransitions += transitions.size();
+      }
+      return outgoingTransitions;
+   }
+
+   @Benchmark
+   public int findAllIncomingTransition() {
+      int incomingTransitions = 0;
+      for (State state : states) {
+         List<Transition> transitions
+               = CoordinationLogicExtractorUtils.findAllIncomingTransition(choreographySpecificationIndex, state);
+         incomingTransitions += transitions.size();
+      }
+      return incomingTransitions;
+   }
+
+}
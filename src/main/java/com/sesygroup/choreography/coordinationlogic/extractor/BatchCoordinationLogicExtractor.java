@@ -0,0 +1,275 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Extractor of the coordination delegates of many choreography specifications, which runs the extractions
+ * concurrently on an executor and bounds the number of extractions running at the same time.
+ * <p>
+ * The executor can be a thread pool sized on the available cores or, on a JVM that supports them, an executor of
+ * virtual threads. The coordination delegates of the extractions of a batch, that is of a single call of
+ * {@link #submit}, {@link #submitAll} or {@link #generateAll}, share their messages, and their participants are
+ * interned, so that the results of a batch do not hold equal copies of them. The interned messages and participants
+ * are only referenced by the batch and its results, thus a long-lived extractor does not retain them once the results
+ * of its batches are gone. The states are not interned, so the results of different extractions never share them.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BatchCoordinationLogicExtractor {
+   private final Executor executor;
+   private final Semaphore permits;
+
+   /**
+    * @param executor
+    *           the executor that runs the extractions.
+    * @param maximumConcurrency
+    *           the maximum number of extractions running at the same time.
+    */
+   public BatchCoordinationLogicExtractor(final Executor executor, final int maximumConcurrency) {
+      Validate.notNull(executor, ValidationMessages.IS_NULL_EXECUTOR_EXCEPTION_MESSAGE);
+      Validate.isTrue(maximumConcurrency > 0, ValidationMessages.IS_NOT_POSITIVE_CONCURRENCY_EXCEPTION_MESSAGE,
+            maximumConcurrency);
+      this.executor = executor;
+      this.permits = new Semaphore(maximumConcurrency);
+   }
+
+   /**
+    * Submits the extraction of the given choreography specification, waiting until fewer than the maximum number of
+    * extractions are running.
+    *
+    * @return the future coordination delegates.
+    */
+   public CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>> submit(
+         final ChoreographySpecification choreographySpecification) {
+      return submit(choreographySpecification, new Batch());
+   }
+
+   private CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>> submit(
+         final ChoreographySpecification choreographySpecification, final Batch batch) {
+      Validate.notNull(choreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      try {
+         permits.acquire();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>> future
+               = new CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>();
+         future.completeExceptionally(e);
+         return future;
+      }
+      return run(choreographySpecification, batch);
+   }
+
+   /**
+    * Submits the extraction of each given choreography specification, as {@link #submit} does, in a single batch.
+    *
+    * @return the future coordination delegates of each choreography specification, in the order of the iterator.
+    */
+   public List<CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>> submitAll(
+         final Iterator<ChoreographySpecification> choreographySpecifications) {
+      Validate.notNull(choreographySpecifications,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATIONS_EXCEPTION_MESSAGE);
+      List<CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>> futures
+            = new ArrayList<CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>>();
+      Batch batch = new Batch();
+      choreographySpecifications
+            .forEachRemaining(choreographySpecification -> futures.add(submit(choreographySpecification, batch)));
+      return futures;
+   }
+
+   /**
+    * Extracts the coordination delegates of the given choreography specifications, in a single batch, in order of
+    * completion.
+    * <p>
+    * The stream is lazy: the specifications are taken from the iterator, and their extractions submitted, while the
+    * stream is consumed, and never more than the maximum number of extractions are running. A failed extraction does
+    * not stop the stream, its result holds the failure instead.
+    * </p>
+    */
+   public Stream<BatchExtractionResult> generateAll(
+         final Iterator<ChoreographySpecification> choreographySpecifications) {
+      Validate.notNull(choreographySpecifications,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATIONS_EXCEPTION_MESSAGE);
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+            new CompletionIterator(choreographySpecifications), Spliterator.NONNULL), false);
+   }
+
+   private CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>> run(
+         final ChoreographySpecification choreographySpecification, final Batch batch) {
+      // the permit is released before the future completes, thus before any stage depending on it runs
+      CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>> future
+            = new CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>();
+      try {
+         executor.execute(() -> {
+            Map<Pair<Participant, Participant>, AbstractParticipantBehavior> coordinationDelegates;
+            try {
+               coordinationDelegates = batch.extract(choreographySpecification);
+            } catch (RuntimeException | Error e) {
+               permits.release();
+               future.completeExceptionally(e);
+               return;
+            }
+            permits.release();
+            future.complete(coordinationDelegates);
+         });
+      } catch (RejectedExecutionException e) {
+         permits.release();
+         throw e;
+      }
+      return future;
+   }
+
+   /**
+    * The messages and the participants shared by the extractions of a batch.
+    */
+   private static class Batch {
+      private final MessageTable messageTable;
+      private final ConcurrentMap<Participant, Participant> participants;
+      private final ConcurrentMap<Pair<Participant, Participant>, Pair<Participant, Participant>> cds;
+
+      Batch() {
+         this.messageTable = new MessageTable();
+         this.participants = new ConcurrentHashMap<Participant, Participant>();
+         this.cds = new ConcurrentHashMap<Pair<Participant, Participant>, Pair<Participant, Participant>>();
+      }
+
+      private Map<Pair<Participant, Participant>, AbstractParticipantBehavior> extract(
+            final ChoreographySpecification choreographySpecification) {
+         Map<Pair<Participant, Participant>, AbstractParticipantBehavior> coordinationDelegates
+               = new LinkedHashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+         new CoordinationLogicExtractor(choreographySpecification, messageTable).generate()
+               .forEach((cd, abstractParticipantBehavior) -> coordinationDelegates.put(intern(cd),
+                     abstractParticipantBehavior));
+         return coordinationDelegates;
+      }
+
+      private Pair<Participant, Participant> intern(final Pair<Participant, Participant> cd) {
+         Pair<Participant, Participant> internedCd = cds.get(cd);
+         if (internedCd == null) {
+            internedCd = new ImmutablePair<Participant, Participant>(intern(cd.getLeft()), intern(cd.getRight()));
+            Pair<Participant, Participant> previousCd = cds.putIfAbsent(internedCd, internedCd);
+            if (previousCd != null) {
+               internedCd = previousCd;
+            }
+         }
+         return internedCd;
+      }
+
+      private Participant intern(final Participant participant) {
+         Participant previousParticipant = participants.putIfAbsent(participant, participant);
+         return previousParticipant == null ? participant : previousParticipant;
+      }
+   }
+
+   /**
+    * Iterator over the results of the extractions in order of completion, which submits the next extractions as the
+    * results are consumed.
+    */
+   private class CompletionIterator implements Iterator<BatchExtractionResult> {
+      private final Iterator<ChoreographySpecification> choreographySpecifications;
+      private final BlockingQueue<BatchExtractionResult> results;
+      private final Batch batch;
+      private int pendingCount;
+      // the specification taken from the iterator and not submitted yet
+      private ChoreographySpecification nextChoreographySpecification;
+
+      CompletionIterator(final Iterator<ChoreographySpecification> choreographySpecifications) {
+         this.choreographySpecifications = choreographySpecifications;
+         this.results = new LinkedBlockingQueue<BatchExtractionResult>();
+         this.batch = new Batch();
+         this.pendingCount = 0;
+         this.nextChoreographySpecification = null;
+      }
+
+      @Override
+      public boolean hasNext() {
+         submitNext();
+         return pendingCount > 0;
+      }
+
+      @Override
+      public BatchExtractionResult next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         try {
+            BatchExtractionResult result = results.take();
+            pendingCount--;
+            return result;
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+         }
+      }
+
+      private void submitNext() {
+         // submit as many extractions as there are free permits, and at least one if none is pending
+         while (nextChoreographySpecification != null || choreographySpecifications.hasNext()) {
+            if (nextChoreographySpecification == null) {
+               nextChoreographySpecification = choreographySpecifications.next();
+            }
+            if (!permits.tryAcquire()) {
+               if (pendingCount > 0) {
+                  return;
+               }
+               try {
+                  permits.acquire();
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new CompletionException(e);
+               }
+            }
+            ChoreographySpecification choreographySpecification = nextChoreographySpecification;
+            run(choreographySpecification, batch).whenComplete((coordinationDelegates, failure) -> results
+                  .add(new BatchExtractionResult(choreographySpecification, coordinationDelegates, failure)));
+            nextChoreographySpecification = null;
+            pendingCount++;
+         }
+      }
+
+   }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Result of the extraction of a choreography specification of a batch, see
+ * {@link BatchCoordinationLogicExtractor#generateAll}: either the coordination delegates or the failure of the
+ * extraction.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BatchExtractionResult {
+   private final ChoreographySpecification choreographySpecification;
+   private final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> coordinationDelegates;
+   private final Throwable failure;
+
+   public BatchExtractionResult(final ChoreographySpecification choreographySpecification,
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> coordinationDelegates,
+         final Throwable failure) {
+      this.choreographySpecification = choreographySpecification;
+      this.coordinationDelegates = coordinationDelegates;
+      this.failure = failure;
+   }
+
+   public ChoreographySpecification getChoreographySpecification() {
+      return choreographySpecification;
+   }
+
+   /**
+    * @return the coordination delegates, or {@code null} if the extraction failed.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> getCoordinationDelegates() {
+      return coordinationDelegates;
+   }
+
+   /**
+    * @return the failure of the extraction, or {@code null} if it succeeded.
+    */
+   public Throwable getFailure() {
+      return failure;
+   }
+
+   public boolean isSuccessful() {
+      return failure == null;
+   }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Compact form of the synch receive transitions that leave a branch state, which lists the alternatives of the branch
+ * once instead of the receive transitions themselves.
+ * <p>
+ * The {@code i}-th alternative is the transition of the coordination delegate {@code getCds().get(i)} to the state
+ * named {@code getTargetStateNames().get(i)}. In the classic form, the coordination delegate of each alternative
+ * receives from the branch state the synch message of each other alternative, which takes it to the target state of
+ * that alternative. Thus a group of {@code k} alternatives takes {@code O(k)} space, while its classic form takes
+ * {@code k * (k - 1)} transitions. {@link BranchSynchGroupUtils} expands the groups into the classic form.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BranchSynchGroup {
+   private final String branchStateName;
+   private final List<Pair<Participant, Participant>> cds;
+   private final List<String> targetStateNames;
+
+   public BranchSynchGroup(final String branchStateName, final List<Pair<Participant, Participant>> cds,
+         final List<String> targetStateNames) {
+      this.branchStateName = branchStateName;
+      this.cds = Collections.unmodifiableList(cds);
+      this.targetStateNames = Collections.unmodifiableList(targetStateNames);
+   }
+
+   public String getBranchStateName() {
+      return branchStateName;
+   }
+
+   /**
+    * @return the coordination delegate of each alternative, in the order of the transitions that leave the branching
+    *         state.
+    */
+   public List<Pair<Participant, Participant>> getCds() {
+      return cds;
+   }
+
+   /**
+    * @return the name of the target state of each alternative, in the order of the transitions that leave the
+    *         branching state.
+    */
+   public List<String> getTargetStateNames() {
+      return targetStateNames;
+   }
+
+   public int getAlternativeCount() {
+      return cds.size();
+   }
+
+   @Override
+   public String toString() {
+      return branchStateName + cds + targetStateNames;
+   }
+
+}
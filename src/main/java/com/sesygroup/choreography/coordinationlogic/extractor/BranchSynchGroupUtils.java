@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Expansion of the {@link BranchSynchGroup}s of a compact extraction result into the classic form.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BranchSynchGroupUtils {
+
+   /**
+    * Adds to the given extraction result the synch receive transitions of the given groups, which makes it equal to
+    * the extraction result in the classic form, except for the order of the transitions. The result is modified in
+    * place.
+    */
+   public static void expand(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result,
+         final Collection<BranchSynchGroup> branchSynchGroups) {
+      Validate.notNull(result, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      Validate.notNull(branchSynchGroups, ValidationMessages.IS_NULL_BRANCH_SYNCH_GROUPS_EXCEPTION_MESSAGE);
+      Map<Pair<Participant, Participant>, StateRegistry> cdToStateRegistryMap
+            = new HashMap<Pair<Participant, Participant>, StateRegistry>();
+      // the messages are shared as the extractor does
+      Map<String, InputMessage> nameToInputMessageMap = new HashMap<String, InputMessage>();
+
+      for (BranchSynchGroup branchSynchGroup : branchSynchGroups) {
+         for (int alternative = 0; alternative < branchSynchGroup.getAlternativeCount(); alternative++) {
+            Pair<Participant, Participant> cd = branchSynchGroup.getCds().get(alternative);
+            AbstractParticipantBehavior abstractParticipantBehavior = result.get(cd);
+            Validate.notNull(abstractParticipantBehavior, ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE,
+                  cd);
+            StateRegistry stateRegistry
+                  = cdToStateRegistryMap.computeIfAbsent(cd, key -> new StateRegistry(abstractParticipantBehavior));
+
+            // receive the synch message of each other alternative
+            for (int otherAlternative = 0; otherAlternative < branchSynchGroup
+                  .getAlternativeCount(); otherAlternative++) {
+               if (otherAlternative == alternative) {
+                  continue;
+               }
+               String messageName
+                     = SynchMessageUtils.getName(branchSynchGroup.getCds().get(otherAlternative), cd);
+               abstractParticipantBehavior.getTransitions().add(new ReceiveActionTransition(
+                     stateRegistry.findState(branchSynchGroup.getBranchStateName()),
+                     stateRegistry.findState(branchSynchGroup.getTargetStateNames().get(otherAlternative)),
+                     nameToInputMessageMap.computeIfAbsent(messageName, InputMessage::new)));
+            }
+         }
+      }
+   }
+
+   // -----------------------------------------------------------------------
+
+   /**
+    * <p>
+    * {@code BranchSynchGroupUtils} instances should NOT be constructed in standard programming. Instead, the class
+    * should be used statically.
+    * </p>
+    *
+    * <p>
+    * This constructor is public to permit tools that require a JavaBean instance to operate.
+    * </p>
+    */
+   public BranchSynchGroupUtils() {
+      super();
+   }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * {@link ExtractionSink} that buffers, per coordination delegate and in emission order, what a shard of an extraction
+ * pass creates, so that the shards can run concurrently and be flushed afterwards in a deterministic order.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class BufferedExtractionSink implements ExtractionSink {
+   private final Map<Pair<Participant, Participant>, List<String>> cdNameToStateNamesMap
+         = new HashMap<Pair<Participant, Participant>, List<String>>();
+   private final Map<Pair<Participant, Participant>, List<Transition>> cdNameToTransitionsMap
+         = new HashMap<Pair<Participant, Participant>, List<Transition>>();
+
+   @Override
+   public void addState(final Pair<Participant, Participant> cd, final String stateName) {
+      cdNameToStateNamesMap.computeIfAbsent(cd, key -> new ArrayList<String>()).add(stateName);
+   }
+
+   @Override
+   public void addTransition(final Pair<Participant, Participant> cd, final Transition transition) {
+      cdNameToTransitionsMap.computeIfAbsent(cd, key -> new ArrayList<Transition>()).add(transition);
+   }
+
+   /**
+    * Adds to the given state registry, and to its behavior, what has been buffered for the coordination delegate.
+    */
+   public void flush(final Pair<Participant, Participant> cd, final StateRegistry stateRegistry) {
+      List<String> stateNames = cdNameToStateNamesMap.get(cd);
+      if (stateNames != null) {
+         stateNames.forEach(stateName -> stateRegistry.addState(stateName));
+      }
+      List<Transition> transitions = cdNameToTransitionsMap.get(cd);
+      if (transitions != null) {
+         stateRegistry.getAbstractParticipantBehavior().getTransitions().addAll(transitions);
+      }
+   }
+
+}
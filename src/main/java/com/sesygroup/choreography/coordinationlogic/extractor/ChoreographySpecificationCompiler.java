@@ -0,0 +1,305 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Compiler of a {@link CompiledChoreographySpecification} from a stream of states and
+ * {@link ChoreographyTransitionRecord}s, which never materializes the {@code ChoreographySpecification}.
+ * <p>
+ * The names are interned as soon as they are added, thus only one instance of each name is retained, and the
+ * transitions are accumulated in primitive arrays. A transition is added once, however many records repeat it, as in
+ * the set of transitions of a {@code ChoreographySpecification}. The states added through
+ * {@link #addState(String)} are the states of the specification, and precede the other states in the compiled form
+ * whatever the order they are added in.
+ * </p>
+ * <p>
+ * The records can also be read from text, one record per line, with the fields separated by whitespace:
+ * </p>
+ * <ul>
+ * <li>{@code initial <state>} sets the initial state;</li>
+ * <li>{@code state <state>} adds a state of the specification;</li>
+ * <li>{@code transition <source state> <target state> <source participant> <target participant> <message>} adds a
+ * transition.</li>
+ * </ul>
+ * <p>
+ * Blank lines and lines starting with {@code #} are ignored.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ChoreographySpecificationCompiler {
+   private static final String INITIAL_RECORD = "initial";
+   private static final String STATE_RECORD = "state";
+   private static final String TRANSITION_RECORD = "transition";
+
+   private String initialStateName;
+   private final Map<String, Integer> stateNameToIdMap;
+   private final List<String> stateNameList;
+   private final IntArrayList specificationStateList;
+   private final IntHashSet specificationStateSet;
+   private final Map<String, Integer> participantNameToIdMap;
+   private final List<Participant> participantList;
+   private final LongIntHashMap coordinationDelegateToIdMap;
+   private final IntArrayList coordinationDelegateSourceParticipantList;
+   private final IntArrayList coordinationDelegateTargetParticipantList;
+   private final Map<String, Integer> messageNameToIdMap;
+   private final List<String> messageNameList;
+   private final LongIntHashMap stateEdgeToIdMap;
+   private final LongIntHashMap labelToIdMap;
+   private final LongIntHashMap transitionToIdMap;
+   private final IntArrayList transitionSourceStateList;
+   private final IntArrayList transitionTargetStateList;
+   private final IntArrayList transitionCoordinationDelegateList;
+   private final IntArrayList transitionMessageList;
+
+   public ChoreographySpecificationCompiler() {
+      this.stateNameToIdMap = new HashMap<String, Integer>();
+      this.stateNameList = new ArrayList<String>();
+      this.specificationStateList = new IntArrayList();
+      this.specificationStateSet = new IntHashSet();
+      this.participantNameToIdMap = new HashMap<String, Integer>();
+      this.participantList = new ArrayList<Participant>();
+      this.coordinationDelegateToIdMap = new LongIntHashMap();
+      this.coordinationDelegateSourceParticipantList = new IntArrayList();
+      this.coordinationDelegateTargetParticipantList = new IntArrayList();
+      this.messageNameToIdMap = new HashMap<String, Integer>();
+      this.messageNameList = new ArrayList<String>();
+      this.stateEdgeToIdMap = new LongIntHashMap();
+      this.labelToIdMap = new LongIntHashMap();
+      this.transitionToIdMap = new LongIntHashMap();
+      this.transitionSourceStateList = new IntArrayList();
+      this.transitionTargetStateList = new IntArrayList();
+      this.transitionCoordinationDelegateList = new IntArrayList();
+      this.transitionMessageList = new IntArrayList();
+   }
+
+   public String getInitialStateName() {
+      return initialStateName;
+   }
+
+   public void setInitialStateName(final String initialStateName) {
+      this.initialStateName = initialStateName;
+   }
+
+   /**
+    * Adds a state of the specification, unless it has already been added.
+    */
+   public void addState(final String stateName) {
+      Validate.notNull(stateName, ValidationMessages.IS_NULL_STATE_NAME_EXCEPTION_MESSAGE);
+      int state = intern(stateName, stateNameToIdMap, stateNameList);
+      if (specificationStateSet.add(state)) {
+         specificationStateList.add(state);
+      }
+   }
+
+   public void addTransition(final String sourceStateName, final String targetStateName,
+         final String sourceParticipantName, final String targetParticipantName, final String messageName) {
+      Validate.notNull(sourceStateName, ValidationMessages.IS_NULL_STATE_NAME_EXCEPTION_MESSAGE);
+      Validate.notNull(targetStateName, ValidationMessages.IS_NULL_STATE_NAME_EXCEPTION_MESSAGE);
+      Validate.notNull(sourceParticipantName, ValidationMessages.IS_NULL_PARTICIPANT_NAME_EXCEPTION_MESSAGE);
+      Validate.notNull(targetParticipantName, ValidationMessages.IS_NULL_PARTICIPANT_NAME_EXCEPTION_MESSAGE);
+      Validate.notNull(messageName, ValidationMessages.IS_NULL_MESSAGE_NAME_EXCEPTION_MESSAGE);
+      int sourceState = intern(sourceStateName, stateNameToIdMap, stateNameList);
+      int targetState = intern(targetStateName, stateNameToIdMap, stateNameList);
+
+      int sourceParticipant = internParticipant(sourceParticipantName);
+      int targetParticipant = internParticipant(targetParticipantName);
+      long coordinationDelegate = (long) sourceParticipant << 32 | targetParticipant;
+      int coordinationDelegateId = coordinationDelegateToIdMap.get(coordinationDelegate, -1);
+      if (coordinationDelegateId < 0) {
+         coordinationDelegateId = coordinationDelegateToIdMap.size();
+         coordinationDelegateToIdMap.put(coordinationDelegate, coordinationDelegateId);
+         coordinationDelegateSourceParticipantList.add(sourceParticipant);
+         coordinationDelegateTargetParticipantList.add(targetParticipant);
+      }
+      int message = intern(messageName, messageNameToIdMap, messageNameList);
+
+      // the specification keeps its transitions in a set, thus a repeated record adds no transition
+      long transition = (long) internPair(sourceState, targetState, stateEdgeToIdMap) << 32
+            | internPair(coordinationDelegateId, message, labelToIdMap);
+      if (transitionToIdMap.get(transition, -1) >= 0) {
+         return;
+      }
+      transitionToIdMap.put(transition, transitionSourceStateList.size());
+      transitionSourceStateList.add(sourceState);
+      transitionTargetStateList.add(targetState);
+      transitionCoordinationDelegateList.add(coordinationDelegateId);
+      transitionMessageList.add(message);
+   }
+
+   public void addTransition(final ChoreographyTransitionRecord choreographyTransitionRecord) {
+      Validate.notNull(choreographyTransitionRecord, ValidationMessages.IS_NULL_TRANSITION_RECORD_EXCEPTION_MESSAGE);
+      addTransition(choreographyTransitionRecord.getSourceStateName(),
+            choreographyTransitionRecord.getTargetStateName(),
+            choreographyTransitionRecord.getSourceParticipantName(),
+            choreographyTransitionRecord.getTargetParticipantName(), choreographyTransitionRecord.getMessageName());
+   }
+
+   /**
+    * Pulls all the records from the given iterator, which is consumed one record at a time.
+    */
+   public void addTransitions(final Iterator<ChoreographyTransitionRecord> choreographyTransitionRecords) {
+      Validate.notNull(choreographyTransitionRecords,
+            ValidationMessages.IS_NULL_TRANSITION_RECORD_EXCEPTION_MESSAGE);
+      choreographyTransitionRecords.forEachRemaining(this::addTransition);
+   }
+
+   /**
+    * Reads all the records of the given UTF-8 file, one line at a time.
+    */
+   public void read(final Path path) throws IOException {
+      Validate.notNull(path, ValidationMessages.IS_NULL_PATH_EXCEPTION_MESSAGE);
+      try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+         read(reader);
+      }
+   }
+
+   /**
+    * Reads all the records of the given reader, one line at a time. The reader is not closed.
+    *
+    * @throws IOException
+    *            if a line is not a well-formed record.
+    */
+   public void read(final BufferedReader reader) throws IOException {
+      Validate.notNull(reader, ValidationMessages.IS_NULL_READER_EXCEPTION_MESSAGE);
+      String[] fields = new String[6];
+      int lineNumber = 0;
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+         lineNumber++;
+         int fieldCount = split(line, fields);
+         if (fieldCount == 0 || fields[0].charAt(0) == '#') {
+            continue;
+         }
+         if (fieldCount == 2 && INITIAL_RECORD.equals(fields[0])) {
+            setInitialStateName(fields[1]);
+         } else if (fieldCount == 2 && STATE_RECORD.equals(fields[0])) {
+            addState(fields[1]);
+         } else if (fieldCount == 6 && TRANSITION_RECORD.equals(fields[0])) {
+            addTransition(fields[1], fields[2], fields[3], fields[4], fields[5]);
+         } else {
+            throw new IOException("Malformed record at line " + lineNumber + ": " + line);
+         }
+      }
+   }
+
+   /**
+    * Splits the line at whitespace into the given fields.
+    *
+    * @return the number of fields of the line, which exceeds the length of the given fields if the line has more.
+    */
+   private static int split(final String line, final String[] fields) {
+      int fieldCount = 0;
+      int length = line.length();
+      int index = 0;
+      while (index < length) {
+         while (index < length && Character.isWhitespace(line.charAt(index))) {
+            index++;
+         }
+         int start = index;
+         while (index < length && !Character.isWhitespace(line.charAt(index))) {
+            index++;
+         }
+         if (start < index) {
+            if (fieldCount < fields.length) {
+               fields[fieldCount] = line.substring(start, index);
+            }
+            fieldCount++;
+         }
+      }
+      return fieldCount;
+   }
+
+   /**
+    * Compiles the states and the transitions added so far. The compiler can keep being used afterwards.
+    */
+   public CompiledChoreographySpecification compile() {
+      // renumber the states so that the states of the specification come first, in the order they were added
+      int stateCount = stateNameList.size();
+      int[] stateToCompiledStateMap = new int[stateCount];
+      String[] stateNames = new String[stateCount];
+      int compiledState = 0;
+      for (int index = 0; index < specificationStateList.size(); index++) {
+         int state = specificationStateList.get(index);
+         stateToCompiledStateMap[state] = compiledState;
+         stateNames[compiledState++] = stateNameList.get(state);
+      }
+      for (int state = 0; state < stateCount; state++) {
+         if (!specificationStateSet.contains(state)) {
+            stateToCompiledStateMap[state] = compiledState;
+            stateNames[compiledState++] = stateNameList.get(state);
+         }
+      }
+      int[] transitionSourceStates = transitionSourceStateList.toArray();
+      int[] transitionTargetStates = transitionTargetStateList.toArray();
+      for (int transition = 0; transition < transitionSourceStates.length; transition++) {
+         transitionSourceStates[transition] = stateToCompiledStateMap[transitionSourceStates[transition]];
+         transitionTargetStates[transition] = stateToCompiledStateMap[transitionTargetStates[transition]];
+      }
+
+      return new CompiledChoreographySpecification(initialStateName, specificationStateList.size(), stateNames,
+            participantList.toArray(new Participant[participantList.size()]),
+            coordinationDelegateSourceParticipantList.toArray(), coordinationDelegateTargetParticipantList.toArray(),
+            messageNameList.toArray(new String[messageNameList.size()]), transitionSourceStates,
+            transitionTargetStates, transitionCoordinationDelegateList.toArray(), transitionMessageList.toArray());
+   }
+
+   private static int internPair(final int first, final int second, final LongIntHashMap pairToIdMap) {
+      long pair = (long) first << 32 | second;
+      int id = pairToIdMap.get(pair, -1);
+      if (id < 0) {
+         id = pairToIdMap.size();
+         pairToIdMap.put(pair, id);
+      }
+      return id;
+   }
+
+   private int internParticipant(final String participantName) {
+      Integer id = participantNameToIdMap.get(participantName);
+      if (id == null) {
+         id = participantList.size();
+         participantNameToIdMap.put(participantName, id);
+         participantList.add(new Participant(participantName));
+      }
+      return id;
+   }
+
+   private static int intern(final String name, final Map<String, Integer> nameToIdMap, final List<String> nameList) {
+      Integer id = nameToIdMap.get(name);
+      if (id == null) {
+         id = nameList.size();
+         nameToIdMap.put(name, id);
+         nameList.add(name);
+      }
+      return id;
+   }
+
+}
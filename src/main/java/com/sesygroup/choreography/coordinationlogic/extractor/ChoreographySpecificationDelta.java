@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+
+/**
+ * An edit of a choreography specification: the states and the transitions added to it and removed from it.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ChoreographySpecificationDelta {
+   private final Set<State> addedStates;
+   private final Set<State> removedStates;
+   private final Set<Transition> addedTransitions;
+   private final Set<Transition> removedTransitions;
+
+   /**
+    * @param addedStates
+    *           the states added to the specification, {@code null} if none.
+    * @param removedStates
+    *           the states removed from the specification, {@code null} if none.
+    * @param addedTransitions
+    *           the transitions added to the specification, {@code null} if none.
+    * @param removedTransitions
+    *           the transitions removed from the specification, {@code null} if none.
+    */
+   public ChoreographySpecificationDelta(final Set<State> addedStates, final Set<State> removedStates,
+         final Set<Transition> addedTransitions, final Set<Transition> removedTransitions) {
+      this.addedStates = addedStates == null ? Collections.<State>emptySet() : addedStates;
+      this.removedStates = removedStates == null ? Collections.<State>emptySet() : removedStates;
+      this.addedTransitions = addedTransitions == null ? Collections.<Transition>emptySet() : addedTransitions;
+      this.removedTransitions = removedTransitions == null ? Collections.<Transition>emptySet() : removedTransitions;
+   }
+
+   public Set<State> getAddedStates() {
+      return addedStates;
+   }
+
+   public Set<State> getRemovedStates() {
+      return removedStates;
+   }
+
+   public Set<Transition> getAddedTransitions() {
+      return addedTransitions;
+   }
+
+   public Set<Transition> getRemovedTransitions() {
+      return removedTransitions;
+   }
+
+   public boolean isEmpty() {
+      return addedStates.isEmpty() && removedStates.isEmpty() && addedTransitions.isEmpty()
+            && removedTransitions.isEmpty();
+   }
+
+}
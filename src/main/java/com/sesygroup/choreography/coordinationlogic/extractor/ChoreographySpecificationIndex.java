@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * Immutable index of a {@link ChoreographySpecification}, built with a single scan of its transitions.
+ * <p>
+ * The index answers the adjacency queries needed by the {@link CoordinationLogicExtractor} (outgoing and incoming
+ * transitions, branching states and coordination delegates of a state) in constant time, so it should be built once per
+ * specification and shared by all the passes that need it.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ChoreographySpecificationIndex {
+   private final ChoreographySpecification choreographySpecification;
+   private final List<State> states;
+   private final List<Transition> transitions;
+   private final int specificationStateCount;
+   private final Map<State, Integer> stateToOrdinalMap;
+   private final List<List<Transition>> outgoingTransitions;
+   private final List<List<Transition>> incomingTransitions;
+   private final List<List<Pair<Participant, Participant>>> outgoingCoordinationDelegates;
+   private final BitSet branchingStates;
+   private final List<Pair<Participant, Participant>> coordinationDelegates;
+
+   public ChoreographySpecificationIndex(final ChoreographySpecification choreographySpecification) {
+      Validate.notNull(choreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      this.choreographySpecification = choreographySpecification;
+      this.states = new ArrayList<State>(choreographySpecification.getStates());
+      this.specificationStateCount = states.size();
+      this.transitions
+            = Collections.unmodifiableList(new ArrayList<Transition>(choreographySpecification.getTransitions()));
+      this.stateToOrdinalMap = new HashMap<State, Integer>();
+      this.outgoingTransitions = new ArrayList<List<Transition>>();
+      this.incomingTransitions = new ArrayList<List<Transition>>();
+      this.outgoingCoordinationDelegates = new ArrayList<List<Pair<Participant, Participant>>>();
+      this.branchingStates = new BitSet();
+
+      states.forEach(state -> ordinalOf(state));
+
+      Set<Pair<Participant, Participant>> coordinationDelegateSet
+            = new LinkedHashSet<Pair<Participant, Participant>>();
+      transitions.forEach(transition -> {
+         int sourceOrdinal = ordinalOf(transition.getSourceState());
+         int targetOrdinal = ordinalOf(transition.getTargetState());
+         outgoingTransitions.get(sourceOrdinal).add(transition);
+         incomingTransitions.get(targetOrdinal).add(transition);
+         if (transition instanceof SendingMessageActionTransition) {
+            Pair<Participant, Participant> coordinationDelegate = new ImmutablePair<Participant, Participant>(
+                  ((SendingMessageActionTransition) transition).getSourceParticipant(),
+                  ((SendingMessageActionTransition) transition).getTargetParticipant());
+            coordinationDelegateSet.add(coordinationDelegate);
+            outgoingCoordinationDelegates.get(sourceOrdinal).add(coordinationDelegate);
+         }
+         if (outgoingTransitions.get(sourceOrdinal).size() >= 2) {
+            branchingStates.set(sourceOrdinal);
+         }
+      });
+      this.coordinationDelegates
+            = Collections.unmodifiableList(new ArrayList<Pair<Participant, Participant>>(coordinationDelegateSet));
+
+      for (int ordinal = 0; ordinal < states.size(); ordinal++) {
+         outgoingTransitions.set(ordinal, Collections.unmodifiableList(outgoingTransitions.get(ordinal)));
+         incomingTransitions.set(ordinal, Collections.unmodifiableList(incomingTransitions.get(ordinal)));
+         outgoingCoordinationDelegates.set(ordinal,
+               Collections.unmodifiableList(outgoingCoordinationDelegates.get(ordinal)));
+      }
+   }
+
+   private int ordinalOf(final State state) {
+      Integer ordinal = stateToOrdinalMap.get(state);
+      if (ordinal == null) {
+         ordinal = stateToOrdinalMap.size();
+         stateToOrdinalMap.put(state, ordinal);
+         if (ordinal >= states.size()) {
+            states.add(state);
+         }
+         outgoingTransitions.add(new ArrayList<Transition>(1));
+         incomingTransitions.add(new ArrayList<Transition>(1));
+         outgoingCoordinationDelegates.add(new ArrayList<Pair<Participant, Participant>>(1));
+      }
+      return ordinal;
+   }
+
+   public ChoreographySpecification getChoreographySpecification() {
+      return choreographySpecification;
+   }
+
+   /**
+    * Returns the transitions of the choreography specification, in the order of
+    * {@link ChoreographySpecification#getTransitions()}.
+    */
+   public List<Transition> getTransitions() {
+      return transitions;
+   }
+
+   /**
+    * Returns the coordination delegates to be created, that is the distinct participant pairs of the sending message
+    * transitions, in the order in which they first occur.
+    */
+   public List<Pair<Participant, Participant>> getCoordinationDelegates() {
+      return coordinationDelegates;
+   }
+
+   public List<Transition> getOutgoingTransitions(final State state) {
+      Integer ordinal = stateToOrdinalMap.get(state);
+      return ordinal == null
+            ? Collections.<Transition>emptyList()
+            : outgoingTransitions.get(ordinal);
+   }
+
+   public List<Transition> getIncomingTransitions(final State state) {
+      Integer ordinal = stateToOrdinalMap.get(state);
+      return ordinal == null
+            ? Collections.<Transition>emptyList()
+            : incomingTransitions.get(ordinal);
+   }
+
+   /**
+    * Returns the coordination delegates of the sending message transitions that leave the given state, one for each
+    * sending message transition and in the same order of {@link #getOutgoingTransitions(State)}.
+    */
+   public List<Pair<Participant, Participant>> getOutgoingCoordinationDelegates(final State state) {
+      Integer ordinal = stateToOrdinalMap.get(state);
+      return ordinal == null
+            ? Collections.<Pair<Participant, Participant>>emptyList()
+            : outgoingCoordinationDelegates.get(ordinal);
+   }
+
+   public boolean isBranchingState(final State state) {
+      Integer ordinal = stateToOrdinalMap.get(state);
+      return ordinal != null && branchingStates.get(ordinal);
+   }
+
+   /**
+    * @return {@code true} if the given state is one of the states of the choreography specification, rather than a
+    *         state only reached by its transitions.
+    */
+   public boolean isSpecificationState(final State state) {
+      Integer ordinal = stateToOrdinalMap.get(state);
+      return ordinal != null && ordinal < specificationStateCount;
+   }
+
+   /**
+    * Returns the branching states of the choreography specification, in the order of
+    * {@link ChoreographySpecification#getStates()}.
+    */
+   public List<State> getBranchingStates() {
+      List<State> result = new ArrayList<State>(branchingStates.cardinality());
+      for (int ordinal = branchingStates.nextSetBit(0); ordinal >= 0 && ordinal < specificationStateCount;
+            ordinal = branchingStates.nextSetBit(ordinal + 1)) {
+         result.add(states.get(ordinal));
+      }
+      return result;
+   }
+
+}
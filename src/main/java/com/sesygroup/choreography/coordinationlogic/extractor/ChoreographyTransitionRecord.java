@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+/**
+ * Flat record of a {@code SendingMessageActionTransition}, which carries only the names of its states, participants
+ * and message.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ChoreographyTransitionRecord {
+   private final String sourceStateName;
+   private final String targetStateName;
+   private final String sourceParticipantName;
+   private final String targetParticipantName;
+   private final String messageName;
+
+   public ChoreographyTransitionRecord(final String sourceStateName, final String targetStateName,
+         final String sourceParticipantName, final String targetParticipantName, final String messageName) {
+      this.sourceStateName = sourceStateName;
+      this.targetStateName = targetStateName;
+      this.sourceParticipantName = sourceParticipantName;
+      this.targetParticipantName = targetParticipantName;
+      this.messageName = messageName;
+   }
+
+   public String getSourceStateName() {
+      return sourceStateName;
+   }
+
+   public String getTargetStateName() {
+      return targetStateName;
+   }
+
+   public String getSourceParticipantName() {
+      return sourceParticipantName;
+   }
+
+   public String getTargetParticipantName() {
+      return targetParticipantName;
+   }
+
+   public String getMessageName() {
+      return messageName;
+   }
+
+}
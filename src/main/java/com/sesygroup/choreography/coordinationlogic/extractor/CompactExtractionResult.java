@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Result of an extraction with compact branch synchronization, see
+ * {@link CoordinationLogicExtractor#generateCompact()}: the coordination delegates, which lack the synch receive
+ * transitions that leave the branch states, and the {@link BranchSynchGroup}s that stand for them.
+ * <p>
+ * The coordination delegates alone are not a complete extraction result. They can be verified together with the
+ * groups by {@link ExtractionResultVerificationUtils#verify(Map, Collection)}, while any other use, such as a diff, a
+ * binary file or an export, needs them expanded first by {@link #expand()}.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CompactExtractionResult {
+   private final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> coordinationDelegates;
+   private final Collection<BranchSynchGroup> branchSynchGroups;
+
+   public CompactExtractionResult(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> coordinationDelegates,
+         final Collection<BranchSynchGroup> branchSynchGroups) {
+      this.coordinationDelegates = coordinationDelegates;
+      this.branchSynchGroups = Collections.unmodifiableCollection(branchSynchGroups);
+   }
+
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> getCoordinationDelegates() {
+      return coordinationDelegates;
+   }
+
+   public Collection<BranchSynchGroup> getBranchSynchGroups() {
+      return branchSynchGroups;
+   }
+
+   /**
+    * Expands the branch synch groups into the coordination delegates, see
+    * {@link BranchSynchGroupUtils#expand(Map, Collection)}. The coordination delegates are modified in place, thus
+    * the result must be expanded only once.
+    *
+    * @return the coordination delegates in the classic form.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expand() {
+      BranchSynchGroupUtils.expand(coordinationDelegates, branchSynchGroups);
+      return coordinationDelegates;
+   }
+
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * Compiled form of a {@link ChoreographySpecification}, in which every state, participant, coordination delegate and
+ * message is interned to a dense int id and the transitions are stored in primitive arrays.
+ * <p>
+ * The states are numbered as in the {@link ChoreographySpecificationIndex}: the states of the specification first, then
+ * the states that appear only in the transitions. The coordination delegates are numbered in order of discovery. The
+ * outgoing transitions of each state are stored in compressed sparse row form, i.e. the ids of the transitions leaving
+ * the state {@code s} are {@code outgoingTransitions[outgoingOffsets[s]]} up to
+ * {@code outgoingTransitions[outgoingOffsets[s + 1]]} excluded, in the order of the specification.
+ * </p>
+ * <p>
+ * Only the {@link SendingMessageActionTransition}s are compiled, as they are the only ones the extraction considers.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CompiledChoreographySpecification {
+   private final String initialStateName;
+   private final int specificationStateCount;
+   private final String[] stateNames;
+   private final Participant[] participants;
+   private final int[] coordinationDelegateSourceParticipants;
+   private final int[] coordinationDelegateTargetParticipants;
+   private final String[] messageNames;
+   private final int[] transitionSourceStates;
+   private final int[] transitionTargetStates;
+   private final int[] transitionCoordinationDelegates;
+   private final int[] transitionMessages;
+   private final int[] outgoingOffsets;
+   private final int[] outgoingTransitions;
+
+   public CompiledChoreographySpecification(final ChoreographySpecification choreographySpecification) {
+      Validate.notNull(choreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      this.initialStateName = choreographySpecification.getInitialState() == null
+            ? null
+            : choreographySpecification.getInitialState().getName();
+
+      Map<State, Integer> stateToIdMap = new HashMap<State, Integer>();
+      List<String> stateNameList = new ArrayList<String>();
+      choreographySpecification.getStates().forEach(state -> intern(state, stateToIdMap, stateNameList));
+      this.specificationStateCount = stateNameList.size();
+
+      Map<Participant, Integer> participantToIdMap = new HashMap<Participant, Integer>();
+      List<Participant> participantList = new ArrayList<Participant>();
+      LongIntHashMap coordinationDelegateToIdMap = new LongIntHashMap();
+      IntArrayList coordinationDelegateSourceParticipantList = new IntArrayList();
+      IntArrayList coordinationDelegateTargetParticipantList = new IntArrayList();
+      Map<String, Integer> messageNameToIdMap = new HashMap<String, Integer>();
+      List<String> messageNameList = new ArrayList<String>();
+      IntArrayList transitionSourceStateList = new IntArrayList();
+      IntArrayList transitionTargetStateList = new IntArrayList();
+      IntArrayList transitionCoordinationDelegateList = new IntArrayList();
+      IntArrayList transitionMessageList = new IntArrayList();
+
+      for (Transition transition : choreographySpecification.getTransitions()) {
+         if (!(transition instanceof SendingMessageActionTransition)) {
+            continue;
+         }
+         SendingMessageActionTransition sendingMessageActionTransition = (SendingMessageActionTransition) transition;
+         transitionSourceStateList.add(intern(transition.getSourceState(), stateToIdMap, stateNameList));
+         transitionTargetStateList.add(intern(transition.getTargetState(), stateToIdMap, stateNameList));
+
+         int sourceParticipant
+               = intern(sendingMessageActionTransition.getSourceParticipant(), participantToIdMap, participantList);
+         int targetParticipant
+               = intern(sendingMessageActionTransition.getTargetParticipant(), participantToIdMap, participantList);
+         long coordinationDelegate = (long) sourceParticipant << 32 | targetParticipant;
+         int coordinationDelegateId = coordinationDelegateToIdMap.get(coordinationDelegate, -1);
+         if (coordinationDelegateId < 0) {
+            coordinationDelegateId = coordinationDelegateToIdMap.size();
+            coordinationDelegateToIdMap.put(coordinationDelegate, coordinationDelegateId);
+            coordinationDelegateSourceParticipantList.add(sourceParticipant);
+            coordinationDelegateTargetParticipantList.add(targetParticipant);
+         }
+         transitionCoordinationDelegateList.add(coordinationDelegateId);
+
+         transitionMessageList.add(intern(sendingMessageActionTransition.getMessage().getName(), messageNameToIdMap,
+               messageNameList));
+      }
+
+      this.stateNames = stateNameList.toArray(new String[stateNameList.size()]);
+      this.participants = participantList.toArray(new Participant[participantList.size()]);
+      this.coordinationDelegateSourceParticipants = coordinationDelegateSourceParticipantList.toArray();
+      this.coordinationDelegateTargetParticipants = coordinationDelegateTargetParticipantList.toArray();
+      this.messageNames = messageNameList.toArray(new String[messageNameList.size()]);
+      this.transitionSourceStates = transitionSourceStateList.toArray();
+      this.transitionTargetStates = transitionTargetStateList.toArray();
+      this.transitionCoordinationDelegates = transitionCoordinationDelegateList.toArray();
+      this.transitionMessages = transitionMessageList.toArray();
+
+      this.outgoingOffsets = computeOutgoingOffsets(stateNames.length, transitionSourceStates);
+      this.outgoingTransitions = computeOutgoingTransitions(outgoingOffsets, transitionSourceStates);
+   }
+
+   /**
+    * Creates the compiled form from the given arrays, which are not copied. The states of the specification must
+    * precede the other states.
+    */
+   CompiledChoreographySpecification(final String initialStateName, final int specificationStateCount,
+         final String[] stateNames, final Participant[] participants,
+         final int[] coordinationDelegateSourceParticipants, final int[] coordinationDelegateTargetParticipants,
+         final String[] messageNames, final int[] transitionSourceStates, final int[] transitionTargetStates,
+         final int[] transitionCoordinationDelegates, final int[] transitionMessages) {
+      this.initialStateName = initialStateName;
+      this.specificationStateCount = specificationStateCount;
+      this.stateNames = stateNames;
+      this.participants = participants;
+      this.coordinationDelegateSourceParticipants = coordinationDelegateSourceParticipants;
+      this.coordinationDelegateTargetParticipants = coordinationDelegateTargetParticipants;
+      this.messageNames = messageNames;
+      this.transitionSourceStates = transitionSourceStates;
+      this.transitionTargetStates = transitionTargetStates;
+      this.transitionCoordinationDelegates = transitionCoordinationDelegates;
+      this.transitionMessages = transitionMessages;
+      this.outgoingOffsets = computeOutgoingOffsets(stateNames.length, transitionSourceStates);
+      this.outgoingTransitions = computeOutgoingTransitions(outgoingOffsets, transitionSourceStates);
+   }
+
+   // count the outgoing transitions of each state, then place them keeping the order of the specification
+
+   private static int[] computeOutgoingOffsets(final int stateCount, final int[] transitionSourceStates) {
+      int[] outgoingOffsets = new int[stateCount + 1];
+      for (int transition = 0; transition < transitionSourceStates.length; transition++) {
+         outgoingOffsets[transitionSourceStates[transition] + 1]++;
+      }
+      for (int state = 0; state < stateCount; state++) {
+         outgoingOffsets[state + 1] += outgoingOffsets[state];
+      }
+      return outgoingOffsets;
+   }
+
+   private static int[] computeOutgoingTransitions(final int[] outgoingOffsets, final int[] transitionSourceStates) {
+      int[] outgoingTransitions = new int[transitionSourceStates.length];
+      int[] nextOutgoingTransitions = new int[outgoingOffsets.length - 1];
+      for (int transition = 0; transition < transitionSourceStates.length; transition++) {
+         int state = transitionSourceStates[transition];
+         outgoingTransitions[outgoingOffsets[state] + nextOutgoingTransitions[state]++] = transition;
+      }
+      return outgoingTransitions;
+   }
+
+   private static <T> int intern(final T object, final Map<T, Integer> objectToIdMap, final List<T> objectList) {
+      Integer id = objectToIdMap.get(object);
+      if (id == null) {
+         id = objectList.size();
+         objectToIdMap.put(object, id);
+         objectList.add(object);
+      }
+      return id;
+   }
+
+   private static int intern(final State state, final Map<State, Integer> stateToIdMap,
+         final List<String> stateNameList) {
+      Integer id = stateToIdMap.get(state);
+      if (id == null) {
+         id = stateNameList.size();
+         stateToIdMap.put(state, id);
+         stateNameList.add(state.getName());
+      }
+      return id;
+   }
+
+   public String getInitialStateName() {
+      return initialStateName;
+   }
+
+   /**
+    * @return the number of states, including the ones that appear only in the transitions.
+    */
+   public int getStateCount() {
+      return stateNames.length;
+   }
+
+   /**
+    * @return the number of states of the specification, whose ids precede the ones of the other states.
+    */
+   public int getSpecificationStateCount() {
+      return specificationStateCount;
+   }
+
+   public String getStateName(final int state) {
+      return stateNames[state];
+   }
+
+   public int getParticipantCount() {
+      return participants.length;
+   }
+
+   public Participant getParticipant(final int participant) {
+      return participants[participant];
+   }
+
+   public int getCoordinationDelegateCount() {
+      return coordinationDelegateSourceParticipants.length;
+   }
+
+   /**
+    * @return the id of the source participant of the coordination delegate.
+    */
+   public int getCoordinationDelegateSourceParticipant(final int coordinationDelegate) {
+      return coordinationDelegateSourceParticipants[coordinationDelegate];
+   }
+
+   /**
+    * @return the id of the target participant of the coordination delegate.
+    */
+   public int getCoordinationDelegateTargetParticipant(final int coordinationDelegate) {
+      return coordinationDelegateTargetParticipants[coordinationDelegate];
+   }
+
+   public Pair<Participant, Participant> getCoordinationDelegate(final int coordinationDelegate) {
+      return new ImmutablePair<Participant, Participant>(
+            participants[coordinationDelegateSourceParticipants[coordinationDelegate]],
+            participants[coordinationDelegateTargetParticipants[coordinationDelegate]]);
+   }
+
+   public int getMessageCount() {
+      return messageNames.length;
+   }
+
+   public String getMessageName(final int message) {
+      return messageNames[message];
+   }
+
+   public int getTransitionCount() {
+      return transitionSourceStates.length;
+   }
+
+   public int getTransitionSourceState(final int transition) {
+      return transitionSourceStates[transition];
+   }
+
+   public int getTransitionTargetState(final int transition) {
+      return transitionTargetStates[transition];
+   }
+
+   public int getTransitionCoordinationDelegate(final int transition) {
+      return transitionCoordinationDelegates[transition];
+   }
+
+   public int getTransitionMessage(final int transition) {
+      return transitionMessages[transition];
+   }
+
+   public int getOutgoingTransitionCount(final int state) {
+      return outgoingOffsets[state + 1] - outgoingOffsets[state];
+   }
+
+   /**
+    * @return the id of the index-th transition leaving the state.
+    */
+   public int getOutgoingTransition(final int state, final int index) {
+      return outgoingTransitions[outgoingOffsets[state] + index];
+   }
+
+   public boolean isBranchingState(final int state) {
+      return getOutgoingTransitionCount(state) >= 2;
+   }
+
+   public boolean isSpecificationState(final int state) {
+      return state < specificationStateCount;
+   }
+
+   // the arrays below are shared with the compiled extraction and must not be modified
+
+   int[] getCoordinationDelegateSourceParticipants() {
+      return coordinationDelegateSourceParticipants;
+   }
+
+   int[] getTransitionSourceStates() {
+      return transitionSourceStates;
+   }
+
+   int[] getTransitionTargetStates() {
+      return transitionTargetStates;
+   }
+
+   int[] getTransitionCoordinationDelegates() {
+      return transitionCoordinationDelegates;
+   }
+
+   int[] getTransitionMessages() {
+      return transitionMessages;
+   }
+
+   int[] getOutgoingOffsets() {
+      return outgoingOffsets;
+   }
+
+   int[] getOutgoingTransitions() {
+      return outgoingTransitions;
+   }
+
+}
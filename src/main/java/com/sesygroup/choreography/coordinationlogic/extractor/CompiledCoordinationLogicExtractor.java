@@ -0,0 +1,457 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Extractor of the coordination delegates which runs the rules of the {@link CoordinationLogicExtractor} on a
+ * {@link CompiledChoreographySpecification}.
+ * <p>
+ * State names and message labels are interned to int ids once per extraction, so that the rules only compare ints
+ * and append ints to primitive arrays. The {@link AbstractParticipantBehavior}s are materialized at the end, with the
+ * same states and transitions, in the same order, that {@link CoordinationLogicExtractor#generate()} produces.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CompiledCoordinationLogicExtractor {
+   private static final int NONE = -1;
+   private static final int SEND = 0;
+   private static final int RECEIVE = 1;
+   private static final int INTERNAL = 2;
+
+   private final CompiledChoreographySpecification compiledChoreographySpecification;
+
+   public CompiledCoordinationLogicExtractor(final ChoreographySpecification choreographySpecification) {
+      this(new CompiledChoreographySpecification(choreographySpecification));
+   }
+
+   public CompiledCoordinationLogicExtractor(
+         final CompiledChoreographySpecification compiledChoreographySpecification) {
+      Validate.notNull(compiledChoreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      this.compiledChoreographySpecification = compiledChoreographySpecification;
+   }
+
+   public CompiledChoreographySpecification getCompiledChoreographySpecification() {
+      return compiledChoreographySpecification;
+   }
+
+   /**
+    * Extracts the coordination delegates. Each call works on its own state, so that an extractor can be shared.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate() {
+      Extraction extraction = new Extraction(compiledChoreographySpecification);
+      extraction.run();
+      return extraction.materialize();
+   }
+
+   /**
+    * State of a single extraction. The states of a coordination delegate are identified by the id of their name, the
+    * names of the states of the specification come first and are contained in every coordination delegate.
+    */
+   private static final class Extraction {
+      private final CompiledChoreographySpecification specification;
+      private final int[] outgoingOffsets;
+      private final int[] outgoingTransitions;
+      private final int[] transitionSources;
+      private final int[] transitionTargets;
+      private final int[] transitionCds;
+      private final int[] cdSourceParticipants;
+      private final int cdCount;
+
+      private final List<String> names;
+      private final Map<String, Integer> nameToIdMap;
+      private final int baseNameCount;
+      private final int[] stateNames;
+      private final int[] midStateNames;
+      private final int[] synchStateNames;
+      private final int[] branchStateNames;
+
+      private final List<String> labels;
+      private final Map<String, Integer> labelToIdMap;
+      private final int[] messageLabels;
+      private final LongIntHashMap pairLabels;
+      private final LongIntHashMap branchLabels;
+
+      private final IntHashSet[] addedStateNames;
+      // four ints per transition: kind, source name, target name and label
+      private final IntArrayList[] transitions;
+
+      Extraction(final CompiledChoreographySpecification specification) {
+         this.specification = specification;
+         this.outgoingOffsets = specification.getOutgoingOffsets();
+         this.outgoingTransitions = specification.getOutgoingTransitions();
+         this.transitionSources = specification.getTransitionSourceStates();
+         this.transitionTargets = specification.getTransitionTargetStates();
+         this.transitionCds = specification.getTransitionCoordinationDelegates();
+         this.cdSourceParticipants = specification.getCoordinationDelegateSourceParticipants();
+         this.cdCount = specification.getCoordinationDelegateCount();
+
+         int stateCount = specification.getStateCount();
+         this.names = new ArrayList<String>();
+         this.nameToIdMap = new HashMap<String, Integer>();
+         this.stateNames = new int[stateCount];
+         for (int state = 0; state < specification.getSpecificationStateCount(); state++) {
+            stateNames[state] = internName(specification.getStateName(state));
+         }
+         this.baseNameCount = names.size();
+         for (int state = specification.getSpecificationStateCount(); state < stateCount; state++) {
+            stateNames[state] = internName(specification.getStateName(state));
+         }
+         this.midStateNames = new int[stateCount];
+         this.synchStateNames = new int[stateCount];
+         this.branchStateNames = new int[stateCount];
+         for (int state = 0; state < stateCount; state++) {
+            String stateName = specification.getStateName(state);
+            midStateNames[state] = internName(stateName + CoordinationLogicExtractor.MID_STATE_SUFFIX);
+            synchStateNames[state] = internName(stateName + CoordinationLogicExtractor.SYNCH_STATE_SUFFIX);
+            branchStateNames[state] = internName(stateName + CoordinationLogicExtractor.BRANCH_STATE_SUFFIX);
+         }
+
+         this.labels = new ArrayList<String>();
+         this.labelToIdMap = new HashMap<String, Integer>();
+         int[] messageNameLabels = new int[specification.getMessageCount()];
+         for (int message = 0; message < messageNameLabels.length; message++) {
+            messageNameLabels[message] = internLabel(specification.getMessageName(message));
+         }
+         int[] transitionMessages = specification.getTransitionMessages();
+         this.messageLabels = new int[transitionMessages.length];
+         for (int transition = 0; transition < transitionMessages.length; transition++) {
+            messageLabels[transition] = messageNameLabels[transitionMessages[transition]];
+         }
+         this.pairLabels = new LongIntHashMap();
+         this.branchLabels = new LongIntHashMap();
+
+         this.addedStateNames = new IntHashSet[cdCount];
+         this.transitions = new IntArrayList[cdCount];
+         for (int cd = 0; cd < cdCount; cd++) {
+            addedStateNames[cd] = new IntHashSet();
+            transitions[cd] = new IntArrayList();
+         }
+      }
+
+      private int internName(final String name) {
+         Integer id = nameToIdMap.get(name);
+         if (id == null) {
+            id = names.size();
+            nameToIdMap.put(name, id);
+            names.add(name);
+         }
+         return id;
+      }
+
+      private int internLabel(final String label) {
+         Integer id = labelToIdMap.get(label);
+         if (id == null) {
+            id = labels.size();
+            labelToIdMap.put(label, id);
+            labels.add(label);
+         }
+         return id;
+      }
+
+      void run() {
+         int transitionCount = transitionSources.length;
+         // first scan: all the states, so that the second scan sees every state it may look up
+         for (int transition = 0; transition < transitionCount; transition++) {
+            createStates(transition);
+         }
+         // second scan: all the transitions
+         for (int transition = 0; transition < transitionCount; transition++) {
+            createSynchTransitionsForIndipendentSequence(transition);
+            createSynchTransitionsThatReachBranchingState(transition);
+            createSynchTransitionsForBranchingStateToItsState(transition);
+            createSynchTransitionsForBranchingStateToOtherSate(transition);
+            createMessageTransitions(transition);
+         }
+      }
+
+      private void createStates(final int transition) {
+         int cd = transitionCds[transition];
+         int source = transitionSources[transition];
+         int target = transitionTargets[transition];
+
+         // mid state
+         addState(cd, midStateNames[source]);
+
+         // synch state, if the source participant of the outgoing is not the one of the transition
+         int sourceParticipant = cdSourceParticipants[cd];
+         for (int index = outgoingOffsets[target]; index < outgoingOffsets[target + 1]; index++) {
+            int outgoingCd = transitionCds[outgoingTransitions[index]];
+            if (cdSourceParticipants[outgoingCd] != sourceParticipant) {
+               addState(cd, synchStateNames[target]);
+               addState(outgoingCd, synchStateNames[target]);
+            }
+         }
+
+         // branch state
+         if (isBranching(source) && specification.isSpecificationState(source)) {
+            addState(cd, branchStateNames[source]);
+         }
+      }
+
+      private void createSynchTransitionsForIndipendentSequence(final int transition) {
+         int target = transitionTargets[transition];
+         if (isBranching(target)) {
+            return;
+         }
+         int incomingCd = transitionCds[transition];
+         int sourceParticipant = cdSourceParticipants[incomingCd];
+         int synchStateName = synchStateNames[target];
+         for (int index = outgoingOffsets[target]; index < outgoingOffsets[target + 1]; index++) {
+            int outgoingCd = transitionCds[outgoingTransitions[index]];
+            if (cdSourceParticipants[outgoingCd] != sourceParticipant && containsState(incomingCd, synchStateName)
+                  && containsState(outgoingCd, synchStateName)) {
+               int label = getPairLabel(incomingCd, outgoingCd);
+               addTransition(incomingCd, SEND, findState(incomingCd, stateNames[target]),
+                     findState(incomingCd, synchStateName), label);
+               addTransition(outgoingCd, RECEIVE, findState(outgoingCd, synchStateName),
+                     findState(outgoingCd, stateNames[target]), label);
+            }
+         }
+      }
+
+      private void createSynchTransitionsThatReachBranchingState(final int transition) {
+         int target = transitionTargets[transition];
+         if (!isBranching(target)) {
+            return;
+         }
+         int incomingCd = transitionCds[transition];
+         int synchStateName = synchStateNames[target];
+         int branchStateName = branchStateNames[target];
+         addTransition(incomingCd, SEND, findState(incomingCd, synchStateName),
+               findState(incomingCd, branchStateName), getBranchLabel(incomingCd, target));
+         for (int index = outgoingOffsets[target]; index < outgoingOffsets[target + 1]; index++) {
+            int outgoingCd = transitionCds[outgoingTransitions[index]];
+            if (outgoingCd != incomingCd) {
+               addTransition(outgoingCd, RECEIVE, findState(outgoingCd, synchStateName),
+                     findState(outgoingCd, branchStateName), getPairLabel(incomingCd, outgoingCd));
+            }
+         }
+      }
+
+      private void createSynchTransitionsForBranchingStateToItsState(final int transition) {
+         int target = transitionTargets[transition];
+         if (!isBranching(target)) {
+            return;
+         }
+         for (int index = outgoingOffsets[target]; index < outgoingOffsets[target + 1]; index++) {
+            int outgoingCd = transitionCds[outgoingTransitions[index]];
+            addTransition(outgoingCd, SEND, findState(outgoingCd, branchStateNames[target]),
+                  findState(outgoingCd, stateNames[target]), getBranchLabel(outgoingCd, target));
+         }
+      }
+
+      private void createSynchTransitionsForBranchingStateToOtherSate(final int transition) {
+         int target = transitionTargets[transition];
+         if (!isBranching(target)) {
+            return;
+         }
+         for (int index = outgoingOffsets[target]; index < outgoingOffsets[target + 1]; index++) {
+            int outgoingCd = transitionCds[outgoingTransitions[index]];
+            for (int otherIndex = outgoingOffsets[target]; otherIndex < outgoingOffsets[target + 1]; otherIndex++) {
+               if (otherIndex == index) {
+                  continue;
+               }
+               int transitionToAdd = outgoingTransitions[otherIndex];
+               addTransition(outgoingCd, RECEIVE, findState(outgoingCd, branchStateNames[target]),
+                     findState(outgoingCd, stateNames[transitionTargets[transitionToAdd]]),
+                     getPairLabel(transitionCds[transitionToAdd], outgoingCd));
+            }
+         }
+      }
+
+      private void createMessageTransitions(final int transition) {
+         int cd = transitionCds[transition];
+         int source = transitionSources[transition];
+         int target = transitionTargets[transition];
+         int targetStateName = isBranching(target) ? synchStateNames[target] : stateNames[target];
+
+         addTransition(cd, RECEIVE, findState(cd, stateNames[source]), findState(cd, midStateNames[source]),
+               messageLabels[transition]);
+         addTransition(cd, SEND, findState(cd, midStateNames[source]), findState(cd, targetStateName),
+               messageLabels[transition]);
+
+         for (int otherCd = 0; otherCd < cdCount; otherCd++) {
+            if (otherCd == cd || containsState(otherCd, branchStateNames[source])) {
+               continue;
+            }
+            int foundedSourceState = findState(otherCd, synchStateNames[source]);
+            if (foundedSourceState == NONE) {
+               foundedSourceState = findState(otherCd, stateNames[source]);
+            }
+            int foundedTargetState = findState(otherCd, synchStateNames[target]);
+            if (foundedTargetState == NONE) {
+               foundedTargetState = findState(otherCd, stateNames[target]);
+            }
+            addTransition(otherCd, INTERNAL, foundedSourceState, foundedTargetState, NONE);
+         }
+      }
+
+      private boolean isBranching(final int state) {
+         return outgoingOffsets[state + 1] - outgoingOffsets[state] >= 2;
+      }
+
+      private boolean containsState(final int cd, final int name) {
+         return name < baseNameCount || addedStateNames[cd].contains(name);
+      }
+
+      private int findState(final int cd, final int name) {
+         return containsState(cd, name) ? name : NONE;
+      }
+
+      private void addState(final int cd, final int name) {
+         if (name >= baseNameCount) {
+            addedStateNames[cd].add(name);
+         }
+      }
+
+      private void addTransition(final int cd, final int kind, final int source, final int target, final int label) {
+         IntArrayList cdTransitions = transitions[cd];
+         cdTransitions.add(kind);
+         cdTransitions.add(source);
+         cdTransitions.add(target);
+         cdTransitions.add(label);
+      }
+
+      /**
+       * @return the label of the synchronization from the incoming to the outgoing coordination delegate.
+       */
+      private int getPairLabel(final int incomingCd, final int outgoingCd) {
+         long key = (long) incomingCd * cdCount + outgoingCd;
+         int label = pairLabels.get(key, NONE);
+         if (label == NONE) {
+            StringBuilder name = new StringBuilder(CoordinationLogicExtractor.SYNCH_MESSAGE_PREFIX);
+            appendCd(name, incomingCd).append(CoordinationLogicExtractor.SYNCH_MESSAGE_TO);
+            label = internLabel(appendCd(name, outgoingCd).toString());
+            pairLabels.put(key, label);
+         }
+         return label;
+      }
+
+      /**
+       * @return the label of the synchronization from the coordination delegate to the other coordination delegates
+       *         of the transitions leaving the branching state.
+       */
+      private int getBranchLabel(final int cd, final int branchingState) {
+         long key = (long) branchingState * cdCount + cd;
+         int label = branchLabels.get(key, NONE);
+         if (label == NONE) {
+            StringBuilder name = new StringBuilder(CoordinationLogicExtractor.SYNCH_MESSAGE_PREFIX);
+            appendCd(name, cd).append(CoordinationLogicExtractor.SYNCH_MESSAGE_TO);
+            for (int index = outgoingOffsets[branchingState]; index < outgoingOffsets[branchingState + 1]; index++) {
+               int outgoingCd = transitionCds[outgoingTransitions[index]];
+               if (outgoingCd != cd) {
+                  appendCd(name, outgoingCd);
+               }
+            }
+            label = internLabel(name.toString());
+            branchLabels.put(key, label);
+         }
+         return label;
+      }
+
+      private StringBuilder appendCd(final StringBuilder name, final int cd) {
+         return name.append("{")
+               .append(specification.getParticipant(cdSourceParticipants[cd]).getName())
+               .append(",")
+               .append(specification.getParticipant(specification.getCoordinationDelegateTargetParticipant(cd))
+                     .getName())
+               .append("}");
+      }
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> materialize() {
+         Map<Pair<Participant, Participant>, AbstractParticipantBehavior> cdToAbstractParticipantBehaviorMap
+               = new HashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+         // the states of the coordination delegate being materialized, indexed by name id
+         State[] states = new State[names.size()];
+         // the messages are shared by all the coordination delegates, indexed by label id
+         InputMessage[] inputMessages = new InputMessage[labels.size()];
+         OutputMessage[] outputMessages = new OutputMessage[labels.size()];
+         // the base states are shared by all the coordination delegates
+         Set<State> baseStates = new LinkedHashSet<State>();
+         for (int name = 0; name < baseNameCount; name++) {
+            states[name] = new State(names.get(name));
+            baseStates.add(states[name]);
+         }
+         Integer initialName = nameToIdMap.get(specification.getInitialStateName());
+         State initialState = initialName != null && initialName < baseNameCount ? states[initialName]
+               : new State(specification.getInitialStateName());
+         for (int cd = 0; cd < cdCount; cd++) {
+            AbstractParticipantBehavior abstractParticipantBehavior
+                  = SharedStateSet.createAbstractParticipantBehavior(baseStates, initialState);
+            IntHashSet cdAddedStateNames = addedStateNames[cd];
+            for (int index = 0; index < cdAddedStateNames.size(); index++) {
+               int name = cdAddedStateNames.get(index);
+               states[name] = new State(names.get(name));
+               abstractParticipantBehavior.getStates().add(states[name]);
+            }
+
+            IntArrayList cdTransitions = transitions[cd];
+            for (int index = 0; index < cdTransitions.size(); index += 4) {
+               State source = cdTransitions.get(index + 1) == NONE ? null : states[cdTransitions.get(index + 1)];
+               State target = cdTransitions.get(index + 2) == NONE ? null : states[cdTransitions.get(index + 2)];
+               int label = cdTransitions.get(index + 3);
+               switch (cdTransitions.get(index)) {
+               case SEND:
+                  if (outputMessages[label] == null) {
+                     outputMessages[label] = new OutputMessage(labels.get(label));
+                  }
+                  abstractParticipantBehavior.getTransitions()
+                        .add(new SendActionTransition(source, target, outputMessages[label]));
+                  break;
+               case RECEIVE:
+                  if (inputMessages[label] == null) {
+                     inputMessages[label] = new InputMessage(labels.get(label));
+                  }
+                  abstractParticipantBehavior.getTransitions()
+                        .add(new ReceiveActionTransition(source, target, inputMessages[label]));
+                  break;
+               default:
+                  abstractParticipantBehavior.getTransitions().add(new InternalActionTransition(source, target));
+                  break;
+               }
+            }
+            cdToAbstractParticipantBehaviorMap.put(specification.getCoordinationDelegate(cd),
+                  abstractParticipantBehavior);
+         }
+         return cdToAbstractParticipantBehaviorMap;
+      }
+
+   }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Differences between two behaviors of the same coordination delegate, see {@link ExtractionResultDiffUtils}.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateDiff {
+   private final Pair<Participant, Participant> cd;
+   private final boolean initialStateChanged;
+   private final List<State> addedStates;
+   private final List<State> removedStates;
+   private final List<Transition> addedTransitions;
+   private final List<Transition> removedTransitions;
+
+   /**
+    * @param cd
+    *           the coordination delegate.
+    * @param initialStateChanged
+    *           whether the initial state changed.
+    * @param addedStates
+    *           the states of the new behavior only, in its order.
+    * @param removedStates
+    *           the states of the old behavior only, in its order.
+    * @param addedTransitions
+    *           the transitions of the new behavior only, in its order.
+    * @param removedTransitions
+    *           the transitions of the old behavior only, in its order.
+    */
+   public CoordinationDelegateDiff(final Pair<Participant, Participant> cd, final boolean initialStateChanged,
+         final List<State> addedStates, final List<State> removedStates, final List<Transition> addedTransitions,
+         final List<Transition> removedTransitions) {
+      this.cd = cd;
+      this.initialStateChanged = initialStateChanged;
+      this.addedStates = Collections.unmodifiableList(addedStates);
+      this.removedStates = Collections.unmodifiableList(removedStates);
+      this.addedTransitions = Collections.unmodifiableList(addedTransitions);
+      this.removedTransitions = Collections.unmodifiableList(removedTransitions);
+   }
+
+   public Pair<Participant, Participant> getCd() {
+      return cd;
+   }
+
+   public boolean isInitialStateChanged() {
+      return initialStateChanged;
+   }
+
+   public List<State> getAddedStates() {
+      return addedStates;
+   }
+
+   public List<State> getRemovedStates() {
+      return removedStates;
+   }
+
+   public List<Transition> getAddedTransitions() {
+      return addedTransitions;
+   }
+
+   public List<Transition> getRemovedTransitions() {
+      return removedTransitions;
+   }
+
+   public boolean isUnchanged() {
+      return !initialStateChanged && addedStates.isEmpty() && removedStates.isEmpty() && addedTransitions.isEmpty()
+            && removedTransitions.isEmpty();
+   }
+
+   @Override
+   public String toString() {
+      return cd + " [initialStateChanged=" + initialStateChanged + ", addedStates=" + addedStates + ", removedStates="
+            + removedStates + ", addedTransitions=" + addedTransitions + ", removedTransitions=" + removedTransitions
+            + "]";
+   }
+
+}
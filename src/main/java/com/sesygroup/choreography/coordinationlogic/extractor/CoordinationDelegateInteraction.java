@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+
+/**
+ * Interactions of a coordination delegate in a {@link ParticipantInteractionGraph}: the number of its transitions, the
+ * states they touch and the neighbouring coordination delegates.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateInteraction {
+   private final Pair<Participant, Participant> cd;
+   private int transitionCount;
+   private final Set<State> states;
+   private final Set<Pair<Participant, Participant>> neighbourCds;
+
+   CoordinationDelegateInteraction(final Pair<Participant, Participant> cd) {
+      this.cd = cd;
+      this.transitionCount = 0;
+      this.states = new LinkedHashSet<State>();
+      this.neighbourCds = new LinkedHashSet<Pair<Participant, Participant>>();
+   }
+
+   public Pair<Participant, Participant> getCd() {
+      return cd;
+   }
+
+   /**
+    * @return the number of transitions of the choreography specification sent from the source participant to the
+    *         target participant of the coordination delegate.
+    */
+   public int getTransitionCount() {
+      return transitionCount;
+   }
+
+   /**
+    * @return the source and target states of the transitions of the coordination delegate, in order of discovery.
+    */
+   public Set<State> getStates() {
+      return Collections.unmodifiableSet(states);
+   }
+
+   /**
+    * @return the coordination delegates with a transition that leaves a state reached by a transition of this
+    *         coordination delegate, or that reaches a state left by it.
+    */
+   public Set<Pair<Participant, Participant>> getNeighbourCds() {
+      return Collections.unmodifiableSet(neighbourCds);
+   }
+
+   void addTransition(final State sourceState, final State targetState) {
+      transitionCount++;
+      states.add(sourceState);
+      states.add(targetState);
+   }
+
+   void merge(final CoordinationDelegateInteraction coordinationDelegateInteraction) {
+      transitionCount += coordinationDelegateInteraction.transitionCount;
+      states.addAll(coordinationDelegateInteraction.states);
+   }
+
+   void addNeighbourCd(final Pair<Participant, Participant> neighbourCd) {
+      if (!cd.equals(neighbourCd)) {
+         neighbourCds.add(neighbourCd);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "CoordinationDelegateInteraction [cd=" + cd + ", transitionCount=" + transitionCount + ", states="
+            + states + ", neighbourCds=" + neighbourCds + "]";
+   }
+
+}
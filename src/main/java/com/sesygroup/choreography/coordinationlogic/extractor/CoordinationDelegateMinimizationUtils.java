@@ -0,0 +1,432 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Minimization of the behaviors of the coordination delegates, which preserves their observable send and receive
+ * behavior.
+ * <p>
+ * The minimization removes the states that are unreachable from the initial state, then merges the branching
+ * bisimilar states by signature-based partition refinement: the blocks of states are split by the labels and the
+ * target blocks of the transitions that their states can take after any number of {@link InternalActionTransition}s
+ * within the block, until the partition is stable. The internal actions within a block are dropped, which collapses
+ * the chains of internal actions. Each block is represented by its first state in the order of the behavior, or by
+ * the initial state if the block contains it.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateMinimizationUtils {
+   private static final int INTERNAL_LABEL = -1;
+
+   /**
+    * Minimizes the behavior of each coordination delegate of the given extraction result.
+    *
+    * @return a new map, in the iteration order of the given one, with the minimized behaviors.
+    */
+   public static Map<Pair<Participant, Participant>, AbstractParticipantBehavior> minimize(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      Validate.notNull(result, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> minimizedResult
+            = new LinkedHashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+      result.forEach(
+            (cd, abstractParticipantBehavior) -> minimizedResult.put(cd, minimize(abstractParticipantBehavior)));
+      return minimizedResult;
+   }
+
+   /**
+    * Minimizes the given behavior, which is not modified. The minimized behavior shares the states and the messages of
+    * the given one, and keeps all its messages.
+    */
+   public static AbstractParticipantBehavior minimize(final AbstractParticipantBehavior abstractParticipantBehavior) {
+      Validate.notNull(abstractParticipantBehavior,
+            ValidationMessages.IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE);
+
+      // intern the states, the ones of the behavior first, and the labels of the transitions
+      Map<State, Integer> stateToIdMap = new HashMap<State, Integer>();
+      List<State> stateList = new ArrayList<State>();
+      abstractParticipantBehavior.getStates().forEach(state -> intern(state, stateToIdMap, stateList));
+      int behaviorStateCount = stateList.size();
+      Map<Pair<Class<?>, Message>, Integer> labelToIdMap = new HashMap<Pair<Class<?>, Message>, Integer>();
+      List<Transition> transitionList = new ArrayList<Transition>(abstractParticipantBehavior.getTransitions());
+      int[] transitionSourceStates = new int[transitionList.size()];
+      int[] transitionTargetStates = new int[transitionList.size()];
+      int[] transitionLabels = new int[transitionList.size()];
+      for (int transition = 0; transition < transitionList.size(); transition++) {
+         transitionSourceStates[transition]
+               = intern(transitionList.get(transition).getSourceState(), stateToIdMap, stateList);
+         transitionTargetStates[transition]
+               = intern(transitionList.get(transition).getTargetState(), stateToIdMap, stateList);
+         transitionLabels[transition] = internLabel(transitionList.get(transition), labelToIdMap);
+      }
+      int stateCount = stateList.size();
+      Integer initialState = stateToIdMap.get(abstractParticipantBehavior.getInitialState());
+
+      // store the outgoing transitions of each state in compressed sparse row form
+      int[] outgoingOffsets = new int[stateCount + 1];
+      for (int transition = 0; transition < transitionSourceStates.length; transition++) {
+         outgoingOffsets[transitionSourceStates[transition] + 1]++;
+      }
+      for (int state = 0; state < stateCount; state++) {
+         outgoingOffsets[state + 1] += outgoingOffsets[state];
+      }
+      int[] outgoingTransitions = new int[transitionSourceStates.length];
+      int[] nextOutgoingTransitions = Arrays.copyOf(outgoingOffsets, stateCount);
+      for (int transition = 0; transition < transitionSourceStates.length; transition++) {
+         outgoingTransitions[nextOutgoingTransitions[transitionSourceStates[transition]]++] = transition;
+      }
+
+      boolean[] reachable = findReachableStates(stateCount, initialState, transitionTargetStates, outgoingOffsets,
+            outgoingTransitions);
+
+      int[] blocks = refine(stateCount, reachable, transitionTargetStates, transitionLabels, outgoingOffsets,
+            outgoingTransitions);
+
+      // represent each block by the initial state, if it contains it, or by its first state
+      int[] representatives = new int[stateCount];
+      Arrays.fill(representatives, -1);
+      if (initialState != null) {
+         representatives[blocks[initialState]] = initialState;
+      }
+      for (int state = 0; state < stateCount; state++) {
+         if (reachable[state] && representatives[blocks[state]] < 0) {
+            representatives[blocks[state]] = state;
+         }
+      }
+
+      AbstractParticipantBehavior minimizedAbstractParticipantBehavior = new AbstractParticipantBehavior();
+      minimizedAbstractParticipantBehavior.setInitialState(abstractParticipantBehavior.getInitialState());
+      for (int state = 0; state < behaviorStateCount; state++) {
+         if (reachable[state] && representatives[blocks[state]] == state) {
+            minimizedAbstractParticipantBehavior.getStates().add(stateList.get(state));
+         }
+      }
+      minimizedAbstractParticipantBehavior.getMessages().addAll(abstractParticipantBehavior.getMessages());
+      for (int transition = 0; transition < transitionList.size(); transition++) {
+         int sourceState = transitionSourceStates[transition];
+         if (!reachable[sourceState]) {
+            continue;
+         }
+         int sourceBlock = blocks[sourceState];
+         int targetBlock = blocks[transitionTargetStates[transition]];
+         if (sourceBlock == targetBlock && transitionLabels[transition] == INTERNAL_LABEL) {
+            continue;
+         }
+         minimizedAbstractParticipantBehavior.getTransitions().add(createTransition(transitionList.get(transition),
+               stateList.get(representatives[sourceBlock]), stateList.get(representatives[targetBlock])));
+      }
+      return minimizedAbstractParticipantBehavior;
+   }
+
+   private static boolean[] findReachableStates(final int stateCount, final Integer initialState,
+         final int[] transitionTargetStates, final int[] outgoingOffsets, final int[] outgoingTransitions) {
+      boolean[] reachable = new boolean[stateCount];
+      if (initialState == null) {
+         // without an initial state nothing can be pruned
+         Arrays.fill(reachable, true);
+         return reachable;
+      }
+      Deque<Integer> statesToVisit = new ArrayDeque<Integer>();
+      reachable[initialState] = true;
+      statesToVisit.push(initialState);
+      while (!statesToVisit.isEmpty()) {
+         int state = statesToVisit.pop();
+         for (int index = outgoingOffsets[state]; index < outgoingOffsets[state + 1]; index++) {
+            int targetState = transitionTargetStates[outgoingTransitions[index]];
+            if (!reachable[targetState]) {
+               reachable[targetState] = true;
+               statesToVisit.push(targetState);
+            }
+         }
+      }
+      return reachable;
+   }
+
+   /**
+    * Refines the partition of the reachable states, which starts with a single block, until no block contains states
+    * with different signatures.
+    *
+    * @return the block of each state, numbered from 0.
+    */
+   private static int[] refine(final int stateCount, final boolean[] reachable, final int[] transitionTargetStates,
+         final int[] transitionLabels, final int[] outgoingOffsets, final int[] outgoingTransitions) {
+      int[] blocks = new int[stateCount];
+      int blockCount = -1;
+      while (true) {
+         long[][] signatures = computeSignatures(stateCount, reachable, blocks, transitionTargetStates,
+               transitionLabels, outgoingOffsets, outgoingTransitions);
+         Map<Signature, Integer> signatureToBlockMap = new HashMap<Signature, Integer>();
+         int[] refinedBlocks = new int[stateCount];
+         for (int state = 0; state < stateCount; state++) {
+            if (!reachable[state]) {
+               continue;
+            }
+            // the key starts with the current block, thus the blocks are only ever split
+            Signature signature = new Signature(blocks[state], signatures[state]);
+            Integer block = signatureToBlockMap.get(signature);
+            if (block == null) {
+               block = signatureToBlockMap.size();
+               signatureToBlockMap.put(signature, block);
+            }
+            refinedBlocks[state] = block;
+         }
+         blocks = refinedBlocks;
+         if (signatureToBlockMap.size() == blockCount) {
+            return blocks;
+         }
+         blockCount = signatureToBlockMap.size();
+      }
+   }
+
+   /**
+    * Computes the signature of each reachable state with respect to the given partition, i.e. the label and the
+    * target block of each transition that the state can take after any number of inert internal actions, which are
+    * the internal actions within a block. The inert internal actions themselves are not part of the signature.
+    * <p>
+    * The strongly connected components of the inert internal actions share their signature, and are visited by
+    * Tarjan's algorithm, which completes each component after all the components it reaches.
+    * </p>
+    *
+    * @return the sorted distinct elements of the signature of each reachable state.
+    */
+   private static long[][] computeSignatures(final int stateCount, final boolean[] reachable, final int[] blocks,
+         final int[] transitionTargetStates, final int[] transitionLabels, final int[] outgoingOffsets,
+         final int[] outgoingTransitions) {
+      long[][] signatures = new long[stateCount][];
+      int[] indexes = new int[stateCount];
+      Arrays.fill(indexes, -1);
+      int[] lowLinks = new int[stateCount];
+      int[] components = new int[stateCount];
+      Arrays.fill(components, -1);
+      int[] cursors = new int[stateCount];
+      int[] componentStack = new int[stateCount];
+      int[] callStack = new int[stateCount];
+      int index = 0;
+      int componentCount = 0;
+      SignatureBuffer signatureBuffer = new SignatureBuffer();
+
+      for (int rootState = 0; rootState < stateCount; rootState++) {
+         if (!reachable[rootState] || indexes[rootState] >= 0) {
+            continue;
+         }
+         int componentStackSize = 0;
+         int callStackSize = 0;
+         indexes[rootState] = index;
+         lowLinks[rootState] = index++;
+         cursors[rootState] = outgoingOffsets[rootState];
+         componentStack[componentStackSize++] = rootState;
+         callStack[callStackSize++] = rootState;
+         while (callStackSize > 0) {
+            int state = callStack[callStackSize - 1];
+            if (cursors[state] < outgoingOffsets[state + 1]) {
+               int transition = outgoingTransitions[cursors[state]++];
+               int targetState = transitionTargetStates[transition];
+               if (transitionLabels[transition] != INTERNAL_LABEL || blocks[targetState] != blocks[state]) {
+                  continue;
+               }
+               if (indexes[targetState] < 0) {
+                  indexes[targetState] = index;
+                  lowLinks[targetState] = index++;
+                  cursors[targetState] = outgoingOffsets[targetState];
+                  componentStack[componentStackSize++] = targetState;
+                  callStack[callStackSize++] = targetState;
+               } else if (components[targetState] < 0) {
+                  lowLinks[state] = Math.min(lowLinks[state], indexes[targetState]);
+               }
+               continue;
+            }
+            callStackSize--;
+            if (callStackSize > 0) {
+               int parentState = callStack[callStackSize - 1];
+               lowLinks[parentState] = Math.min(lowLinks[parentState], lowLinks[state]);
+            }
+            if (lowLinks[state] != indexes[state]) {
+               continue;
+            }
+
+            // the component is complete, as well as all the components it reaches through inert internal actions
+            int component = componentCount++;
+            int componentStart = componentStackSize;
+            do {
+               components[componentStack[--componentStart]] = component;
+            } while (componentStack[componentStart] != state);
+            signatureBuffer.clear();
+            for (int member = componentStart; member < componentStackSize; member++) {
+               int memberState = componentStack[member];
+               for (int cursor = outgoingOffsets[memberState]; cursor < outgoingOffsets[memberState + 1]; cursor++) {
+                  int transition = outgoingTransitions[cursor];
+                  int targetState = transitionTargetStates[transition];
+                  if (transitionLabels[transition] != INTERNAL_LABEL || blocks[targetState] != blocks[memberState]) {
+                     signatureBuffer.add((long) transitionLabels[transition] << 32 | blocks[targetState]);
+                  } else if (components[targetState] != component) {
+                     signatureBuffer.addAll(signatures[targetState]);
+                  }
+               }
+            }
+            long[] signature = signatureBuffer.toSortedDistinctArray();
+            for (int member = componentStart; member < componentStackSize; member++) {
+               signatures[componentStack[member]] = signature;
+            }
+            componentStackSize = componentStart;
+         }
+      }
+      return signatures;
+   }
+
+   private static Transition createTransition(final Transition transition, final State sourceState,
+         final State targetState) {
+      if (transition instanceof SendActionTransition) {
+         return new SendActionTransition(sourceState, targetState, ((SendActionTransition) transition).getMessage());
+      }
+      if (transition instanceof ReceiveActionTransition) {
+         return new ReceiveActionTransition(sourceState, targetState,
+               ((ReceiveActionTransition) transition).getMessage());
+      }
+      return new InternalActionTransition(sourceState, targetState);
+   }
+
+   private static int internLabel(final Transition transition,
+         final Map<Pair<Class<?>, Message>, Integer> labelToIdMap) {
+      Message message;
+      if (transition instanceof SendActionTransition) {
+         message = ((SendActionTransition) transition).getMessage();
+      } else if (transition instanceof ReceiveActionTransition) {
+         message = ((ReceiveActionTransition) transition).getMessage();
+      } else {
+         return INTERNAL_LABEL;
+      }
+      Pair<Class<?>, Message> label = new ImmutablePair<Class<?>, Message>(transition.getClass(), message);
+      Integer id = labelToIdMap.get(label);
+      if (id == null) {
+         id = labelToIdMap.size();
+         labelToIdMap.put(label, id);
+      }
+      return id;
+   }
+
+   private static int intern(final State state, final Map<State, Integer> stateToIdMap, final List<State> stateList) {
+      Integer id = stateToIdMap.get(state);
+      if (id == null) {
+         id = stateList.size();
+         stateToIdMap.put(state, id);
+         stateList.add(state);
+      }
+      return id;
+   }
+
+   private static class Signature {
+      private final int block;
+      private final long[] elements;
+      private final int hashCode;
+
+      Signature(final int block, final long[] elements) {
+         this.block = block;
+         this.elements = elements;
+         this.hashCode = 31 * block + Arrays.hashCode(elements);
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+
+      @Override
+      public boolean equals(final Object object) {
+         if (!(object instanceof Signature)) {
+            return false;
+         }
+         Signature signature = (Signature) object;
+         return block == signature.block && Arrays.equals(elements, signature.elements);
+      }
+
+   }
+
+   private static class SignatureBuffer {
+      private long[] elements = new long[16];
+      private int size;
+
+      void clear() {
+         size = 0;
+      }
+
+      void add(final long element) {
+         if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+         }
+         elements[size++] = element;
+      }
+
+      void addAll(final long[] otherElements) {
+         if (size + otherElements.length > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(size * 2, size + otherElements.length));
+         }
+         System.arraycopy(otherElements, 0, elements, size, otherElements.length);
+         size += otherElements.length;
+      }
+
+      long[] toSortedDistinctArray() {
+         Arrays.sort(elements, 0, size);
+         int distinctSize = 0;
+         for (int index = 0; index < size; index++) {
+            if (distinctSize == 0 || elements[index] != elements[distinctSize - 1]) {
+               elements[distinctSize++] = elements[index];
+            }
+         }
+         return Arrays.copyOf(elements, distinctSize);
+      }
+
+   }
+
+   // -----------------------------------------------------------------------
+
+   /**
+    * <p>
+    * {@code CoordinationDelegateMinimizationUtils} instances should NOT be constructed in standard programming.
+    * Instead, the class should be used statically.
+    * </p>
+    *
+    * <p>
+    * This constructor is public to permit tools that require a JavaBean instance to operate.
+    * </p>
+    */
+   public CoordinationDelegateMinimizationUtils() {
+      super();
+   }
+
+}
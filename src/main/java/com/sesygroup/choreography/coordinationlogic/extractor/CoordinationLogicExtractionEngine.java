@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * Thread safe engine that extracts the coordination delegates of a choreography specification, which can be shared by
+ * many threads.
+ * <p>
+ * The engine analyzes the choreography specification once: it indexes the states, the branching states, the
+ * coordination delegates and the transitions that leave and reach each state, and classifies each transition. The
+ * analysis is never modified, thus each extraction runs in a {@link CoordinationLogicExtractor} of its own that reads
+ * the shared analysis and only builds the coordination delegates it returns. The coordination delegates of all the
+ * extractions share their messages, as the ones of a {@link BatchCoordinationLogicExtractor} do.
+ * </p>
+ * <p>
+ * The choreography specification must not be modified while the engine is in use.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationLogicExtractionEngine {
+   private final ChoreographySpecificationIndex choreographySpecificationIndex;
+   private final List<TransitionClassification> classifications;
+   private final MessageTable messageTable;
+
+   public CoordinationLogicExtractionEngine(final ChoreographySpecification choreographySpecification) {
+      Validate.notNull(choreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      this.choreographySpecificationIndex = new ChoreographySpecificationIndex(choreographySpecification);
+      List<TransitionClassification> classificationList = new ArrayList<TransitionClassification>();
+      for (Transition transition : choreographySpecificationIndex.getTransitions()) {
+         if (transition instanceof SendingMessageActionTransition) {
+            classificationList.add(new TransitionClassification((SendingMessageActionTransition) transition,
+                  choreographySpecificationIndex));
+         }
+      }
+      this.classifications = Collections.unmodifiableList(classificationList);
+      this.messageTable = new MessageTable();
+   }
+
+   public ChoreographySpecification getChoreographySpecification() {
+      return choreographySpecificationIndex.getChoreographySpecification();
+   }
+
+   public ChoreographySpecificationIndex getChoreographySpecificationIndex() {
+      return choreographySpecificationIndex;
+   }
+
+   /**
+    * Creates an extractor for a single caller, which shares the analysis of the engine. The extractor can be
+    * configured, for instance with a listener, and reused by its caller, but must not be shared by other threads.
+    */
+   public CoordinationLogicExtractor newExtractor() {
+      return new CoordinationLogicExtractor(choreographySpecificationIndex, classifications, messageTable);
+   }
+
+   /**
+    * @see CoordinationLogicExtractor#generate()
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate() {
+      return newExtractor().generate();
+   }
+
+   /**
+    * @see CoordinationLogicExtractor#generate(Executor)
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate(final Executor executor) {
+      return newExtractor().generate(executor);
+   }
+
+   /**
+    * @see CoordinationLogicExtractor#generate(ExtractionBudget)
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate(final ExtractionBudget budget) {
+      return newExtractor().generate(budget);
+   }
+
+   /**
+    * @see CoordinationLogicExtractor#generateEach(BiConsumer)
+    */
+   public void generateEach(final BiConsumer<Pair<Participant, Participant>, AbstractParticipantBehavior> consumer) {
+      newExtractor().generateEach(consumer);
+   }
+
+}
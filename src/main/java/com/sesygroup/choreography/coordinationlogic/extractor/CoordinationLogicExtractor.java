@@ -18,14 +18,21 @@ package com.sesygroup.choreography.coordinationlogic.extractor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
-import org.apache.commons.collections4.IterableUtils;
 import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.functors.EqualPredicate;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -35,515 +42,868 @@ import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
 import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
 import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
 import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
-import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
-import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
 import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
 import com.sesygroup.choreography.choreographyspecification.model.Participant;
 import com.sesygroup.choreography.choreographyspecification.model.Transition;
 import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
 
 /**
+ * Extractor of the coordination delegates of a choreography specification.
+ * <p>
+ * An extractor keeps the state of its last extraction, thus it must not run extractions concurrently. The
+ * {@link CoordinationLogicExtractionEngine} runs concurrent extractions of the same choreography specification.
+ * </p>
  *
  * @author Alexander Perucci (http://www.alexanderperucci.com/)
  *
  */
 public class CoordinationLogicExtractor {
-   private static final String BRANCH_STATE_SUFFIX = "_branch";
-   private static final String MID_STATE_SUFFIX = "_mid";
-   private static final String SYNCH_STATE_SUFFIX = "_synch";
-   private static final String SYNCH_MESSAGE_PREFIX = "Synch_";
-   private static final String SYNCH_MESSAGE_TO = "->";
+   static final String BRANCH_STATE_SUFFIX = "_branch";
+   static final String MID_STATE_SUFFIX = "_mid";
+   static final String SYNCH_STATE_SUFFIX = "_synch";
+   static final String SYNCH_MESSAGE_PREFIX = "Synch_";
+   static final String SYNCH_MESSAGE_TO = "->";
+   private static final int SHARDS_PER_THREAD = 4;
+   private static final int MIN_SHARD_SIZE = 64;
+   // the phases of the state and transition rules, in the order of the rules
+   private static final List<ExtractionPhase> STATE_RULE_PHASES = Arrays.asList(ExtractionPhase.CREATE_MID_STATE,
+         ExtractionPhase.CREATE_SYNCH_STATE, ExtractionPhase.CREATE_BRANCHING_STATE);
+   private static final List<ExtractionPhase> TRANSITION_RULE_PHASES = Arrays.asList(
+         ExtractionPhase.CREATE_SYNCH_TRANSITIONS_FOR_INDIPENDENT_SEQUENCE,
+         ExtractionPhase.CREATE_SYNCH_TRANSITIONS_THAT_REACH_BRANCHING_STATE,
+         ExtractionPhase.CREATE_SYNCH_TRANSITIONS_FOR_BRANCHING_STATE_TO_ITS_STATE,
+         ExtractionPhase.CREATE_SYNCH_TRANSITIONS_FOR_BRANCHING_STATE_TO_OTHER_STATE,
+         ExtractionPhase.CREATE_MESSAGE_TRANSITIONS);
+   private static final List<ExtractionPhase> INITIALIZATION_PHASES
+         = Collections.singletonList(ExtractionPhase.INITIALIZATION);
 
    private ChoreographySpecification choreographySpecification;
+   private ChoreographySpecificationIndex choreographySpecificationIndex;
    private Map<Pair<Participant, Participant>, AbstractParticipantBehavior> cdNameToAbstractParticipantBehaviorMap;
+   private Map<Pair<Participant, Participant>, StateRegistry> cdNameToStateRegistryMap;
+   // the states the rules look up, which are the ones of the CDs unless the CDs are generated one at a time
+   private Map<Pair<Participant, Participant>, StateLookup> cdNameToStateLookupMap;
+   // the messages of the CDs, shared by all the CDs of an extraction
+   private MessageTable messageTable;
+   // the message table shared with other extractions, if any
+   private final MessageTable sharedMessageTable;
+   // the index and the classified transitions shared with other extractions of the same specification, if any
+   private final ChoreographySpecificationIndex sharedChoreographySpecificationIndex;
+   private final List<TransitionClassification> sharedClassifications;
+   private ExtractionListener extractionListener;
+   private ExtractionProgressListener progressListener;
+   private boolean compactBranchSynchronization;
+   // the branch synch groups by branch state name, filled instead of the synch transitions in the compact form
+   private Map<String, BranchSynchGroup> branchSynchGroups;
+   private boolean implicitInternalTransitions;
+   private ImplicitInternalTransitions sharedInternalTransitions;
+
+   // rules that add all necessary state to the CDs
+   private final List<ExtractionRule> stateRules
+         = Arrays.<ExtractionRule>asList(this::createMidState, this::createSynchState, this::createBranchingState);
+   // rules that add all necessary synch transition to the CDs, they require all the states to be created
+   private final List<ExtractionRule> synchTransitionRules = Arrays.<ExtractionRule>asList(
+         this::createSynchTransitionsForIndipendentSequence, this::createSynchTransitionsThatReachBranchingState,
+         this::createSynchTransitionsForBranchingStateToItsState,
+         this::createSynchTransitionsForBranchingStateToOtherSate);
+   // rules that add all necessary transition to the CDs, they require all the states to be created
+   private final List<ExtractionRule> transitionRules = ListUtils.union(synchTransitionRules,
+         Arrays.<ExtractionRule>asList(this::createMessageTransitions));
 
    public CoordinationLogicExtractor(final ChoreographySpecification choreographySpecification) {
+      this(choreographySpecification, null);
+   }
+
+   /**
+    * Creates an extractor whose coordination delegates share the messages of the given table, or of a table of their
+    * own if {@code null}.
+    */
+   CoordinationLogicExtractor(final ChoreographySpecification choreographySpecification,
+         final MessageTable sharedMessageTable) {
       this.choreographySpecification = choreographySpecification;
+      this.sharedMessageTable = sharedMessageTable;
+      this.sharedChoreographySpecificationIndex = null;
+      this.sharedClassifications = null;
+   }
+
+   /**
+    * Creates an extractor that reuses the given index and classified transitions of the choreography specification,
+    * which must not be modified, instead of computing them at each extraction.
+    */
+   CoordinationLogicExtractor(final ChoreographySpecificationIndex sharedChoreographySpecificationIndex,
+         final List<TransitionClassification> sharedClassifications, final MessageTable sharedMessageTable) {
+      this.choreographySpecification = sharedChoreographySpecificationIndex.getChoreographySpecification();
+      this.sharedMessageTable = sharedMessageTable;
+      this.sharedChoreographySpecificationIndex = sharedChoreographySpecificationIndex;
+      this.sharedClassifications = sharedClassifications;
    }
 
    public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate() {
+      return extract(null, null);
+   }
+
+   /**
+    * Generates the coordination delegates as {@link #generate()} does, within the given budget.
+    * <p>
+    * The extractor checks the budget between its phases and every few hundred transitions, thus it stops soon after
+    * the budget is exceeded, leaving the coordination delegates incomplete.
+    * </p>
+    *
+    * @throws ExtractionAbortedException
+    *            if the budget is exceeded, which describes the phases that were running.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate(final ExtractionBudget budget) {
+      Validate.notNull(budget, ValidationMessages.IS_NULL_EXTRACTION_BUDGET_EXCEPTION_MESSAGE);
+      return extract(null, budget);
+   }
+
+   /**
+    * Generates the coordination delegates as {@link #generate(Executor)} does, within the given budget, see
+    * {@link #generate(ExtractionBudget)}. The shards of a scan stop once they find the budget exceeded.
+    *
+    * @throws ExtractionAbortedException
+    *            if the budget is exceeded, which describes the phases that were running.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate(final Executor executor,
+         final ExtractionBudget budget) {
+      Validate.notNull(executor, ValidationMessages.IS_NULL_EXECUTOR_EXCEPTION_MESSAGE);
+      Validate.notNull(budget, ValidationMessages.IS_NULL_EXTRACTION_BUDGET_EXCEPTION_MESSAGE);
+      return extract(executor, budget);
+   }
+
+   public ExtractionListener getExtractionListener() {
+      return extractionListener;
+   }
+
+   /**
+    * Sets the listener of the phases of {@link #generate()} and {@link #generate(Executor)}, or removes it if
+    * {@code null}. The extractor measures the phases only while a listener is set, and then applies each rule to
+    * blocks of transitions at a time, thus the transitions of a coordination delegate can be added in another order.
+    */
+   public void setExtractionListener(final ExtractionListener extractionListener) {
+      this.extractionListener = extractionListener;
+   }
+
+   public ExtractionProgressListener getProgressListener() {
+      return progressListener;
+   }
+
+   /**
+    * Sets the listener of the progress of the phases of {@link #generate()} and of its variants, or removes it if
+    * {@code null}.
+    */
+   public void setProgressListener(final ExtractionProgressListener progressListener) {
+      this.progressListener = progressListener;
+   }
+
+   public boolean isCompactBranchSynchronization() {
+      return compactBranchSynchronization;
+   }
+
+   /**
+    * Sets whether the extraction leaves out the synch receive transitions from each branch state to the target states
+    * of the other alternatives, which are {@code k * (k - 1)} for a branching state with {@code k} outgoing
+    * transitions, and records a {@link BranchSynchGroup} of {@code k} alternatives instead. The groups are returned by
+    * {@link #getBranchSynchGroups()} and expanded by {@link BranchSynchGroupUtils#expand(Map, Collection)}. The
+    * coordination delegates are not complete without their groups, thus {@link #generateCompact()}, which returns
+    * them together, is to be preferred.
+    */
+   public void setCompactBranchSynchronization(final boolean compactBranchSynchronization) {
+      this.compactBranchSynchronization = compactBranchSynchronization;
+   }
+
+   /**
+    * @return the branch synch groups recorded by the last extraction, which are none unless the branch
+    *         synchronization is compact.
+    */
+   public Collection<BranchSynchGroup> getBranchSynchGroups() {
+      Validate.validState(branchSynchGroups != null, ValidationMessages.IS_NOT_GENERATED_EXCEPTION_MESSAGE);
+      return Collections.unmodifiableCollection(branchSynchGroups.values());
+   }
+
+   /**
+    * Generates the coordination delegates as {@link #generate()} does, with compact branch synchronization whatever
+    * {@link #isCompactBranchSynchronization()}, and returns them together with their branch synch groups.
+    */
+   public CompactExtractionResult generateCompact() {
+      boolean previousCompactBranchSynchronization = compactBranchSynchronization;
+      compactBranchSynchronization = true;
+      try {
+         Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result = extract(null, null);
+         return new CompactExtractionResult(result, new ArrayList<BranchSynchGroup>(branchSynchGroups.values()));
+      } finally {
+         compactBranchSynchronization = previousCompactBranchSynchronization;
+      }
+   }
+
+   public boolean isImplicitInternalTransitions() {
+      return implicitInternalTransitions;
+   }
+
+   /**
+    * Sets whether the extraction leaves out the internal transitions that each coordination delegate takes while the
+    * other coordination delegates exchange their messages, which are about {@code T * D} for a choreography
+    * specification with {@code T} transitions and {@code D} coordination delegates. They are kept implicit in the
+    * structure returned by {@link #getImplicitInternalTransitions()}, which creates them only when iterated.
+    */
+   public void setImplicitInternalTransitions(final boolean implicitInternalTransitions) {
+      this.implicitInternalTransitions = implicitInternalTransitions;
+   }
+
+   /**
+    * @return the internal transitions of the last extraction, which are also in the coordination delegates unless
+    *         they are implicit.
+    */
+   public ImplicitInternalTransitions getImplicitInternalTransitions() {
+      Validate.validState(sharedInternalTransitions != null, ValidationMessages.IS_NOT_GENERATED_EXCEPTION_MESSAGE);
+      return sharedInternalTransitions;
+   }
+
+   /**
+    * Generates the coordination delegates as {@link #generate()} does, but runs each scan of the transitions
+    * concurrently on the given executor.
+    * <p>
+    * The transitions visited by a scan are split in shards, and each shard buffers the states and the transitions it
+    * creates. Once all the shards of a scan are done, the buffers are flushed in shard order, concurrently for each
+    * coordination delegate, so that the result is identical to the one of the sequential extraction.
+    * </p>
+    *
+    * @param executor
+    *           the executor that runs the shards, for instance a {@link ForkJoinPool}.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate(final Executor executor) {
+      Validate.notNull(executor, ValidationMessages.IS_NULL_EXECUTOR_EXCEPTION_MESSAGE);
+      return extract(executor, null);
+   }
+
+   /**
+    * Generates the coordination delegates as {@link #generate()} does, but hands each of them to the given consumer
+    * as soon as it is complete, instead of returning all of them at once.
+    * <p>
+    * A coordination delegate has an internal transition for each transition of the other coordination delegates, thus
+    * it is complete only once all the transitions have been visited. Therefore, the extractor first finds the states
+    * that each coordination delegate adds to the states of the choreography specification, and then builds the
+    * coordination delegates one at a time, in the order of
+    * {@link ChoreographySpecificationIndex#getCoordinationDelegates()}. The extractor does not keep any reference to a
+    * coordination delegate handed to the consumer, thus only one coordination delegate at a time needs to be in
+    * memory.
+    * </p>
+    * <p>
+    * Building a coordination delegate visits all the transitions, for its internal transitions. With
+    * {@link #setImplicitInternalTransitions(boolean) implicit internal transitions}, it only visits its own
+    * transitions and the transitions that reach their source states.
+    * </p>
+    *
+    * @param consumer
+    *           the consumer of each coordination delegate and its abstract participant behavior.
+    */
+   public void generateEach(final BiConsumer<Pair<Participant, Participant>, AbstractParticipantBehavior> consumer) {
+      Validate.notNull(consumer, ValidationMessages.IS_NULL_CONSUMER_EXCEPTION_MESSAGE);
       cdNameToAbstractParticipantBehaviorMap
             = new HashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+      cdNameToStateRegistryMap = new HashMap<Pair<Participant, Participant>, StateRegistry>();
+      cdNameToStateLookupMap = new HashMap<Pair<Participant, Participant>, StateLookup>();
+      messageTable = sharedMessageTable == null ? new MessageTable() : sharedMessageTable;
+      branchSynchGroups = new ConcurrentHashMap<String, BranchSynchGroup>();
+      choreographySpecificationIndex = createChoreographySpecificationIndex();
+
+      // the base states are shared by all the CDs, each CD only keeps the names of the states it adds
+      Map<String, State> nameToBaseStateMap = createBaseStates();
+      Map<Pair<Participant, Participant>, Set<String>> cdNameToAddedStateNamesMap
+            = new HashMap<Pair<Participant, Participant>, Set<String>>();
+      choreographySpecificationIndex.getCoordinationDelegates().forEach(cd -> {
+         Set<String> addedStateNames = new LinkedHashSet<String>();
+         cdNameToAddedStateNamesMap.put(cd, addedStateNames);
+         cdNameToStateLookupMap.put(cd, new OverlayStateLookup(nameToBaseStateMap, addedStateNames));
+      });
+
+      List<TransitionClassification> classifications = classify();
+      sharedInternalTransitions = new ImplicitInternalTransitions(classifications);
+      ExtractionSink overlaySink = new OverlayExtractionSink(nameToBaseStateMap, cdNameToAddedStateNamesMap);
+      classifications.forEach(classification -> applyStateRules(classification, overlaySink));
+
+      // the synch transitions of a CD are created by its transitions and by the transitions whose target state is the
+      // source state of one of its transitions, its send and receive transitions by its transitions only
+      Map<Pair<Participant, Participant>, Set<TransitionClassification>> cdNameToClassificationsMap
+            = new HashMap<Pair<Participant, Participant>, Set<TransitionClassification>>();
+      Map<Pair<Participant, Participant>, List<TransitionClassification>> cdNameToOwnClassificationsMap
+            = new HashMap<Pair<Participant, Participant>, List<TransitionClassification>>();
+      classifications.forEach(classification -> {
+         cdNameToOwnClassificationsMap
+               .computeIfAbsent(classification.getCd(), key -> new ArrayList<TransitionClassification>())
+               .add(classification);
+         cdNameToClassificationsMap
+               .computeIfAbsent(classification.getCd(), key -> new LinkedHashSet<TransitionClassification>())
+               .add(classification);
+         classification.getTargetOutgoingCds().forEach(cd -> cdNameToClassificationsMap
+               .computeIfAbsent(cd, key -> new LinkedHashSet<TransitionClassification>()).add(classification));
+      });
+
+      Set<State> baseStates = new LinkedHashSet<State>(nameToBaseStateMap.values());
+      State initialState = getBaseInitialState(nameToBaseStateMap);
+      for (Pair<Participant, Participant> cd : choreographySpecificationIndex.getCoordinationDelegates()) {
+         AbstractParticipantBehavior abstractParticipantBehavior
+               = SharedStateSet.createAbstractParticipantBehavior(baseStates, initialState);
+         StateRegistry stateRegistry = new StateRegistry(abstractParticipantBehavior, nameToBaseStateMap);
+         cdNameToAddedStateNamesMap.get(cd).forEach(stateName -> stateRegistry.addState(stateName));
+
+         // the rules look up the states of this CD in its behavior, and add only the transitions of this CD
+         StateLookup overlayStateLookup = cdNameToStateLookupMap.put(cd, stateRegistry);
+         ExtractionSink sink = new CoordinationDelegateExtractionSink(cd, stateRegistry);
+         cdNameToClassificationsMap.getOrDefault(cd, Collections.<TransitionClassification>emptySet()).forEach(
+               classification -> synchTransitionRules.forEach(rule -> rule.apply(classification, sink)));
+         if (implicitInternalTransitions) {
+            cdNameToOwnClassificationsMap.getOrDefault(cd, Collections.<TransitionClassification>emptyList())
+                  .forEach(classification -> createSendAndReceiveTransitions(classification, sink));
+         } else {
+            // every transition of the other CDs is an internal transition of this CD, in the order of the transitions
+            classifications.forEach(classification -> {
+               if (classification.getCd().equals(cd)) {
+                  createSendAndReceiveTransitions(classification, sink);
+               } else {
+                  createInternalTransition(classification, cd, sink);
+               }
+            });
+         }
+         cdNameToStateLookupMap.put(cd, overlayStateLookup);
+
+         consumer.accept(cd, abstractParticipantBehavior);
+      }
+   }
+
+   private Map<Pair<Participant, Participant>, AbstractParticipantBehavior> extract(final Executor executor,
+         final ExtractionBudget budget) {
+      // the budget and the progress are checked only if needed
+      ExtractionMonitor monitor
+            = budget == null && progressListener == null ? null : new ExtractionMonitor(budget, progressListener);
+      if (extractionListener != null) {
+         return extractAndRecord(executor, extractionListener, monitor);
+      }
+      List<TransitionClassification> classifications = initialize(monitor);
+
+      scan(executor, classifications, stateRules, STATE_RULE_PHASES, null, monitor);
+      scan(executor, classifications, transitionRules, TRANSITION_RULE_PHASES, null, monitor);
+
+      return cdNameToAbstractParticipantBehaviorMap;
+
+   }
+
+   private Map<Pair<Participant, Participant>, AbstractParticipantBehavior> extractAndRecord(final Executor executor,
+         final ExtractionListener listener, final ExtractionMonitor monitor) {
+      ExtractionPhaseRecorder initializationRecorder = new ExtractionPhaseRecorder(ExtractionPhase.INITIALIZATION);
+      long startAllocatedBytes = ExtractionPhaseRecorder.getCurrentThreadAllocatedBytes();
+      long startNanos = System.nanoTime();
+      List<TransitionClassification> classifications = initialize(monitor);
+      initializationRecorder.record(startNanos, startAllocatedBytes, choreographySpecification.getTransitions().size());
+      listener.phaseCompleted(initializationRecorder.toMetrics());
+
+      cdNameToStateLookupMap.replaceAll((cd, stateLookup) -> ExtractionPhaseRecorder.record(stateLookup));
+      scanAndRecord(executor, classifications, stateRules, STATE_RULE_PHASES, listener, monitor);
+      scanAndRecord(executor, classifications, transitionRules, TRANSITION_RULE_PHASES, listener, monitor);
+      cdNameToStateLookupMap.putAll(cdNameToStateRegistryMap);
+
+      return cdNameToAbstractParticipantBehaviorMap;
+   }
+
+   private void scanAndRecord(final Executor executor, final List<TransitionClassification> classifications,
+         final List<ExtractionRule> rules, final List<ExtractionPhase> phases, final ExtractionListener listener,
+         final ExtractionMonitor monitor) {
+      List<ExtractionPhaseRecorder> recorders = new ArrayList<ExtractionPhaseRecorder>();
+      phases.forEach(phase -> recorders.add(new ExtractionPhaseRecorder(phase)));
+      scan(executor, classifications, rules, phases, recorders, monitor);
+      recorders.forEach(recorder -> listener.phaseCompleted(recorder.toMetrics()));
+   }
+
+   /**
+    * Indexes the choreography specification and creates the coordination delegates with their base states.
+    *
+    * @return the classification of each sending message transition of the choreography specification.
+    */
+   List<TransitionClassification> initialize() {
+      cdNameToAbstractParticipantBehaviorMap
+            = new HashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+      cdNameToStateRegistryMap = new HashMap<Pair<Participant, Participant>, StateRegistry>();
+      cdNameToStateLookupMap = new HashMap<Pair<Participant, Participant>, StateLookup>();
+      messageTable = sharedMessageTable == null ? new MessageTable() : sharedMessageTable;
+      branchSynchGroups = new ConcurrentHashMap<String, BranchSynchGroup>();
+      // index the choreography specification once, all the rules query it
+      choreographySpecificationIndex = createChoreographySpecificationIndex();
 
       // find all possible CD name
       Collection<Pair<Participant, Participant>> coordinationDelegateParticipantPairs
-            = CoordinationLogicExtractorUtils.findCoordinationDelegatesToBeCreated(choreographySpecification);
+            = CoordinationLogicExtractorUtils.findCoordinationDelegatesToBeCreated(choreographySpecificationIndex);
 
-      // create a AbstractParticipantBehavior for each CD and copy all ChoreographySpecification in the
-      // AbstractParticipantBehavior states
+      // create a AbstractParticipantBehavior for each CD, whose states are the ChoreographySpecification states shared
+      // by all the AbstractParticipantBehavior and the states added to the CD
+      Map<String, State> nameToBaseStateMap = createBaseStates();
+      Set<State> baseStates = new LinkedHashSet<State>(nameToBaseStateMap.values());
+      State initialState = getBaseInitialState(nameToBaseStateMap);
       coordinationDelegateParticipantPairs.forEach(pair -> {
-         AbstractParticipantBehavior abstractParticipantBehavior = new AbstractParticipantBehavior();
-         choreographySpecification.getStates()
-               .forEach(state -> abstractParticipantBehavior.getStates().add(new State(state.getName())));
-         abstractParticipantBehavior.setInitialState(new State(choreographySpecification.getInitialState().getName()));
+         AbstractParticipantBehavior abstractParticipantBehavior
+               = SharedStateSet.createAbstractParticipantBehavior(baseStates, initialState);
+         StateRegistry stateRegistry = new StateRegistry(abstractParticipantBehavior, nameToBaseStateMap);
          cdNameToAbstractParticipantBehaviorMap.put(pair, abstractParticipantBehavior);
+         cdNameToStateRegistryMap.put(pair, stateRegistry);
+         cdNameToStateLookupMap.put(pair, stateRegistry);
       });
 
-      // add all necessary state to the CDs
-      createMidState();
-      createSynchState();
-      createBranchingState();
+      List<TransitionClassification> classifications = classify();
+      sharedInternalTransitions = new ImplicitInternalTransitions(classifications);
+      return classifications;
+   }
 
-      // add all necessary transition to the CDs
-      // createSynchTransitionsForBranchingState();
-      createSynchTransitionsForIndipendentSequence();
-      createSynchTransitionsThatReachBranchingState();
-      createSynchTransitionsForBranchingStateToItsState();
-      createSynchTransitionsForBranchingStateToOtherSate();
-      createMessageTransitions();
+   private Map<String, State> createBaseStates() {
+      Map<String, State> nameToBaseStateMap = new LinkedHashMap<String, State>();
+      choreographySpecification.getStates()
+            .forEach(state -> nameToBaseStateMap.putIfAbsent(state.getName(), new State(state.getName())));
+      return nameToBaseStateMap;
+   }
 
-      return cdNameToAbstractParticipantBehaviorMap;
+   private State getBaseInitialState(final Map<String, State> nameToBaseStateMap) {
+      String initialStateName = choreographySpecification.getInitialState().getName();
+      return nameToBaseStateMap.getOrDefault(initialStateName, new State(initialStateName));
+   }
 
+   private List<TransitionClassification> initialize(final ExtractionMonitor monitor) {
+      if (monitor == null) {
+         return initialize();
+      }
+      int transitionCount = choreographySpecification.getTransitions().size();
+      ExtractionMonitor.ScanProgress progress = monitor.startScan(INITIALIZATION_PHASES, transitionCount);
+      List<TransitionClassification> classifications = initialize();
+      progress.visit(transitionCount);
+      return classifications;
    }
 
-   private void createMidState() {
-      // create mid state and synch state
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            Pair<Participant, Participant> cd = new ImmutablePair<Participant, Participant>(
-                  ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                  ((SendingMessageActionTransition) transition).getTargetParticipant());
+   private ChoreographySpecificationIndex createChoreographySpecificationIndex() {
+      return sharedChoreographySpecificationIndex == null
+            ? new ChoreographySpecificationIndex(choreographySpecification)
+            : sharedChoreographySpecificationIndex;
+   }
 
-            // get AbstractParticipantBehavior of the CD
-            AbstractParticipantBehavior concreteParticipantBehavior = cdNameToAbstractParticipantBehaviorMap.get(cd);
-            // check if the AbstractParticipantBehavior exists, should be always true
-            Validate.notNull(concreteParticipantBehavior, ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE,
-                  cd);
-            // create mid state in the AbstractParticipantBehavior
-            concreteParticipantBehavior.getStates()
-                  .add(new State(transition.getSourceState().getName() + MID_STATE_SUFFIX));
+   private List<TransitionClassification> classify() {
+      if (sharedClassifications != null) {
+         return sharedClassifications;
+      }
+      // classify each transition once, the classification is shared by all the rules
+      List<TransitionClassification> classifications = new ArrayList<TransitionClassification>();
+      choreographySpecificationIndex.getTransitions().forEach(transition -> {
+         if (transition instanceof SendingMessageActionTransition) {
+            classifications.add(classify((SendingMessageActionTransition) transition));
          }
       });
+      return classifications;
    }
 
-   private void createSynchState() {
-      // create synch state
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            Pair<Participant, Participant> cd = new ImmutablePair<Participant, Participant>(
-                  ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                  ((SendingMessageActionTransition) transition).getTargetParticipant());
+   /**
+    * Classifies the given transition against the current choreography specification index.
+    */
+   TransitionClassification classify(final SendingMessageActionTransition transition) {
+      TransitionClassification classification
+            = new TransitionClassification(transition, choreographySpecificationIndex);
+      // check if the AbstractParticipantBehavior of the CD exists, should be always true
+      getStateLookup(classification.getCd());
+      return classification;
+   }
 
-            // get AbstractParticipantBehavior of the CD
-            AbstractParticipantBehavior concreteParticipantBehavior = cdNameToAbstractParticipantBehaviorMap.get(cd);
-            // check if the AbstractParticipantBehavior exists, should be always true
-            Validate.notNull(concreteParticipantBehavior, ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE,
-                  cd);
-
-            // create synch state in the AbstractParticipantBehavior if the source participant of the outgoing is not
-            // equal to the source participant of the target transition
-            for (Transition outgoingTransition : CoordinationLogicExtractorUtils
-                  .findAllOutgoingTransition(choreographySpecification, transition.getTargetState())) {
-               State synchState = new State(transition.getTargetState().getName() + SYNCH_STATE_SUFFIX);
-               if (outgoingTransition instanceof SendingMessageActionTransition
-                     && !((SendingMessageActionTransition) outgoingTransition).getSourceParticipant()
-                           .equals(((SendingMessageActionTransition) transition).getSourceParticipant())) {
-
-                  if (!concreteParticipantBehavior.getStates().contains(synchState)) {
-                     concreteParticipantBehavior.getStates().add(synchState);
-                  }
-
-                  // add the synch state to the target CD
-                  Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
-                        ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
-                        ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
-                  AbstractParticipantBehavior outgoingAbstractParticipantBehavior
-                        = cdNameToAbstractParticipantBehaviorMap.get(outgoingCd);
-                  // check if the AbstractParticipantBehavior exists, should be always true
-                  Validate.notNull(outgoingAbstractParticipantBehavior,
-                        ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, outgoingCd);
-
-                  if (!outgoingAbstractParticipantBehavior.getStates().contains(synchState)) {
-                     outgoingAbstractParticipantBehavior.getStates().add(synchState);
-                  }
-               }
+   /**
+    * Applies the rules that add the states of the given transition to the sink.
+    */
+   void applyStateRules(final TransitionClassification classification, final ExtractionSink sink) {
+      stateRules.forEach(rule -> rule.apply(classification, sink));
+   }
+
+   /**
+    * Applies the rules that add the transitions of the given transition to the sink, all the states must exist.
+    */
+   void applyTransitionRules(final TransitionClassification classification, final ExtractionSink sink) {
+      transitionRules.forEach(rule -> rule.apply(classification, sink));
+   }
+
+   ChoreographySpecification getChoreographySpecification() {
+      return choreographySpecification;
+   }
+
+   /**
+    * Replaces the choreography specification, and its index, without touching the coordination delegates.
+    */
+   void setChoreographySpecification(final ChoreographySpecification choreographySpecification,
+         final ChoreographySpecificationIndex choreographySpecificationIndex) {
+      this.choreographySpecification = choreographySpecification;
+      this.choreographySpecificationIndex = choreographySpecificationIndex;
+   }
+
+   ChoreographySpecificationIndex getChoreographySpecificationIndex() {
+      return choreographySpecificationIndex;
+   }
+
+   Map<Pair<Participant, Participant>, AbstractParticipantBehavior> getCoordinationDelegates() {
+      return cdNameToAbstractParticipantBehaviorMap;
+   }
+
+   /**
+    * Applies the given rules to the given transitions, through the given recorder of each rule, if any.
+    */
+   private void scan(final Executor executor, final List<TransitionClassification> classifications,
+         final List<ExtractionRule> rules, final List<ExtractionPhase> phases,
+         final List<ExtractionPhaseRecorder> recorders, final ExtractionMonitor monitor) {
+      ExtractionMonitor.ScanProgress progress
+            = monitor == null ? null : monitor.startScan(phases, classifications.size());
+      if (executor == null) {
+         apply(classifications, rules, recorders, new StateRegistryExtractionSink(), progress);
+         return;
+      }
+
+      // the rules only read the specification index and the states created by the previous scans, thus the shards
+      // can run concurrently
+      int shardCount = getShardCount(executor);
+      List<BufferedExtractionSink> sinks = new ArrayList<BufferedExtractionSink>();
+      List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+      ListUtils.partition(classifications, getShardSize(classifications.size(), shardCount)).forEach(shard -> {
+         BufferedExtractionSink sink = new BufferedExtractionSink();
+         sinks.add(sink);
+         futures.add(CompletableFuture.runAsync(() -> apply(shard, rules, recorders, sink, progress), executor));
+      });
+      join(futures);
+
+      // flush the shards in order, each CD is flushed by a single task
+      List<Pair<Participant, Participant>> cds = choreographySpecificationIndex.getCoordinationDelegates();
+      futures.clear();
+      ListUtils.partition(cds, getShardSize(cds.size(), shardCount)).forEach(shard -> {
+         futures.add(CompletableFuture.runAsync(
+               () -> shard.forEach(cd -> sinks.forEach(sink -> sink.flush(cd, getStateRegistry(cd)))), executor));
+      });
+      join(futures);
+   }
 
+   /**
+    * Applies the given rules to the given transitions, and updates the given progress, if any, every
+    * {@link ExtractionMonitor#CHECK_INTERVAL} transitions.
+    * <p>
+    * With recorders, the rules are applied one at a time to blocks of {@link ExtractionMonitor#CHECK_INTERVAL}
+    * transitions, so that each recorder times whole blocks. Thus the transitions of a CD can be added in another order,
+    * while the CDs are equal.
+    * </p>
+    */
+   private static void apply(final List<TransitionClassification> classifications, final List<ExtractionRule> rules,
+         final List<ExtractionPhaseRecorder> recorders, final ExtractionSink sink,
+         final ExtractionMonitor.ScanProgress progress) {
+      if (recorders != null) {
+         for (List<TransitionClassification> block : ListUtils.partition(classifications,
+               ExtractionMonitor.CHECK_INTERVAL)) {
+            for (int index = 0; index < rules.size(); index++) {
+               recorders.get(index).apply(rules.get(index), block, sink);
             }
+            if (progress != null) {
+               progress.visit(block.size());
+            }
+         }
+         return;
+      }
+      if (progress == null) {
+         classifications.forEach(classification -> rules.forEach(rule -> rule.apply(classification, sink)));
+         return;
+      }
+      int unreportedCount = 0;
+      for (TransitionClassification classification : classifications) {
+         rules.forEach(rule -> rule.apply(classification, sink));
+         if (++unreportedCount == ExtractionMonitor.CHECK_INTERVAL) {
+            progress.visit(unreportedCount);
+            unreportedCount = 0;
+         }
+      }
+      progress.visit(unreportedCount);
+   }
+
+   private static int getShardCount(final Executor executor) {
+      int parallelism = executor instanceof ForkJoinPool
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+      return parallelism * SHARDS_PER_THREAD;
+   }
 
+   private static int getShardSize(final int itemCount, final int shardCount) {
+      return Math.max(MIN_SHARD_SIZE, (itemCount + shardCount - 1) / shardCount);
+   }
+
+   private static void join(final List<CompletableFuture<Void>> futures) {
+      try {
+         CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+      } catch (CompletionException e) {
+         // rethrow the failure of the scan as the sequential extraction would do
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
          }
-      });
+         if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+         }
+         throw e;
+      }
+   }
 
+   private void createMidState(final TransitionClassification classification, final ExtractionSink sink) {
+      // create mid state in the AbstractParticipantBehavior
+      sink.addState(classification.getCd(),
+            classification.getTransition().getSourceState().getName() + MID_STATE_SUFFIX);
    }
 
-   private void createBranchingState() {
-      // find branching states
-      List<com.sesygroup.choreography.choreographyspecification.model.State> branchingStates
-            = CoordinationLogicExtractorUtils.findBranchingStates(choreographySpecification);
-
-      // create branch state for each branching state
-      branchingStates.forEach(state -> {
-         List<Transition> outgoingTransitionsOfBranchingState
-               = CoordinationLogicExtractorUtils.findAllOutgoingTransition(choreographySpecification, state);
-         outgoingTransitionsOfBranchingState.forEach(transition -> {
-            if (transition instanceof SendingMessageActionTransition) {
-               Pair<Participant, Participant> cd = new ImmutablePair<Participant, Participant>(
-                     ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                     ((SendingMessageActionTransition) transition).getTargetParticipant());
-
-               // get AbstractParticipantBehavior of the CD
-               AbstractParticipantBehavior concreteParticipantBehavior = cdNameToAbstractParticipantBehaviorMap.get(cd);
-               // check if the AbstractParticipantBehavior exists, should be always true
-               Validate.notNull(concreteParticipantBehavior,
-                     ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, cd);
-               // create branch state in the AbstractParticipantBehavior
-               concreteParticipantBehavior.getStates().add(new State(state.getName() + BRANCH_STATE_SUFFIX));
-            }
-         });
-      });
+   private void createSynchState(final TransitionClassification classification, final ExtractionSink sink) {
+      SendingMessageActionTransition transition = classification.getTransition();
+
+      // create synch state in the AbstractParticipantBehavior if the source participant of the outgoing is not
+      // equal to the source participant of the target transition
+      String synchStateName = transition.getTargetState().getName() + SYNCH_STATE_SUFFIX;
+      for (Transition outgoingTransition : classification.getTargetOutgoingTransitions()) {
+         if (outgoingTransition instanceof SendingMessageActionTransition
+               && !((SendingMessageActionTransition) outgoingTransition).getSourceParticipant()
+                     .equals(transition.getSourceParticipant())) {
+
+            sink.addState(classification.getCd(), synchStateName);
+
+            // add the synch state to the target CD
+            Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
+                  ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
+                  ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
+            // check if the AbstractParticipantBehavior exists, should be always true
+            getStateLookup(outgoingCd);
+            sink.addState(outgoingCd, synchStateName);
+         }
+
+      }
+
    }
 
-   private void createSynchTransitionsForIndipendentSequence() {
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            Pair<Participant, Participant> incomingCd = new ImmutablePair<Participant, Participant>(
-                  ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                  ((SendingMessageActionTransition) transition).getTargetParticipant());
-            // check target is not a branching state we consider later this situation
-            if (!CoordinationLogicExtractorUtils.isBranchingState(choreographySpecification,
-                  transition.getTargetState())) {
-               // get AbstractParticipantBehavior of the CD
-               AbstractParticipantBehavior incomingAbstractParticipantBehavior
-                     = cdNameToAbstractParticipantBehaviorMap.get(incomingCd);
-               // check if the AbstractParticipantBehavior exists, should be always true
-               Validate.notNull(incomingAbstractParticipantBehavior,
-                     ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, incomingCd);
-
-               // create synch state in the AbstractParticipantBehavior if the source participant of the outgoing is not
-               // equal to the source participant of the target transition
-               for (Transition outgoingTransition : CoordinationLogicExtractorUtils
-                     .findAllOutgoingTransition(choreographySpecification, transition.getTargetState())) {
-
-                  State synchState = new State(transition.getTargetState().getName() + SYNCH_STATE_SUFFIX);
-
-                  if (outgoingTransition instanceof SendingMessageActionTransition
-                        && !((SendingMessageActionTransition) outgoingTransition).getSourceParticipant()
-                              .equals(((SendingMessageActionTransition) transition).getSourceParticipant())) {
-
-                     // add the synch state to the target CD
-                     Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
-                           ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
-                           ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
-                     AbstractParticipantBehavior outgoingAbstractParticipantBehavior
-                           = cdNameToAbstractParticipantBehaviorMap.get(outgoingCd);
-                     // check if the AbstractParticipantBehavior exists, should be always true
-                     Validate.notNull(outgoingAbstractParticipantBehavior,
-                           ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, outgoingCd);
-
-                     // here we have the synch state and the source and target CDs,
-                     if (incomingAbstractParticipantBehavior.getStates().contains(synchState)
-                           && outgoingAbstractParticipantBehavior.getStates().contains(synchState)) {
-
-                        // we need to create transition from the state to the synch
-                        SendActionTransition incomingSynchronousSendActionTransition = new SendActionTransition(
-                              IterableUtils.find(incomingAbstractParticipantBehavior.getStates(),
-                                    new EqualPredicate<State>(new State(transition.getTargetState().getName()))),
-                              IterableUtils.find(incomingAbstractParticipantBehavior.getStates(),
-                                    new EqualPredicate<State>(synchState)),
-                              new OutputMessage(SYNCH_MESSAGE_PREFIX + "{" + incomingCd.getLeft().getName() + ","
-                                    + incomingCd.getRight().getName() + "}" + SYNCH_MESSAGE_TO + "{"
-                                    + outgoingCd.getLeft().getName() + "," + outgoingCd.getRight().getName() + "}"));
-                        incomingAbstractParticipantBehavior.getTransitions()
-                              .add(incomingSynchronousSendActionTransition);
-
-                        // we need to create transition from the synch to the state
-                        ReceiveActionTransition outgoingSynchronousReceiveActionTransition
-                              = new ReceiveActionTransition(
-                                    IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                                          new EqualPredicate<State>(synchState)),
-                                    IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                                          new EqualPredicate<State>(new State(transition.getTargetState().getName()))),
-                                    new InputMessage(SYNCH_MESSAGE_PREFIX + "{" + incomingCd.getLeft().getName() + ","
-                                          + incomingCd.getRight().getName() + "}" + SYNCH_MESSAGE_TO + "{" + outgoingCd
-                                                .getLeft().getName()
-                                          + "," + outgoingCd.getRight().getName() + "}"));
-                        outgoingAbstractParticipantBehavior.getTransitions()
-                              .add(outgoingSynchronousReceiveActionTransition);
-                     } else {
-                        // TODO remove if and use Validate.x in order to throw exception.
-                     }
-                  }
+   private void createBranchingState(final TransitionClassification classification, final ExtractionSink sink) {
+      // create branch state in the AbstractParticipantBehavior of the CD of each transition leaving a branching state
+      if (classification.isSourceBranching()) {
+         sink.addState(classification.getCd(),
+               classification.getTransition().getSourceState().getName() + BRANCH_STATE_SUFFIX);
+      }
+   }
 
-               }
+   private void createSynchTransitionsForIndipendentSequence(final TransitionClassification classification,
+         final ExtractionSink sink) {
+      SendingMessageActionTransition transition = classification.getTransition();
+      Pair<Participant, Participant> incomingCd = classification.getCd();
+      // check target is not a branching state we consider later this situation
+      if (!classification.isTargetBranching()) {
+         // get the states of the AbstractParticipantBehavior of the CD
+         StateLookup incomingStateLookup = getStateLookup(incomingCd);
+
+         String synchStateName = transition.getTargetState().getName() + SYNCH_STATE_SUFFIX;
+
+         // create synch state in the AbstractParticipantBehavior if the source participant of the outgoing is not
+         // equal to the source participant of the target transition
+         for (Transition outgoingTransition : classification.getTargetOutgoingTransitions()) {
+
+            if (outgoingTransition instanceof SendingMessageActionTransition
+                  && !((SendingMessageActionTransition) outgoingTransition).getSourceParticipant()
+                        .equals(transition.getSourceParticipant())) {
+
+               // add the synch state to the target CD
+               Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
+                     ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
+                     ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
+               StateLookup outgoingStateLookup = getStateLookup(outgoingCd);
+
+               // here we have the synch state and the source and target CDs, the state rules create the synch state
+               // in both CDs
+               Validate.validState(
+                     incomingStateLookup.containsState(synchStateName)
+                           && outgoingStateLookup.containsState(synchStateName),
+                     ValidationMessages.IS_MISSING_SYNCH_STATE_EXCEPTION_MESSAGE, synchStateName, incomingCd,
+                     outgoingCd);
+
+               // we need to create transition from the state to the synch
+               SendActionTransition incomingSynchronousSendActionTransition = new SendActionTransition(
+                     incomingStateLookup.findState(transition.getTargetState().getName()),
+                     incomingStateLookup.findState(synchStateName),
+                     messageTable.getSynchOutputMessage(incomingCd, outgoingCd));
+               sink.addTransition(incomingCd, incomingSynchronousSendActionTransition);
+
+               // we need to create transition from the synch to the state
+               ReceiveActionTransition outgoingSynchronousReceiveActionTransition = new ReceiveActionTransition(
+                     outgoingStateLookup.findState(synchStateName),
+                     outgoingStateLookup.findState(transition.getTargetState().getName()),
+                     messageTable.getSynchInputMessage(incomingCd, outgoingCd));
+               sink.addTransition(outgoingCd, outgoingSynchronousReceiveActionTransition);
             }
+
          }
-      });
+      }
 
    }
 
-   private void createSynchTransitionsThatReachBranchingState() {
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            if (CoordinationLogicExtractorUtils.isBranchingState(choreographySpecification,
-                  transition.getTargetState())) {
-               Pair<Participant, Participant> incomingCd = new ImmutablePair<Participant, Participant>(
-                     ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                     ((SendingMessageActionTransition) transition).getTargetParticipant());
-               // get AbstractParticipantBehavior of the CD
-               AbstractParticipantBehavior incomingAbstractParticipantBehavior
-                     = cdNameToAbstractParticipantBehaviorMap.get(incomingCd);
-               // check if the AbstractParticipantBehavior exists, should be always true
-               Validate.notNull(incomingAbstractParticipantBehavior,
-                     ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, incomingCd);
-
-               // create synch state in the AbstractParticipantBehavior if the source participant of the outgoing is not
-               // equal to the source participant of the target transition
-
-               List<Transition> outgoingTransitions = CoordinationLogicExtractorUtils
-                     .findAllOutgoingTransition(choreographySpecification, transition.getTargetState());
-
-               // add sending transition to the incoming CD
-               State synchState = new State(transition.getTargetState().getName() + SYNCH_STATE_SUFFIX);
-               State branchState = new State(transition.getTargetState().getName() + BRANCH_STATE_SUFFIX);
-
-               StringBuilder nameOutputMessage = new StringBuilder();
-               nameOutputMessage.append(SYNCH_MESSAGE_PREFIX + "{" + incomingCd.getLeft().getName() + ","
-                     + incomingCd.getRight().getName() + "}" + SYNCH_MESSAGE_TO);
-               getTargetCDs(outgoingTransitions, transition).forEach(pair -> {
-                  nameOutputMessage.append("{" + pair.getLeft().getName() + "," + pair.getRight().getName() + "}");
-               });
+   private void createSynchTransitionsThatReachBranchingState(final TransitionClassification classification,
+         final ExtractionSink sink) {
+      if (classification.isTargetBranching()) {
+         SendingMessageActionTransition transition = classification.getTransition();
+         Pair<Participant, Participant> incomingCd = classification.getCd();
+         // get the states of the AbstractParticipantBehavior of the CD
+         StateLookup incomingStateLookup = getStateLookup(incomingCd);
 
-               // we need to create transition from the synch to the branch
-               SendActionTransition incomingSynchronousSendActionTransition = new SendActionTransition(
-                     IterableUtils.find(incomingAbstractParticipantBehavior.getStates(),
-                           new EqualPredicate<State>(synchState)),
-                     IterableUtils.find(incomingAbstractParticipantBehavior.getStates(),
-                           new EqualPredicate<State>(branchState)),
-                     new OutputMessage(nameOutputMessage.toString()));
-               incomingAbstractParticipantBehavior.getTransitions().add(incomingSynchronousSendActionTransition);
-
-               for (Transition outgoingTransition : outgoingTransitions) {
-                  Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
-                        ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
-                        ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
-                  if (!incomingCd.equals(outgoingCd)) {
-                     AbstractParticipantBehavior outgoingAbstractParticipantBehavior
-                           = cdNameToAbstractParticipantBehaviorMap.get(outgoingCd);
-                     // check if the AbstractParticipantBehavior exists, should be always true
-                     Validate.notNull(outgoingAbstractParticipantBehavior,
-                           ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, outgoingCd);
-
-                     // we need to create transition from the synch to the branch
-                     ReceiveActionTransition outgoingSynchronousReceiveActionTransition = new ReceiveActionTransition(
-                           IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                                 new EqualPredicate<State>(synchState)),
-                           IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                                 new EqualPredicate<State>(branchState)),
-                           new InputMessage(SYNCH_MESSAGE_PREFIX + "{" + incomingCd.getLeft().getName() + ","
-                                 + incomingCd.getRight().getName() + "}" + SYNCH_MESSAGE_TO + "{"
-                                 + outgoingCd.getLeft().getName() + "," + outgoingCd.getRight().getName() + "}"));
-                     outgoingAbstractParticipantBehavior.getTransitions()
-                           .add(outgoingSynchronousReceiveActionTransition);
-                  }
-               }
+         // add sending transition to the incoming CD
+         String synchStateName = transition.getTargetState().getName() + SYNCH_STATE_SUFFIX;
+         String branchStateName = transition.getTargetState().getName() + BRANCH_STATE_SUFFIX;
+
+         // we need to create transition from the synch to the branch
+         SendActionTransition incomingSynchronousSendActionTransition = new SendActionTransition(
+               incomingStateLookup.findState(synchStateName), incomingStateLookup.findState(branchStateName),
+               messageTable.getBranchingSynchOutputMessage(incomingCd, classification.getTargetOutgoingCds()));
+         sink.addTransition(incomingCd, incomingSynchronousSendActionTransition);
+
+         for (Pair<Participant, Participant> outgoingCd : classification.getTargetOutgoingCds()) {
+            if (!incomingCd.equals(outgoingCd)) {
+               StateLookup outgoingStateLookup = getStateLookup(outgoingCd);
 
+               // we need to create transition from the synch to the branch
+               ReceiveActionTransition outgoingSynchronousReceiveActionTransition = new ReceiveActionTransition(
+                     outgoingStateLookup.findState(synchStateName), outgoingStateLookup.findState(branchStateName),
+                     messageTable.getSynchInputMessage(incomingCd, outgoingCd));
+               sink.addTransition(outgoingCd, outgoingSynchronousReceiveActionTransition);
             }
          }
-      });
+
+      }
    }
 
-   private void createSynchTransitionsForBranchingStateToItsState() {
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            if (CoordinationLogicExtractorUtils.isBranchingState(choreographySpecification,
-                  transition.getTargetState())) {
-               Pair<Participant, Participant> incomingCd = new ImmutablePair<Participant, Participant>(
-                     ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                     ((SendingMessageActionTransition) transition).getTargetParticipant());
-               // get AbstractParticipantBehavior of the CD
-               AbstractParticipantBehavior incomingAbstractParticipantBehavior
-                     = cdNameToAbstractParticipantBehaviorMap.get(incomingCd);
-               // check if the AbstractParticipantBehavior exists, should be always true
-               Validate.notNull(incomingAbstractParticipantBehavior,
-                     ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, incomingCd);
-
-               // create synch state in the AbstractParticipantBehavior if the source participant of the outgoing is not
-               // equal to the source participant of the target transition
-
-               List<Transition> outgoingTransitions = CoordinationLogicExtractorUtils
-                     .findAllOutgoingTransition(choreographySpecification, transition.getTargetState());
-
-               // add sending transition to the incoming CD
-               State branchState = new State(transition.getTargetState().getName() + BRANCH_STATE_SUFFIX);
-
-               for (Transition outgoingTransition : outgoingTransitions) {
-                  Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
-                        ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
-                        ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
-                  AbstractParticipantBehavior outgoingAbstractParticipantBehavior
-                        = cdNameToAbstractParticipantBehaviorMap.get(outgoingCd);
-                  // check if the AbstractParticipantBehavior exists, should be always true
-                  Validate.notNull(outgoingAbstractParticipantBehavior,
-                        ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, outgoingCd);
-
-                  // we need to create transition from the branch to its state
-                  StringBuilder nameInputMessage = new StringBuilder();
-
-                  nameInputMessage.append(SYNCH_MESSAGE_PREFIX + "{" + outgoingCd.getLeft().getName() + ","
-                        + outgoingCd.getRight().getName() + "}" + SYNCH_MESSAGE_TO);
-                  getTargetCDs(outgoingTransitions, outgoingTransition).forEach(pair -> {
-                     nameInputMessage.append("{" + pair.getLeft().getName() + "," + pair.getRight().getName() + "}");
-                  });
-                  SendActionTransition outgoingSynchronousReceiveActionTransition = new SendActionTransition(
-                        IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                              new EqualPredicate<State>(branchState)),
-                        IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                              new EqualPredicate<State>(new State(transition.getTargetState().getName()))),
-                        new OutputMessage(nameInputMessage.toString()));
-                  outgoingAbstractParticipantBehavior.getTransitions().add(outgoingSynchronousReceiveActionTransition);
-               }
-            }
+   private void createSynchTransitionsForBranchingStateToItsState(final TransitionClassification classification,
+         final ExtractionSink sink) {
+      if (classification.isTargetBranching()) {
+         SendingMessageActionTransition transition = classification.getTransition();
+
+         // add sending transition to the incoming CD
+         String branchStateName = transition.getTargetState().getName() + BRANCH_STATE_SUFFIX;
+
+         for (Pair<Participant, Participant> outgoingCd : classification.getTargetOutgoingCds()) {
+            StateLookup outgoingStateLookup = getStateLookup(outgoingCd);
 
+            // we need to create transition from the branch to its state
+            SendActionTransition outgoingSynchronousReceiveActionTransition = new SendActionTransition(
+                  outgoingStateLookup.findState(branchStateName),
+                  outgoingStateLookup.findState(transition.getTargetState().getName()),
+                  messageTable.getBranchingSynchOutputMessage(outgoingCd, classification.getTargetOutgoingCds()));
+            sink.addTransition(outgoingCd, outgoingSynchronousReceiveActionTransition);
          }
 
-      });
+      }
    }
 
-   private void createSynchTransitionsForBranchingStateToOtherSate() {
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            if (CoordinationLogicExtractorUtils.isBranchingState(choreographySpecification,
-                  transition.getTargetState())) {
-
-               List<Transition> outgoingTransitions = CoordinationLogicExtractorUtils
-                     .findAllOutgoingTransition(choreographySpecification, transition.getTargetState());
-
-               State branchState = new State(transition.getTargetState().getName() + BRANCH_STATE_SUFFIX);
-               for (Transition outgoingTransition : outgoingTransitions) {
-                  Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
-                        ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
-                        ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
-                  AbstractParticipantBehavior outgoingAbstractParticipantBehavior
-                        = cdNameToAbstractParticipantBehaviorMap.get(outgoingCd);
-                  // check if the AbstractParticipantBehavior exists, should be always true
-                  Validate.notNull(outgoingAbstractParticipantBehavior,
-                        ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, outgoingCd);
-
-                  // consider all the transition by excluding the actual transition
-                  for (Transition transitionToAdd : ListUtils.removeAll(outgoingTransitions,
-                        Arrays.asList(outgoingTransition))) {
-                     Pair<Participant, Participant> incomingCd = new ImmutablePair<Participant, Participant>(
-                           ((SendingMessageActionTransition) transitionToAdd).getSourceParticipant(),
-                           ((SendingMessageActionTransition) transitionToAdd).getTargetParticipant());
-                     AbstractParticipantBehavior inputAbstractParticipantBehavior
-                           = cdNameToAbstractParticipantBehaviorMap.get(outgoingCd);
-                     // check if the AbstractParticipantBehavior exists, should be always true
-                     Validate.notNull(inputAbstractParticipantBehavior,
-                           ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, incomingCd);
-
-                     // add transition from branch state to transitionToAdd.target state
-                     ReceiveActionTransition outgoingSynchronousReceiveActionTransition = new ReceiveActionTransition(
-                           IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                                 new EqualPredicate<State>(branchState)),
-                           IterableUtils.find(outgoingAbstractParticipantBehavior.getStates(),
-                                 new EqualPredicate<State>(new State(transitionToAdd.getTargetState().getName()))),
-                           new InputMessage(SYNCH_MESSAGE_PREFIX + "{" + incomingCd.getLeft().getName() + ","
-                                 + incomingCd.getRight().getName() + "}" + SYNCH_MESSAGE_TO + "{"
-                                 + outgoingCd.getLeft().getName() + "," + outgoingCd.getRight().getName() + "}"));
-                     outgoingAbstractParticipantBehavior.getTransitions()
-                           .add(outgoingSynchronousReceiveActionTransition);
-
-                  }
+   private void createSynchTransitionsForBranchingStateToOtherSate(final TransitionClassification classification,
+         final ExtractionSink sink) {
+      if (classification.isTargetBranching()) {
+         List<Transition> outgoingTransitions = classification.getTargetOutgoingTransitions();
 
+         String branchStateName = classification.getTransition().getTargetState().getName() + BRANCH_STATE_SUFFIX;
+         if (compactBranchSynchronization) {
+            branchSynchGroups.computeIfAbsent(branchStateName,
+                  key -> createBranchSynchGroup(branchStateName, outgoingTransitions));
+            return;
+         }
+         for (Transition outgoingTransition : outgoingTransitions) {
+            Pair<Participant, Participant> outgoingCd = new ImmutablePair<Participant, Participant>(
+                  ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
+                  ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant());
+            StateLookup outgoingStateLookup = getStateLookup(outgoingCd);
+
+            // consider all the transition by excluding the actual transition, without copying the list
+            for (Transition transitionToAdd : outgoingTransitions) {
+               if (transitionToAdd.equals(outgoingTransition)) {
+                  continue;
                }
+               Pair<Participant, Participant> incomingCd = new ImmutablePair<Participant, Participant>(
+                     ((SendingMessageActionTransition) transitionToAdd).getSourceParticipant(),
+                     ((SendingMessageActionTransition) transitionToAdd).getTargetParticipant());
+
+               // add transition from branch state to transitionToAdd.target state
+               ReceiveActionTransition outgoingSynchronousReceiveActionTransition = new ReceiveActionTransition(
+                     outgoingStateLookup.findState(branchStateName),
+                     outgoingStateLookup.findState(transitionToAdd.getTargetState().getName()),
+                     messageTable.getSynchInputMessage(incomingCd, outgoingCd));
+               sink.addTransition(outgoingCd, outgoingSynchronousReceiveActionTransition);
+
             }
+
          }
-      });
+      }
    }
 
-   private void createMessageTransitions() {
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            Pair<Participant, Participant> cd = new ImmutablePair<Participant, Participant>(
-                  ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                  ((SendingMessageActionTransition) transition).getTargetParticipant());
-            AbstractParticipantBehavior concreteParticipantBehavior = cdNameToAbstractParticipantBehaviorMap.get(cd);
-            // check if the AbstractParticipantBehavior exists, should be always true
-            Validate.notNull(concreteParticipantBehavior, ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE,
-                  cd);
-
-            State midState = new State(transition.getSourceState().getName() + MID_STATE_SUFFIX);
-            State synchState = new State(transition.getTargetState().getName());
-            if (CoordinationLogicExtractorUtils.isBranchingState(choreographySpecification,
-                  transition.getTargetState())) {
-               synchState = new State(transition.getTargetState().getName() + SYNCH_STATE_SUFFIX);
-            }
+   private static BranchSynchGroup createBranchSynchGroup(final String branchStateName,
+         final List<Transition> outgoingTransitions) {
+      List<Pair<Participant, Participant>> cds = new ArrayList<Pair<Participant, Participant>>();
+      List<String> targetStateNames = new ArrayList<String>();
+      for (Transition outgoingTransition : outgoingTransitions) {
+         cds.add(new ImmutablePair<Participant, Participant>(
+               ((SendingMessageActionTransition) outgoingTransition).getSourceParticipant(),
+               ((SendingMessageActionTransition) outgoingTransition).getTargetParticipant()));
+         targetStateNames.add(outgoingTransition.getTargetState().getName());
+      }
+      return new BranchSynchGroup(branchStateName, cds, targetStateNames);
+   }
 
-            // add transition from midState state to synch state
-            ReceiveActionTransition receiveActionTransition = new ReceiveActionTransition(
-                  IterableUtils.find(concreteParticipantBehavior.getStates(),
-                        new EqualPredicate<State>(new State(transition.getSourceState().getName()))),
-                  IterableUtils.find(concreteParticipantBehavior.getStates(),
-                        new EqualPredicate<State>(new State(midState.getName()))),
-                  new InputMessage(((SendingMessageActionTransition) transition).getMessage().getName()));
-            concreteParticipantBehavior.getTransitions().add(receiveActionTransition);
-
-            // add transition from transition.source state to midState state
-            SendActionTransition sendActionTransition = new SendActionTransition(
-                  IterableUtils.find(concreteParticipantBehavior.getStates(),
-                        new EqualPredicate<State>(new State(midState.getName()))),
-                  IterableUtils.find(concreteParticipantBehavior.getStates(),
-                        new EqualPredicate<State>(new State(synchState.getName()))),
-                  new OutputMessage(((SendingMessageActionTransition) transition).getMessage().getName()));
-            concreteParticipantBehavior.getTransitions().add(sendActionTransition);
-
-            getTargetCDs(choreographySpecification.getTransitions().stream().collect(Collectors.toList()), transition)
-                  .forEach(pair -> {
-                     AbstractParticipantBehavior otherParticipantBehavior
-                           = cdNameToAbstractParticipantBehaviorMap.get(pair);
-                     // check if the AbstractParticipantBehavior exists, should be always true
-                     Validate.notNull(otherParticipantBehavior,
-                           ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, pair);
-
-                     if (IterableUtils.find(otherParticipantBehavior.getStates(), new EqualPredicate<State>(
-                           new State(transition.getSourceState().getName() + BRANCH_STATE_SUFFIX))) == null) {
-
-                        State foundedSourceState
-                              = IterableUtils.find(otherParticipantBehavior.getStates(), new EqualPredicate<State>(
-                                    new State(transition.getSourceState().getName() + SYNCH_STATE_SUFFIX)));
-                        if (foundedSourceState == null) {
-                           foundedSourceState = new State(transition.getSourceState().getName());
-                        }
-
-                        State foundedTargetState
-                              = IterableUtils.find(otherParticipantBehavior.getStates(), new EqualPredicate<State>(
-                                    new State(transition.getTargetState().getName() + SYNCH_STATE_SUFFIX)));
-                        if (foundedTargetState == null) {
-                           foundedTargetState = new State(transition.getTargetState().getName());
-                        }
-
-                        InternalActionTransition internalActionTransition = new InternalActionTransition(
-                              IterableUtils.find(otherParticipantBehavior.getStates(),
-                                    new EqualPredicate<State>(foundedSourceState)),
-                              IterableUtils.find(otherParticipantBehavior.getStates(),
-                                    new EqualPredicate<State>(foundedTargetState)));
-                        otherParticipantBehavior.getTransitions().add(internalActionTransition);
-
-                     }
-
-                  });
-         }
-      });
+   private void createMessageTransitions(final TransitionClassification classification, final ExtractionSink sink) {
+      createSendAndReceiveTransitions(classification, sink);
+      if (implicitInternalTransitions) {
+         return;
+      }
+
+      getTargetCDs(choreographySpecificationIndex.getCoordinationDelegates(), classification.getCd())
+            .forEach(pair -> createInternalTransition(classification, pair, sink));
+
+   }
+
+   private void createSendAndReceiveTransitions(final TransitionClassification classification,
+         final ExtractionSink sink) {
+      SendingMessageActionTransition transition = classification.getTransition();
+      Pair<Participant, Participant> cd = classification.getCd();
+      StateLookup stateLookup = getStateLookup(cd);
+
+      String midStateName = transition.getSourceState().getName() + MID_STATE_SUFFIX;
+      String synchStateName = transition.getTargetState().getName();
+      if (classification.isTargetBranching()) {
+         synchStateName = transition.getTargetState().getName() + SYNCH_STATE_SUFFIX;
+      }
+
+      // add transition from midState state to synch state
+      ReceiveActionTransition receiveActionTransition = new ReceiveActionTransition(
+            stateLookup.findState(transition.getSourceState().getName()), stateLookup.findState(midStateName),
+            messageTable.getInputMessage(transition.getMessage().getName()));
+      sink.addTransition(cd, receiveActionTransition);
+
+      // add transition from transition.source state to midState state
+      SendActionTransition sendActionTransition = new SendActionTransition(stateLookup.findState(midStateName),
+            stateLookup.findState(synchStateName), messageTable.getOutputMessage(transition.getMessage().getName()));
+      sink.addTransition(cd, sendActionTransition);
+   }
 
+   private void createInternalTransition(final TransitionClassification classification,
+         final Pair<Participant, Participant> pair, final ExtractionSink sink) {
+      InternalActionTransition internalActionTransition = ImplicitInternalTransitions
+            .createInternalTransition(classification.getTransition(), getStateLookup(pair));
+      if (internalActionTransition != null) {
+         sink.addTransition(pair, internalActionTransition);
+      }
    }
 
-   private List<Pair<Participant, Participant>> getTargetCDs(final List<Transition> transitions,
-         final Transition transitionToExclude) {
+   private StateLookup getStateLookup(final Pair<Participant, Participant> cd) {
+      StateLookup stateLookup = cdNameToStateLookupMap.get(cd);
+      // check if the AbstractParticipantBehavior exists, should be always true
+      Validate.notNull(stateLookup, ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, cd);
+      return stateLookup;
+   }
+
+   StateRegistry getStateRegistry(final Pair<Participant, Participant> cd) {
+      StateRegistry stateRegistry = cdNameToStateRegistryMap.get(cd);
+      // check if the AbstractParticipantBehavior exists, should be always true
+      Validate.notNull(stateRegistry, ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, cd);
+      return stateRegistry;
+   }
+
+   private List<Pair<Participant, Participant>> getTargetCDs(final List<Pair<Participant, Participant>> cds,
+         final Pair<Participant, Participant> cdToExclude) {
       List<Pair<Participant, Participant>> cdTargets = new ArrayList<Pair<Participant, Participant>>();
-      Pair<Participant, Participant> cdToExclude = new ImmutablePair<Participant, Participant>(
-            ((SendingMessageActionTransition) transitionToExclude).getSourceParticipant(),
-            ((SendingMessageActionTransition) transitionToExclude).getTargetParticipant());
-      transitions.forEach(transition -> {
-         Pair<Participant, Participant> cdTarget = new ImmutablePair<Participant, Participant>(
-               ((SendingMessageActionTransition) transition).getSourceParticipant(),
-               ((SendingMessageActionTransition) transition).getTargetParticipant());
+      cds.forEach(cdTarget -> {
          if (!cdToExclude.equals(cdTarget)) {
-            // get AbstractParticipantBehavior of the CD
-            AbstractParticipantBehavior incomingAbstractParticipantBehavior
-                  = cdNameToAbstractParticipantBehaviorMap.get(cdTarget);
-            // check if the AbstractParticipantBehavior exists, should be always true
-            Validate.notNull(incomingAbstractParticipantBehavior,
-                  ValidationMessages.IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE, cdTarget);
-
             cdTargets.add(cdTarget);
          }
       });
@@ -551,4 +911,110 @@ public class CoordinationLogicExtractor {
       return cdTargets;
    }
 
+   /**
+    * {@link ExtractionSink} that adds the states and the transitions straight to the coordination delegates.
+    */
+   private class StateRegistryExtractionSink implements ExtractionSink {
+
+      @Override
+      public void addState(final Pair<Participant, Participant> cd, final String stateName) {
+         getStateRegistry(cd).addState(stateName);
+      }
+
+      @Override
+      public void addTransition(final Pair<Participant, Participant> cd,
+            final com.sesygroup.choreography.abstractparticipantbehavior.model.Transition transition) {
+         getStateRegistry(cd).getAbstractParticipantBehavior().getTransitions().add(transition);
+      }
+
+   }
+
+   /**
+    * The states of a CD that is not built yet, that is the base states shared by all the CDs plus the states added to
+    * the CD.
+    */
+   private static class OverlayStateLookup implements StateLookup {
+      private final Map<String, State> nameToBaseStateMap;
+      private final Set<String> addedStateNames;
+
+      OverlayStateLookup(final Map<String, State> nameToBaseStateMap, final Set<String> addedStateNames) {
+         this.nameToBaseStateMap = nameToBaseStateMap;
+         this.addedStateNames = addedStateNames;
+      }
+
+      @Override
+      public boolean containsState(final String name) {
+         return nameToBaseStateMap.containsKey(name) || addedStateNames.contains(name);
+      }
+
+      @Override
+      public State findState(final String name) {
+         State state = nameToBaseStateMap.get(name);
+         if (state == null && addedStateNames.contains(name)) {
+            state = new State(name);
+         }
+         return state;
+      }
+
+   }
+
+   /**
+    * {@link ExtractionSink} that records the names of the states added to each CD, on top of the base states. It only
+    * receives the output of the state rules, which create states and never transitions: the transitions of each CD are
+    * created later, once its behavior is built.
+    */
+   private static class OverlayExtractionSink implements ExtractionSink {
+      private final Map<String, State> nameToBaseStateMap;
+      private final Map<Pair<Participant, Participant>, Set<String>> cdNameToAddedStateNamesMap;
+
+      OverlayExtractionSink(final Map<String, State> nameToBaseStateMap,
+            final Map<Pair<Participant, Participant>, Set<String>> cdNameToAddedStateNamesMap) {
+         this.nameToBaseStateMap = nameToBaseStateMap;
+         this.cdNameToAddedStateNamesMap = cdNameToAddedStateNamesMap;
+      }
+
+      @Override
+      public void addState(final Pair<Participant, Participant> cd, final String stateName) {
+         if (!nameToBaseStateMap.containsKey(stateName)) {
+            cdNameToAddedStateNamesMap.get(cd).add(stateName);
+         }
+      }
+
+      @Override
+      public void addTransition(final Pair<Participant, Participant> cd,
+            final com.sesygroup.choreography.abstractparticipantbehavior.model.Transition transition) {
+         Validate.validState(false, ValidationMessages.IS_TRANSITION_OF_STATE_RULE_EXCEPTION_MESSAGE, transition, cd);
+      }
+
+   }
+
+   /**
+    * {@link ExtractionSink} that adds the transitions of a single CD to its behavior, and ignores the other CDs.
+    */
+   private static class CoordinationDelegateExtractionSink implements ExtractionSink {
+      private final Pair<Participant, Participant> cd;
+      private final StateRegistry stateRegistry;
+
+      CoordinationDelegateExtractionSink(final Pair<Participant, Participant> cd, final StateRegistry stateRegistry) {
+         this.cd = cd;
+         this.stateRegistry = stateRegistry;
+      }
+
+      @Override
+      public void addState(final Pair<Participant, Participant> cd, final String stateName) {
+         if (this.cd.equals(cd)) {
+            stateRegistry.addState(stateName);
+         }
+      }
+
+      @Override
+      public void addTransition(final Pair<Participant, Participant> cd,
+            final com.sesygroup.choreography.abstractparticipantbehavior.model.Transition transition) {
+         if (this.cd.equals(cd)) {
+            stateRegistry.getAbstractParticipantBehavior().getTransitions().add(transition);
+         }
+      }
+
+   }
+
 }
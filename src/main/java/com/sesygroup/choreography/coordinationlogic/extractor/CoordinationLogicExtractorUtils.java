@@ -15,20 +15,18 @@
  */
 package com.sesygroup.choreography.coordinationlogic.extractor;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
-import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.Predicate;
-import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.Pair;
 
 import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
 import com.sesygroup.choreography.choreographyspecification.model.Participant;
 import com.sesygroup.choreography.choreographyspecification.model.State;
 import com.sesygroup.choreography.choreographyspecification.model.Transition;
-import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
 
 /**
  *
@@ -39,61 +37,94 @@ public class CoordinationLogicExtractorUtils {
 
    public static Collection<Pair<Participant, Participant>> findCoordinationDelegatesToBeCreated(
          final ChoreographySpecification choreographySpecification) {
-      List<Pair<Participant, Participant>> coordinationDelegatesToBeCreated
-            = new LinkedList<Pair<Participant, Participant>>();
-
-      choreographySpecification.getTransitions().forEach(transition -> {
-         if (transition instanceof SendingMessageActionTransition) {
-            Pair<Participant, Participant> pair = new ImmutablePair<Participant, Participant>(
-                  ((SendingMessageActionTransition) transition).getSourceParticipant(),
-                  ((SendingMessageActionTransition) transition).getTargetParticipant());
-            if (!coordinationDelegatesToBeCreated.contains(pair)) {
-               coordinationDelegatesToBeCreated.add(pair);
-            }
-         }
-      });
-      return coordinationDelegatesToBeCreated;
+      return findCoordinationDelegatesToBeCreated(new ChoreographySpecificationIndex(choreographySpecification));
+   }
+
+   public static Collection<Pair<Participant, Participant>> findCoordinationDelegatesToBeCreated(
+         final ChoreographySpecificationIndex choreographySpecificationIndex) {
+      return choreographySpecificationIndex.getCoordinationDelegates();
+   }
+
+   public static ParticipantInteractionGraph findParticipantInteractionGraph(
+         final ChoreographySpecification choreographySpecification) {
+      return new ParticipantInteractionGraph(choreographySpecification);
+   }
+
+   /**
+    * Finds the participant interaction graph by scanning the transitions concurrently on the given executor.
+    */
+   public static ParticipantInteractionGraph findParticipantInteractionGraph(
+         final ChoreographySpecification choreographySpecification, final Executor executor) {
+      Validate.notNull(executor, ValidationMessages.IS_NULL_EXECUTOR_EXCEPTION_MESSAGE);
+      return new ParticipantInteractionGraph(choreographySpecification, executor);
    }
 
    public static List<State> findBranchingStates(final ChoreographySpecification choreographySpecification) {
-      return ListUtils.select(choreographySpecification.getStates(), new Predicate<State>() {
-         @Override
-         public boolean evaluate(final State object) {
-            return isBranchingState(choreographySpecification, object);
-         }
-      });
+      return findBranchingStates(new ChoreographySpecificationIndex(choreographySpecification));
+   }
+
+   public static List<State> findBranchingStates(final ChoreographySpecificationIndex choreographySpecificationIndex) {
+      return choreographySpecificationIndex.getBranchingStates();
    }
 
+   /**
+    * Checks the given state with a single scan of the transitions, which stops at the second outgoing transition. To
+    * check many states, build a {@link ChoreographySpecificationIndex} once and query it instead.
+    */
    public static boolean isBranchingState(final ChoreographySpecification choreographySpecification,
          final State state) {
+      int outgoingTransitionCount = 0;
+      for (Transition transition : choreographySpecification.getTransitions()) {
+         if (transition.getSourceState().equals(state) && ++outgoingTransitionCount >= 2) {
+            return true;
+         }
+      }
+      return false;
+   }
 
-      return findAllOutgoingTransition(choreographySpecification, state).size() >= 2
-            ? true
-            : false;
+   public static boolean isBranchingState(final ChoreographySpecificationIndex choreographySpecificationIndex,
+         final State state) {
+      return choreographySpecificationIndex.isBranchingState(state);
    }
 
+   /**
+    * Finds the outgoing transitions of the given state with a single scan of the transitions. To query many states,
+    * build a {@link ChoreographySpecificationIndex} once and query it instead.
+    */
    public static List<Transition> findAllOutgoingTransition(final ChoreographySpecification choreographySpecification,
          final State state) {
-      return ListUtils.select(choreographySpecification.getTransitions(), new Predicate<Transition>() {
-         @Override
-         public boolean evaluate(final Transition object) {
-            return object.getSourceState().equals(state)
-                  ? true
-                  : false;
+      List<Transition> outgoingTransitions = new ArrayList<Transition>();
+      for (Transition transition : choreographySpecification.getTransitions()) {
+         if (transition.getSourceState().equals(state)) {
+            outgoingTransitions.add(transition);
          }
-      });
+      }
+      return outgoingTransitions;
    }
 
+   public static List<Transition> findAllOutgoingTransition(
+         final ChoreographySpecificationIndex choreographySpecificationIndex, final State state) {
+      return choreographySpecificationIndex.getOutgoingTransitions(state);
+   }
+
+   /**
+    * Finds the incoming transitions of the given state with a single scan of the transitions. To query many states,
+    * build a {@link ChoreographySpecificationIndex} once and query it instead.
+    */
    public static List<Transition> findAllIncomingTransition(final ChoreographySpecification choreographySpecification,
          final State state) {
-      return ListUtils.select(choreographySpecification.getTransitions(), new Predicate<Transition>() {
-         @Override
-         public boolean evaluate(final Transition object) {
-            return object.getTargetState().equals(state)
-                  ? true
-                  : false;
+      List<Transition> incomingTransitions = new ArrayList<Transition>();
+      for (Transition transition : choreographySpecification.getTransitions()) {
+         if (transition.getTargetState().equals(state)) {
+            incomingTransitions.add(transition);
          }
-      });
+      }
+      return incomingTransitions;
+   }
+
+   public static List<Transition> findAllIncomingTransition(
+         final ChoreographySpecificationIndex choreographySpecificationIndex, final State state) {
+      return choreographySpecificationIndex.getIncomingTransitions(state);
    }
 
    // -----------------------------------------------------------------------
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Exception thrown when an extraction exceeds its {@link ExtractionBudget}, which describes the work done so far.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionAbortedException extends CancellationException {
+   private static final long serialVersionUID = 1L;
+
+   private final List<ExtractionPhase> phases;
+   private final long visitedTransitionCount;
+   private final long transitionCount;
+   private final long elapsedNanos;
+   private final boolean deadlineExceeded;
+
+   public ExtractionAbortedException(final List<ExtractionPhase> phases, final long visitedTransitionCount,
+         final long transitionCount, final long elapsedNanos, final boolean deadlineExceeded) {
+      super((deadlineExceeded ? "The extraction exceeded its deadline" : "The extraction was cancelled") + " after "
+            + elapsedNanos / 1000000L + " ms, in the phases " + phases + " after " + visitedTransitionCount + " of "
+            + transitionCount + " transitions");
+      this.phases = Collections.unmodifiableList(phases);
+      this.visitedTransitionCount = visitedTransitionCount;
+      this.transitionCount = transitionCount;
+      this.elapsedNanos = elapsedNanos;
+      this.deadlineExceeded = deadlineExceeded;
+   }
+
+   /**
+    * @return the phases that were running, whose previous phases are complete.
+    */
+   public List<ExtractionPhase> getPhases() {
+      return phases;
+   }
+
+   /**
+    * @return the number of transitions that the running phases visited, at least.
+    */
+   public long getVisitedTransitionCount() {
+      return visitedTransitionCount;
+   }
+
+   /**
+    * @return the number of transitions that the running phases visit.
+    */
+   public long getTransitionCount() {
+      return transitionCount;
+   }
+
+   public long getElapsedNanos() {
+      return elapsedNanos;
+   }
+
+   /**
+    * @return {@code true} if the deadline is exceeded, {@code false} if the budget was cancelled instead.
+    */
+   public boolean isDeadlineExceeded() {
+      return deadlineExceeded;
+   }
+
+}
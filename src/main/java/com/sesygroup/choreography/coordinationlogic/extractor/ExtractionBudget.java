@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Budget of an extraction, made of an optional deadline and of a cancellation flag, see
+ * {@link CoordinationLogicExtractor#generate(ExtractionBudget)}.
+ * <p>
+ * The deadline runs from the creation of the budget, thus it can include the time the extraction waits before it
+ * starts. The budget can be cancelled from any thread, the extractor checks it between its phases and every few
+ * hundred transitions, and then fails with an {@link ExtractionAbortedException}.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionBudget {
+   private final long startNanos;
+   private final long timeoutNanos;
+   private volatile boolean cancelled;
+
+   /**
+    * Creates a budget without deadline, which is exceeded only once cancelled.
+    */
+   public ExtractionBudget() {
+      this.startNanos = System.nanoTime();
+      this.timeoutNanos = Long.MAX_VALUE;
+   }
+
+   public ExtractionBudget(final long timeout, final TimeUnit unit) {
+      Validate.isTrue(timeout >= 0, ValidationMessages.IS_NEGATIVE_TIMEOUT_EXCEPTION_MESSAGE, timeout);
+      Validate.notNull(unit, ValidationMessages.IS_NULL_TIME_UNIT_EXCEPTION_MESSAGE);
+      this.startNanos = System.nanoTime();
+      this.timeoutNanos = unit.toNanos(timeout);
+   }
+
+   public void cancel() {
+      cancelled = true;
+   }
+
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   public boolean isDeadlineExceeded() {
+      return getElapsedNanos() >= timeoutNanos;
+   }
+
+   public boolean isExceeded() {
+      return cancelled || isDeadlineExceeded();
+   }
+
+   public long getElapsedNanos() {
+      return System.nanoTime() - startNanos;
+   }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+/**
+ * Listener of the phases of an extraction, see {@link CoordinationLogicExtractor#setExtractionListener}.
+ * <p>
+ * The listener is called on the thread that runs the extraction, once for each {@link ExtractionPhase}, when the scan
+ * of the transitions that runs the phase is complete. It can, for instance, record the metrics or forward them to a
+ * monitoring system.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+@FunctionalInterface
+public interface ExtractionListener {
+
+   void phaseCompleted(ExtractionPhaseMetrics metrics);
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks the {@link ExtractionBudget} of an extraction and reports its progress to an
+ * {@link ExtractionProgressListener}, either of which can be missing.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class ExtractionMonitor {
+   // the number of transitions a scan visits between two checks
+   static final int CHECK_INTERVAL = 256;
+
+   private final ExtractionBudget budget;
+   private final ExtractionProgressListener progressListener;
+
+   ExtractionMonitor(final ExtractionBudget budget, final ExtractionProgressListener progressListener) {
+      this.budget = budget;
+      this.progressListener = progressListener;
+   }
+
+   /**
+    * Starts a scan of the given phases, which fails if the budget is already exceeded.
+    */
+   ScanProgress startScan(final List<ExtractionPhase> phases, final long transitionCount) {
+      ScanProgress scanProgress = new ScanProgress(phases, transitionCount);
+      scanProgress.visit(0);
+      return scanProgress;
+   }
+
+   /**
+    * Progress of a scan, which can be shared by the threads that run the scan.
+    */
+   class ScanProgress {
+      private final List<ExtractionPhase> phases;
+      private final long transitionCount;
+      private final AtomicLong visitedTransitionCount;
+      private long reportedTransitionCount;
+
+      ScanProgress(final List<ExtractionPhase> phases, final long transitionCount) {
+         this.phases = phases;
+         this.transitionCount = transitionCount;
+         this.visitedTransitionCount = new AtomicLong();
+         this.reportedTransitionCount = -1L;
+      }
+
+      /**
+       * Adds the given number of visited transitions, then checks the budget and reports the progress.
+       *
+       * @throws ExtractionAbortedException
+       *            if the budget is exceeded.
+       */
+      void visit(final int count) {
+         long visited = visitedTransitionCount.addAndGet(count);
+         if (budget != null && budget.isExceeded()) {
+            throw new ExtractionAbortedException(phases, visited, transitionCount, budget.getElapsedNanos(),
+                  !budget.isCancelled());
+         }
+         if (progressListener != null) {
+            report(visited);
+         }
+      }
+
+      private synchronized void report(final long visited) {
+         // the threads of a scan may report out of order, the progress never goes back
+         if (visited > reportedTransitionCount) {
+            reportedTransitionCount = visited;
+            double fraction = transitionCount == 0 ? 1.0 : (double) visited / transitionCount;
+            phases.forEach(phase -> progressListener.progressed(phase, fraction));
+         }
+      }
+   }
+
+}
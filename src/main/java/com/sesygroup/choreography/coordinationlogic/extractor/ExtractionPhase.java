@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+/**
+ * Phases of the extraction reported to an {@link ExtractionListener}: the initialization, then one phase for each rule
+ * of the {@link CoordinationLogicExtractor}.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public enum ExtractionPhase {
+   /**
+    * Indexing of the choreography specification, creation of the coordination delegates with their base states and
+    * classification of the transitions.
+    */
+   INITIALIZATION,
+   CREATE_MID_STATE,
+   CREATE_SYNCH_STATE,
+   CREATE_BRANCHING_STATE,
+   CREATE_SYNCH_TRANSITIONS_FOR_INDIPENDENT_SEQUENCE,
+   CREATE_SYNCH_TRANSITIONS_THAT_REACH_BRANCHING_STATE,
+   CREATE_SYNCH_TRANSITIONS_FOR_BRANCHING_STATE_TO_ITS_STATE,
+   CREATE_SYNCH_TRANSITIONS_FOR_BRANCHING_STATE_TO_OTHER_STATE,
+   /**
+    * Creation of the send, receive and internal transitions of the message of each transition.
+    */
+   CREATE_MESSAGE_TRANSITIONS
+}
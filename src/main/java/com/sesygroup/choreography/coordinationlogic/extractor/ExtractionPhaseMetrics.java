@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Metrics of a phase of an extraction.
+ * <p>
+ * The time and the allocated bytes of a rule are summed over all the transitions it visits, and over all the threads
+ * when the extraction runs on an executor. The states and the transitions emitted by a rule are counted before they are
+ * added to the coordination delegates, thus a state emitted twice is counted twice.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionPhaseMetrics {
+   private final ExtractionPhase phase;
+   private final long elapsedNanos;
+   private final long allocatedBytes;
+   private final long visitedTransitionCount;
+   private final long lookupHitCount;
+   private final long lookupMissCount;
+   private final Map<Pair<Participant, Participant>, Long> cdToEmittedStateCountMap;
+   private final Map<Pair<Participant, Participant>, Long> cdToEmittedTransitionCountMap;
+
+   public ExtractionPhaseMetrics(final ExtractionPhase phase, final long elapsedNanos, final long allocatedBytes,
+         final long visitedTransitionCount, final long lookupHitCount, final long lookupMissCount,
+         final Map<Pair<Participant, Participant>, Long> cdToEmittedStateCountMap,
+         final Map<Pair<Participant, Participant>, Long> cdToEmittedTransitionCountMap) {
+      this.phase = phase;
+      this.elapsedNanos = elapsedNanos;
+      this.allocatedBytes = allocatedBytes;
+      this.visitedTransitionCount = visitedTransitionCount;
+      this.lookupHitCount = lookupHitCount;
+      this.lookupMissCount = lookupMissCount;
+      this.cdToEmittedStateCountMap = Collections.unmodifiableMap(cdToEmittedStateCountMap);
+      this.cdToEmittedTransitionCountMap = Collections.unmodifiableMap(cdToEmittedTransitionCountMap);
+   }
+
+   public ExtractionPhase getPhase() {
+      return phase;
+   }
+
+   public long getElapsedNanos() {
+      return elapsedNanos;
+   }
+
+   /**
+    * @return the bytes allocated by the phase, or -1 if the JVM does not measure the memory allocated by a thread.
+    */
+   public long getAllocatedBytes() {
+      return allocatedBytes;
+   }
+
+   public long getVisitedTransitionCount() {
+      return visitedTransitionCount;
+   }
+
+   /**
+    * @return the number of lookups by name of a state that found the state in the coordination delegate.
+    */
+   public long getLookupHitCount() {
+      return lookupHitCount;
+   }
+
+   public long getLookupMissCount() {
+      return lookupMissCount;
+   }
+
+   /**
+    * @return the number of states emitted for each coordination delegate, which lacks the ones without states.
+    */
+   public Map<Pair<Participant, Participant>, Long> getEmittedStateCounts() {
+      return cdToEmittedStateCountMap;
+   }
+
+   /**
+    * @return the number of transitions emitted for each coordination delegate, which lacks the ones without
+    *         transitions.
+    */
+   public Map<Pair<Participant, Participant>, Long> getEmittedTransitionCounts() {
+      return cdToEmittedTransitionCountMap;
+   }
+
+   public long getEmittedStateCount() {
+      return cdToEmittedStateCountMap.values().stream().mapToLong(Long::longValue).sum();
+   }
+
+   public long getEmittedTransitionCount() {
+      return cdToEmittedTransitionCountMap.values().stream().mapToLong(Long::longValue).sum();
+   }
+
+   @Override
+   public String toString() {
+      return "ExtractionPhaseMetrics [phase=" + phase + ", elapsedNanos=" + elapsedNanos + ", allocatedBytes="
+            + allocatedBytes + ", visitedTransitionCount=" + visitedTransitionCount + ", lookupHitCount="
+            + lookupHitCount + ", lookupMissCount=" + lookupMissCount + ", emittedStateCount="
+            + getEmittedStateCount() + ", emittedTransitionCount=" + getEmittedTransitionCount() + "]";
+   }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Accumulator of the metrics of a phase of an extraction, which can be shared by the threads that run the phase.
+ * <p>
+ * The extractor only creates recorders when an {@link ExtractionListener} is set, and then applies the rules through
+ * {@link #apply(ExtractionRule, List, ExtractionSink)} and wraps the state lookups with {@link #record(StateLookup)}.
+ * A rule is timed once for a whole block of transitions, so that the recorder adds little to what it measures.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class ExtractionPhaseRecorder {
+   private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+   // the recorder of the rule running on the current thread, which the recorded state lookups count for
+   private static final ThreadLocal<ExtractionPhaseRecorder> CURRENT = new ThreadLocal<ExtractionPhaseRecorder>();
+
+   private final ExtractionPhase phase;
+   private final LongAdder elapsedNanos;
+   private final LongAdder allocatedBytes;
+   private final LongAdder visitedTransitionCount;
+   private final LongAdder lookupHitCount;
+   private final LongAdder lookupMissCount;
+   private final ConcurrentMap<Pair<Participant, Participant>, LongAdder> cdToEmittedStateCountMap;
+   private final ConcurrentMap<Pair<Participant, Participant>, LongAdder> cdToEmittedTransitionCountMap;
+
+   ExtractionPhaseRecorder(final ExtractionPhase phase) {
+      this.phase = phase;
+      this.elapsedNanos = new LongAdder();
+      this.allocatedBytes = new LongAdder();
+      this.visitedTransitionCount = new LongAdder();
+      this.lookupHitCount = new LongAdder();
+      this.lookupMissCount = new LongAdder();
+      this.cdToEmittedStateCountMap = new ConcurrentHashMap<Pair<Participant, Participant>, LongAdder>();
+      this.cdToEmittedTransitionCountMap = new ConcurrentHashMap<Pair<Participant, Participant>, LongAdder>();
+   }
+
+   /**
+    * @return the bytes allocated so far by the current thread, or -1 if the JVM does not measure them.
+    */
+   static long getCurrentThreadAllocatedBytes() {
+      if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemoryEnabled()) {
+         return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+               .getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+      return -1L;
+   }
+
+   /**
+    * Records a part of the phase that did not run through a rule.
+    */
+   void record(final long startNanos, final long startAllocatedBytes, final long visitedTransitions) {
+      elapsedNanos.add(System.nanoTime() - startNanos);
+      addAllocatedBytes(startAllocatedBytes);
+      visitedTransitionCount.add(visitedTransitions);
+   }
+
+   private void addAllocatedBytes(final long startAllocatedBytes) {
+      if (startAllocatedBytes >= 0) {
+         allocatedBytes.add(getCurrentThreadAllocatedBytes() - startAllocatedBytes);
+      }
+   }
+
+   /**
+    * Applies the given rule to each of the given transitions, and records the metrics of the whole block in this
+    * phase.
+    */
+   void apply(final ExtractionRule rule, final List<TransitionClassification> classifications,
+         final ExtractionSink sink) {
+      ExtractionSink recordedSink = new RecordedExtractionSink(sink);
+      ExtractionPhaseRecorder previous = CURRENT.get();
+      CURRENT.set(this);
+      long startAllocatedBytes = getCurrentThreadAllocatedBytes();
+      long startNanos = System.nanoTime();
+      try {
+         for (TransitionClassification classification : classifications) {
+            rule.apply(classification, recordedSink);
+         }
+      } finally {
+         elapsedNanos.add(System.nanoTime() - startNanos);
+         addAllocatedBytes(startAllocatedBytes);
+         visitedTransitionCount.add(classifications.size());
+         CURRENT.set(previous);
+      }
+   }
+
+   /**
+    * @return a lookup that counts its hits and misses in the phase of the rule running on the current thread.
+    */
+   static StateLookup record(final StateLookup stateLookup) {
+      return new RecordedStateLookup(stateLookup);
+   }
+
+   ExtractionPhaseMetrics toMetrics() {
+      return new ExtractionPhaseMetrics(phase, elapsedNanos.sum(),
+            getCurrentThreadAllocatedBytes() < 0 ? -1L : allocatedBytes.sum(), visitedTransitionCount.sum(),
+            lookupHitCount.sum(), lookupMissCount.sum(), toCounts(cdToEmittedStateCountMap),
+            toCounts(cdToEmittedTransitionCountMap));
+   }
+
+   private static Map<Pair<Participant, Participant>, Long> toCounts(
+         final Map<Pair<Participant, Participant>, LongAdder> cdToCountMap) {
+      Map<Pair<Participant, Participant>, Long> counts = new HashMap<Pair<Participant, Participant>, Long>();
+      cdToCountMap.forEach((cd, count) -> counts.put(cd, count.sum()));
+      return counts;
+   }
+
+   private static void increment(final ConcurrentMap<Pair<Participant, Participant>, LongAdder> cdToCountMap,
+         final Pair<Participant, Participant> cd) {
+      LongAdder count = cdToCountMap.get(cd);
+      if (count == null) {
+         count = cdToCountMap.computeIfAbsent(cd, key -> new LongAdder());
+      }
+      count.increment();
+   }
+
+   /**
+    * {@link ExtractionSink} that counts the states and the transitions emitted for each CD.
+    */
+   private class RecordedExtractionSink implements ExtractionSink {
+      private final ExtractionSink sink;
+
+      RecordedExtractionSink(final ExtractionSink sink) {
+         this.sink = sink;
+      }
+
+      @Override
+      public void addState(final Pair<Participant, Participant> cd, final String stateName) {
+         increment(cdToEmittedStateCountMap, cd);
+         sink.addState(cd, stateName);
+      }
+
+      @Override
+      public void addTransition(final Pair<Participant, Participant> cd, final Transition transition) {
+         increment(cdToEmittedTransitionCountMap, cd);
+         sink.addTransition(cd, transition);
+      }
+
+   }
+
+   /**
+    * {@link StateLookup} that counts its hits and misses in the recorder of the current thread, if any.
+    */
+   private static class RecordedStateLookup implements StateLookup {
+      private final StateLookup stateLookup;
+
+      RecordedStateLookup(final StateLookup stateLookup) {
+         this.stateLookup = stateLookup;
+      }
+
+      @Override
+      public boolean containsState(final String name) {
+         return count(stateLookup.containsState(name));
+      }
+
+      @Override
+      public State findState(final String name) {
+         State state = stateLookup.findState(name);
+         count(state != null);
+         return state;
+      }
+
+      private static boolean count(final boolean hit) {
+         ExtractionPhaseRecorder recorder = CURRENT.get();
+         if (recorder != null) {
+            (hit ? recorder.lookupHitCount : recorder.lookupMissCount).increment();
+         }
+         return hit;
+      }
+
+   }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+/**
+ * Listener of the progress of an extraction, see {@link CoordinationLogicExtractor#setProgressListener}.
+ * <p>
+ * The rules of a scan visit the transitions together, thus the phases of the rules of a scan progress together. The
+ * listener is called for each phase of a scan every few hundred visited transitions, with a fraction that grows up to
+ * 1 within the scan. When the extraction runs on an executor, the listener is called by the threads of the executor,
+ * one at a time.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+@FunctionalInterface
+public interface ExtractionProgressListener {
+
+   void progressed(ExtractionPhase phase, double fraction);
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Differences between two extraction results, see {@link ExtractionResultDiffUtils}. Each coordination delegate of
+ * the two results is either added, removed, changed or unchanged.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultDiff {
+   private final List<Pair<Participant, Participant>> addedCds;
+   private final List<Pair<Participant, Participant>> removedCds;
+   private final Map<Pair<Participant, Participant>, CoordinationDelegateDiff> cdToDiffMap;
+   private final List<Pair<Participant, Participant>> unchangedCds;
+
+   public ExtractionResultDiff(final List<Pair<Participant, Participant>> addedCds,
+         final List<Pair<Participant, Participant>> removedCds,
+         final Map<Pair<Participant, Participant>, CoordinationDelegateDiff> cdToDiffMap,
+         final List<Pair<Participant, Participant>> unchangedCds) {
+      this.addedCds = Collections.unmodifiableList(addedCds);
+      this.removedCds = Collections.unmodifiableList(removedCds);
+      this.cdToDiffMap = Collections.unmodifiableMap(cdToDiffMap);
+      this.unchangedCds = Collections.unmodifiableList(unchangedCds);
+   }
+
+   /**
+    * @return the coordination delegates of the new result only.
+    */
+   public List<Pair<Participant, Participant>> getAddedCds() {
+      return addedCds;
+   }
+
+   /**
+    * @return the coordination delegates of the old result only.
+    */
+   public List<Pair<Participant, Participant>> getRemovedCds() {
+      return removedCds;
+   }
+
+   /**
+    * @return the differences of each coordination delegate of both results whose behavior changed.
+    */
+   public Map<Pair<Participant, Participant>, CoordinationDelegateDiff> getChangedCds() {
+      return cdToDiffMap;
+   }
+
+   /**
+    * @return the coordination delegates of both results whose behavior did not change.
+    */
+   public List<Pair<Participant, Participant>> getUnchangedCds() {
+      return unchangedCds;
+   }
+
+   public boolean isEmpty() {
+      return addedCds.isEmpty() && removedCds.isEmpty() && cdToDiffMap.isEmpty();
+   }
+
+   @Override
+   public String toString() {
+      return "ExtractionResultDiff [addedCds=" + addedCds + ", removedCds=" + removedCds + ", changedCds="
+            + cdToDiffMap.keySet() + ", unchangedCds=" + unchangedCds + "]";
+   }
+
+}
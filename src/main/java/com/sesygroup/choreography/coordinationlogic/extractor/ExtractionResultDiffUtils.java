@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Structural diff of two extraction results, which tells the coordination delegates whose behavior changed.
+ * <p>
+ * The coordination delegates are matched by their participants. The states are compared by name and the transitions
+ * by kind, names of source and target state and name of the message, thus the diff does not depend on the identity of
+ * the objects. Each behavior is hashed once, so the diff takes time linear in the size of the two results.
+ * </p>
+ * <p>
+ * A {@link CompactExtractionResult} must be expanded before the diff, otherwise the synch receive transitions of its
+ * branch synch groups are not compared.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultDiffUtils {
+
+   public static ExtractionResultDiff diff(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> oldResult,
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> newResult) {
+      Validate.notNull(oldResult, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      Validate.notNull(newResult, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      List<Pair<Participant, Participant>> addedCds = new ArrayList<Pair<Participant, Participant>>();
+      List<Pair<Participant, Participant>> removedCds = new ArrayList<Pair<Participant, Participant>>();
+      Map<Pair<Participant, Participant>, CoordinationDelegateDiff> cdToDiffMap
+            = new LinkedHashMap<Pair<Participant, Participant>, CoordinationDelegateDiff>();
+      List<Pair<Participant, Participant>> unchangedCds = new ArrayList<Pair<Participant, Participant>>();
+
+      newResult.forEach((cd, newAbstractParticipantBehavior) -> {
+         AbstractParticipantBehavior oldAbstractParticipantBehavior = oldResult.get(cd);
+         if (oldAbstractParticipantBehavior == null) {
+            addedCds.add(cd);
+            return;
+         }
+         CoordinationDelegateDiff coordinationDelegateDiff
+               = diff(cd, oldAbstractParticipantBehavior, newAbstractParticipantBehavior);
+         if (coordinationDelegateDiff.isUnchanged()) {
+            unchangedCds.add(cd);
+         } else {
+            cdToDiffMap.put(cd, coordinationDelegateDiff);
+         }
+      });
+      oldResult.keySet().forEach(cd -> {
+         if (!newResult.containsKey(cd)) {
+            removedCds.add(cd);
+         }
+      });
+
+      return new ExtractionResultDiff(addedCds, removedCds, cdToDiffMap, unchangedCds);
+   }
+
+   /**
+    * @return the differences between the old and the new behavior of the given coordination delegate.
+    */
+   public static CoordinationDelegateDiff diff(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior oldAbstractParticipantBehavior,
+         final AbstractParticipantBehavior newAbstractParticipantBehavior) {
+      Validate.notNull(oldAbstractParticipantBehavior,
+            ValidationMessages.IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE);
+      Validate.notNull(newAbstractParticipantBehavior,
+            ValidationMessages.IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE);
+      State oldInitialState = oldAbstractParticipantBehavior.getInitialState();
+      State newInitialState = newAbstractParticipantBehavior.getInitialState();
+      boolean initialStateChanged = !Objects.equals(oldInitialState == null ? null : oldInitialState.getName(),
+            newInitialState == null ? null : newInitialState.getName());
+
+      return new CoordinationDelegateDiff(cd, initialStateChanged,
+            difference(newAbstractParticipantBehavior.getStates(), oldAbstractParticipantBehavior.getStates(),
+                  ExtractionResultDiffUtils::getName),
+            difference(oldAbstractParticipantBehavior.getStates(), newAbstractParticipantBehavior.getStates(),
+                  ExtractionResultDiffUtils::getName),
+            difference(newAbstractParticipantBehavior.getTransitions(), oldAbstractParticipantBehavior.getTransitions(),
+                  TransitionKey::new),
+            difference(oldAbstractParticipantBehavior.getTransitions(), newAbstractParticipantBehavior.getTransitions(),
+                  TransitionKey::new));
+   }
+
+   /**
+    * @return the elements of the first collection whose key is not the key of an element of the second collection.
+    */
+   private static <T> List<T> difference(final Collection<? extends T> elements,
+         final Collection<? extends T> otherElements, final Function<T, Object> toKey) {
+      Set<Object> otherKeys = new HashSet<Object>(otherElements.size() * 2);
+      otherElements.forEach(otherElement -> otherKeys.add(toKey.apply(otherElement)));
+      List<T> result = new ArrayList<T>();
+      elements.forEach(element -> {
+         if (!otherKeys.contains(toKey.apply(element))) {
+            result.add(element);
+         }
+      });
+      return result;
+   }
+
+   private static String getName(final State state) {
+      return state == null ? null : state.getName();
+   }
+
+   /**
+    * Canonical form of a transition, whose hash is computed once.
+    */
+   private static final class TransitionKey {
+      private final Class<?> kind;
+      private final String sourceStateName;
+      private final String targetStateName;
+      private final String messageName;
+      private final int hash;
+
+      TransitionKey(final Transition transition) {
+         this.kind = transition.getClass();
+         this.sourceStateName = getName(transition.getSourceState());
+         this.targetStateName = getName(transition.getTargetState());
+         Message message = null;
+         if (transition instanceof SendActionTransition) {
+            message = ((SendActionTransition) transition).getMessage();
+         } else if (transition instanceof ReceiveActionTransition) {
+            message = ((ReceiveActionTransition) transition).getMessage();
+         }
+         this.messageName = message == null ? null : message.getName();
+         this.hash = Objects.hash(kind.getName(), sourceStateName, targetStateName, messageName);
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+
+      @Override
+      public boolean equals(final Object object) {
+         if (this == object) {
+            return true;
+         }
+         if (!(object instanceof TransitionKey)) {
+            return false;
+         }
+         TransitionKey other = (TransitionKey) object;
+         return hash == other.hash && kind == other.kind && Objects.equals(sourceStateName, other.sourceStateName)
+               && Objects.equals(targetStateName, other.targetStateName)
+               && Objects.equals(messageName, other.messageName);
+      }
+   }
+
+   // -----------------------------------------------------------------------
+
+   /**
+    * <p>
+    * {@code ExtractionResultDiffUtils} instances should NOT be constructed in standard programming. Instead, the class
+    * should be used statically.
+    * </p>
+    *
+    * <p>
+    * This constructor is public to permit tools that require a JavaBean instance to operate.
+    * </p>
+    */
+   public ExtractionResultDiffUtils() {
+      super();
+   }
+
+}
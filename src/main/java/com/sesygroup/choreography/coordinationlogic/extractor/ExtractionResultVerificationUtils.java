@@ -0,0 +1,296 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Structural verification of an extraction result, which visits each state and each transition a constant number of
+ * times through hash indexes.
+ * <p>
+ * The verification checks that the initial state and the endpoints of every transition are states of their
+ * coordination delegate, that every send and receive transition has a message, that every synch send has a matching
+ * synch receive in each coordination delegate it synchronizes with, and that every branch and synch state is reachable
+ * from the initial state.
+ * </p>
+ * <p>
+ * A synch message {@code Synch_{a,b}->{c,d}} sent by the coordination delegate {@code (a,b)} is matched by the receive
+ * of {@code Synch_{a,b}->{c,d}} in {@code (c,d)}, while a branching synch message {@code Synch_{a,b}->{c,d}{e,f}} is
+ * matched by the receive of {@code Synch_{a,b}->{c,d}} in {@code (c,d)} and of {@code Synch_{a,b}->{e,f}} in
+ * {@code (e,f)}. The names of the participants must not contain curly brackets.
+ * </p>
+ * <p>
+ * A result extracted with compact branch synchronization lacks the synch receive transitions that leave its branch
+ * states, thus it must be verified together with its {@link BranchSynchGroup}s, or expanded first.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultVerificationUtils {
+
+   /**
+    * Verifies the given extraction result.
+    *
+    * @return the violations, grouped by coordination delegate in the iteration order of the result, or an empty list
+    *         if the result is consistent.
+    */
+   public static List<ExtractionViolation> verify(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      return verify(result, Collections.<BranchSynchGroup>emptyList());
+   }
+
+   /**
+    * Verifies the given extraction result, whose synch receive transitions that leave the branch states are the ones
+    * of the given branch synch groups.
+    *
+    * @return the violations, grouped by coordination delegate in the iteration order of the result, or an empty list
+    *         if the result is consistent.
+    */
+   public static List<ExtractionViolation> verify(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result,
+         final Collection<BranchSynchGroup> branchSynchGroups) {
+      Validate.notNull(result, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      Validate.notNull(branchSynchGroups, ValidationMessages.IS_NULL_BRANCH_SYNCH_GROUPS_EXCEPTION_MESSAGE);
+      List<ExtractionViolation> violations = new ArrayList<ExtractionViolation>();
+
+      // index the names of the coordination delegates and the synch messages each one receives
+      Map<String, Pair<Participant, Participant>> nameToCdMap = new HashMap<String, Pair<Participant, Participant>>();
+      Map<Pair<Participant, Participant>, Set<String>> cdToReceivedSynchMessageNamesMap
+            = new HashMap<Pair<Participant, Participant>, Set<String>>();
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         nameToCdMap.put(getName(cd), cd);
+         Set<String> receivedSynchMessageNames = new HashSet<String>();
+         for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+            if (transition instanceof ReceiveActionTransition) {
+               String messageName = getName(((ReceiveActionTransition) transition).getMessage());
+               if (isSynchMessageName(messageName)) {
+                  receivedSynchMessageNames.add(messageName);
+               }
+            }
+         }
+         cdToReceivedSynchMessageNamesMap.put(cd, receivedSynchMessageNames);
+      });
+      // the coordination delegate of each alternative receives the synch message of each other alternative, moving
+      // from the branch state to the target state of the other alternative
+      Map<Pair<Participant, Participant>, Map<String, List<String>>> cdToBranchSuccessorNamesMap
+            = new HashMap<Pair<Participant, Participant>, Map<String, List<String>>>();
+      for (BranchSynchGroup branchSynchGroup : branchSynchGroups) {
+         for (int alternative = 0; alternative < branchSynchGroup.getAlternativeCount(); alternative++) {
+            Pair<Participant, Participant> cd = branchSynchGroup.getCds().get(alternative);
+            Set<String> receivedSynchMessageNames = cdToReceivedSynchMessageNamesMap.get(cd);
+            if (receivedSynchMessageNames == null) {
+               continue;
+            }
+            List<String> successorNames = cdToBranchSuccessorNamesMap
+                  .computeIfAbsent(cd, key -> new HashMap<String, List<String>>())
+                  .computeIfAbsent(branchSynchGroup.getBranchStateName(), key -> new ArrayList<String>(2));
+            for (int otherAlternative = 0; otherAlternative < branchSynchGroup
+                  .getAlternativeCount(); otherAlternative++) {
+               if (otherAlternative != alternative) {
+                  receivedSynchMessageNames
+                        .add(SynchMessageUtils.getName(branchSynchGroup.getCds().get(otherAlternative), cd));
+                  successorNames.add(branchSynchGroup.getTargetStateNames().get(otherAlternative));
+               }
+            }
+         }
+      }
+
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         verifyStructure(cd, abstractParticipantBehavior, violations);
+         verifySynchSends(cd, abstractParticipantBehavior, nameToCdMap, cdToReceivedSynchMessageNamesMap,
+               violations);
+         verifyReachability(cd, abstractParticipantBehavior,
+               cdToBranchSuccessorNamesMap.getOrDefault(cd, Collections.emptyMap()), violations);
+      });
+      return violations;
+   }
+
+   private static void verifyStructure(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior, final List<ExtractionViolation> violations) {
+      Set<State> states = abstractParticipantBehavior.getStates();
+      State initialState = abstractParticipantBehavior.getInitialState();
+      if (initialState == null || !states.contains(initialState)) {
+         violations.add(
+               new ExtractionViolation(ExtractionViolationKind.MISSING_INITIAL_STATE, cd, initialState, null, null));
+      }
+      for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+         if (transition.getSourceState() == null || !states.contains(transition.getSourceState())) {
+            violations.add(new ExtractionViolation(ExtractionViolationKind.MISSING_SOURCE_STATE, cd,
+                  transition.getSourceState(), transition, null));
+         }
+         if (transition.getTargetState() == null || !states.contains(transition.getTargetState())) {
+            violations.add(new ExtractionViolation(ExtractionViolationKind.MISSING_TARGET_STATE, cd,
+                  transition.getTargetState(), transition, null));
+         }
+         if (transition instanceof SendActionTransition && ((SendActionTransition) transition).getMessage() == null
+               || transition instanceof ReceiveActionTransition
+                     && ((ReceiveActionTransition) transition).getMessage() == null) {
+            violations.add(new ExtractionViolation(ExtractionViolationKind.MISSING_MESSAGE, cd, null, transition,
+                  null));
+         }
+      }
+   }
+
+   private static void verifySynchSends(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior,
+         final Map<String, Pair<Participant, Participant>> nameToCdMap,
+         final Map<Pair<Participant, Participant>, Set<String>> cdToReceivedSynchMessageNamesMap,
+         final List<ExtractionViolation> violations) {
+      for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+         if (!(transition instanceof SendActionTransition)) {
+            continue;
+         }
+         String messageName = getName(((SendActionTransition) transition).getMessage());
+         if (!isSynchMessageName(messageName)) {
+            continue;
+         }
+
+         // split Synch_{a,b}->{c,d}{e,f} in the names of the coordination delegates
+         int sourceEnd = messageName.indexOf('}') + 1;
+         Pair<Participant, Participant> sourceCd = sourceEnd > 0
+               ? nameToCdMap.get(messageName.substring(CoordinationLogicExtractor.SYNCH_MESSAGE_PREFIX.length(),
+                     sourceEnd))
+               : null;
+         if (sourceCd == null || !messageName.startsWith(CoordinationLogicExtractor.SYNCH_MESSAGE_TO, sourceEnd)) {
+            violations.add(new ExtractionViolation(ExtractionViolationKind.MALFORMED_SYNCH_MESSAGE, cd,
+                  transition.getSourceState(), transition, null));
+            continue;
+         }
+         int targetStart = sourceEnd + CoordinationLogicExtractor.SYNCH_MESSAGE_TO.length();
+         while (targetStart < messageName.length()) {
+            int targetEnd = messageName.indexOf('}', targetStart) + 1;
+            Pair<Participant, Participant> targetCd
+                  = targetEnd > 0 ? nameToCdMap.get(messageName.substring(targetStart, targetEnd)) : null;
+            if (targetCd == null) {
+               violations.add(new ExtractionViolation(ExtractionViolationKind.MALFORMED_SYNCH_MESSAGE, cd,
+                     transition.getSourceState(), transition, null));
+               break;
+            }
+            String receivedMessageName = messageName.substring(0, sourceEnd)
+                  + CoordinationLogicExtractor.SYNCH_MESSAGE_TO + messageName.substring(targetStart, targetEnd);
+            if (!targetCd.equals(sourceCd)
+                  && !cdToReceivedSynchMessageNamesMap.get(targetCd).contains(receivedMessageName)) {
+               violations.add(new ExtractionViolation(ExtractionViolationKind.UNMATCHED_SYNCH_SEND, cd,
+                     transition.getSourceState(), transition, targetCd));
+            }
+            targetStart = targetEnd;
+         }
+      }
+   }
+
+   private static void verifyReachability(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior,
+         final Map<String, List<String>> branchSuccessorNamesMap, final List<ExtractionViolation> violations) {
+      Map<State, List<State>> stateToSuccessorsMap = new HashMap<State, List<State>>();
+      for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+         stateToSuccessorsMap.computeIfAbsent(transition.getSourceState(), state -> new ArrayList<State>(2))
+               .add(transition.getTargetState());
+      }
+      if (!branchSuccessorNamesMap.isEmpty()) {
+         Map<String, State> nameToStateMap = new HashMap<String, State>();
+         for (State state : abstractParticipantBehavior.getStates()) {
+            if (state != null) {
+               nameToStateMap.put(state.getName(), state);
+            }
+         }
+         branchSuccessorNamesMap.forEach((branchStateName, successorNames) -> {
+            State branchState = nameToStateMap.get(branchStateName);
+            if (branchState != null) {
+               List<State> successors
+                     = stateToSuccessorsMap.computeIfAbsent(branchState, state -> new ArrayList<State>(2));
+               successorNames.forEach(successorName -> successors.add(nameToStateMap.get(successorName)));
+            }
+         });
+      }
+      Set<State> reachableStates = new HashSet<State>();
+      Deque<State> statesToVisit = new ArrayDeque<State>();
+      State initialState = abstractParticipantBehavior.getInitialState();
+      if (initialState != null) {
+         reachableStates.add(initialState);
+         statesToVisit.push(initialState);
+      }
+      while (!statesToVisit.isEmpty()) {
+         for (State successor : stateToSuccessorsMap.getOrDefault(statesToVisit.pop(), Collections.emptyList())) {
+            if (successor != null && reachableStates.add(successor)) {
+               statesToVisit.push(successor);
+            }
+         }
+      }
+
+      for (State state : abstractParticipantBehavior.getStates()) {
+         if (reachableStates.contains(state) || state == null || state.getName() == null) {
+            continue;
+         }
+         if (state.getName().endsWith(CoordinationLogicExtractor.BRANCH_STATE_SUFFIX)) {
+            violations.add(
+                  new ExtractionViolation(ExtractionViolationKind.UNREACHABLE_BRANCH_STATE, cd, state, null, null));
+         } else if (state.getName().endsWith(CoordinationLogicExtractor.SYNCH_STATE_SUFFIX)) {
+            violations.add(
+                  new ExtractionViolation(ExtractionViolationKind.UNREACHABLE_SYNCH_STATE, cd, state, null, null));
+         }
+      }
+   }
+
+   private static String getName(final Pair<Participant, Participant> cd) {
+      return "{" + cd.getLeft().getName() + "," + cd.getRight().getName() + "}";
+   }
+
+   private static String getName(final Message message) {
+      return message == null ? null : message.getName();
+   }
+
+   private static boolean isSynchMessageName(final String messageName) {
+      return messageName != null && messageName.startsWith(CoordinationLogicExtractor.SYNCH_MESSAGE_PREFIX);
+   }
+
+   // -----------------------------------------------------------------------
+
+   /**
+    * <p>
+    * {@code ExtractionResultVerificationUtils} instances should NOT be constructed in standard programming. Instead,
+    * the class should be used statically.
+    * </p>
+    *
+    * <p>
+    * This constructor is public to permit tools that require a JavaBean instance to operate.
+    * </p>
+    */
+   public ExtractionResultVerificationUtils() {
+      super();
+   }
+
+}
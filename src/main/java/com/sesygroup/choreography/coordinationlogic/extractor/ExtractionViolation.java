@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Structural violation found in the behavior of a coordination delegate.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionViolation {
+   private final ExtractionViolationKind kind;
+   private final Pair<Participant, Participant> cd;
+   private final State state;
+   private final Transition transition;
+   private final Pair<Participant, Participant> otherCd;
+
+   /**
+    * @param kind
+    *           the kind of the violation.
+    * @param cd
+    *           the coordination delegate whose behavior violates the structure.
+    * @param state
+    *           the state in violation, {@code null} if none.
+    * @param transition
+    *           the transition in violation, {@code null} if none.
+    * @param otherCd
+    *           the other coordination delegate involved in the violation, {@code null} if none.
+    */
+   public ExtractionViolation(final ExtractionViolationKind kind, final Pair<Participant, Participant> cd,
+         final State state, final Transition transition, final Pair<Participant, Participant> otherCd) {
+      this.kind = kind;
+      this.cd = cd;
+      this.state = state;
+      this.transition = transition;
+      this.otherCd = otherCd;
+   }
+
+   public ExtractionViolationKind getKind() {
+      return kind;
+   }
+
+   public Pair<Participant, Participant> getCd() {
+      return cd;
+   }
+
+   public State getState() {
+      return state;
+   }
+
+   public Transition getTransition() {
+      return transition;
+   }
+
+   public Pair<Participant, Participant> getOtherCd() {
+      return otherCd;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder builder = new StringBuilder().append(kind).append(" in ").append(cd);
+      if (state != null) {
+         builder.append(" at ").append(state);
+      }
+      if (transition != null) {
+         builder.append(" by ").append(transition);
+      }
+      if (otherCd != null) {
+         builder.append(" with ").append(otherCd);
+      }
+      return builder.toString();
+   }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+/**
+ * Kinds of the structural violations that {@link ExtractionResultVerificationUtils} finds in an extraction result.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public enum ExtractionViolationKind {
+   /**
+    * The initial state is {@code null} or is not a state of the coordination delegate.
+    */
+   MISSING_INITIAL_STATE,
+   /**
+    * The source state of a transition is {@code null} or is not a state of the coordination delegate.
+    */
+   MISSING_SOURCE_STATE,
+   /**
+    * The target state of a transition is {@code null} or is not a state of the coordination delegate.
+    */
+   MISSING_TARGET_STATE,
+   /**
+    * A send or receive transition has a {@code null} message.
+    */
+   MISSING_MESSAGE,
+   /**
+    * The name of a synch message does not name coordination delegates of the extraction result.
+    */
+   MALFORMED_SYNCH_MESSAGE,
+   /**
+    * A synch send has no matching synch receive in one of the coordination delegates it synchronizes with.
+    */
+   UNMATCHED_SYNCH_SEND,
+   /**
+    * A branch state cannot be reached from the initial state.
+    */
+   UNREACHABLE_BRANCH_STATE,
+   /**
+    * A synch state cannot be reached from the initial state.
+    */
+   UNREACHABLE_SYNCH_STATE
+}
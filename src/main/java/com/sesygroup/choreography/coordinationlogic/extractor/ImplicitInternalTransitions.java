@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * The internal transitions that each coordination delegate takes while the other coordination delegates exchange
+ * their messages, kept implicit instead of being added to the coordination delegates.
+ * <p>
+ * A choreography specification with {@code T} transitions and {@code D} coordination delegates yields about
+ * {@code T * D} internal transitions. This structure only references the classified transitions of the extraction,
+ * which are shared by all the coordination delegates, and creates the internal transitions of a coordination delegate
+ * only when they are iterated.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ImplicitInternalTransitions {
+   private final List<TransitionClassification> classifications;
+
+   ImplicitInternalTransitions(final List<TransitionClassification> classifications) {
+      this.classifications = Collections.unmodifiableList(classifications);
+   }
+
+   /**
+    * Returns the internal transitions of the given coordination delegate, created while they are iterated. The
+    * states of the transitions are the ones of the given abstract participant behavior, extracted for the coordination
+    * delegate.
+    */
+   public Iterable<InternalActionTransition> getInternalTransitions(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior) {
+      Validate.notNull(cd, ValidationMessages.IS_NULL_CD_EXCEPTION_MESSAGE);
+      Validate.notNull(abstractParticipantBehavior,
+            ValidationMessages.IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE);
+      return () -> new InternalTransitionIterator(cd, new StateRegistry(abstractParticipantBehavior));
+   }
+
+   /**
+    * Adds the internal transitions of each coordination delegate to the given extraction result, which makes it equal
+    * to the extraction result with explicit internal transitions. The result is modified in place.
+    */
+   public void materialize(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      Validate.notNull(result, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      result.forEach((cd, abstractParticipantBehavior) -> getInternalTransitions(cd, abstractParticipantBehavior)
+            .forEach(abstractParticipantBehavior.getTransitions()::add));
+   }
+
+   /**
+    * Creates the internal transition that the coordination delegate with the given states takes while the given
+    * transition of another coordination delegate is taken.
+    *
+    * @return the internal transition, or {@code null} if the coordination delegate has a branch state for the source
+    *         state of the transition, since it synchronizes instead.
+    */
+   static InternalActionTransition createInternalTransition(final SendingMessageActionTransition transition,
+         final StateLookup stateLookup) {
+      if (stateLookup.containsState(
+            transition.getSourceState().getName() + CoordinationLogicExtractor.BRANCH_STATE_SUFFIX)) {
+         return null;
+      }
+
+      State foundedSourceState = stateLookup
+            .findState(transition.getSourceState().getName() + CoordinationLogicExtractor.SYNCH_STATE_SUFFIX);
+      if (foundedSourceState == null) {
+         foundedSourceState = stateLookup.findState(transition.getSourceState().getName());
+      }
+
+      State foundedTargetState = stateLookup
+            .findState(transition.getTargetState().getName() + CoordinationLogicExtractor.SYNCH_STATE_SUFFIX);
+      if (foundedTargetState == null) {
+         foundedTargetState = stateLookup.findState(transition.getTargetState().getName());
+      }
+
+      return new InternalActionTransition(foundedSourceState, foundedTargetState);
+   }
+
+   private class InternalTransitionIterator implements Iterator<InternalActionTransition> {
+      private final Pair<Participant, Participant> cd;
+      private final StateLookup stateLookup;
+      private int nextIndex;
+      private InternalActionTransition next;
+
+      InternalTransitionIterator(final Pair<Participant, Participant> cd, final StateLookup stateLookup) {
+         this.cd = cd;
+         this.stateLookup = stateLookup;
+         advance();
+      }
+
+      @Override
+      public boolean hasNext() {
+         return next != null;
+      }
+
+      @Override
+      public InternalActionTransition next() {
+         if (next == null) {
+            throw new NoSuchElementException();
+         }
+         InternalActionTransition current = next;
+         advance();
+         return current;
+      }
+
+      private void advance() {
+         next = null;
+         while (next == null && nextIndex < classifications.size()) {
+            TransitionClassification classification = classifications.get(nextIndex++);
+            if (!classification.getCd().equals(cd)) {
+               next = createInternalTransition(classification.getTransition(), stateLookup);
+            }
+         }
+      }
+   }
+
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Message;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * Coordination logic extractor that keeps the coordination delegates up to date while the choreography specification
+ * is edited, without extracting them again from scratch.
+ * <p>
+ * What the extraction creates for a transition only depends on the transitions that enter and leave its source and
+ * target states. Thus, given a {@link ChoreographySpecificationDelta}, only the transitions that touch the states of
+ * the delta are extracted again: what they created with the previous specification is withdrawn and what they create
+ * with the edited one is added. Since different transitions can create the same state or transition of a coordination
+ * delegate, the extractor counts how many times each of them has been created, and removes it from the coordination
+ * delegate once nobody creates it anymore.
+ * </p>
+ * <p>
+ * The coordination delegates are updated in place, and after each update they contain the same states and transitions
+ * as the ones extracted from scratch from the edited specification. When the edit changes the set of coordination
+ * delegates, every transition is affected and the coordination delegates are extracted again from scratch.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class IncrementalCoordinationLogicExtractor {
+   private final CoordinationLogicExtractor coordinationLogicExtractor;
+   // how many times each state, except the base ones, and each transition has been created in each CD
+   private Map<Pair<Participant, Participant>, Map<String, Integer>> cdNameToStateCountMap;
+   private Map<Pair<Participant, Participant>, Map<Transition, Integer>> cdNameToTransitionCountMap;
+
+   public IncrementalCoordinationLogicExtractor(final ChoreographySpecification choreographySpecification) {
+      Validate.notNull(choreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      this.coordinationLogicExtractor = new CoordinationLogicExtractor(choreographySpecification);
+   }
+
+   /**
+    * @return the current, possibly edited, choreography specification.
+    */
+   public ChoreographySpecification getChoreographySpecification() {
+      return coordinationLogicExtractor.getChoreographySpecification();
+   }
+
+   /**
+    * Generates the coordination delegates from scratch, as {@link CoordinationLogicExtractor#generate()} does.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate() {
+      List<TransitionClassification> classifications = coordinationLogicExtractor.initialize();
+      cdNameToStateCountMap = new HashMap<Pair<Participant, Participant>, Map<String, Integer>>();
+      cdNameToTransitionCountMap = new HashMap<Pair<Participant, Participant>, Map<Transition, Integer>>();
+
+      CountingExtractionSink sink = new CountingExtractionSink(1);
+      classifications.forEach(classification -> coordinationLogicExtractor.applyStateRules(classification, sink));
+      classifications
+            .forEach(classification -> coordinationLogicExtractor.applyTransitionRules(classification, sink));
+
+      return coordinationLogicExtractor.getCoordinationDelegates();
+   }
+
+   /**
+    * Applies the given edit to the choreography specification and updates the coordination delegates accordingly.
+    *
+    * @return the updated coordination delegates.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> update(
+         final ChoreographySpecificationDelta choreographySpecificationDelta) {
+      Validate.notNull(choreographySpecificationDelta,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_DELTA_EXCEPTION_MESSAGE);
+      Validate.validState(cdNameToStateCountMap != null, ValidationMessages.IS_NOT_GENERATED_EXCEPTION_MESSAGE);
+      if (choreographySpecificationDelta.isEmpty()) {
+         return coordinationLogicExtractor.getCoordinationDelegates();
+      }
+
+      ChoreographySpecificationIndex previousIndex = coordinationLogicExtractor.getChoreographySpecificationIndex();
+      ChoreographySpecification choreographySpecification
+            = apply(coordinationLogicExtractor.getChoreographySpecification(), choreographySpecificationDelta);
+      ChoreographySpecificationIndex index = new ChoreographySpecificationIndex(choreographySpecification);
+
+      // a new or a disappeared CD changes the message transitions of every transition
+      if (!new HashSet<Pair<Participant, Participant>>(previousIndex.getCoordinationDelegates())
+            .equals(new HashSet<Pair<Participant, Participant>>(index.getCoordinationDelegates()))) {
+         coordinationLogicExtractor.setChoreographySpecification(choreographySpecification, index);
+         return generate();
+      }
+
+      // the states whose incoming or outgoing transitions change, and the added or removed states together with the
+      // source states of their incoming transitions, since the branches of a branching state reach the target states
+      // of its outgoing transitions
+      Set<State> baseStates = new LinkedHashSet<State>(choreographySpecificationDelta.getAddedStates());
+      baseStates.addAll(choreographySpecificationDelta.getRemovedStates());
+      Set<State> touchedStates = new LinkedHashSet<State>(baseStates);
+      baseStates.forEach(state -> {
+         previousIndex.getIncomingTransitions(state)
+               .forEach(transition -> touchedStates.add(transition.getSourceState()));
+         index.getIncomingTransitions(state).forEach(transition -> touchedStates.add(transition.getSourceState()));
+      });
+      choreographySpecificationDelta.getAddedTransitions().forEach(transition -> {
+         touchedStates.add(transition.getSourceState());
+         touchedStates.add(transition.getTargetState());
+      });
+      choreographySpecificationDelta.getRemovedTransitions().forEach(transition -> {
+         touchedStates.add(transition.getSourceState());
+         touchedStates.add(transition.getTargetState());
+      });
+
+      // withdraw what the affected transitions created, the states are still the ones they have been created from
+      CountingExtractionSink withdrawingSink = new CountingExtractionSink(-1);
+      List<TransitionClassification> previousClassifications = classify(previousIndex, touchedStates);
+      previousClassifications.forEach(
+            classification -> coordinationLogicExtractor.applyTransitionRules(classification, withdrawingSink));
+      previousClassifications
+            .forEach(classification -> coordinationLogicExtractor.applyStateRules(classification, withdrawingSink));
+
+      coordinationLogicExtractor.setChoreographySpecification(choreographySpecification, index);
+
+      // add the base states and create the states of the affected transitions, then drop the states nobody creates
+      CountingExtractionSink creatingSink = new CountingExtractionSink(1);
+      choreographySpecificationDelta.getAddedStates().forEach(state -> index.getCoordinationDelegates().forEach(
+            cd -> coordinationLogicExtractor.getStateRegistry(cd).addState(state.getName())));
+      List<TransitionClassification> classifications = classify(index, touchedStates);
+      classifications
+            .forEach(classification -> coordinationLogicExtractor.applyStateRules(classification, creatingSink));
+      choreographySpecificationDelta.getRemovedStates().forEach(state -> index.getCoordinationDelegates()
+            .forEach(cd -> withdrawingSink.getStateNames(cd).add(state.getName())));
+      withdrawingSink.removeStates(choreographySpecification);
+
+      // create the transitions of the affected transitions, then drop the transitions nobody creates
+      classifications
+            .forEach(classification -> coordinationLogicExtractor.applyTransitionRules(classification, creatingSink));
+      withdrawingSink.removeTransitions();
+
+      return coordinationLogicExtractor.getCoordinationDelegates();
+   }
+
+   private List<TransitionClassification> classify(final ChoreographySpecificationIndex index,
+         final Set<State> states) {
+      Set<com.sesygroup.choreography.choreographyspecification.model.Transition> transitions
+            = new LinkedHashSet<com.sesygroup.choreography.choreographyspecification.model.Transition>();
+      states.forEach(state -> {
+         transitions.addAll(index.getIncomingTransitions(state));
+         transitions.addAll(index.getOutgoingTransitions(state));
+      });
+
+      List<TransitionClassification> classifications = new ArrayList<TransitionClassification>();
+      transitions.forEach(transition -> {
+         if (transition instanceof SendingMessageActionTransition) {
+            classifications.add(coordinationLogicExtractor.classify((SendingMessageActionTransition) transition));
+         }
+      });
+      return classifications;
+   }
+
+   private static ChoreographySpecification apply(final ChoreographySpecification choreographySpecification,
+         final ChoreographySpecificationDelta choreographySpecificationDelta) {
+      Set<Participant> participants = new LinkedHashSet<Participant>(choreographySpecification.getParticipants());
+      Set<State> states = new LinkedHashSet<State>(choreographySpecification.getStates());
+      Set<Message> messages = new LinkedHashSet<Message>(choreographySpecification.getMessages());
+      Set<com.sesygroup.choreography.choreographyspecification.model.Transition> transitions
+            = new LinkedHashSet<com.sesygroup.choreography.choreographyspecification.model.Transition>(
+                  choreographySpecification.getTransitions());
+
+      states.removeAll(choreographySpecificationDelta.getRemovedStates());
+      states.addAll(choreographySpecificationDelta.getAddedStates());
+      transitions.removeAll(choreographySpecificationDelta.getRemovedTransitions());
+      transitions.addAll(choreographySpecificationDelta.getAddedTransitions());
+      choreographySpecificationDelta.getAddedTransitions().forEach(transition -> {
+         if (transition instanceof SendingMessageActionTransition) {
+            participants.add(((SendingMessageActionTransition) transition).getSourceParticipant());
+            participants.add(((SendingMessageActionTransition) transition).getTargetParticipant());
+            messages.add(((SendingMessageActionTransition) transition).getMessage());
+         }
+      });
+
+      return new ChoreographySpecification(participants, states, choreographySpecification.getInitialState(),
+            messages, transitions);
+   }
+
+   /**
+    * {@link ExtractionSink} that counts what is created, or withdrawn, in each CD. A state or a transition is added to
+    * the CD when it is created for the first time, while the ones withdrawn are only recorded, and removed later if
+    * nobody creates them again.
+    */
+   private class CountingExtractionSink implements ExtractionSink {
+      private final int increment;
+      private final Map<Pair<Participant, Participant>, Set<String>> cdNameToStateNamesMap
+            = new HashMap<Pair<Participant, Participant>, Set<String>>();
+      private final Map<Pair<Participant, Participant>, Set<Transition>> cdNameToTransitionsMap
+            = new HashMap<Pair<Participant, Participant>, Set<Transition>>();
+
+      CountingExtractionSink(final int increment) {
+         this.increment = increment;
+      }
+
+      @Override
+      public void addState(final Pair<Participant, Participant> cd, final String stateName) {
+         count(cdNameToStateCountMap.computeIfAbsent(cd, key -> new HashMap<String, Integer>()), stateName,
+               increment);
+         if (increment > 0) {
+            coordinationLogicExtractor.getStateRegistry(cd).addState(stateName);
+         } else {
+            getStateNames(cd).add(stateName);
+         }
+      }
+
+      @Override
+      public void addTransition(final Pair<Participant, Participant> cd, final Transition transition) {
+         count(cdNameToTransitionCountMap.computeIfAbsent(cd, key -> new HashMap<Transition, Integer>()), transition,
+               increment);
+         if (increment > 0) {
+            coordinationLogicExtractor.getStateRegistry(cd).getAbstractParticipantBehavior().getTransitions()
+                  .add(transition);
+         } else {
+            cdNameToTransitionsMap.computeIfAbsent(cd, key -> new HashSet<Transition>()).add(transition);
+         }
+      }
+
+      Set<String> getStateNames(final Pair<Participant, Participant> cd) {
+         return cdNameToStateNamesMap.computeIfAbsent(cd, key -> new HashSet<String>());
+      }
+
+      /**
+       * Removes the withdrawn states that are neither created again nor base states of the given specification.
+       */
+      void removeStates(final ChoreographySpecification choreographySpecification) {
+         cdNameToStateNamesMap.forEach((cd, stateNames) -> {
+            Map<String, Integer> stateCountMap = cdNameToStateCountMap.get(cd);
+            stateNames.forEach(stateName -> {
+               if ((stateCountMap == null || !stateCountMap.containsKey(stateName))
+                     && !choreographySpecification.getStates().contains(new State(stateName))) {
+                  coordinationLogicExtractor.getStateRegistry(cd).removeState(stateName);
+               }
+            });
+         });
+      }
+
+      /**
+       * Removes the withdrawn transitions that are not created again.
+       */
+      void removeTransitions() {
+         cdNameToTransitionsMap.forEach((cd, transitions) -> {
+            Map<Transition, Integer> transitionCountMap = cdNameToTransitionCountMap.get(cd);
+            transitions.forEach(transition -> {
+               if (transitionCountMap == null || !transitionCountMap.containsKey(transition)) {
+                  coordinationLogicExtractor.getStateRegistry(cd).getAbstractParticipantBehavior().getTransitions()
+                        .remove(transition);
+               }
+            });
+         });
+      }
+
+   }
+
+   /**
+    * Adds the increment to the count of the given key, the key is removed once its count drops to zero.
+    */
+   private static <K> void count(final Map<K, Integer> countMap, final K key, final int increment) {
+      Integer count = countMap.get(key);
+      int newCount = (count == null ? 0 : count) + increment;
+      if (newCount == 0) {
+         countMap.remove(key);
+      } else {
+         countMap.put(key, newCount);
+      }
+   }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used by the compiled extraction to avoid boxing.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class IntArrayList {
+   private int[] elements;
+   private int size;
+
+   IntArrayList() {
+      this(8);
+   }
+
+   IntArrayList(final int initialCapacity) {
+      this.elements = new int[Math.max(initialCapacity, 1)];
+   }
+
+   public void add(final int element) {
+      if (size == elements.length) {
+         elements = Arrays.copyOf(elements, size * 2);
+      }
+      elements[size++] = element;
+   }
+
+   public int get(final int index) {
+      return elements[index];
+   }
+
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return a copy of the elements of the list.
+    */
+   public int[] toArray() {
+      return Arrays.copyOf(elements, size);
+   }
+
+}
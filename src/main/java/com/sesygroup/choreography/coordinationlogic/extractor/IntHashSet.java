@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+/**
+ * Open addressing hash set of non negative primitive ints, which keeps the elements in insertion order.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class IntHashSet {
+   // each slot holds the element plus one, zero marks an empty slot
+   private int[] slots;
+   private final IntArrayList elements;
+
+   IntHashSet() {
+      this.slots = new int[16];
+      this.elements = new IntArrayList();
+   }
+
+   /**
+    * @return {@code true} if the set did not already contain the element.
+    */
+   public boolean add(final int element) {
+      int slot = find(slots, element);
+      if (slots[slot] != 0) {
+         return false;
+      }
+      slots[slot] = element + 1;
+      elements.add(element);
+      if (elements.size() * 2 > slots.length) {
+         rehash();
+      }
+      return true;
+   }
+
+   public boolean contains(final int element) {
+      return slots[find(slots, element)] != 0;
+   }
+
+   public int size() {
+      return elements.size();
+   }
+
+   /**
+    * @return the element added as the index-th one.
+    */
+   public int get(final int index) {
+      return elements.get(index);
+   }
+
+   private void rehash() {
+      int[] newSlots = new int[slots.length * 2];
+      for (int index = 0; index < elements.size(); index++) {
+         int element = elements.get(index);
+         newSlots[find(newSlots, element)] = element + 1;
+      }
+      slots = newSlots;
+   }
+
+   private static int find(final int[] slots, final int element) {
+      int mask = slots.length - 1;
+      int slot = (element * 0x9E3779B9) >>> 7 & mask;
+      while (slots[slot] != 0 && slots[slot] != element + 1) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive longs, except {@link Long#MIN_VALUE}, to primitive ints.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class LongIntHashMap {
+   private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+   private long[] keys;
+   private int[] values;
+   private int size;
+
+   LongIntHashMap() {
+      this.keys = new long[16];
+      this.values = new int[16];
+      Arrays.fill(keys, EMPTY_KEY);
+   }
+
+   /**
+    * @return the value of the given key, or the default value if the map does not contain the key.
+    */
+   public int get(final long key, final int defaultValue) {
+      int slot = find(keys, key);
+      return keys[slot] == EMPTY_KEY ? defaultValue : values[slot];
+   }
+
+   public void put(final long key, final int value) {
+      int slot = find(keys, key);
+      if (keys[slot] == EMPTY_KEY) {
+         keys[slot] = key;
+         size++;
+      }
+      values[slot] = value;
+      if (size * 2 > keys.length) {
+         rehash();
+      }
+   }
+
+   public int size() {
+      return size;
+   }
+
+   private void rehash() {
+      long[] newKeys = new long[keys.length * 2];
+      int[] newValues = new int[values.length * 2];
+      Arrays.fill(newKeys, EMPTY_KEY);
+      for (int slot = 0; slot < keys.length; slot++) {
+         if (keys[slot] != EMPTY_KEY) {
+            int newSlot = find(newKeys, keys[slot]);
+            newKeys[newSlot] = keys[slot];
+            newValues[newSlot] = values[slot];
+         }
+      }
+      keys = newKeys;
+      values = newValues;
+   }
+
+   private static int find(final long[] keys, final long key) {
+      int mask = keys.length - 1;
+      int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+      while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Table of the messages of the coordination delegates under construction, which interns each distinct message once,
+ * so that all the transitions with the same label share the same {@link InputMessage} and {@link OutputMessage}.
+ * <p>
+ * The synch messages are keyed by the coordination delegates they synchronize, and their names are rendered by
+ * {@link SynchMessageUtils} only when they are added to the table. The lookups of a known message do not allocate.
+ * The table can be shared by concurrent scans.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class MessageTable {
+   private final ConcurrentMap<String, Messages> nameToMessagesMap;
+   // synch messages from a CD to a single CD, by source and then target CD
+   private final ConcurrentMap<Pair<Participant, Participant>,
+         ConcurrentMap<Pair<Participant, Participant>, Messages>> cdToCdMessagesMap;
+   // synch messages from a CD to the other CDs leaving a branching state, by outgoing CDs and then source CD
+   private final ConcurrentMap<List<Pair<Participant, Participant>>,
+         ConcurrentMap<Pair<Participant, Participant>, Messages>> branchingMessagesMap;
+
+   MessageTable() {
+      this.nameToMessagesMap = new ConcurrentHashMap<String, Messages>();
+      this.cdToCdMessagesMap = new ConcurrentHashMap<Pair<Participant, Participant>,
+            ConcurrentMap<Pair<Participant, Participant>, Messages>>();
+      this.branchingMessagesMap = new ConcurrentHashMap<List<Pair<Participant, Participant>>,
+            ConcurrentMap<Pair<Participant, Participant>, Messages>>();
+   }
+
+   public InputMessage getInputMessage(final String name) {
+      return getMessages(name).inputMessage;
+   }
+
+   public OutputMessage getOutputMessage(final String name) {
+      return getMessages(name).outputMessage;
+   }
+
+   /**
+    * @return the message of the synchronization from the source to the target coordination delegate.
+    */
+   public InputMessage getSynchInputMessage(final Pair<Participant, Participant> sourceCd,
+         final Pair<Participant, Participant> targetCd) {
+      return getSynchMessages(sourceCd, targetCd).inputMessage;
+   }
+
+   /**
+    * @return the message of the synchronization from the source to the target coordination delegate.
+    */
+   public OutputMessage getSynchOutputMessage(final Pair<Participant, Participant> sourceCd,
+         final Pair<Participant, Participant> targetCd) {
+      return getSynchMessages(sourceCd, targetCd).outputMessage;
+   }
+
+   /**
+    * @return the message of the synchronization from the source coordination delegate to the other coordination
+    *         delegates among the given outgoing coordination delegates of a branching state.
+    */
+   public OutputMessage getBranchingSynchOutputMessage(final Pair<Participant, Participant> sourceCd,
+         final List<Pair<Participant, Participant>> outgoingCds) {
+      ConcurrentMap<Pair<Participant, Participant>, Messages> sourceCdToMessagesMap
+            = branchingMessagesMap.get(outgoingCds);
+      if (sourceCdToMessagesMap == null) {
+         sourceCdToMessagesMap = branchingMessagesMap.computeIfAbsent(outgoingCds,
+               key -> new ConcurrentHashMap<Pair<Participant, Participant>, Messages>());
+      }
+      Messages messages = sourceCdToMessagesMap.get(sourceCd);
+      if (messages == null) {
+         List<Pair<Participant, Participant>> targetCds = new ArrayList<Pair<Participant, Participant>>();
+         outgoingCds.forEach(outgoingCd -> {
+            if (!outgoingCd.equals(sourceCd)) {
+               targetCds.add(outgoingCd);
+            }
+         });
+         messages = sourceCdToMessagesMap.computeIfAbsent(sourceCd,
+               key -> getMessages(SynchMessageUtils.getName(sourceCd, targetCds)));
+      }
+      return messages.outputMessage;
+   }
+
+   private Messages getSynchMessages(final Pair<Participant, Participant> sourceCd,
+         final Pair<Participant, Participant> targetCd) {
+      ConcurrentMap<Pair<Participant, Participant>, Messages> targetCdToMessagesMap = cdToCdMessagesMap.get(sourceCd);
+      if (targetCdToMessagesMap == null) {
+         targetCdToMessagesMap = cdToCdMessagesMap.computeIfAbsent(sourceCd,
+               key -> new ConcurrentHashMap<Pair<Participant, Participant>, Messages>());
+      }
+      Messages messages = targetCdToMessagesMap.get(targetCd);
+      if (messages == null) {
+         messages = targetCdToMessagesMap.computeIfAbsent(targetCd,
+               key -> getMessages(SynchMessageUtils.getName(sourceCd, targetCd)));
+      }
+      return messages;
+   }
+
+   private Messages getMessages(final String name) {
+      Messages messages = nameToMessagesMap.get(name);
+      if (messages == null) {
+         messages = nameToMessagesMap.computeIfAbsent(name, key -> new Messages(key));
+      }
+      return messages;
+   }
+
+   private static final class Messages {
+      private final InputMessage inputMessage;
+      private final OutputMessage outputMessage;
+
+      Messages(final String name) {
+         this.inputMessage = new InputMessage(name);
+         this.outputMessage = new OutputMessage(name);
+      }
+   }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * Graph of the interactions among the participants of a {@link ChoreographySpecification}, whose nodes are the
+ * coordination delegates to be created, in order of discovery, each with its {@link CoordinationDelegateInteraction}.
+ * <p>
+ * The coordination delegates are discovered with a single scan of the transitions, which can be split in shards and run
+ * concurrently. The shards are merged in order, so that the graph does not depend on the way the scan is run.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ParticipantInteractionGraph {
+   private static final int SHARDS_PER_THREAD = 4;
+   private static final int MIN_SHARD_SIZE = 1024;
+
+   private final Map<Pair<Participant, Participant>, CoordinationDelegateInteraction> cdToInteractionMap;
+   private final List<Pair<Participant, Participant>> coordinationDelegates;
+
+   public ParticipantInteractionGraph(final ChoreographySpecification choreographySpecification) {
+      this(choreographySpecification, null);
+   }
+
+   /**
+    * Builds the graph by scanning the shards of the transitions concurrently on the given executor, for instance a
+    * {@link ForkJoinPool}, or sequentially if the executor is {@code null}.
+    */
+   public ParticipantInteractionGraph(final ChoreographySpecification choreographySpecification,
+         final Executor executor) {
+      Validate.notNull(choreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      List<Transition> transitions = new ArrayList<Transition>(choreographySpecification.getTransitions());
+
+      Shard graph;
+      if (executor == null) {
+         graph = new Shard();
+         transitions.forEach(graph::add);
+      } else {
+         List<Shard> shards = new ArrayList<Shard>();
+         List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+         int shardCount = (executor instanceof ForkJoinPool
+               ? ((ForkJoinPool) executor).getParallelism()
+               : Runtime.getRuntime().availableProcessors()) * SHARDS_PER_THREAD;
+         int shardSize = Math.max(MIN_SHARD_SIZE, (transitions.size() + shardCount - 1) / shardCount);
+         ListUtils.partition(transitions, Math.max(shardSize, 1)).forEach(shardTransitions -> {
+            Shard shard = new Shard();
+            shards.add(shard);
+            futures.add(CompletableFuture.runAsync(() -> shardTransitions.forEach(shard::add), executor));
+         });
+         join(futures);
+         graph = new Shard();
+         shards.forEach(graph::merge);
+      }
+
+      // two coordination delegates are neighbours if a transition of one reaches a state left by the other
+      graph.incomingCds.forEach((state, incomingCds) -> {
+         Set<Pair<Participant, Participant>> outgoingCds = graph.outgoingCds.get(state);
+         if (outgoingCds != null) {
+            incomingCds.forEach(incomingCd -> outgoingCds.forEach(outgoingCd -> {
+               graph.cdToInteractionMap.get(incomingCd).addNeighbourCd(outgoingCd);
+               graph.cdToInteractionMap.get(outgoingCd).addNeighbourCd(incomingCd);
+            }));
+         }
+      });
+
+      this.cdToInteractionMap = graph.cdToInteractionMap;
+      this.coordinationDelegates = Collections
+            .unmodifiableList(new ArrayList<Pair<Participant, Participant>>(graph.cdToInteractionMap.keySet()));
+   }
+
+   private static void join(final List<CompletableFuture<Void>> futures) {
+      try {
+         CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * @return the coordination delegates to be created, in order of discovery.
+    */
+   public List<Pair<Participant, Participant>> getCoordinationDelegates() {
+      return coordinationDelegates;
+   }
+
+   /**
+    * @return the interactions of the coordination delegate, or {@code null} if it is not in the graph.
+    */
+   public CoordinationDelegateInteraction getInteraction(final Pair<Participant, Participant> cd) {
+      return cdToInteractionMap.get(cd);
+   }
+
+   /**
+    * Partial graph of a shard of the transitions.
+    */
+   private static final class Shard {
+      private final Map<Pair<Participant, Participant>, CoordinationDelegateInteraction> cdToInteractionMap
+            = new LinkedHashMap<Pair<Participant, Participant>, CoordinationDelegateInteraction>();
+      private final Map<State, Set<Pair<Participant, Participant>>> outgoingCds
+            = new LinkedHashMap<State, Set<Pair<Participant, Participant>>>();
+      private final Map<State, Set<Pair<Participant, Participant>>> incomingCds
+            = new LinkedHashMap<State, Set<Pair<Participant, Participant>>>();
+
+      void add(final Transition transition) {
+         if (!(transition instanceof SendingMessageActionTransition)) {
+            return;
+         }
+         SendingMessageActionTransition sendingMessageActionTransition = (SendingMessageActionTransition) transition;
+         Pair<Participant, Participant> cd
+               = new ImmutablePair<Participant, Participant>(sendingMessageActionTransition.getSourceParticipant(),
+                     sendingMessageActionTransition.getTargetParticipant());
+         cdToInteractionMap.computeIfAbsent(cd, CoordinationDelegateInteraction::new)
+               .addTransition(transition.getSourceState(), transition.getTargetState());
+         outgoingCds.computeIfAbsent(transition.getSourceState(),
+               state -> new LinkedHashSet<Pair<Participant, Participant>>()).add(cd);
+         incomingCds.computeIfAbsent(transition.getTargetState(),
+               state -> new LinkedHashSet<Pair<Participant, Participant>>()).add(cd);
+      }
+
+      void merge(final Shard shard) {
+         shard.cdToInteractionMap.forEach((cd, interaction) -> cdToInteractionMap
+               .computeIfAbsent(cd, CoordinationDelegateInteraction::new).merge(interaction));
+         shard.outgoingCds.forEach((state, cds) -> outgoingCds
+               .computeIfAbsent(state, key -> new LinkedHashSet<Pair<Participant, Participant>>()).addAll(cds));
+         shard.incomingCds.forEach((state, cds) -> incomingCds
+               .computeIfAbsent(state, key -> new LinkedHashSet<Pair<Participant, Participant>>()).addAll(cds));
+      }
+   }
+
+}
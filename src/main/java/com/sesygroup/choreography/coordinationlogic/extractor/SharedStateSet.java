@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+
+/**
+ * Set of the states of a coordination delegate, made of the base states of the choreography specification, which are
+ * shared by all the coordination delegates, and of the states added to the coordination delegate.
+ * <p>
+ * Thus the base states take {@code O(S)} memory for all the coordination delegates, instead of {@code O(S * D)}. The
+ * shared base states are never modified, the set copies them the first time one of them is removed. The
+ * {@link State} instances of the base states are shared as well.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class SharedStateSet extends AbstractSet<State> {
+   // the shared base states, null once copied
+   private Set<State> baseStates;
+   // the added states, which do not contain the base states, or all the states once the base states are copied
+   private Set<State> addedStates;
+
+   /**
+    * Creates a set of the given base states, which the set shares and must not be modified.
+    */
+   SharedStateSet(final Set<State> baseStates) {
+      this.baseStates = Collections.unmodifiableSet(baseStates);
+      this.addedStates = new LinkedHashSet<State>();
+   }
+
+   /**
+    * Creates an abstract participant behavior whose states are the given base states, shared with the other
+    * behaviors.
+    */
+   static AbstractParticipantBehavior createAbstractParticipantBehavior(final Set<State> baseStates,
+         final State initialState) {
+      return new AbstractParticipantBehavior(new SharedStateSet(baseStates), initialState,
+            new LinkedHashSet<Message>(), new LinkedHashSet<Transition>());
+   }
+
+   @Override
+   public int size() {
+      return baseStates == null ? addedStates.size() : baseStates.size() + addedStates.size();
+   }
+
+   @Override
+   public boolean contains(final Object object) {
+      return baseStates != null && baseStates.contains(object) || addedStates.contains(object);
+   }
+
+   @Override
+   public boolean add(final State state) {
+      if (baseStates != null && baseStates.contains(state)) {
+         return false;
+      }
+      return addedStates.add(state);
+   }
+
+   @Override
+   public boolean remove(final Object object) {
+      if (baseStates != null && baseStates.contains(object)) {
+         copyBaseStates();
+      }
+      return addedStates.remove(object);
+   }
+
+   @Override
+   public void clear() {
+      baseStates = null;
+      addedStates = new LinkedHashSet<State>();
+   }
+
+   @Override
+   public Iterator<State> iterator() {
+      return baseStates == null ? addedStates.iterator() : new SharedStateIterator(baseStates, addedStates);
+   }
+
+   private void copyBaseStates() {
+      Set<State> copiedStates = new LinkedHashSet<State>(baseStates);
+      copiedStates.addAll(addedStates);
+      addedStates = copiedStates;
+      baseStates = null;
+   }
+
+   /**
+    * Iterator of the base states and then of the added states. The removal of a state copies the base states, thus
+    * the iterator keeps iterating the sets it was created with.
+    */
+   private class SharedStateIterator implements Iterator<State> {
+      private final Iterator<State> baseIterator;
+      private final Set<State> iteratedAddedStates;
+      private final Iterator<State> addedIterator;
+      private State lastState;
+      private boolean lastStateBase;
+
+      SharedStateIterator(final Set<State> baseStates, final Set<State> addedStates) {
+         this.baseIterator = baseStates.iterator();
+         this.iteratedAddedStates = addedStates;
+         this.addedIterator = addedStates.iterator();
+      }
+
+      @Override
+      public boolean hasNext() {
+         return baseIterator.hasNext() || addedIterator.hasNext();
+      }
+
+      @Override
+      public State next() {
+         if (baseIterator.hasNext()) {
+            lastState = baseIterator.next();
+            lastStateBase = true;
+         } else if (addedIterator.hasNext()) {
+            lastState = addedIterator.next();
+            lastStateBase = false;
+         } else {
+            throw new NoSuchElementException();
+         }
+         return lastState;
+      }
+
+      @Override
+      public void remove() {
+         if (lastState == null) {
+            throw new IllegalStateException();
+         }
+         if (!lastStateBase && addedStates == iteratedAddedStates) {
+            addedIterator.remove();
+         } else {
+            SharedStateSet.this.remove(lastState);
+         }
+         lastState = null;
+      }
+   }
+
+}
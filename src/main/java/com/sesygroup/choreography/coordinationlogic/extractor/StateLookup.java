@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+
+/**
+ * Lookup by name of the states of a coordination delegate, as the extraction rules see them.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+interface StateLookup {
+
+   boolean containsState(String name);
+
+   /**
+    * @return the state with the given name, or {@code null} if the coordination delegate does not contain it.
+    */
+   State findState(String name);
+
+}
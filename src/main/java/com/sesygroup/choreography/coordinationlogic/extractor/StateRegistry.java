@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+
+/**
+ * Registry of the states of an {@link AbstractParticipantBehavior} under construction, which maps each state name to
+ * the canonical {@link State} instance contained in the behavior.
+ * <p>
+ * All the states must be added through the registry, so that the lookups by name are answered in constant time
+ * instead of scanning {@link AbstractParticipantBehavior#getStates()}.
+ * </p>
+ * <p>
+ * The registries of the coordination delegates of an extraction can share the map of the base states, which is only
+ * read, and keep only the states they add. A registry copies the base states the first time it removes one.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class StateRegistry implements StateLookup {
+   private final AbstractParticipantBehavior abstractParticipantBehavior;
+   // the shared base states, null once copied
+   private Map<String, State> nameToBaseStateMap;
+   private Map<String, State> nameToStateMap;
+
+   public StateRegistry(final AbstractParticipantBehavior abstractParticipantBehavior) {
+      Validate.notNull(abstractParticipantBehavior,
+            ValidationMessages.IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE);
+      this.abstractParticipantBehavior = abstractParticipantBehavior;
+      this.nameToBaseStateMap = null;
+      this.nameToStateMap = new HashMap<String, State>();
+      abstractParticipantBehavior.getStates().forEach(state -> nameToStateMap.put(state.getName(), state));
+   }
+
+   /**
+    * Creates a registry whose behavior contains the given base states, which the map shares with the other registries
+    * and must not be modified. The behavior must contain the base states and no other state.
+    */
+   StateRegistry(final AbstractParticipantBehavior abstractParticipantBehavior,
+         final Map<String, State> nameToBaseStateMap) {
+      Validate.notNull(abstractParticipantBehavior,
+            ValidationMessages.IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE);
+      this.abstractParticipantBehavior = abstractParticipantBehavior;
+      this.nameToBaseStateMap = Collections.unmodifiableMap(nameToBaseStateMap);
+      this.nameToStateMap = new HashMap<String, State>();
+   }
+
+   public AbstractParticipantBehavior getAbstractParticipantBehavior() {
+      return abstractParticipantBehavior;
+   }
+
+   /**
+    * Adds a state with the given name to the behavior, unless it already contains one.
+    *
+    * @return the canonical state with the given name.
+    */
+   public State addState(final String name) {
+      State state = findState(name);
+      if (state == null) {
+         state = new State(name);
+         nameToStateMap.put(name, state);
+         abstractParticipantBehavior.getStates().add(state);
+      }
+      return state;
+   }
+
+   /**
+    * Removes the state with the given name from the behavior, if it contains one.
+    *
+    * @return the removed state, or {@code null} if the behavior does not contain it.
+    */
+   public State removeState(final String name) {
+      if (nameToBaseStateMap != null && nameToBaseStateMap.containsKey(name)) {
+         Map<String, State> copiedNameToStateMap = new HashMap<String, State>(nameToBaseStateMap);
+         copiedNameToStateMap.putAll(nameToStateMap);
+         nameToStateMap = copiedNameToStateMap;
+         nameToBaseStateMap = null;
+      }
+      State state = nameToStateMap.remove(name);
+      if (state != null) {
+         abstractParticipantBehavior.getStates().remove(state);
+      }
+      return state;
+   }
+
+   /**
+    * @return the canonical state with the given name, or {@code null} if the behavior does not contain it.
+    */
+   @Override
+   public State findState(final String name) {
+      State state = nameToStateMap.get(name);
+      if (state == null && nameToBaseStateMap != null) {
+         state = nameToBaseStateMap.get(name);
+      }
+      return state;
+   }
+
+   @Override
+   public boolean containsState(final String name) {
+      return nameToStateMap.containsKey(name) || nameToBaseStateMap != null && nameToBaseStateMap.containsKey(name);
+   }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Rendering of the names of the synch messages, {@code Synch_{a,b}->{c,d}{e,f}} for the synchronization that the
+ * coordination delegate {@code (a,b)} starts with the ordered list of the coordination delegates {@code (c,d)} and
+ * {@code (e,f)}.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class SynchMessageUtils {
+
+   /**
+    * @return the name of the message of the synchronization from the source to the target coordination delegate.
+    */
+   public static String getName(final Pair<Participant, Participant> sourceCd,
+         final Pair<Participant, Participant> targetCd) {
+      StringBuilder builder = new StringBuilder(CoordinationLogicExtractor.SYNCH_MESSAGE_PREFIX);
+      append(builder, sourceCd).append(CoordinationLogicExtractor.SYNCH_MESSAGE_TO);
+      return append(builder, targetCd).toString();
+   }
+
+   /**
+    * @return the name of the message of the synchronization from the source coordination delegate to the given
+    *         ordered list of target coordination delegates.
+    */
+   public static String getName(final Pair<Participant, Participant> sourceCd,
+         final List<Pair<Participant, Participant>> targetCds) {
+      StringBuilder builder = new StringBuilder(CoordinationLogicExtractor.SYNCH_MESSAGE_PREFIX);
+      append(builder, sourceCd).append(CoordinationLogicExtractor.SYNCH_MESSAGE_TO);
+      targetCds.forEach(targetCd -> append(builder, targetCd));
+      return builder.toString();
+   }
+
+   private static StringBuilder append(final StringBuilder builder, final Pair<Participant, Participant> cd) {
+      return builder.append("{").append(cd.getLeft().getName()).append(",").append(cd.getRight().getName())
+            .append("}");
+   }
+
+   // -----------------------------------------------------------------------
+
+   /**
+    * <p>
+    * {@code SynchMessageUtils} instances should NOT be constructed in standard programming. Instead, the class should
+    * be used statically.
+    * </p>
+    *
+    * <p>
+    * This constructor is public to permit tools that require a JavaBean instance to operate.
+    * </p>
+    */
+   public SynchMessageUtils() {
+      super();
+   }
+
+}
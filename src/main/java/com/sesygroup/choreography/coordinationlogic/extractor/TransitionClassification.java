@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+
+/**
+ * What the extraction rules need to know about a sending message transition of the choreography specification,
+ * computed once and shared by all the rules.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+class TransitionClassification {
+   private final SendingMessageActionTransition transition;
+   private final Pair<Participant, Participant> cd;
+   private final boolean sourceBranching;
+   private final boolean targetBranching;
+   private final List<Transition> targetOutgoingTransitions;
+   private final List<Pair<Participant, Participant>> targetOutgoingCds;
+
+   TransitionClassification(final SendingMessageActionTransition transition,
+         final ChoreographySpecificationIndex choreographySpecificationIndex) {
+      this.transition = transition;
+      this.cd = new ImmutablePair<Participant, Participant>(transition.getSourceParticipant(),
+            transition.getTargetParticipant());
+      // only the branching states of the choreography specification get a branch state, see getBranchingStates()
+      this.sourceBranching = choreographySpecificationIndex.isBranchingState(transition.getSourceState())
+            && choreographySpecificationIndex.isSpecificationState(transition.getSourceState());
+      this.targetBranching = choreographySpecificationIndex.isBranchingState(transition.getTargetState());
+      this.targetOutgoingTransitions
+            = choreographySpecificationIndex.getOutgoingTransitions(transition.getTargetState());
+      this.targetOutgoingCds
+            = choreographySpecificationIndex.getOutgoingCoordinationDelegates(transition.getTargetState());
+   }
+
+   public SendingMessageActionTransition getTransition() {
+      return transition;
+   }
+
+   /**
+    * @return the coordination delegate of the transition, that is the pair of its source and target participants.
+    */
+   public Pair<Participant, Participant> getCd() {
+      return cd;
+   }
+
+   /**
+    * @return {@code true} if the source state of the transition is a branching state of the choreography
+    *         specification.
+    */
+   public boolean isSourceBranching() {
+      return sourceBranching;
+   }
+
+   public boolean isTargetBranching() {
+      return targetBranching;
+   }
+
+   public List<Transition> getTargetOutgoingTransitions() {
+      return targetOutgoingTransitions;
+   }
+
+   /**
+    * @return the coordination delegates of the transitions that leave the target state of the transition.
+    */
+   public List<Pair<Participant, Participant>> getTargetOutgoingCds() {
+      return targetOutgoingCds;
+   }
+
+}
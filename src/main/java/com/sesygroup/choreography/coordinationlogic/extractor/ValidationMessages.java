@@ -22,8 +22,45 @@ package com.sesygroup.choreography.coordinationlogic.extractor;
  *
  */
 public class ValidationMessages {
+   public static final String IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE
+         = "Null choreography specification";
    public static final String IS_CD_NOT_IN_SET_OF_CDS_EXCEPTION_MESSAGE
          = "The coordination delegate %s is not contained in the set of coordination delegates";
+   public static final String IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE
+         = "Null abstract participant behavior";
+   public static final String IS_NULL_EXECUTOR_EXCEPTION_MESSAGE = "Null executor";
+   public static final String IS_NULL_CONSUMER_EXCEPTION_MESSAGE = "Null consumer";
+   public static final String IS_NULL_CHOREOGRAPHY_SPECIFICATION_DELTA_EXCEPTION_MESSAGE
+         = "Null choreography specification delta";
+   public static final String IS_NULL_DIRECTORY_EXCEPTION_MESSAGE = "Null directory";
+   public static final String IS_NULL_PATH_EXCEPTION_MESSAGE = "Null path";
+   public static final String IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE = "Null extraction result";
+   public static final String IS_NULL_STATE_NAME_EXCEPTION_MESSAGE = "Null state name";
+   public static final String IS_NULL_PARTICIPANT_NAME_EXCEPTION_MESSAGE = "Null participant name";
+   public static final String IS_NULL_MESSAGE_NAME_EXCEPTION_MESSAGE = "Null message name";
+   public static final String IS_NULL_TRANSITION_RECORD_EXCEPTION_MESSAGE = "Null transition record";
+   public static final String IS_NULL_READER_EXCEPTION_MESSAGE = "Null reader";
+   public static final String IS_NULL_BRANCH_SYNCH_GROUPS_EXCEPTION_MESSAGE = "Null branch synch groups";
+   public static final String IS_NULL_CD_EXCEPTION_MESSAGE = "Null coordination delegate";
+   public static final String IS_NULL_EXTRACTION_BUDGET_EXCEPTION_MESSAGE = "Null extraction budget";
+   public static final String IS_NULL_TIME_UNIT_EXCEPTION_MESSAGE = "Null time unit";
+   public static final String IS_NEGATIVE_TIMEOUT_EXCEPTION_MESSAGE = "The timeout %d is negative";
+   public static final String IS_NULL_CHANNEL_EXCEPTION_MESSAGE = "Null channel";
+   public static final String IS_NULL_INITIAL_STATE_EXCEPTION_MESSAGE = "Null initial state";
+   public static final String IS_NULL_COORDINATION_DELEGATE_TABLE_EXCEPTION_MESSAGE
+         = "Null coordination delegate table";
+   public static final String IS_TOO_LARGE_COORDINATION_DELEGATE_TABLE_EXCEPTION_MESSAGE
+         = "The table of %d states and %d messages is too large";
+   public static final String IS_NULL_CHOREOGRAPHY_SPECIFICATIONS_EXCEPTION_MESSAGE
+         = "Null choreography specifications";
+   public static final String IS_NOT_POSITIVE_CONCURRENCY_EXCEPTION_MESSAGE = "The concurrency %d is not positive";
+   public static final String IS_NEGATIVE_CACHE_SIZE_EXCEPTION_MESSAGE = "The cache size %d is negative";
+   public static final String IS_NOT_GENERATED_EXCEPTION_MESSAGE
+         = "The coordination delegates have not been generated yet";
+   public static final String IS_TRANSITION_OF_STATE_RULE_EXCEPTION_MESSAGE
+         = "The state rules only create states, but created the transition %s of the coordination delegate %s";
+   public static final String IS_MISSING_SYNCH_STATE_EXCEPTION_MESSAGE
+         = "The synch state %s is missing in the coordination delegate %s or %s";
    public static final String IS_NULL_CONCRETE_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE
    = "Null concrete participant behavior %s";
    public static final String IS_NULL_CONCRETE_PARTICIPANT_BEHAVIOR_TRANSITION_EXCEPTION_MESSAGE
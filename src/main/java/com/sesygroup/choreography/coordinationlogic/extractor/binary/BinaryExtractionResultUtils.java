@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.binary;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.ValidationMessages;
+
+/**
+ * Writer of extraction results in the binary format read by {@link MappedExtractionResult}.
+ * <p>
+ * All the numbers are big endian ints, except the offsets, which are longs. The file is made of:
+ * </p>
+ * <ul>
+ * <li>the header: magic, version, number of strings, number of coordination delegates, offset of the string table and
+ * offset of the directory;</li>
+ * <li>a section for each coordination delegate: its initial state, its states, its messages as kind and name, and its
+ * transitions as kind, source state, target state and message name;</li>
+ * <li>the string table: the offsets of the strings in the UTF-8 data that follows them, plus its length;</li>
+ * <li>the directory: for each coordination delegate, its participants, the offset of its section, its number of states
+ * and its number of transitions.</li>
+ * </ul>
+ * <p>
+ * Names are ids in the string table, or -1 for {@code null}. The states of a transition are indexes in the states of
+ * its coordination delegate, -1 for {@code null}, or {@code -2 - id} for a state out of the states of the delegate.
+ * </p>
+ * <p>
+ * The format has no room for branch synch groups, thus a {@code CompactExtractionResult} must be expanded before it
+ * is written.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BinaryExtractionResultUtils {
+   static final int MAGIC = 0x434c4542;
+   static final int VERSION = 1;
+   static final int HEADER_SIZE = 32;
+   static final int DIRECTORY_ENTRY_SIZE = 24;
+   static final long MAXIMUM_SIZE = Integer.MAX_VALUE;
+   static final int NULL = -1;
+   static final int INPUT_MESSAGE = 1;
+   static final int OUTPUT_MESSAGE = 2;
+   static final int SEND_ACTION_TRANSITION = 1;
+   static final int RECEIVE_ACTION_TRANSITION = 2;
+   static final int INTERNAL_ACTION_TRANSITION = 3;
+   private static final int BUFFER_SIZE = 1 << 16;
+
+   /**
+    * Writes the given extraction result to the given file, which is replaced atomically if the file system supports
+    * it. The coordination delegates, their states and their transitions are written in iteration order.
+    *
+    * @throws IOException if the encoded result exceeds 2 GB, which {@link MappedExtractionResult} cannot map, in which
+    *         case the file is left unchanged.
+    */
+   public static void write(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result,
+         final Path path) throws IOException {
+      Validate.notNull(result, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      Validate.notNull(path, ValidationMessages.IS_NULL_PATH_EXCEPTION_MESSAGE);
+      Path temporaryPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(),
+            ".tmp");
+      try {
+         try (FileChannel fileChannel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE,
+               StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(result, fileChannel);
+         }
+         try {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+         }
+      } finally {
+         Files.deleteIfExists(temporaryPath);
+      }
+   }
+
+   private static void write(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result,
+         final FileChannel fileChannel) throws IOException {
+      ChannelWriter writer = new ChannelWriter(fileChannel, HEADER_SIZE);
+      Map<String, Integer> stringToIdMap = new LinkedHashMap<String, Integer>();
+      List<long[]> directory = new ArrayList<long[]>();
+
+      for (Map.Entry<Pair<Participant, Participant>, AbstractParticipantBehavior> entry : result.entrySet()) {
+         AbstractParticipantBehavior abstractParticipantBehavior = entry.getValue();
+         directory.add(new long[] {intern(stringToIdMap, entry.getKey().getLeft().getName()),
+               intern(stringToIdMap, entry.getKey().getRight().getName()), writer.getPosition(),
+               abstractParticipantBehavior.getStates().size(), abstractParticipantBehavior.getTransitions().size()});
+
+         writer.putInt(intern(stringToIdMap, getName(abstractParticipantBehavior.getInitialState())));
+         Map<State, Integer> stateToIndexMap = new HashMap<State, Integer>();
+         writer.putInt(abstractParticipantBehavior.getStates().size());
+         for (State state : abstractParticipantBehavior.getStates()) {
+            stateToIndexMap.putIfAbsent(state, stateToIndexMap.size());
+            writer.putInt(intern(stringToIdMap, state.getName()));
+         }
+         writer.putInt(abstractParticipantBehavior.getMessages().size());
+         for (Message message : abstractParticipantBehavior.getMessages()) {
+            writer.putInt(message instanceof InputMessage ? INPUT_MESSAGE : OUTPUT_MESSAGE);
+            writer.putInt(intern(stringToIdMap, message.getName()));
+         }
+         writer.putInt(abstractParticipantBehavior.getTransitions().size());
+         for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+            Message message = null;
+            if (transition instanceof SendActionTransition) {
+               writer.putInt(SEND_ACTION_TRANSITION);
+               message = ((SendActionTransition) transition).getMessage();
+            } else if (transition instanceof ReceiveActionTransition) {
+               writer.putInt(RECEIVE_ACTION_TRANSITION);
+               message = ((ReceiveActionTransition) transition).getMessage();
+            } else {
+               writer.putInt(INTERNAL_ACTION_TRANSITION);
+            }
+            writer.putInt(encode(stateToIndexMap, stringToIdMap, transition.getSourceState()));
+            writer.putInt(encode(stateToIndexMap, stringToIdMap, transition.getTargetState()));
+            writer.putInt(intern(stringToIdMap, getName(message)));
+         }
+      }
+
+      long stringTableOffset = writer.getPosition();
+      List<byte[]> strings = new ArrayList<byte[]>();
+      stringToIdMap.keySet().forEach(string -> strings.add(string.getBytes(StandardCharsets.UTF_8)));
+      int stringOffset = 0;
+      for (byte[] string : strings) {
+         writer.putInt(stringOffset);
+         stringOffset += string.length;
+      }
+      writer.putInt(stringOffset);
+      for (byte[] string : strings) {
+         writer.putBytes(string);
+      }
+
+      long directoryOffset = writer.getPosition();
+      for (long[] entry : directory) {
+         writer.putInt((int) entry[0]);
+         writer.putInt((int) entry[1]);
+         writer.putLong(entry[2]);
+         writer.putInt((int) entry[3]);
+         writer.putInt((int) entry[4]);
+      }
+      writer.flush();
+      // the reader maps the whole file into a single buffer
+      if (writer.getPosition() > MAXIMUM_SIZE) {
+         throw new IOException("The extraction result exceeds 2 GB");
+      }
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION).putInt(strings.size()).putInt(directory.size()).putLong(stringTableOffset)
+            .putLong(directoryOffset);
+      ((Buffer) header).flip();
+      while (header.hasRemaining()) {
+         fileChannel.write(header, header.position());
+      }
+   }
+
+   private static int intern(final Map<String, Integer> stringToIdMap, final String string) {
+      if (string == null) {
+         return NULL;
+      }
+      Integer id = stringToIdMap.get(string);
+      if (id == null) {
+         id = stringToIdMap.size();
+         stringToIdMap.put(string, id);
+      }
+      return id;
+   }
+
+   private static int encode(final Map<State, Integer> stateToIndexMap, final Map<String, Integer> stringToIdMap,
+         final State state) {
+      if (state == null) {
+         return NULL;
+      }
+      Integer index = stateToIndexMap.get(state);
+      return index == null ? -2 - intern(stringToIdMap, state.getName()) : index;
+   }
+
+   private static String getName(final State state) {
+      return state == null ? null : state.getName();
+   }
+
+   private static String getName(final Message message) {
+      return message == null ? null : message.getName();
+   }
+
+   /**
+    * Buffered writer to a file channel, which keeps track of the position in the file.
+    */
+   private static class ChannelWriter {
+      private final FileChannel fileChannel;
+      private final ByteBuffer buffer;
+      private long position;
+
+      ChannelWriter(final FileChannel fileChannel, final long position) throws IOException {
+         this.fileChannel = fileChannel;
+         this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+         this.position = position;
+         fileChannel.position(position);
+      }
+
+      long getPosition() {
+         return position;
+      }
+
+      void putInt(final int value) throws IOException {
+         ensureRemaining(Integer.BYTES);
+         buffer.putInt(value);
+         position += Integer.BYTES;
+      }
+
+      void putLong(final long value) throws IOException {
+         ensureRemaining(Long.BYTES);
+         buffer.putLong(value);
+         position += Long.BYTES;
+      }
+
+      void putBytes(final byte[] bytes) throws IOException {
+         int offset = 0;
+         while (offset < bytes.length) {
+            ensureRemaining(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+         }
+         position += bytes.length;
+      }
+
+      void flush() throws IOException {
+         // call the Buffer methods, the covariant ByteBuffer overrides of Java 9 do not exist on Java 8
+         ((Buffer) buffer).flip();
+         while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+         }
+         ((Buffer) buffer).clear();
+      }
+
+      private void ensureRemaining(final int size) throws IOException {
+         if (buffer.remaining() < size) {
+            flush();
+         }
+      }
+   }
+
+   // -----------------------------------------------------------------------
+   /**
+    * <p>
+    * {@code BinaryExtractionResultUtils} instances should NOT be constructed in standard programming. Instead, the
+    * class should be used statically.
+    * </p>
+    *
+    * <p>
+    * This constructor is public to permit tools that require a JavaBean instance to operate.
+    * </p>
+    */
+   public BinaryExtractionResultUtils() {
+      super();
+   }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.binary;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.ValidationMessages;
+
+/**
+ * Read only view of an extraction result written by {@link BinaryExtractionResultUtils#write}, which maps the file in
+ * memory and decodes the behavior of a coordination delegate only when it is asked for.
+ * <p>
+ * Opening the view only reads the header and the directory. The strings are decoded once, the first time they are
+ * needed. The view can be shared by concurrent readers. The file must not exceed 2 GB.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class MappedExtractionResult {
+   private final ByteBuffer buffer;
+   private final int stringCount;
+   private final int stringTableOffset;
+   private final int stringDataOffset;
+   private final String[] strings;
+   private final List<Pair<Participant, Participant>> coordinationDelegates;
+   private final Map<Pair<Participant, Participant>, Integer> cdToIndexMap;
+   private final int directoryOffset;
+
+   public MappedExtractionResult(final Path path) throws IOException {
+      Validate.notNull(path, ValidationMessages.IS_NULL_PATH_EXCEPTION_MESSAGE);
+      try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+         if (fileChannel.size() > BinaryExtractionResultUtils.MAXIMUM_SIZE) {
+            throw new IOException("The extraction result " + path + " exceeds 2 GB");
+         }
+         this.buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+      }
+      if (buffer.limit() < BinaryExtractionResultUtils.HEADER_SIZE
+            || buffer.getInt(0) != BinaryExtractionResultUtils.MAGIC) {
+         throw new IOException("Unknown extraction result encoding");
+      }
+      if (buffer.getInt(4) != BinaryExtractionResultUtils.VERSION) {
+         throw new IOException("Unsupported extraction result version " + buffer.getInt(4));
+      }
+      this.stringCount = buffer.getInt(8);
+      int cdCount = buffer.getInt(12);
+      this.stringTableOffset = (int) buffer.getLong(16);
+      this.stringDataOffset = stringTableOffset + (stringCount + 1) * Integer.BYTES;
+      this.directoryOffset = (int) buffer.getLong(24);
+      this.strings = new String[stringCount];
+
+      List<Pair<Participant, Participant>> cds = new ArrayList<Pair<Participant, Participant>>(cdCount);
+      this.cdToIndexMap = new HashMap<Pair<Participant, Participant>, Integer>();
+      for (int index = 0; index < cdCount; index++) {
+         int entryOffset = directoryOffset + index * BinaryExtractionResultUtils.DIRECTORY_ENTRY_SIZE;
+         Pair<Participant, Participant> cd = new ImmutablePair<Participant, Participant>(
+               new Participant(getString(buffer.getInt(entryOffset))),
+               new Participant(getString(buffer.getInt(entryOffset + 4))));
+         cds.add(cd);
+         cdToIndexMap.put(cd, index);
+      }
+      this.coordinationDelegates = Collections.unmodifiableList(cds);
+   }
+
+   /**
+    * @return the coordination delegates, in the order they were written.
+    */
+   public List<Pair<Participant, Participant>> getCoordinationDelegates() {
+      return coordinationDelegates;
+   }
+
+   public boolean containsCoordinationDelegate(final Pair<Participant, Participant> cd) {
+      return cdToIndexMap.containsKey(cd);
+   }
+
+   /**
+    * @return the number of states of the coordination delegate, read from the directory, or -1 if the result does not
+    *         contain the coordination delegate.
+    */
+   public int getStateCount(final Pair<Participant, Participant> cd) {
+      Integer index = cdToIndexMap.get(cd);
+      return index == null ? -1 : buffer.getInt(getEntryOffset(index) + 16);
+   }
+
+   /**
+    * @return the number of transitions of the coordination delegate, read from the directory, or -1 if the result does
+    *         not contain the coordination delegate.
+    */
+   public int getTransitionCount(final Pair<Participant, Participant> cd) {
+      Integer index = cdToIndexMap.get(cd);
+      return index == null ? -1 : buffer.getInt(getEntryOffset(index) + 20);
+   }
+
+   /**
+    * Decodes the behavior of the given coordination delegate, without decoding the other ones. Each call returns a new
+    * behavior, whose transitions share the state instances of the behavior.
+    *
+    * @return the behavior of the coordination delegate, or {@code null} if the result does not contain it.
+    */
+   public AbstractParticipantBehavior getAbstractParticipantBehavior(final Pair<Participant, Participant> cd) {
+      Integer index = cdToIndexMap.get(cd);
+      return index == null ? null : decode((int) buffer.getLong(getEntryOffset(index) + 8));
+   }
+
+   /**
+    * Decodes all the coordination delegates.
+    *
+    * @return the coordination delegates, in the order they are written.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> toMap() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new LinkedHashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+      coordinationDelegates.forEach(cd -> result.put(cd, getAbstractParticipantBehavior(cd)));
+      return result;
+   }
+
+   private int getEntryOffset(final int index) {
+      return directoryOffset + index * BinaryExtractionResultUtils.DIRECTORY_ENTRY_SIZE;
+   }
+
+   private AbstractParticipantBehavior decode(final int offset) {
+      int position = offset;
+      AbstractParticipantBehavior abstractParticipantBehavior = new AbstractParticipantBehavior();
+      String initialStateName = getString(buffer.getInt(position));
+      abstractParticipantBehavior.setInitialState(initialStateName == null ? null : new State(initialStateName));
+      position += Integer.BYTES;
+
+      State[] states = new State[buffer.getInt(position)];
+      position += Integer.BYTES;
+      for (int index = 0; index < states.length; index++) {
+         states[index] = new State(getString(buffer.getInt(position)));
+         abstractParticipantBehavior.getStates().add(states[index]);
+         position += Integer.BYTES;
+      }
+
+      int messageCount = buffer.getInt(position);
+      position += Integer.BYTES;
+      for (int index = 0; index < messageCount; index++) {
+         String name = getString(buffer.getInt(position + Integer.BYTES));
+         boolean isInputMessage = buffer.getInt(position) == BinaryExtractionResultUtils.INPUT_MESSAGE;
+         abstractParticipantBehavior.getMessages().add(isInputMessage
+               ? new InputMessage(name)
+               : new OutputMessage(name));
+         position += 2 * Integer.BYTES;
+      }
+
+      int transitionCount = buffer.getInt(position);
+      position += Integer.BYTES;
+      for (int index = 0; index < transitionCount; index++) {
+         int kind = buffer.getInt(position);
+         State sourceState = decodeState(states, buffer.getInt(position + Integer.BYTES));
+         State targetState = decodeState(states, buffer.getInt(position + 2 * Integer.BYTES));
+         String messageName = getString(buffer.getInt(position + 3 * Integer.BYTES));
+         Transition transition;
+         if (kind == BinaryExtractionResultUtils.SEND_ACTION_TRANSITION) {
+            transition = new SendActionTransition(sourceState, targetState,
+                  messageName == null ? null : new OutputMessage(messageName));
+         } else if (kind == BinaryExtractionResultUtils.RECEIVE_ACTION_TRANSITION) {
+            transition = new ReceiveActionTransition(sourceState, targetState,
+                  messageName == null ? null : new InputMessage(messageName));
+         } else {
+            transition = new InternalActionTransition(sourceState, targetState);
+         }
+         abstractParticipantBehavior.getTransitions().add(transition);
+         position += 4 * Integer.BYTES;
+      }
+      return abstractParticipantBehavior;
+   }
+
+   private State decodeState(final State[] states, final int encodedState) {
+      if (encodedState >= 0) {
+         return states[encodedState];
+      }
+      return encodedState == BinaryExtractionResultUtils.NULL ? null : new State(getString(-2 - encodedState));
+   }
+
+   private String getString(final int id) {
+      if (id == BinaryExtractionResultUtils.NULL) {
+         return null;
+      }
+      // racing readers decode equal strings, thus the cache needs no synchronization
+      String string = strings[id];
+      if (string == null) {
+         int start = buffer.getInt(stringTableOffset + id * Integer.BYTES);
+         int end = buffer.getInt(stringTableOffset + (id + 1) * Integer.BYTES);
+         byte[] bytes = new byte[end - start];
+         ByteBuffer view = buffer.duplicate();
+         ((Buffer) view).position(stringDataOffset + start);
+         view.get(bytes);
+         string = new String(bytes, StandardCharsets.UTF_8);
+         strings[id] = string;
+      }
+      return string;
+   }
+
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.ValidationMessages;
+
+/**
+ * Cache of the coordination delegates generated by {@link CoordinationLogicExtractor#generate()}, addressed by the
+ * fingerprint of the choreography specification (see {@link ExtractionResultCacheUtils#fingerprint}).
+ * <p>
+ * The results are kept in a bounded in-memory tier, which evicts the least recently used results once the total
+ * weight of the results (see {@link ExtractionResultCacheUtils#weigh}) exceeds its maximum weight, and optionally in
+ * an on-disk tier, which survives the process and evicts the least recently used files once their total size exceeds
+ * its maximum size. A failure of the on-disk tier is handled as a miss.
+ * </p>
+ * <p>
+ * The cache is thread safe. Each call returns its own copy of the cached result (see
+ * {@link ExtractionResultCacheUtils#copy}), so that a caller can modify it, for instance with
+ * {@code ImplicitInternalTransitions#materialize} or {@code BranchSynchGroupUtils#expand}, without modifying the
+ * cached one. Concurrent requests for the same specification that is not cached yet may extract it more than once.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultCache {
+   private static final String FILE_SUFFIX = ".cle";
+
+   private final long maximumWeight;
+   private final Path directory;
+   private final long maximumDirectorySize;
+   // access ordered, the eldest entry is the least recently used one
+   private final LinkedHashMap<String, CacheEntry> fingerprintToCacheEntryMap
+         = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+   private long weight;
+   private long memoryHitCount;
+   private long diskHitCount;
+   private long missCount;
+   private long evictionCount;
+   private long diskFailureCount;
+
+   /**
+    * Creates a cache with the in-memory tier only.
+    *
+    * @param maximumWeight
+    *           the maximum total weight of the results kept in memory.
+    */
+   public ExtractionResultCache(final long maximumWeight) {
+      Validate.isTrue(maximumWeight >= 0, ValidationMessages.IS_NEGATIVE_CACHE_SIZE_EXCEPTION_MESSAGE, maximumWeight);
+      this.maximumWeight = maximumWeight;
+      this.directory = null;
+      this.maximumDirectorySize = 0;
+   }
+
+   /**
+    * Creates a cache with both the in-memory and the on-disk tiers.
+    *
+    * @param maximumWeight
+    *           the maximum total weight of the results kept in memory.
+    * @param directory
+    *           the directory of the on-disk tier, created if it does not exist.
+    * @param maximumDirectorySize
+    *           the maximum total size, in bytes, of the results kept on disk.
+    */
+   public ExtractionResultCache(final long maximumWeight, final Path directory, final long maximumDirectorySize) {
+      Validate.isTrue(maximumWeight >= 0, ValidationMessages.IS_NEGATIVE_CACHE_SIZE_EXCEPTION_MESSAGE, maximumWeight);
+      Validate.notNull(directory, ValidationMessages.IS_NULL_DIRECTORY_EXCEPTION_MESSAGE);
+      Validate.isTrue(maximumDirectorySize >= 0, ValidationMessages.IS_NEGATIVE_CACHE_SIZE_EXCEPTION_MESSAGE,
+            maximumDirectorySize);
+      try {
+         Files.createDirectories(directory);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      this.maximumWeight = maximumWeight;
+      this.directory = directory;
+      this.maximumDirectorySize = maximumDirectorySize;
+   }
+
+   /**
+    * Returns the coordination delegates of the given choreography specification, from the cache if they have already
+    * been generated, otherwise they are generated and cached. The returned result is a copy that the caller owns.
+    */
+   public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> generate(
+         final ChoreographySpecification choreographySpecification) {
+      String fingerprint = ExtractionResultCacheUtils.fingerprint(choreographySpecification);
+
+      synchronized (this) {
+         CacheEntry cacheEntry = fingerprintToCacheEntryMap.get(fingerprint);
+         if (cacheEntry != null) {
+            memoryHitCount++;
+            return ExtractionResultCacheUtils.copy(cacheEntry.getResult());
+         }
+      }
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result = read(fingerprint);
+      synchronized (this) {
+         if (result != null) {
+            diskHitCount++;
+         } else {
+            missCount++;
+         }
+      }
+      if (result == null) {
+         result = new CoordinationLogicExtractor(choreographySpecification).generate();
+         write(fingerprint, result);
+      }
+
+      put(fingerprint, result);
+      return ExtractionResultCacheUtils.copy(result);
+   }
+
+   /**
+    * Removes all the results from both tiers.
+    */
+   public void invalidateAll() {
+      synchronized (this) {
+         fingerprintToCacheEntryMap.clear();
+         weight = 0;
+      }
+      if (directory != null) {
+         try {
+            for (Path file : listFiles()) {
+               Files.deleteIfExists(file);
+            }
+         } catch (IOException e) {
+            synchronized (this) {
+               diskFailureCount++;
+            }
+         }
+      }
+   }
+
+   public synchronized ExtractionResultCacheStatistics getStatistics() {
+      return new ExtractionResultCacheStatistics(memoryHitCount, diskHitCount, missCount, evictionCount,
+            diskFailureCount, fingerprintToCacheEntryMap.size(), weight);
+   }
+
+   private synchronized void put(final String fingerprint,
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      long resultWeight = ExtractionResultCacheUtils.weigh(result);
+      if (resultWeight > maximumWeight) {
+         // it would evict everything else and be evicted itself
+         return;
+      }
+      CacheEntry previousCacheEntry = fingerprintToCacheEntryMap.put(fingerprint, new CacheEntry(result, resultWeight));
+      if (previousCacheEntry != null) {
+         weight -= previousCacheEntry.getWeight();
+      }
+      weight += resultWeight;
+
+      Iterator<CacheEntry> iterator = fingerprintToCacheEntryMap.values().iterator();
+      while (weight > maximumWeight && iterator.hasNext()) {
+         weight -= iterator.next().getWeight();
+         iterator.remove();
+         evictionCount++;
+      }
+   }
+
+   private Map<Pair<Participant, Participant>, AbstractParticipantBehavior> read(final String fingerprint) {
+      if (directory == null) {
+         return null;
+      }
+      Path file = directory.resolve(fingerprint + FILE_SUFFIX);
+      try (DataInputStream dataInputStream
+            = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+         Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+               = ExtractionResultCacheUtils.read(dataInputStream);
+         // the last modified time orders the files from the least recently used one
+         Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+         return result;
+      } catch (NoSuchFileException e) {
+         return null;
+      } catch (IOException e) {
+         synchronized (this) {
+            diskFailureCount++;
+         }
+         return null;
+      }
+   }
+
+   private void write(final String fingerprint,
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      if (directory == null) {
+         return;
+      }
+      try {
+         // write a temporary file and move it, so that a reader never finds a partial result
+         Path temporaryFile = Files.createTempFile(directory, fingerprint, ".tmp");
+         try {
+            try (DataOutputStream dataOutputStream
+                  = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+               ExtractionResultCacheUtils.write(result, dataOutputStream);
+            }
+            Path file = directory.resolve(fingerprint + FILE_SUFFIX);
+            try {
+               Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+               Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+         } finally {
+            Files.deleteIfExists(temporaryFile);
+         }
+         evictFiles();
+      } catch (IOException e) {
+         synchronized (this) {
+            diskFailureCount++;
+         }
+      }
+   }
+
+   private void evictFiles() throws IOException {
+      List<Path> files = listFiles();
+      long directorySize = 0;
+      List<Pair<Path, FileTime>> fileAndLastModifiedTimes = new ArrayList<Pair<Path, FileTime>>();
+      for (Path file : files) {
+         try {
+            directorySize += Files.size(file);
+            fileAndLastModifiedTimes.add(Pair.of(file, Files.getLastModifiedTime(file)));
+         } catch (NoSuchFileException e) {
+            // evicted concurrently
+         }
+      }
+      if (directorySize <= maximumDirectorySize) {
+         return;
+      }
+
+      fileAndLastModifiedTimes.sort((left, right) -> left.getRight().compareTo(right.getRight()));
+      for (Pair<Path, FileTime> fileAndLastModifiedTime : fileAndLastModifiedTimes) {
+         if (directorySize <= maximumDirectorySize) {
+            break;
+         }
+         try {
+            long size = Files.size(fileAndLastModifiedTime.getLeft());
+            if (Files.deleteIfExists(fileAndLastModifiedTime.getLeft())) {
+               directorySize -= size;
+            }
+         } catch (NoSuchFileException e) {
+            // evicted concurrently
+         }
+      }
+   }
+
+   private List<Path> listFiles() throws IOException {
+      List<Path> files = new ArrayList<Path>();
+      try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+         directoryStream.forEach(files::add);
+      }
+      return files;
+   }
+
+   private static class CacheEntry {
+      private final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result;
+      private final long weight;
+
+      CacheEntry(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result, final long weight) {
+         this.result = result;
+         this.weight = weight;
+      }
+
+      public Map<Pair<Participant, Participant>, AbstractParticipantBehavior> getResult() {
+         return result;
+      }
+
+      public long getWeight() {
+         return weight;
+      }
+
+   }
+
+}
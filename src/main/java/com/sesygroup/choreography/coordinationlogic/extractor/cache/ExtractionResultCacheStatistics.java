@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.cache;
+
+/**
+ * Snapshot of the statistics of an {@link ExtractionResultCache}.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultCacheStatistics {
+   private final long memoryHitCount;
+   private final long diskHitCount;
+   private final long missCount;
+   private final long evictionCount;
+   private final long diskFailureCount;
+   private final int size;
+   private final long weight;
+
+   public ExtractionResultCacheStatistics(final long memoryHitCount, final long diskHitCount, final long missCount,
+         final long evictionCount, final long diskFailureCount, final int size, final long weight) {
+      this.memoryHitCount = memoryHitCount;
+      this.diskHitCount = diskHitCount;
+      this.missCount = missCount;
+      this.evictionCount = evictionCount;
+      this.diskFailureCount = diskFailureCount;
+      this.size = size;
+      this.weight = weight;
+   }
+
+   /**
+    * @return the number of results found in the in-memory tier.
+    */
+   public long getMemoryHitCount() {
+      return memoryHitCount;
+   }
+
+   /**
+    * @return the number of results not found in the in-memory tier but found in the on-disk tier.
+    */
+   public long getDiskHitCount() {
+      return diskHitCount;
+   }
+
+   /**
+    * @return the number of results that have been extracted.
+    */
+   public long getMissCount() {
+      return missCount;
+   }
+
+   /**
+    * @return the number of results evicted from the in-memory tier.
+    */
+   public long getEvictionCount() {
+      return evictionCount;
+   }
+
+   /**
+    * @return the number of reads and writes of the on-disk tier that failed, each one has been handled as a miss.
+    */
+   public long getDiskFailureCount() {
+      return diskFailureCount;
+   }
+
+   /**
+    * @return the number of results in the in-memory tier.
+    */
+   public int getSize() {
+      return size;
+   }
+
+   /**
+    * @return the total weight of the results in the in-memory tier.
+    */
+   public long getWeight() {
+      return weight;
+   }
+
+   public long getRequestCount() {
+      return memoryHitCount + diskHitCount + missCount;
+   }
+
+   /**
+    * @return the ratio of the requests served by either tier, {@code 1.0} when there are no requests.
+    */
+   public double getHitRate() {
+      long requestCount = getRequestCount();
+      return requestCount == 0 ? 1.0 : (double) (memoryHitCount + diskHitCount) / requestCount;
+   }
+
+   @Override
+   public String toString() {
+      return "ExtractionResultCacheStatistics [memoryHitCount=" + memoryHitCount + ", diskHitCount=" + diskHitCount
+            + ", missCount=" + missCount + ", evictionCount=" + evictionCount + ", diskFailureCount="
+            + diskFailureCount + ", size=" + size + ", weight=" + weight + "]";
+   }
+
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+import com.sesygroup.choreography.coordinationlogic.extractor.ValidationMessages;
+
+/**
+ * Fingerprinting, weighing, copying and encoding of the extraction results stored by the
+ * {@link ExtractionResultCache}.
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultCacheUtils {
+   // bump it whenever the extraction or the encoding changes, so that the stored results are no longer found
+   private static final String FINGERPRINT_VERSION = "coordination-logic-extractor/2";
+   private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+   private static final int ENCODING_MAGIC = 0x434c4532;
+   private static final byte INPUT_MESSAGE = 1;
+   private static final byte OUTPUT_MESSAGE = 2;
+   private static final byte SEND_ACTION_TRANSITION = 1;
+   private static final byte RECEIVE_ACTION_TRANSITION = 2;
+   private static final byte INTERNAL_ACTION_TRANSITION = 3;
+
+   /**
+    * Computes the fingerprint of the given choreography specification, which covers its participants, states,
+    * initial state, messages and transitions. The fingerprint does not depend on the iteration order of the
+    * collections of the specification, thus equal specifications have the same fingerprint.
+    *
+    * @return the SHA-256 digest of the canonical form of the specification, as a lowercase hexadecimal string.
+    */
+   public static String fingerprint(final ChoreographySpecification choreographySpecification) {
+      Validate.notNull(choreographySpecification,
+            ValidationMessages.IS_NULL_CHOREOGRAPHY_SPECIFICATION_EXCEPTION_MESSAGE);
+      MessageDigest messageDigest;
+      try {
+         messageDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+      } catch (NoSuchAlgorithmException e) {
+         // every Java platform is required to support SHA-256
+         throw new IllegalStateException(e);
+      }
+
+      update(messageDigest, FINGERPRINT_VERSION);
+      update(messageDigest, canonicalize(choreographySpecification.getParticipants(), Participant::getName));
+      update(messageDigest, canonicalize(choreographySpecification.getStates(),
+            com.sesygroup.choreography.choreographyspecification.model.State::getName));
+      update(messageDigest, choreographySpecification.getInitialState() == null ? null
+            : choreographySpecification.getInitialState().getName());
+      update(messageDigest, canonicalize(choreographySpecification.getMessages(),
+            com.sesygroup.choreography.choreographyspecification.model.Message::getName));
+      update(messageDigest,
+            canonicalize(choreographySpecification.getTransitions(), ExtractionResultCacheUtils::canonicalize));
+
+      StringBuilder fingerprint = new StringBuilder();
+      for (byte b : messageDigest.digest()) {
+         fingerprint.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return fingerprint.toString();
+   }
+
+   /**
+    * @return the weight of the given extraction result, that is the number of its states and transitions.
+    */
+   public static long weigh(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      long weight = 0;
+      for (AbstractParticipantBehavior abstractParticipantBehavior : result.values()) {
+         weight += abstractParticipantBehavior.getStates().size() + abstractParticipantBehavior.getTransitions().size();
+      }
+      return weight;
+   }
+
+   /**
+    * Copies the given extraction result: the copy has its own map, behaviors and sets of states, messages and
+    * transitions, which can be modified without modifying the given result. The state, message and transition
+    * instances are shared, as the extraction never modifies them.
+    */
+   public static Map<Pair<Participant, Participant>, AbstractParticipantBehavior> copy(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> copy
+            = new LinkedHashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         AbstractParticipantBehavior abstractParticipantBehaviorCopy = new AbstractParticipantBehavior();
+         abstractParticipantBehaviorCopy.setInitialState(abstractParticipantBehavior.getInitialState());
+         abstractParticipantBehaviorCopy.getStates().addAll(abstractParticipantBehavior.getStates());
+         abstractParticipantBehaviorCopy.getMessages().addAll(abstractParticipantBehavior.getMessages());
+         abstractParticipantBehaviorCopy.getTransitions().addAll(abstractParticipantBehavior.getTransitions());
+         copy.put(cd, abstractParticipantBehaviorCopy);
+      });
+      return copy;
+   }
+
+   /**
+    * Writes the given extraction result, states and transitions of each coordination delegate are written in
+    * iteration order.
+    */
+   public static void write(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result,
+         final DataOutputStream dataOutputStream) throws IOException {
+      dataOutputStream.writeInt(ENCODING_MAGIC);
+      dataOutputStream.writeInt(result.size());
+      for (Map.Entry<Pair<Participant, Participant>, AbstractParticipantBehavior> entry : result.entrySet()) {
+         AbstractParticipantBehavior abstractParticipantBehavior = entry.getValue();
+         writeName(dataOutputStream, entry.getKey().getLeft().getName());
+         writeName(dataOutputStream, entry.getKey().getRight().getName());
+         writeName(dataOutputStream, getName(abstractParticipantBehavior.getInitialState()));
+
+         dataOutputStream.writeInt(abstractParticipantBehavior.getStates().size());
+         for (State state : abstractParticipantBehavior.getStates()) {
+            writeName(dataOutputStream, state.getName());
+         }
+
+         dataOutputStream.writeInt(abstractParticipantBehavior.getMessages().size());
+         for (Message message : abstractParticipantBehavior.getMessages()) {
+            dataOutputStream.writeByte(message instanceof InputMessage ? INPUT_MESSAGE : OUTPUT_MESSAGE);
+            writeName(dataOutputStream, message.getName());
+         }
+
+         dataOutputStream.writeInt(abstractParticipantBehavior.getTransitions().size());
+         for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+            String messageName = null;
+            if (transition instanceof SendActionTransition) {
+               dataOutputStream.writeByte(SEND_ACTION_TRANSITION);
+               messageName = getName(((SendActionTransition) transition).getMessage());
+            } else if (transition instanceof ReceiveActionTransition) {
+               dataOutputStream.writeByte(RECEIVE_ACTION_TRANSITION);
+               messageName = getName(((ReceiveActionTransition) transition).getMessage());
+            } else {
+               dataOutputStream.writeByte(INTERNAL_ACTION_TRANSITION);
+            }
+            writeName(dataOutputStream, getName(transition.getSourceState()));
+            writeName(dataOutputStream, getName(transition.getTargetState()));
+            writeName(dataOutputStream, messageName);
+         }
+      }
+   }
+
+   /**
+    * Reads an extraction result written by {@link #write(Map, DataOutputStream)}. Within each coordination delegate,
+    * the transitions share the state instances of the delegate.
+    */
+   public static Map<Pair<Participant, Participant>, AbstractParticipantBehavior> read(
+         final DataInputStream dataInputStream) throws IOException {
+      if (dataInputStream.readInt() != ENCODING_MAGIC) {
+         throw new IOException("Unknown extraction result encoding");
+      }
+      int cdCount = dataInputStream.readInt();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new HashMap<Pair<Participant, Participant>, AbstractParticipantBehavior>();
+      for (int i = 0; i < cdCount; i++) {
+         Pair<Participant, Participant> cd = new ImmutablePair<Participant, Participant>(
+               new Participant(readName(dataInputStream)), new Participant(readName(dataInputStream)));
+         AbstractParticipantBehavior abstractParticipantBehavior = new AbstractParticipantBehavior();
+         String initialStateName = readName(dataInputStream);
+
+         Map<String, State> nameToStateMap = new HashMap<String, State>();
+         int stateCount = dataInputStream.readInt();
+         for (int j = 0; j < stateCount; j++) {
+            State state = new State(readName(dataInputStream));
+            nameToStateMap.put(state.getName(), state);
+            abstractParticipantBehavior.getStates().add(state);
+         }
+         abstractParticipantBehavior.setInitialState(initialStateName == null ? null : new State(initialStateName));
+
+         int messageCount = dataInputStream.readInt();
+         for (int j = 0; j < messageCount; j++) {
+            byte kind = dataInputStream.readByte();
+            String name = readName(dataInputStream);
+            abstractParticipantBehavior.getMessages()
+                  .add(kind == INPUT_MESSAGE ? new InputMessage(name) : new OutputMessage(name));
+         }
+
+         int transitionCount = dataInputStream.readInt();
+         for (int j = 0; j < transitionCount; j++) {
+            byte kind = dataInputStream.readByte();
+            State sourceState = findState(nameToStateMap, readName(dataInputStream));
+            State targetState = findState(nameToStateMap, readName(dataInputStream));
+            String messageName = readName(dataInputStream);
+            Transition transition;
+            if (kind == SEND_ACTION_TRANSITION) {
+               transition = new SendActionTransition(sourceState, targetState,
+                     messageName == null ? null : new OutputMessage(messageName));
+            } else if (kind == RECEIVE_ACTION_TRANSITION) {
+               transition = new ReceiveActionTransition(sourceState, targetState,
+                     messageName == null ? null : new InputMessage(messageName));
+            } else if (kind == INTERNAL_ACTION_TRANSITION) {
+               transition = new InternalActionTransition(sourceState, targetState);
+            } else {
+               throw new IOException("Unknown transition kind " + kind);
+            }
+            abstractParticipantBehavior.getTransitions().add(transition);
+         }
+
+         result.put(cd, abstractParticipantBehavior);
+      }
+      return result;
+   }
+
+   private static <T> List<String> canonicalize(final Collection<T> elements, final Function<T, String> encoder) {
+      // the collections of the specification are sets, thus duplicates cannot change the fingerprint
+      Set<String> encodedElements = new HashSet<String>();
+      elements.forEach(element -> encodedElements.add(encoder.apply(element)));
+      List<String> canonicalElements = new ArrayList<String>(encodedElements);
+      Collections.sort(canonicalElements);
+      return canonicalElements;
+   }
+
+   private static String canonicalize(
+         final com.sesygroup.choreography.choreographyspecification.model.Transition transition) {
+      StringBuilder canonicalTransition = new StringBuilder(transition.getClass().getName());
+      append(canonicalTransition, getName(transition.getSourceState()));
+      append(canonicalTransition, getName(transition.getTargetState()));
+      if (transition instanceof SendingMessageActionTransition) {
+         SendingMessageActionTransition sendingMessageActionTransition = (SendingMessageActionTransition) transition;
+         append(canonicalTransition, sendingMessageActionTransition.getSourceParticipant() == null ? null
+               : sendingMessageActionTransition.getSourceParticipant().getName());
+         append(canonicalTransition, sendingMessageActionTransition.getTargetParticipant() == null ? null
+               : sendingMessageActionTransition.getTargetParticipant().getName());
+         append(canonicalTransition, sendingMessageActionTransition.getMessage() == null ? null
+               : sendingMessageActionTransition.getMessage().getName());
+      }
+      return canonicalTransition.toString();
+   }
+
+   private static void append(final StringBuilder builder, final String name) {
+      // length prefixed, so that the concatenation of the names is not ambiguous
+      if (name == null) {
+         builder.append("|-1:");
+      } else {
+         builder.append('|').append(name.length()).append(':').append(name);
+      }
+   }
+
+   private static void update(final MessageDigest messageDigest, final List<String> elements) {
+      update(messageDigest, String.valueOf(elements.size()));
+      elements.forEach(element -> update(messageDigest, element));
+   }
+
+   private static void update(final MessageDigest messageDigest, final String name) {
+      StringBuilder element = new StringBuilder();
+      append(element, name);
+      messageDigest.update(element.toString().getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static String getName(final com.sesygroup.choreography.choreographyspecification.model.State state) {
+      return state == null ? null : state.getName();
+   }
+
+   private static String getName(final State state) {
+      return state == null ? null : state.getName();
+   }
+
+   private static String getName(final Message message) {
+      return message == null ? null : message.getName();
+   }
+
+   private static State findState(final Map<String, State> nameToStateMap, final String name) {
+      if (name == null) {
+         return null;
+      }
+      State state = nameToStateMap.get(name);
+      return state == null ? new State(name) : state;
+   }
+
+   private static void writeName(final DataOutputStream dataOutputStream, final String name) throws IOException {
+      // length prefixed UTF-8 rather than writeUTF, which is limited to 65535 bytes, a limit that the labels of the
+      // synch messages of large branching states can reach
+      if (name == null) {
+         dataOutputStream.writeInt(-1);
+         return;
+      }
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      dataOutputStream.writeInt(bytes.length);
+      dataOutputStream.write(bytes);
+   }
+
+   private static String readName(final DataInputStream dataInputStream) throws IOException {
+      int length = dataInputStream.readInt();
+      if (length < 0) {
+         return null;
+      }
+      byte[] bytes = new byte[length];
+      dataInputStream.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   // -----------------------------------------------------------------------
+   /**
+    * <p>
+    * {@code ExtractionResultCacheUtils} instances should NOT be constructed in standard programming. Instead, the
+    * class should be used statically.
+    * </p>
+    *
+    * <p>
+    * This constructor is public to permit tools that require a JavaBean instance to operate.
+    * </p>
+    */
+   public ExtractionResultCacheUtils() {
+      super();
+   }
+
+}
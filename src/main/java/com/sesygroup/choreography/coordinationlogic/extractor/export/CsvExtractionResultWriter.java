@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Writer of extraction results as a CSV edge list, with a header and a record for each transition of each
+ * coordination delegate.
+ * <p>
+ * The fields of a record are the participants of the coordination delegate, the kind of the transition, which is
+ * {@code send}, {@code receive} or {@code internal}, the source state, the target state and the message, which is
+ * empty for an internal transition. The fields that contain a comma, a quote or a line break are quoted, as in RFC
+ * 4180.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CsvExtractionResultWriter extends ExtractionResultWriter {
+   static final String HEADER = "source_participant,target_participant,kind,source_state,target_state,message\n";
+
+   private boolean headerWritten;
+
+   public CsvExtractionResultWriter(final WritableByteChannel channel) {
+      super(channel);
+   }
+
+   @Override
+   public void write(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior) throws IOException {
+      writeHeader();
+      for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+         writeField(cd.getLeft().getName());
+         write(',');
+         writeField(cd.getRight().getName());
+         write(',');
+         write(getKind(transition));
+         write(',');
+         writeField(getName(transition.getSourceState()));
+         write(',');
+         writeField(getName(transition.getTargetState()));
+         write(',');
+         writeField(getMessageName(transition));
+         write('\n');
+      }
+   }
+
+   /**
+    * Writes the header, if not written yet, so that a result without coordination delegates has a header as well.
+    */
+   @Override
+   public void close() throws IOException {
+      try {
+         writeHeader();
+      } finally {
+         super.close();
+      }
+   }
+
+   private void writeHeader() throws IOException {
+      if (!headerWritten) {
+         write(HEADER);
+         headerWritten = true;
+      }
+   }
+
+   private void writeField(final String string) throws IOException {
+      if (string == null) {
+         return;
+      }
+      if (!isQuoted(string)) {
+         write(string);
+         return;
+      }
+      write('"');
+      for (int index = 0; index < string.length();) {
+         if (string.charAt(index) == '"') {
+            write('"');
+         }
+         index = writeCodePoint(string, index);
+      }
+      write('"');
+   }
+
+   private static boolean isQuoted(final String string) {
+      for (int index = 0; index < string.length(); index++) {
+         char character = string.charAt(index);
+         if (character == ',' || character == '"' || character == '\r' || character == '\n') {
+            return true;
+         }
+      }
+      return false;
+   }
+
+}
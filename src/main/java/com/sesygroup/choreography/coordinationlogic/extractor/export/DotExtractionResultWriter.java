@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Writer of extraction results in the Graphviz DOT language, as a digraph for each coordination delegate.
+ * <p>
+ * The digraph of a coordination delegate is named after its participants, the initial state is bold, and each
+ * transition is labelled with {@code !message} if it sends, {@code ?message} if it receives, or {@code tau} if it is
+ * internal.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class DotExtractionResultWriter extends ExtractionResultWriter {
+   private static final String INDENTATION = "  ";
+
+   public DotExtractionResultWriter(final WritableByteChannel channel) {
+      super(channel);
+   }
+
+   @Override
+   public void write(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior) throws IOException {
+      write("digraph \"");
+      writeEscaped(cd.getLeft().getName());
+      write(',');
+      writeEscaped(cd.getRight().getName());
+      write("\" {\n");
+      for (State state : abstractParticipantBehavior.getStates()) {
+         write(INDENTATION);
+         writeQuoted(getName(state));
+         if (state.equals(abstractParticipantBehavior.getInitialState())) {
+            write(" [style=bold]");
+         }
+         write(";\n");
+      }
+      for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+         write(INDENTATION);
+         writeQuoted(getName(transition.getSourceState()));
+         write(" -> ");
+         writeQuoted(getName(transition.getTargetState()));
+         write(" [label=\"");
+         String kind = getKind(transition);
+         if (SEND_ACTION_TRANSITION.equals(kind)) {
+            write('!');
+            writeEscaped(getMessageName(transition));
+         } else if (RECEIVE_ACTION_TRANSITION.equals(kind)) {
+            write('?');
+            writeEscaped(getMessageName(transition));
+         } else {
+            write("tau");
+         }
+         write("\"];\n");
+      }
+      write("}\n");
+   }
+
+   private void writeQuoted(final String string) throws IOException {
+      write('"');
+      writeEscaped(string);
+      write('"');
+   }
+
+   private void writeEscaped(final String string) throws IOException {
+      if (string == null) {
+         return;
+      }
+      for (int index = 0; index < string.length();) {
+         char character = string.charAt(index);
+         if (character == '"' || character == '\\') {
+            write('\\');
+            write(character);
+            index++;
+         } else if (character == '\n') {
+            write("\\n");
+            index++;
+         } else {
+            index = writeCodePoint(string, index);
+         }
+      }
+   }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.ValidationMessages;
+
+/**
+ * Streaming writer of the coordination delegates of an extraction result in a text format, one coordination delegate
+ * at a time.
+ * <p>
+ * The writer encodes the names as UTF-8 straight into a buffer, which it reuses and writes to the channel whenever
+ * full, thus it does not build strings however large the result. It is also a consumer of coordination delegates,
+ * which can be passed to {@code CoordinationLogicExtractor.generateEach}. Closing the writer flushes it and closes the
+ * channel.
+ * </p>
+ * <p>
+ * The writer only writes the transitions of the coordination delegates, thus a {@code CompactExtractionResult} must
+ * be expanded before it is written.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public abstract class ExtractionResultWriter
+      implements BiConsumer<Pair<Participant, Participant>, AbstractParticipantBehavior>, Closeable {
+   static final String SEND_ACTION_TRANSITION = "send";
+   static final String RECEIVE_ACTION_TRANSITION = "receive";
+   static final String INTERNAL_ACTION_TRANSITION = "internal";
+   private static final int BUFFER_SIZE = 1 << 16;
+   // the longest UTF-8 encoding of a code point
+   private static final int MAX_CODE_POINT_SIZE = 4;
+
+   private final WritableByteChannel channel;
+   private final ByteBuffer buffer;
+
+   protected ExtractionResultWriter(final WritableByteChannel channel) {
+      Validate.notNull(channel, ValidationMessages.IS_NULL_CHANNEL_EXCEPTION_MESSAGE);
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+   }
+
+   /**
+    * Writes the coordination delegates of the given extraction result, in iteration order.
+    */
+   public void write(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result)
+         throws IOException {
+      Validate.notNull(result, ValidationMessages.IS_NULL_EXTRACTION_RESULT_EXCEPTION_MESSAGE);
+      for (Map.Entry<Pair<Participant, Participant>, AbstractParticipantBehavior> entry : result.entrySet()) {
+         write(entry.getKey(), entry.getValue());
+      }
+   }
+
+   /**
+    * Writes the states and the transitions of the given coordination delegate, in iteration order.
+    */
+   public abstract void write(Pair<Participant, Participant> cd,
+         AbstractParticipantBehavior abstractParticipantBehavior) throws IOException;
+
+   /**
+    * Writes the given coordination delegate, see {@link #write(Pair, AbstractParticipantBehavior)}.
+    *
+    * @throws UncheckedIOException
+    *            if the coordination delegate cannot be written.
+    */
+   @Override
+   public void accept(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior) {
+      try {
+         write(cd, abstractParticipantBehavior);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * Writes the buffered output to the channel.
+    */
+   public void flush() throws IOException {
+      // call the Buffer methods, the covariant ByteBuffer overrides of Java 9 do not exist on Java 8
+      ((Buffer) buffer).flip();
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+      ((Buffer) buffer).clear();
+   }
+
+   @Override
+   public void close() throws IOException {
+      try {
+         flush();
+      } finally {
+         channel.close();
+      }
+   }
+
+   /**
+    * Writes the given ASCII character.
+    */
+   protected final void write(final char character) throws IOException {
+      if (!buffer.hasRemaining()) {
+         flush();
+      }
+      buffer.put((byte) character);
+   }
+
+   /**
+    * Writes the given string as UTF-8.
+    */
+   protected final void write(final String string) throws IOException {
+      for (int index = 0; index < string.length();) {
+         index = writeCodePoint(string, index);
+      }
+   }
+
+   /**
+    * Writes as UTF-8 the code point that starts at the given index of the given string.
+    *
+    * @return the index of the next code point.
+    */
+   protected final int writeCodePoint(final String string, final int index) throws IOException {
+      if (buffer.remaining() < MAX_CODE_POINT_SIZE) {
+         flush();
+      }
+      char character = string.charAt(index);
+      if (character < 0x80) {
+         buffer.put((byte) character);
+      } else if (character < 0x800) {
+         buffer.put((byte) (0xc0 | character >> 6));
+         buffer.put((byte) (0x80 | character & 0x3f));
+      } else if (Character.isHighSurrogate(character) && index + 1 < string.length()
+            && Character.isLowSurrogate(string.charAt(index + 1))) {
+         int codePoint = Character.toCodePoint(character, string.charAt(index + 1));
+         buffer.put((byte) (0xf0 | codePoint >> 18));
+         buffer.put((byte) (0x80 | codePoint >> 12 & 0x3f));
+         buffer.put((byte) (0x80 | codePoint >> 6 & 0x3f));
+         buffer.put((byte) (0x80 | codePoint & 0x3f));
+         return index + 2;
+      } else if (Character.isSurrogate(character)) {
+         // an unpaired surrogate is replaced, as String.getBytes does
+         buffer.put((byte) '?');
+      } else {
+         buffer.put((byte) (0xe0 | character >> 12));
+         buffer.put((byte) (0x80 | character >> 6 & 0x3f));
+         buffer.put((byte) (0x80 | character & 0x3f));
+      }
+      return index + 1;
+   }
+
+   /**
+    * @return the kind of the given transition: {@value #SEND_ACTION_TRANSITION}, {@value #RECEIVE_ACTION_TRANSITION}
+    *         or {@value #INTERNAL_ACTION_TRANSITION}.
+    */
+   static String getKind(final Transition transition) {
+      if (transition instanceof SendActionTransition) {
+         return SEND_ACTION_TRANSITION;
+      }
+      if (transition instanceof ReceiveActionTransition) {
+         return RECEIVE_ACTION_TRANSITION;
+      }
+      return INTERNAL_ACTION_TRANSITION;
+   }
+
+   /**
+    * @return the name of the message of the given transition, or {@code null} if none.
+    */
+   static String getMessageName(final Transition transition) {
+      Message message = null;
+      if (transition instanceof SendActionTransition) {
+         message = ((SendActionTransition) transition).getMessage();
+      } else if (transition instanceof ReceiveActionTransition) {
+         message = ((ReceiveActionTransition) transition).getMessage();
+      }
+      return message == null ? null : message.getName();
+   }
+
+   static String getName(final State state) {
+      return state == null ? null : state.getName();
+   }
+
+}
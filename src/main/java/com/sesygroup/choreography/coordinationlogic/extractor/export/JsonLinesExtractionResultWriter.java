@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ * Writer of extraction results as JSON lines, one JSON object for each coordination delegate, such as
+ * {@code {"cd":["p1","p2"],"initialState":"s0","states":["s0","s1"],
+ * "transitions":[{"kind":"send","source":"s0","target":"s1","message":"m1"}]}}.
+ * <p>
+ * The kind of a transition is {@code send}, {@code receive} or {@code internal}, and the message of an internal
+ * transition is {@code null}.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class JsonLinesExtractionResultWriter extends ExtractionResultWriter {
+   private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+   public JsonLinesExtractionResultWriter(final WritableByteChannel channel) {
+      super(channel);
+   }
+
+   @Override
+   public void write(final Pair<Participant, Participant> cd,
+         final AbstractParticipantBehavior abstractParticipantBehavior) throws IOException {
+      write("{\"cd\":[");
+      writeString(cd.getLeft().getName());
+      write(',');
+      writeString(cd.getRight().getName());
+      write("],\"initialState\":");
+      writeString(getName(abstractParticipantBehavior.getInitialState()));
+      write(",\"states\":[");
+      boolean first = true;
+      for (State state : abstractParticipantBehavior.getStates()) {
+         if (!first) {
+            write(',');
+         }
+         first = false;
+         writeString(getName(state));
+      }
+      write("],\"transitions\":[");
+      first = true;
+      for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+         if (!first) {
+            write(',');
+         }
+         first = false;
+         write("{\"kind\":\"");
+         write(getKind(transition));
+         write("\",\"source\":");
+         writeString(getName(transition.getSourceState()));
+         write(",\"target\":");
+         writeString(getName(transition.getTargetState()));
+         write(",\"message\":");
+         writeString(getMessageName(transition));
+         write('}');
+      }
+      write("]}\n");
+   }
+
+   private void writeString(final String string) throws IOException {
+      if (string == null) {
+         write("null");
+         return;
+      }
+      write('"');
+      for (int index = 0; index < string.length();) {
+         char character = string.charAt(index);
+         if (character == '"' || character == '\\') {
+            write('\\');
+            write(character);
+            index++;
+         } else if (character < 0x20) {
+            write("\\u00");
+            write(HEX_DIGITS[character >> 4]);
+            write(HEX_DIGITS[character & 0xf]);
+            index++;
+         } else {
+            index = writeCodePoint(string, index);
+         }
+      }
+      write('"');
+   }
+
+}
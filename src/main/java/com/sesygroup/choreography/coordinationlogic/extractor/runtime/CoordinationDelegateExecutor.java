@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.runtime;
+
+import org.apache.commons.lang3.Validate;
+
+import com.sesygroup.choreography.coordinationlogic.extractor.ValidationMessages;
+
+/**
+ * Executor of a coordination delegate, which keeps its current state and moves it through a
+ * {@link CoordinationDelegateTable}.
+ * <p>
+ * A step is a single lookup in the table and allocates nothing. An executor must not be shared by concurrent threads,
+ * while the table can.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateExecutor {
+   private final CoordinationDelegateTable coordinationDelegateTable;
+   private int currentState;
+
+   public CoordinationDelegateExecutor(final CoordinationDelegateTable coordinationDelegateTable) {
+      Validate.notNull(coordinationDelegateTable,
+            ValidationMessages.IS_NULL_COORDINATION_DELEGATE_TABLE_EXCEPTION_MESSAGE);
+      this.coordinationDelegateTable = coordinationDelegateTable;
+      this.currentState = coordinationDelegateTable.getInitialState();
+   }
+
+   public CoordinationDelegateTable getCoordinationDelegateTable() {
+      return coordinationDelegateTable;
+   }
+
+   public int getCurrentState() {
+      return currentState;
+   }
+
+   /**
+    * Moves the delegate by the given message, if it is enabled in the current state.
+    *
+    * @return {@code true} if the delegate moved, {@code false} if the message is not enabled, in which case the
+    *         current state does not change.
+    */
+   public boolean step(final int message) {
+      int nextState = coordinationDelegateTable.getNextState(currentState, message);
+      if (nextState == CoordinationDelegateTable.NO_STATE) {
+         return false;
+      }
+      currentState = nextState;
+      return true;
+   }
+
+   public boolean isEnabled(final int message) {
+      return coordinationDelegateTable.isEnabled(currentState, message);
+   }
+
+   public boolean isTerminal() {
+      return coordinationDelegateTable.isTerminal(currentState);
+   }
+
+   /**
+    * Moves the delegate back to its initial state.
+    */
+   public void reset() {
+      currentState = coordinationDelegateTable.getInitialState();
+   }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.runtime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.coordinationlogic.extractor.ValidationMessages;
+
+/**
+ * Compiled runtime form of the behavior of a coordination delegate: a dense table that maps each state and message to
+ * the next state.
+ * <p>
+ * The messages are numbered by dense int ids, the ones of the behavior first, then the ones that appear only in the
+ * transitions. The {@code InternalActionTransition}s are folded into the table by a subset construction: a state of
+ * the table is the set of states of the behavior reached by the same message, starting from the initial state alone,
+ * and the next state of a state and a message is the set of the targets of all the transitions with that message
+ * leaving any state of its internal action closure. Thus a message that leads to several targets never commits the
+ * delegate to one of them, and the table accepts exactly the sequences of messages of the behavior. Only the states
+ * reachable from the initial state are numbered, in breadth first order.
+ * </p>
+ * <p>
+ * The table takes {@code states * messages} ints, thus a minimized behavior makes a smaller table. The table is
+ * immutable, thus it can be shared by any number of {@link CoordinationDelegateExecutor}s.
+ * </p>
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateTable {
+   /**
+    * The next state of a state and a message that are not enabled.
+    */
+   public static final int NO_STATE = -1;
+   /**
+    * The id of a message that the behavior does not contain.
+    */
+   public static final int NO_MESSAGE = -1;
+
+   private final List<Set<State>> states;
+   private final Message[] messages;
+   private final Map<State, Integer> stateToIdMap;
+   private final Map<Message, Integer> messageToIdMap;
+   private final int initialState;
+   private final int[] nextStates;
+
+   public CoordinationDelegateTable(final AbstractParticipantBehavior abstractParticipantBehavior) {
+      Validate.notNull(abstractParticipantBehavior,
+            ValidationMessages.IS_NULL_ABSTRACT_PARTICIPANT_BEHAVIOR_EXCEPTION_MESSAGE);
+      Validate.notNull(abstractParticipantBehavior.getInitialState(),
+            ValidationMessages.IS_NULL_INITIAL_STATE_EXCEPTION_MESSAGE);
+
+      Map<State, Integer> behaviorStateToIdMap = new HashMap<State, Integer>();
+      List<State> stateList = new ArrayList<State>();
+      abstractParticipantBehavior.getStates().forEach(state -> intern(state, behaviorStateToIdMap, stateList));
+      this.messageToIdMap = new HashMap<Message, Integer>();
+      List<Message> messageList = new ArrayList<Message>();
+      abstractParticipantBehavior.getMessages().forEach(message -> intern(message, messageToIdMap, messageList));
+
+      List<Transition> transitionList = new ArrayList<Transition>(abstractParticipantBehavior.getTransitions());
+      int[] transitionSourceStates = new int[transitionList.size()];
+      int[] transitionTargetStates = new int[transitionList.size()];
+      int[] transitionMessages = new int[transitionList.size()];
+      for (int transition = 0; transition < transitionList.size(); transition++) {
+         transitionSourceStates[transition]
+               = intern(transitionList.get(transition).getSourceState(), behaviorStateToIdMap, stateList);
+         transitionTargetStates[transition]
+               = intern(transitionList.get(transition).getTargetState(), behaviorStateToIdMap, stateList);
+         Message message = getMessage(transitionList.get(transition));
+         transitionMessages[transition] = message == null ? NO_MESSAGE : intern(message, messageToIdMap, messageList);
+      }
+      int initialBehaviorState
+            = intern(abstractParticipantBehavior.getInitialState(), behaviorStateToIdMap, stateList);
+      State[] behaviorStates = stateList.toArray(new State[stateList.size()]);
+      this.messages = messageList.toArray(new Message[messageList.size()]);
+
+      // store the outgoing transitions of each state in compressed sparse row form
+      int[] outgoingOffsets = new int[behaviorStates.length + 1];
+      for (int transition = 0; transition < transitionSourceStates.length; transition++) {
+         outgoingOffsets[transitionSourceStates[transition] + 1]++;
+      }
+      for (int state = 0; state < behaviorStates.length; state++) {
+         outgoingOffsets[state + 1] += outgoingOffsets[state];
+      }
+      int[] outgoingTransitions = new int[transitionSourceStates.length];
+      int[] nextOutgoingTransitions = Arrays.copyOf(outgoingOffsets, behaviorStates.length);
+      for (int transition = 0; transition < transitionSourceStates.length; transition++) {
+         outgoingTransitions[nextOutgoingTransitions[transitionSourceStates[transition]]++] = transition;
+      }
+
+      // subset construction over the kernels reachable from the initial state, one row of the table per kernel
+      Map<BitSet, Integer> kernelToIdMap = new HashMap<BitSet, Integer>();
+      List<BitSet> kernelList = new ArrayList<BitSet>();
+      List<int[]> rowList = new ArrayList<int[]>();
+      BitSet initialKernel = new BitSet(behaviorStates.length);
+      initialKernel.set(initialBehaviorState);
+      intern(initialKernel, kernelToIdMap, kernelList);
+      BitSet closure = new BitSet(behaviorStates.length);
+      Deque<Integer> statesToVisit = new ArrayDeque<Integer>();
+      for (int kernel = 0; kernel < kernelList.size(); kernel++) {
+         Validate.isTrue((long) kernelList.size() * messages.length <= Integer.MAX_VALUE,
+               ValidationMessages.IS_TOO_LARGE_COORDINATION_DELEGATE_TABLE_EXCEPTION_MESSAGE, kernelList.size(),
+               messages.length);
+         // visit the internal action closure of the kernel, collecting the targets of each message
+         BitSet[] messageTargetStates = new BitSet[messages.length];
+         closure.clear();
+         closure.or(kernelList.get(kernel));
+         for (int state = closure.nextSetBit(0); state >= 0; state = closure.nextSetBit(state + 1)) {
+            statesToVisit.add(state);
+         }
+         while (!statesToVisit.isEmpty()) {
+            int closureState = statesToVisit.poll();
+            for (int index = outgoingOffsets[closureState]; index < outgoingOffsets[closureState + 1]; index++) {
+               int transition = outgoingTransitions[index];
+               int message = transitionMessages[transition];
+               int targetState = transitionTargetStates[transition];
+               if (message != NO_MESSAGE) {
+                  if (messageTargetStates[message] == null) {
+                     messageTargetStates[message] = new BitSet(behaviorStates.length);
+                  }
+                  messageTargetStates[message].set(targetState);
+               } else if (!closure.get(targetState)) {
+                  closure.set(targetState);
+                  statesToVisit.add(targetState);
+               }
+            }
+         }
+         int[] row = new int[messages.length];
+         for (int message = 0; message < messages.length; message++) {
+            row[message] = messageTargetStates[message] == null ? NO_STATE
+                  : intern(messageTargetStates[message], kernelToIdMap, kernelList);
+         }
+         rowList.add(row);
+      }
+
+      this.initialState = 0;
+      this.states = new ArrayList<Set<State>>(kernelList.size());
+      this.stateToIdMap = new HashMap<State, Integer>();
+      this.nextStates = new int[kernelList.size() * messages.length];
+      for (int kernel = 0; kernel < kernelList.size(); kernel++) {
+         BitSet kernelBehaviorStates = kernelList.get(kernel);
+         Set<State> kernelStates = new LinkedHashSet<State>();
+         for (int state = kernelBehaviorStates.nextSetBit(0); state >= 0;
+               state = kernelBehaviorStates.nextSetBit(state + 1)) {
+            kernelStates.add(behaviorStates[state]);
+         }
+         if (kernelStates.size() == 1) {
+            stateToIdMap.put(kernelStates.iterator().next(), kernel);
+         }
+         states.add(Collections.unmodifiableSet(kernelStates));
+         System.arraycopy(rowList.get(kernel), 0, nextStates, kernel * messages.length, messages.length);
+      }
+   }
+
+   private static Message getMessage(final Transition transition) {
+      if (transition instanceof SendActionTransition) {
+         return ((SendActionTransition) transition).getMessage();
+      }
+      if (transition instanceof ReceiveActionTransition) {
+         return ((ReceiveActionTransition) transition).getMessage();
+      }
+      return null;
+   }
+
+   private static <T> int intern(final T object, final Map<T, Integer> objectToIdMap, final List<T> objectList) {
+      Integer id = objectToIdMap.get(object);
+      if (id == null) {
+         id = objectList.size();
+         objectToIdMap.put(object, id);
+         objectList.add(object);
+      }
+      return id;
+   }
+
+   public int getInitialState() {
+      return initialState;
+   }
+
+   public int getStateCount() {
+      return states.size();
+   }
+
+   /**
+    * @return the states of the behavior in which the delegate can be after reaching the given state of the table,
+    *         before taking any internal action.
+    */
+   public Set<State> getStates(final int state) {
+      return states.get(state);
+   }
+
+   /**
+    * @return the id of the state of the table that stands for the given state alone, or {@link #NO_STATE} if no
+    *         reachable state of the table does.
+    */
+   public int getStateId(final State state) {
+      return stateToIdMap.getOrDefault(state, NO_STATE);
+   }
+
+   public int getMessageCount() {
+      return messages.length;
+   }
+
+   public Message getMessage(final int message) {
+      return messages[message];
+   }
+
+   /**
+    * @return the id of the given message, or {@link #NO_MESSAGE} if the behavior does not contain it.
+    */
+   public int getMessageId(final Message message) {
+      return messageToIdMap.getOrDefault(message, NO_MESSAGE);
+   }
+
+   /**
+    * @return the state reached from the given state by the given message, after any number of internal actions, or
+    *         {@link #NO_STATE} if the message is not enabled in the state.
+    */
+   public int getNextState(final int state, final int message) {
+      return nextStates[state * messages.length + message];
+   }
+
+   public boolean isEnabled(final int state, final int message) {
+      return getNextState(state, message) != NO_STATE;
+   }
+
+   /**
+    * @return {@code true} if no message is enabled in the given state, {@code false} otherwise.
+    */
+   public boolean isTerminal(final int state) {
+      int row = state * messages.length;
+      for (int message = 0; message < messages.length; message++) {
+         if (nextStates[row + message] != NO_STATE) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultAssert;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BatchCoordinationLogicExtractorTest {
+   private ExecutorService executorService;
+
+   @Before
+   public void setUp() {
+      executorService = Executors.newFixedThreadPool(4);
+   }
+
+   @After
+   public void tearDown() {
+      executorService.shutdown();
+   }
+
+   @Test
+   public void testSubmitAll() throws InterruptedException, ExecutionException {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      BatchCoordinationLogicExtractor batchCoordinationLogicExtractor
+            = new BatchCoordinationLogicExtractor(executorService, 2);
+
+      List<CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>> futures
+            = batchCoordinationLogicExtractor
+                  .submitAll(Collections.nCopies(5, ChoreographySpecificationMocks.sample()).iterator());
+
+      Assert.assertEquals(5, futures.size());
+      for (CompletableFuture<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>> future : futures) {
+         Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual = future.get();
+         ExtractionResultAssert.assertEquals(expected, actual);
+      }
+
+      // the results of the batch share the participants and the messages
+      Pair<Participant, Participant> firstCd = futures.get(0).get().keySet().iterator().next();
+      Pair<Participant, Participant> lastCd = futures.get(4).get().keySet().stream()
+            .filter(firstCd::equals).findFirst().get();
+      Assert.assertSame(firstCd, lastCd);
+      Assert.assertSame(findMessage(futures.get(0).get()), findMessage(futures.get(4).get()));
+   }
+
+   @Test
+   public void testBatchesDoNotShareMessages() throws InterruptedException, ExecutionException {
+      BatchCoordinationLogicExtractor batchCoordinationLogicExtractor
+            = new BatchCoordinationLogicExtractor(executorService, 2);
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> first
+            = batchCoordinationLogicExtractor.submit(ChoreographySpecificationMocks.sample()).get();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> second
+            = batchCoordinationLogicExtractor.submit(ChoreographySpecificationMocks.sample()).get();
+
+      // the messages are interned per batch, thus the extractor does not retain them across batches
+      Assert.assertEquals(findMessage(first), findMessage(second));
+      Assert.assertNotSame(findMessage(first), findMessage(second));
+   }
+
+   @Test
+   public void testGenerateAll() {
+      BatchCoordinationLogicExtractor batchCoordinationLogicExtractor
+            = new BatchCoordinationLogicExtractor(executorService, 2);
+      List<ChoreographySpecification> choreographySpecifications = Arrays.asList(
+            ChoreographySpecificationMocks.sample(), null, ChoreographySpecificationMocks.sample(),
+            ChoreographySpecificationMocks.sample());
+
+      List<BatchExtractionResult> results = batchCoordinationLogicExtractor
+            .generateAll(choreographySpecifications.iterator()).collect(Collectors.toList());
+
+      Assert.assertEquals(4, results.size());
+      Assert.assertEquals(3, results.stream().filter(BatchExtractionResult::isSuccessful).count());
+      results.stream().filter(BatchExtractionResult::isSuccessful)
+            .forEach(result -> Assert.assertEquals(5, result.getCoordinationDelegates().size()));
+   }
+
+   @Test(timeout = 10000)
+   public void testGenerateAllAfterRejectedExecution() {
+      AtomicBoolean rejected = new AtomicBoolean();
+      BatchCoordinationLogicExtractor batchCoordinationLogicExtractor
+            = new BatchCoordinationLogicExtractor(command -> {
+               if (rejected.compareAndSet(false, true)) {
+                  throw new RejectedExecutionException();
+               }
+               executorService.execute(command);
+            }, 1);
+      Iterator<BatchExtractionResult> results = batchCoordinationLogicExtractor
+            .generateAll(Collections.nCopies(2, ChoreographySpecificationMocks.sample()).iterator()).iterator();
+
+      try {
+         results.hasNext();
+         Assert.fail();
+      } catch (RejectedExecutionException e) {
+         // the rejected specification is submitted again, and its permit was released
+      }
+      int resultCount = 0;
+      while (results.hasNext()) {
+         Assert.assertTrue(results.next().isSuccessful());
+         resultCount++;
+      }
+      Assert.assertEquals(2, resultCount);
+   }
+
+   private static InputMessage findMessage(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> coordinationDelegates) {
+      for (AbstractParticipantBehavior abstractParticipantBehavior : coordinationDelegates.values()) {
+         for (Transition transition : abstractParticipantBehavior.getTransitions()) {
+            if (transition instanceof ReceiveActionTransition && "m1"
+                  .equals(((ReceiveActionTransition) transition).getMessage().getName())) {
+               return (InputMessage) ((ReceiveActionTransition) transition).getMessage();
+            }
+         }
+      }
+      throw new AssertionError();
+   }
+
+}
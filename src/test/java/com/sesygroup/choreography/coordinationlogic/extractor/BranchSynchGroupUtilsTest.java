@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BranchSynchGroupUtilsTest {
+
+   @Test
+   public void testExpandEqualsClassicResult() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> classicResult
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      CoordinationLogicExtractor compactExtractor
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      compactExtractor.setCompactBranchSynchronization(true);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> compactResult = compactExtractor.generate();
+
+      Assert.assertFalse(compactExtractor.getBranchSynchGroups().isEmpty());
+      Assert.assertTrue(count(compactResult) < count(classicResult));
+
+      BranchSynchGroupUtils.expand(compactResult, compactExtractor.getBranchSynchGroups());
+
+      Assert.assertEquals(classicResult.keySet(), compactResult.keySet());
+      classicResult.forEach((cd, abstractParticipantBehavior) -> {
+         Assert.assertEquals(new HashSet<>(abstractParticipantBehavior.getStates()),
+               new HashSet<>(compactResult.get(cd).getStates()));
+         Assert.assertEquals(new HashSet<>(abstractParticipantBehavior.getTransitions()),
+               new HashSet<>(compactResult.get(cd).getTransitions()));
+         Assert.assertEquals(abstractParticipantBehavior.getTransitions().size(),
+               compactResult.get(cd).getTransitions().size());
+      });
+      Assert.assertEquals("[]", ExtractionResultVerificationUtils.verify(compactResult).toString());
+   }
+
+   @Test
+   public void testVerifyCompactResult() {
+      CompactExtractionResult compactResult
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generateCompact();
+
+      Assert.assertFalse(compactResult.getBranchSynchGroups().isEmpty());
+      // the coordination delegates alone lack the synch receive transitions of the groups
+      Assert.assertTrue(ExtractionResultVerificationUtils.verify(compactResult.getCoordinationDelegates()).stream()
+            .anyMatch(violation -> violation.getKind() == ExtractionViolationKind.UNMATCHED_SYNCH_SEND));
+      Assert.assertEquals("[]", ExtractionResultVerificationUtils
+            .verify(compactResult.getCoordinationDelegates(), compactResult.getBranchSynchGroups()).toString());
+      Assert.assertEquals("[]", ExtractionResultVerificationUtils.verify(compactResult.expand()).toString());
+   }
+
+   @Test
+   public void testClassicResultHasNoBranchSynchGroups() {
+      CoordinationLogicExtractor extractor = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      extractor.generate();
+
+      Assert.assertTrue(extractor.getBranchSynchGroups().isEmpty());
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testGetBranchSynchGroupsBeforeGenerate() {
+      new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).getBranchSynchGroups();
+   }
+
+   private static int count(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result) {
+      return result.values().stream().mapToInt(abstractParticipantBehavior -> abstractParticipantBehavior
+            .getTransitions().size()).sum();
+   }
+
+}
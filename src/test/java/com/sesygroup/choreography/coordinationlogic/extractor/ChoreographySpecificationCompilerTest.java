@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultAssert;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ChoreographySpecificationCompilerTest {
+   private static ChoreographySpecification choreographySpecification;
+
+   @BeforeClass
+   public static void setUp() {
+      choreographySpecification = ChoreographySpecificationMocks.sample();
+   }
+
+   @Test
+   public void testCompileAsCompiledChoreographySpecification() throws IOException {
+      StringBuilder records = new StringBuilder("# sample\n\n");
+      choreographySpecification.getTransitions().stream().filter(SendingMessageActionTransition.class::isInstance)
+            .map(SendingMessageActionTransition.class::cast)
+            .forEach(transition -> records.append("transition ").append(transition.getSourceState().getName())
+                  .append(' ').append(transition.getTargetState().getName()).append(' ')
+                  .append(transition.getSourceParticipant().getName()).append(' ')
+                  .append(transition.getTargetParticipant().getName()).append('\t')
+                  .append(transition.getMessage().getName()).append('\n'));
+      // the states of the specification come first even if they are added after the transitions
+      choreographySpecification.getStates().forEach(state -> records.append("state ").append(state.getName())
+            .append('\n'));
+      records.append("initial ").append(choreographySpecification.getInitialState().getName()).append('\n');
+
+      ChoreographySpecificationCompiler choreographySpecificationCompiler = new ChoreographySpecificationCompiler();
+      choreographySpecificationCompiler.read(new BufferedReader(new StringReader(records.toString())));
+      CompiledChoreographySpecification actual = choreographySpecificationCompiler.compile();
+      CompiledChoreographySpecification expected = new CompiledChoreographySpecification(choreographySpecification);
+
+      Assert.assertEquals(expected.getInitialStateName(), actual.getInitialStateName());
+      Assert.assertEquals(expected.getSpecificationStateCount(), actual.getSpecificationStateCount());
+      Assert.assertEquals(expected.getStateCount(), actual.getStateCount());
+      Assert.assertEquals(expected.getCoordinationDelegateCount(), actual.getCoordinationDelegateCount());
+      Assert.assertEquals(expected.getTransitionCount(), actual.getTransitionCount());
+      for (int state = 0; state < expected.getStateCount(); state++) {
+         Assert.assertEquals(expected.getStateName(state), actual.getStateName(state));
+         Assert.assertEquals(expected.getOutgoingTransitionCount(state), actual.getOutgoingTransitionCount(state));
+      }
+   }
+
+   @Test
+   public void testGenerateAsCoordinationLogicExtractor() {
+      ExtractionResultAssert.assertEquals(new CoordinationLogicExtractor(choreographySpecification).generate(),
+            new CompiledCoordinationLogicExtractor(compile(choreographySpecification)).generate());
+   }
+
+   @Test
+   public void testGenerateGeneratedAsCoordinationLogicExtractor() {
+      ChoreographySpecification generated = ChoreographySpecificationMocks.generated(800, 7);
+
+      ExtractionResultAssert.assertEquals(new CoordinationLogicExtractor(generated).generate(),
+            new CompiledCoordinationLogicExtractor(compile(generated)).generate());
+   }
+
+   @Test
+   public void testAddRepeatedTransition() throws IOException {
+      ChoreographySpecificationCompiler choreographySpecificationCompiler = new ChoreographySpecificationCompiler();
+      choreographySpecificationCompiler.read(new BufferedReader(new StringReader("initial s0\nstate s0\nstate s1\n"
+            + "transition s0 s1 p1 p2 m1\ntransition s0 s1 p1 p2 m1\n")));
+      choreographySpecificationCompiler.addTransition(new ChoreographyTransitionRecord("s0", "s1", "p1", "p2", "m1"));
+      CompiledChoreographySpecification compiledChoreographySpecification = choreographySpecificationCompiler.compile();
+
+      Assert.assertEquals(1, compiledChoreographySpecification.getTransitionCount());
+      Assert.assertEquals(1, compiledChoreographySpecification.getOutgoingTransitionCount(0));
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CompiledCoordinationLogicExtractor(compiledChoreographySpecification).generate();
+      AbstractParticipantBehavior abstractParticipantBehavior
+            = result.get(Pair.of(new Participant("p1"), new Participant("p2")));
+      Assert.assertFalse(abstractParticipantBehavior.getStates().stream()
+            .anyMatch(state -> state.getName().endsWith(CoordinationLogicExtractor.BRANCH_STATE_SUFFIX)));
+   }
+
+   @Test(expected = IOException.class)
+   public void testReadMalformedRecord() throws IOException {
+      new ChoreographySpecificationCompiler()
+            .read(new BufferedReader(new StringReader("state s0\ntransition s0 s1 p1 p2\n")));
+   }
+
+   private static CompiledChoreographySpecification compile(
+         final ChoreographySpecification choreographySpecification) {
+      ChoreographySpecificationCompiler choreographySpecificationCompiler = new ChoreographySpecificationCompiler();
+      choreographySpecificationCompiler.setInitialStateName(choreographySpecification.getInitialState().getName());
+      choreographySpecification.getStates().forEach(state -> choreographySpecificationCompiler
+            .addState(state.getName()));
+      choreographySpecificationCompiler.addTransitions(choreographySpecification.getTransitions().stream()
+            .filter(SendingMessageActionTransition.class::isInstance).map(SendingMessageActionTransition.class::cast)
+            .map(transition -> new ChoreographyTransitionRecord(transition.getSourceState().getName(),
+                  transition.getTargetState().getName(), transition.getSourceParticipant().getName(),
+                  transition.getTargetParticipant().getName(), transition.getMessage().getName()))
+            .iterator());
+      return choreographySpecificationCompiler.compile();
+   }
+
+}
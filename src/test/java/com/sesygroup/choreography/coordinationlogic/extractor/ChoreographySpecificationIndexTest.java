@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sesygroup.choreography.choreographyspecification.model.Message;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ChoreographySpecificationIndexTest {
+   private static ChoreographySpecificationIndex choreographySpecificationIndex;
+
+   @BeforeClass
+   public static void setUp() {
+      choreographySpecificationIndex = new ChoreographySpecificationIndex(ChoreographySpecificationMocks.sample());
+   }
+
+   @Test
+   public void testGetCoordinationDelegates() {
+      Assert.assertEquals(
+            Arrays.asList(new ImmutablePair<Participant, Participant>(new Participant("p1"), new Participant("p3")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p2"), new Participant("p3")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p4"), new Participant("p6")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p5"), new Participant("p6")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p3"), new Participant("p6"))),
+            choreographySpecificationIndex.getCoordinationDelegates());
+   }
+
+   @Test
+   public void testGetIncomingTransitions() {
+      Assert.assertTrue(CollectionUtils.isEqualCollection(
+            choreographySpecificationIndex.getIncomingTransitions(new State("s5")),
+            Arrays.asList(
+                  new SendingMessageActionTransition(new State("s2"), new State("s5"), new Participant("p2"),
+                        new Participant("p3"), new Message("m5")),
+                  new SendingMessageActionTransition(new State("s4"), new State("s5"), new Participant("p5"),
+                        new Participant("p6"), new Message("m7")))));
+      Assert.assertTrue(choreographySpecificationIndex.getIncomingTransitions(new State("s0")).isEmpty());
+   }
+
+   @Test
+   public void testGetOutgoingCoordinationDelegates() {
+      Assert.assertTrue(CollectionUtils.isEqualCollection(
+            choreographySpecificationIndex.getOutgoingCoordinationDelegates(new State("s2")),
+            Arrays.<Pair<Participant, Participant>>asList(
+                  new ImmutablePair<Participant, Participant>(new Participant("p4"), new Participant("p6")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p5"), new Participant("p6")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p2"), new Participant("p3")))));
+      Assert.assertTrue(choreographySpecificationIndex.getOutgoingCoordinationDelegates(new State("s5")).isEmpty());
+   }
+
+   @Test
+   public void testIsBranchingState() {
+      Assert.assertTrue(choreographySpecificationIndex.isBranchingState(new State("s2")));
+      Assert.assertFalse(choreographySpecificationIndex.isBranchingState(new State("s1")));
+      Assert.assertFalse(choreographySpecificationIndex.isBranchingState(new State("unknown")));
+      Assert.assertEquals(Arrays.asList(new State("s2")), choreographySpecificationIndex.getBranchingStates());
+      Assert.assertTrue(choreographySpecificationIndex.isSpecificationState(new State("s2")));
+      Assert.assertFalse(choreographySpecificationIndex.isSpecificationState(new State("unknown")));
+   }
+
+}
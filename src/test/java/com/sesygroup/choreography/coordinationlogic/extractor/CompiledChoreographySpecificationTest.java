@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CompiledChoreographySpecificationTest {
+   private static CompiledChoreographySpecification compiledChoreographySpecification;
+
+   @BeforeClass
+   public static void setUp() {
+      compiledChoreographySpecification
+            = new CompiledChoreographySpecification(ChoreographySpecificationMocks.sample());
+   }
+
+   @Test
+   public void testGetCoordinationDelegates() {
+      List<Pair<Participant, Participant>> coordinationDelegates = new ArrayList<Pair<Participant, Participant>>();
+      for (int cd = 0; cd < compiledChoreographySpecification.getCoordinationDelegateCount(); cd++) {
+         coordinationDelegates.add(compiledChoreographySpecification.getCoordinationDelegate(cd));
+      }
+      Assert.assertEquals(
+            Arrays.asList(new ImmutablePair<Participant, Participant>(new Participant("p1"), new Participant("p3")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p2"), new Participant("p3")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p4"), new Participant("p6")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p5"), new Participant("p6")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p3"), new Participant("p6"))),
+            coordinationDelegates);
+   }
+
+   @Test
+   public void testGetOutgoingTransitions() {
+      int s2 = findState("s2");
+      List<String> targetStateNames = new ArrayList<String>();
+      for (int index = 0; index < compiledChoreographySpecification.getOutgoingTransitionCount(s2); index++) {
+         int transition = compiledChoreographySpecification.getOutgoingTransition(s2, index);
+         Assert.assertEquals(s2, compiledChoreographySpecification.getTransitionSourceState(transition));
+         targetStateNames.add(compiledChoreographySpecification
+               .getStateName(compiledChoreographySpecification.getTransitionTargetState(transition)));
+      }
+      targetStateNames.sort(null);
+      Assert.assertEquals(Arrays.asList("s3", "s4", "s5"), targetStateNames);
+      Assert.assertEquals(0, compiledChoreographySpecification.getOutgoingTransitionCount(findState("s5")));
+   }
+
+   @Test
+   public void testIsBranchingState() {
+      Assert.assertTrue(compiledChoreographySpecification.isBranchingState(findState("s2")));
+      Assert.assertFalse(compiledChoreographySpecification.isBranchingState(findState("s1")));
+      Assert.assertTrue(compiledChoreographySpecification.isSpecificationState(findState("s2")));
+      Assert.assertEquals(compiledChoreographySpecification.getStateCount(),
+            compiledChoreographySpecification.getSpecificationStateCount());
+   }
+
+   private static int findState(final String name) {
+      for (int state = 0; state < compiledChoreographySpecification.getStateCount(); state++) {
+         if (compiledChoreographySpecification.getStateName(state).equals(name)) {
+            return state;
+         }
+      }
+      throw new AssertionError(name);
+   }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultAssert;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CompiledCoordinationLogicExtractorTest {
+   private static ChoreographySpecification choreographySpecification;
+
+   @BeforeClass
+   public static void setUp() {
+      choreographySpecification = ChoreographySpecificationMocks.sample();
+   }
+
+   @Test
+   public void testGenerateAsCoordinationLogicExtractor() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(choreographySpecification).generate();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual
+            = new CompiledCoordinationLogicExtractor(choreographySpecification).generate();
+
+      ExtractionResultAssert.assertEquals(expected, actual);
+   }
+
+   @Test
+   public void testGenerateGeneratedAsCoordinationLogicExtractor() {
+      ChoreographySpecification generated = ChoreographySpecificationMocks.generated(800, 7);
+
+      ExtractionResultAssert.assertEquals(new CoordinationLogicExtractor(generated).generate(),
+            new CompiledCoordinationLogicExtractor(generated).generate());
+   }
+
+   @Test
+   public void testGenerateTwice() {
+      CompiledCoordinationLogicExtractor compiledCoordinationLogicExtractor
+            = new CompiledCoordinationLogicExtractor(choreographySpecification);
+      Assert.assertEquals(compiledCoordinationLogicExtractor.generate().keySet(),
+            compiledCoordinationLogicExtractor.generate().keySet());
+   }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateMinimizationUtilsTest {
+
+   @Test
+   public void testMinimize() {
+      Set<State> states = new LinkedHashSet<State>(Arrays.asList(new State("s0"), new State("s1"), new State("s2"),
+            new State("s3"), new State("s4"), new State("s5"), new State("s6"), new State("s7")));
+      Set<Message> messages
+            = new LinkedHashSet<Message>(Arrays.asList(new InputMessage("m1"), new OutputMessage("m2")));
+      Set<Transition> transitions = new LinkedHashSet<Transition>(Arrays.asList(
+            new ReceiveActionTransition(new State("s0"), new State("s1"), new InputMessage("m1")),
+            new InternalActionTransition(new State("s1"), new State("s2")),
+            new InternalActionTransition(new State("s2"), new State("s3")),
+            new SendActionTransition(new State("s3"), new State("s4"), new OutputMessage("m2")),
+            new ReceiveActionTransition(new State("s0"), new State("s5"), new InputMessage("m1")),
+            new SendActionTransition(new State("s5"), new State("s6"), new OutputMessage("m2")),
+            new SendActionTransition(new State("s7"), new State("s0"), new OutputMessage("m2"))));
+      AbstractParticipantBehavior abstractParticipantBehavior
+            = new AbstractParticipantBehavior(states, new State("s0"), messages, transitions);
+
+      AbstractParticipantBehavior minimizedAbstractParticipantBehavior
+            = CoordinationDelegateMinimizationUtils.minimize(abstractParticipantBehavior);
+
+      Assert.assertEquals(new State("s0"), minimizedAbstractParticipantBehavior.getInitialState());
+      Assert.assertEquals(new LinkedHashSet<State>(Arrays.asList(new State("s0"), new State("s1"), new State("s4"))),
+            minimizedAbstractParticipantBehavior.getStates());
+      Assert.assertEquals(
+            new LinkedHashSet<Transition>(Arrays.asList(
+                  new ReceiveActionTransition(new State("s0"), new State("s1"), new InputMessage("m1")),
+                  new SendActionTransition(new State("s1"), new State("s4"), new OutputMessage("m2")))),
+            minimizedAbstractParticipantBehavior.getTransitions());
+      Assert.assertEquals(messages, minimizedAbstractParticipantBehavior.getMessages());
+      Assert.assertEquals(8, abstractParticipantBehavior.getStates().size());
+   }
+
+   @Test
+   public void testMinimizeInternalActionCycle() {
+      Set<State> states
+            = new LinkedHashSet<State>(Arrays.asList(new State("s0"), new State("s1"), new State("s2")));
+      Set<Transition> transitions = new LinkedHashSet<Transition>(
+            Arrays.asList(new InternalActionTransition(new State("s0"), new State("s1")),
+                  new InternalActionTransition(new State("s1"), new State("s0")),
+                  new SendActionTransition(new State("s1"), new State("s2"), new OutputMessage("m1"))));
+
+      AbstractParticipantBehavior minimizedAbstractParticipantBehavior = CoordinationDelegateMinimizationUtils
+            .minimize(new AbstractParticipantBehavior(states, new State("s0"), new LinkedHashSet<Message>(),
+                  transitions));
+
+      Assert.assertEquals(new LinkedHashSet<Transition>(
+            Arrays.asList(new SendActionTransition(new State("s0"), new State("s2"), new OutputMessage("m1")))),
+            minimizedAbstractParticipantBehavior.getTransitions());
+   }
+
+   @Test
+   public void testMinimizeExtractionResult() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> minimizedResult
+            = CoordinationDelegateMinimizationUtils.minimize(result);
+
+      Assert.assertEquals(result.keySet(), minimizedResult.keySet());
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         AbstractParticipantBehavior minimizedAbstractParticipantBehavior = minimizedResult.get(cd);
+         Assert.assertEquals(abstractParticipantBehavior.getInitialState(),
+               minimizedAbstractParticipantBehavior.getInitialState());
+         Assert.assertTrue(minimizedAbstractParticipantBehavior.getStates().size() < abstractParticipantBehavior
+               .getStates().size());
+         Assert.assertTrue(abstractParticipantBehavior.getStates()
+               .containsAll(minimizedAbstractParticipantBehavior.getStates()));
+         Assert.assertEquals(findObservableMessages(abstractParticipantBehavior),
+               findObservableMessages(minimizedAbstractParticipantBehavior));
+      });
+   }
+
+   private static Set<Message> findObservableMessages(final AbstractParticipantBehavior abstractParticipantBehavior) {
+      return abstractParticipantBehavior.getTransitions().stream()
+            .filter(transition -> !(transition instanceof InternalActionTransition))
+            .map(transition -> transition instanceof SendActionTransition
+                  ? (Message) ((SendActionTransition) transition).getMessage()
+                  : ((ReceiveActionTransition) transition).getMessage())
+            .collect(Collectors.toSet());
+   }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultAssert;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationLogicExtractionEngineTest {
+
+   @Test
+   public void testConcurrentGenerate() throws InterruptedException, ExecutionException {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      CoordinationLogicExtractionEngine engine
+            = new CoordinationLogicExtractionEngine(ChoreographySpecificationMocks.sample());
+
+      ExecutorService executorService = Executors.newFixedThreadPool(8);
+      try {
+         List<Future<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>> futures
+               = new ArrayList<Future<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>>>();
+         for (int index = 0; index < 64; index++) {
+            futures.add(executorService.submit(() -> engine.generate()));
+         }
+         for (Future<Map<Pair<Participant, Participant>, AbstractParticipantBehavior>> future : futures) {
+            Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual = future.get();
+            ExtractionResultAssert.assertEquals(expected, actual);
+         }
+      } finally {
+         executorService.shutdown();
+      }
+   }
+
+   @Test
+   public void testExtractionsAreIndependent() {
+      CoordinationLogicExtractionEngine engine
+            = new CoordinationLogicExtractionEngine(ChoreographySpecificationMocks.sample());
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> first = engine.generate();
+      int transitionCount = first.values().iterator().next().getTransitions().size();
+      first.values().forEach(abstractParticipantBehavior -> abstractParticipantBehavior.getTransitions().clear());
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> second = engine.generate();
+
+      Assert.assertEquals(transitionCount, second.values().iterator().next().getTransitions().size());
+      CoordinationLogicExtractor extractor = engine.newExtractor();
+      extractor.generate();
+      Assert.assertSame(engine.getChoreographySpecificationIndex(), extractor.getChoreographySpecificationIndex());
+   }
+
+}
@@ -15,8 +15,15 @@
  */
 package com.sesygroup.choreography.coordinationlogic.extractor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -26,9 +33,14 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
 import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
 import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
 import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultAssert;
 
 /**
  *
@@ -77,4 +89,180 @@ public class CoordinationLogicExtractorTest {
        */
    }
 
+   /**
+    * Pins the coordination delegates of the sample specification to the ones of the original extraction algorithm.
+    * A transition is written {@code source - target} when internal, {@code source !message target} when sending and
+    * {@code source ?message target} when receiving.
+    */
+   @Test
+   public void testGeneratorMatchesExpectedCoordinationDelegates() {
+      Map<String, List<String>> expectedStates = new LinkedHashMap<String, List<String>>();
+      Map<String, List<String>> expectedTransitions = new LinkedHashMap<String, List<String>>();
+      expectedStates.put("p1 p3", Arrays.asList("s0", "s0_mid", "s1", "s1_synch", "s2", "s3", "s4", "s5"));
+      expectedTransitions.put("p1 p3", Arrays.asList("s0 ?m1 s0_mid", "s0_mid !m1 s1",
+            "s1 !Synch_{p1,p3}->{p2,p3} s1_synch", "s1_synch - s2", "s2 - s3", "s2 - s4", "s2 - s5", "s3 - s4",
+            "s4 - s5"));
+      expectedStates.put("p2 p3", Arrays.asList("s0", "s1", "s1_mid", "s1_synch", "s2", "s2_branch", "s2_mid",
+            "s2_synch", "s3", "s4", "s5"));
+      expectedTransitions.put("p2 p3", Arrays.asList("s0 - s1_synch", "s1 ?m2 s1_mid", "s1_mid !m2 s2_synch",
+            "s1_synch ?Synch_{p1,p3}->{p2,p3} s1", "s2 ?m5 s2_mid", "s2_branch !Synch_{p2,p3}->{p4,p6}{p5,p6} s2",
+            "s2_branch ?Synch_{p4,p6}->{p2,p3} s3", "s2_branch ?Synch_{p5,p6}->{p2,p3} s4", "s2_mid !m5 s5",
+            "s2_synch !Synch_{p2,p3}->{p4,p6}{p5,p6} s2_branch", "s3 - s4", "s4 - s5"));
+      expectedStates.put("p3 p6", Arrays.asList("s0", "s1", "s2", "s3", "s3_mid", "s3_synch", "s4", "s4_synch",
+            "s5"));
+      expectedTransitions.put("p3 p6", Arrays.asList("s0 - s1", "s1 - s2", "s2 - s3_synch", "s2 - s4_synch",
+            "s2 - s5", "s3 ?m6 s3_mid", "s3_mid !m6 s4", "s3_synch ?Synch_{p4,p6}->{p3,p6} s3",
+            "s4 !Synch_{p3,p6}->{p5,p6} s4_synch", "s4_synch - s5"));
+      expectedStates.put("p4 p6", Arrays.asList("s0", "s1", "s2", "s2_branch", "s2_mid", "s2_synch", "s3",
+            "s3_synch", "s4", "s5"));
+      expectedTransitions.put("p4 p6", Arrays.asList("s0 - s1", "s1 - s2_synch", "s2 ?m3 s2_mid",
+            "s2_branch !Synch_{p4,p6}->{p5,p6}{p2,p3} s2", "s2_branch ?Synch_{p2,p3}->{p4,p6} s5",
+            "s2_branch ?Synch_{p5,p6}->{p4,p6} s4", "s2_mid !m3 s3", "s2_synch ?Synch_{p2,p3}->{p4,p6} s2_branch",
+            "s3 !Synch_{p4,p6}->{p3,p6} s3_synch", "s3_synch - s4", "s4 - s5"));
+      expectedStates.put("p5 p6", Arrays.asList("s0", "s1", "s2", "s2_branch", "s2_mid", "s2_synch", "s3", "s4",
+            "s4_mid", "s4_synch", "s5"));
+      expectedTransitions.put("p5 p6", Arrays.asList("s0 - s1", "s1 - s2_synch", "s2 ?m4 s2_mid",
+            "s2_branch !Synch_{p5,p6}->{p4,p6}{p2,p3} s2", "s2_branch ?Synch_{p2,p3}->{p5,p6} s5",
+            "s2_branch ?Synch_{p4,p6}->{p5,p6} s3", "s2_mid !m4 s4", "s2_synch ?Synch_{p2,p3}->{p5,p6} s2_branch",
+            "s3 - s4_synch", "s4 ?m7 s4_mid", "s4_mid !m7 s5", "s4_synch ?Synch_{p3,p6}->{p5,p6} s4"));
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual
+            = new CoordinationLogicExtractor(choreographySpecification).generate();
+
+      Assert.assertEquals(expectedStates.keySet(), actual.keySet().stream()
+            .map(cd -> cd.getLeft().getName() + " " + cd.getRight().getName()).collect(Collectors.toSet()));
+      actual.forEach((cd, abstractParticipantBehavior) -> {
+         String name = cd.getLeft().getName() + " " + cd.getRight().getName();
+         Assert.assertEquals("s0", abstractParticipantBehavior.getInitialState().getName());
+         Assert.assertEquals(name, expectedStates.get(name), abstractParticipantBehavior.getStates().stream()
+               .map(state -> state.getName()).sorted().collect(Collectors.toList()));
+         Assert.assertEquals(name, expectedTransitions.get(name), abstractParticipantBehavior.getTransitions()
+               .stream().map(CoordinationLogicExtractorTest::format).sorted().collect(Collectors.toList()));
+      });
+   }
+
+   /**
+    * Pins the states of the coordination delegates to the ones of the original extraction algorithm when the
+    * branching state s2 is not one of the states of the specification: no branch state is created for it.
+    */
+   @Test
+   public void testGeneratorCreatesBranchStatesOnlyForSpecificationStates() {
+      Set<State> states = new LinkedHashSet<State>(choreographySpecification.getStates());
+      states.remove(new State("s2"));
+      ChoreographySpecification withoutBranchingState = new ChoreographySpecification(
+            choreographySpecification.getParticipants(), states, choreographySpecification.getInitialState(),
+            choreographySpecification.getMessages(), choreographySpecification.getTransitions());
+      Map<String, List<String>> expectedStates = new LinkedHashMap<String, List<String>>();
+      expectedStates.put("p1 p3", Arrays.asList("s0", "s0_mid", "s1", "s1_synch", "s3", "s4", "s5"));
+      expectedStates.put("p2 p3", Arrays.asList("s0", "s1", "s1_mid", "s1_synch", "s2_mid", "s2_synch", "s3",
+            "s4", "s5"));
+      expectedStates.put("p3 p6", Arrays.asList("s0", "s1", "s3", "s3_mid", "s3_synch", "s4", "s4_synch", "s5"));
+      expectedStates.put("p4 p6", Arrays.asList("s0", "s1", "s2_mid", "s2_synch", "s3", "s3_synch", "s4", "s5"));
+      expectedStates.put("p5 p6", Arrays.asList("s0", "s1", "s2_mid", "s2_synch", "s3", "s4", "s4_mid",
+            "s4_synch", "s5"));
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual
+            = new CoordinationLogicExtractor(withoutBranchingState).generate();
+
+      Assert.assertEquals(expectedStates.keySet(), actual.keySet().stream()
+            .map(cd -> cd.getLeft().getName() + " " + cd.getRight().getName()).collect(Collectors.toSet()));
+      actual.forEach((cd, abstractParticipantBehavior) -> {
+         String name = cd.getLeft().getName() + " " + cd.getRight().getName();
+         Assert.assertEquals(name, expectedStates.get(name), abstractParticipantBehavior.getStates().stream()
+               .map(state -> state.getName()).sorted().collect(Collectors.toList()));
+      });
+   }
+
+   @Test
+   public void testParallelGenerator() {
+      // enough transitions for many shards, whose buffered states and transitions are flushed in order
+      ChoreographySpecification generated = ChoreographySpecificationMocks.generated(800, 7);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(generated).generate();
+      ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+      try {
+         Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual
+               = new CoordinationLogicExtractor(generated).generate(forkJoinPool);
+
+         ExtractionResultAssert.assertEquals(expected, actual);
+      } finally {
+         forkJoinPool.shutdown();
+      }
+   }
+
+   @Test
+   public void testGenerateEach() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(choreographySpecification).generate();
+      List<Pair<Participant, Participant>> cds = new ArrayList<Pair<Participant, Participant>>();
+      new CoordinationLogicExtractor(choreographySpecification).generateEach((cd, abstractParticipantBehavior) -> {
+         cds.add(cd);
+         Assert.assertEquals(expected.get(cd).getInitialState(), abstractParticipantBehavior.getInitialState());
+         Assert.assertEquals(expected.get(cd).getStates(), abstractParticipantBehavior.getStates());
+         Assert.assertEquals(expected.get(cd).getTransitions(), abstractParticipantBehavior.getTransitions());
+      });
+
+      Assert.assertEquals(new ChoreographySpecificationIndex(choreographySpecification).getCoordinationDelegates(),
+            cds);
+   }
+
+   @Test
+   public void testGenerateEachWithImplicitInternalTransitions() {
+      ChoreographySpecification generated = ChoreographySpecificationMocks.generated(300, 11);
+      CoordinationLogicExtractor coordinationLogicExtractor = new CoordinationLogicExtractor(generated);
+      coordinationLogicExtractor.setImplicitInternalTransitions(true);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected = coordinationLogicExtractor.generate();
+      List<Pair<Participant, Participant>> cds = new ArrayList<Pair<Participant, Participant>>();
+      coordinationLogicExtractor.generateEach((cd, abstractParticipantBehavior) -> {
+         cds.add(cd);
+         Assert.assertEquals(expected.get(cd).getStates(), abstractParticipantBehavior.getStates());
+         Assert.assertEquals(expected.get(cd).getTransitions(), abstractParticipantBehavior.getTransitions());
+      });
+
+      Assert.assertEquals(expected.keySet(), new LinkedHashSet<Pair<Participant, Participant>>(cds));
+   }
+
+   @Test
+   public void testExtractionListener() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(choreographySpecification).generate();
+      List<ExtractionPhaseMetrics> metrics = new ArrayList<ExtractionPhaseMetrics>();
+      CoordinationLogicExtractor coordinationLogicExtractor = new CoordinationLogicExtractor(choreographySpecification);
+      coordinationLogicExtractor.setExtractionListener(metrics::add);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual = coordinationLogicExtractor.generate();
+
+      Assert.assertEquals(Arrays.asList(ExtractionPhase.values()),
+            metrics.stream().map(ExtractionPhaseMetrics::getPhase).collect(Collectors.toList()));
+      metrics.forEach(phaseMetrics -> Assert.assertEquals(7, phaseMetrics.getVisitedTransitionCount()));
+      // one mid state for each transition, in the CD of the transition
+      ExtractionPhaseMetrics midStateMetrics = metrics.get(ExtractionPhase.CREATE_MID_STATE.ordinal());
+      Assert.assertEquals(7, midStateMetrics.getEmittedStateCount());
+      Assert.assertEquals(Long.valueOf(2), midStateMetrics.getEmittedStateCounts()
+            .get(new ImmutablePair<Participant, Participant>(new Participant("p2"), new Participant("p3"))));
+      ExtractionPhaseMetrics messageMetrics = metrics.get(ExtractionPhase.CREATE_MESSAGE_TRANSITIONS.ordinal());
+      Assert.assertTrue(messageMetrics.getLookupHitCount() > 0);
+      Assert.assertTrue(messageMetrics.getLookupMissCount() > 0);
+
+      // the listener does not change the coordination delegates
+      Assert.assertEquals(expected.keySet(), actual.keySet());
+      long transitionCount = 0;
+      for (Pair<Participant, Participant> cd : expected.keySet()) {
+         Assert.assertEquals(expected.get(cd).getStates(), actual.get(cd).getStates());
+         Assert.assertEquals(expected.get(cd).getTransitions(), actual.get(cd).getTransitions());
+         transitionCount += actual.get(cd).getTransitions().size();
+      }
+      Assert.assertTrue(metrics.stream().mapToLong(ExtractionPhaseMetrics::getEmittedTransitionCount)
+            .sum() >= transitionCount);
+   }
+
+   private static String format(final Transition transition) {
+      String action = " - ";
+      if (transition instanceof SendActionTransition) {
+         action = " !" + ((SendActionTransition) transition).getMessage().getName() + " ";
+      } else if (transition instanceof ReceiveActionTransition) {
+         action = " ?" + ((ReceiveActionTransition) transition).getMessage().getName() + " ";
+      }
+      return transition.getSourceState().getName() + action + transition.getTargetState().getName();
+   }
+
 }
@@ -23,6 +23,7 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
 import com.sesygroup.choreography.choreographyspecification.model.Message;
 import com.sesygroup.choreography.choreographyspecification.model.Participant;
 import com.sesygroup.choreography.choreographyspecification.model.State;
@@ -74,4 +75,21 @@ public class CoordinationLogicExtractorUtilsTest {
                         new Participant("p3"), new Message("m5")))));
    }
 
+   @Test
+   public void testSingleStateQueriesMatchIndex() {
+      ChoreographySpecification choreographySpecification = ChoreographySpecificationMocks.sample();
+      ChoreographySpecificationIndex choreographySpecificationIndex
+            = new ChoreographySpecificationIndex(choreographySpecification);
+      for (State state : choreographySpecification.getStates()) {
+         Assert.assertEquals(choreographySpecificationIndex.isBranchingState(state),
+               CoordinationLogicExtractorUtils.isBranchingState(choreographySpecification, state));
+         Assert.assertEquals(choreographySpecificationIndex.getOutgoingTransitions(state),
+               CoordinationLogicExtractorUtils.findAllOutgoingTransition(choreographySpecification, state));
+         Assert.assertEquals(choreographySpecificationIndex.getIncomingTransitions(state),
+               CoordinationLogicExtractorUtils.findAllIncomingTransition(choreographySpecification, state));
+      }
+      Assert.assertFalse(CoordinationLogicExtractorUtils.isBranchingState(choreographySpecification,
+            new State("unknown")));
+   }
+
 }
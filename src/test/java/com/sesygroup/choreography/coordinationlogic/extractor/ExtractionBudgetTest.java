@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultAssert;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionBudgetTest {
+
+   @Test
+   public void testGenerateWithinBudget() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample())
+                  .generate(new ExtractionBudget(1, TimeUnit.HOURS));
+
+      ExtractionResultAssert.assertEquals(expected, actual);
+   }
+
+   @Test
+   public void testGenerateWithCancelledBudget() {
+      ExtractionBudget budget = new ExtractionBudget();
+      budget.cancel();
+      try {
+         new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate(budget);
+         Assert.fail();
+      } catch (ExtractionAbortedException e) {
+         Assert.assertFalse(e.isDeadlineExceeded());
+         Assert.assertEquals(Arrays.asList(ExtractionPhase.INITIALIZATION), e.getPhases());
+         Assert.assertEquals(0L, e.getVisitedTransitionCount());
+      }
+   }
+
+   @Test
+   public void testGenerateWithExceededDeadline() {
+      try {
+         new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample())
+               .generate(new ExtractionBudget(0, TimeUnit.MILLISECONDS));
+         Assert.fail();
+      } catch (ExtractionAbortedException e) {
+         Assert.assertTrue(e.isDeadlineExceeded());
+      }
+   }
+
+   @Test
+   public void testProgress() {
+      Map<ExtractionPhase, Double> phaseToFractionMap = new LinkedHashMap<ExtractionPhase, Double>();
+      CoordinationLogicExtractor extractor = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      extractor.setProgressListener((phase, fraction) -> {
+         Assert.assertTrue(fraction >= phaseToFractionMap.getOrDefault(phase, 0.0));
+         phaseToFractionMap.put(phase, fraction);
+      });
+      extractor.generate();
+
+      Assert.assertEquals(Arrays.asList(ExtractionPhase.values()), Arrays.asList(phaseToFractionMap.keySet()
+            .toArray(new ExtractionPhase[phaseToFractionMap.size()])));
+      phaseToFractionMap.values().forEach(fraction -> Assert.assertEquals(1.0, fraction, 0.0));
+   }
+
+   @Test
+   public void testCancelFromProgressListenerOnExecutor() {
+      ExtractionBudget budget = new ExtractionBudget();
+      CoordinationLogicExtractor extractor = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      extractor.setProgressListener((phase, fraction) -> {
+         if (phase == ExtractionPhase.CREATE_BRANCHING_STATE && fraction == 1.0) {
+            budget.cancel();
+         }
+      });
+      ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+      try {
+         extractor.generate(forkJoinPool, budget);
+         Assert.fail();
+      } catch (ExtractionAbortedException e) {
+         Assert.assertFalse(e.isDeadlineExceeded());
+         Assert.assertEquals(ExtractionPhase.CREATE_SYNCH_TRANSITIONS_FOR_INDIPENDENT_SEQUENCE, e.getPhases().get(0));
+      } finally {
+         forkJoinPool.shutdown();
+      }
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testNegativeTimeout() {
+      new ExtractionBudget(-1, TimeUnit.SECONDS);
+   }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.AbstractParticipantBehaviorMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultDiffUtilsTest {
+   private static final Pair<Participant, Participant> P1_P3 = Pair.of(new Participant("p1"), new Participant("p3"));
+   private static final Pair<Participant, Participant> P2_P3 = Pair.of(new Participant("p2"), new Participant("p3"));
+   private static final Pair<Participant, Participant> P3_P6 = Pair.of(new Participant("p3"), new Participant("p6"));
+   private static final Pair<Participant, Participant> P1_P9 = Pair.of(new Participant("p1"), new Participant("p9"));
+
+   @Test
+   public void testDiffOfEqualResults() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> oldResult
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> newResult
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+
+      ExtractionResultDiff diff = ExtractionResultDiffUtils.diff(oldResult, newResult);
+
+      Assert.assertTrue(diff.isEmpty());
+      Assert.assertEquals(oldResult.size(), diff.getUnchangedCds().size());
+   }
+
+   @Test
+   public void testDiffOfChangedResults() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> oldResult
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> newResult
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Transition removedTransition = newResult.get(P2_P3).getTransitions().iterator().next();
+      newResult.get(P2_P3).getTransitions().remove(removedTransition);
+      Transition addedTransition = new InternalActionTransition(new State("s0"), new State("s9"));
+      newResult.get(P2_P3).getTransitions().add(addedTransition);
+      newResult.get(P2_P3).getStates().add(new State("s9"));
+      newResult.remove(P3_P6);
+      newResult.put(P1_P9, AbstractParticipantBehaviorMocks.p1());
+      newResult.get(P1_P3).setInitialState(new State("s1"));
+
+      ExtractionResultDiff diff = ExtractionResultDiffUtils.diff(oldResult, newResult);
+
+      Assert.assertEquals(Arrays.asList(P1_P9), diff.getAddedCds());
+      Assert.assertEquals(Arrays.asList(P3_P6), diff.getRemovedCds());
+      Assert.assertEquals(2, diff.getChangedCds().size());
+      Assert.assertEquals(oldResult.size() - 3, diff.getUnchangedCds().size());
+
+      CoordinationDelegateDiff coordinationDelegateDiff = diff.getChangedCds().get(P2_P3);
+      Assert.assertFalse(coordinationDelegateDiff.isInitialStateChanged());
+      Assert.assertEquals(Arrays.asList(new State("s9")), coordinationDelegateDiff.getAddedStates());
+      Assert.assertEquals(Collections.emptyList(), coordinationDelegateDiff.getRemovedStates());
+      Assert.assertEquals(Arrays.asList(addedTransition), coordinationDelegateDiff.getAddedTransitions());
+      Assert.assertEquals(Arrays.asList(removedTransition), coordinationDelegateDiff.getRemovedTransitions());
+
+      Assert.assertTrue(diff.getChangedCds().get(P1_P3).isInitialStateChanged());
+   }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultVerificationUtilsTest {
+   private static final Pair<Participant, Participant> P2_P3 = Pair.of(new Participant("p2"), new Participant("p3"));
+   private static final Pair<Participant, Participant> P4_P6 = Pair.of(new Participant("p4"), new Participant("p6"));
+
+   @Test
+   public void testVerifyConsistentResult() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+
+      Assert.assertEquals("[]", ExtractionResultVerificationUtils.verify(result).toString());
+   }
+
+   @Test
+   public void testVerifyUnmatchedSynchSend() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      result.get(P4_P6).getTransitions().removeIf(transition -> transition instanceof ReceiveActionTransition
+            && "Synch_{p2,p3}->{p4,p6}".equals(((ReceiveActionTransition) transition).getMessage().getName()));
+
+      List<ExtractionViolation> violations = ExtractionResultVerificationUtils.verify(result);
+
+      // the branch state of (p4,p6) can no longer be reached, as well as the states after it
+      Assert.assertEquals(4, violations.size());
+      Assert.assertEquals(2, violations.stream()
+            .filter(violation -> violation.getKind() == ExtractionViolationKind.UNMATCHED_SYNCH_SEND
+                  && violation.getCd().equals(P2_P3) && violation.getOtherCd().equals(P4_P6))
+            .count());
+      Assert.assertTrue(violations.stream()
+            .anyMatch(violation -> violation.getKind() == ExtractionViolationKind.UNREACHABLE_BRANCH_STATE
+                  && violation.getCd().equals(P4_P6)));
+   }
+
+   @Test
+   public void testVerifyMissingStateAndUnreachableBranchState() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      InternalActionTransition transition = new InternalActionTransition(new State("s0"), new State("s9"));
+      result.get(P2_P3).getTransitions().add(transition);
+      result.get(P2_P3).getTransitions()
+            .removeIf(otherTransition -> new State("s2_branch").equals(otherTransition.getTargetState()));
+
+      List<ExtractionViolation> violations = ExtractionResultVerificationUtils.verify(result);
+
+      Assert.assertEquals(2, violations.size());
+      Assert.assertEquals(ExtractionViolationKind.MISSING_TARGET_STATE, violations.get(0).getKind());
+      Assert.assertEquals(transition, violations.get(0).getTransition());
+      Assert.assertEquals(ExtractionViolationKind.UNREACHABLE_BRANCH_STATE, violations.get(1).getKind());
+      Assert.assertEquals(new State("s2_branch"), violations.get(1).getState());
+   }
+
+}
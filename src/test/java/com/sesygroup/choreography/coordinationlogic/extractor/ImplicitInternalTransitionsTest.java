@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ImplicitInternalTransitionsTest {
+
+   @Test
+   public void testMaterializeEqualsExplicitResult() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> explicitResult
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      CoordinationLogicExtractor implicitExtractor
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      implicitExtractor.setImplicitInternalTransitions(true);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> implicitResult = implicitExtractor.generate();
+
+      implicitResult.values().forEach(abstractParticipantBehavior -> Assert.assertFalse(abstractParticipantBehavior
+            .getTransitions().stream().anyMatch(transition -> transition instanceof InternalActionTransition)));
+
+      implicitExtractor.getImplicitInternalTransitions().materialize(implicitResult);
+
+      Assert.assertEquals(explicitResult.keySet(), implicitResult.keySet());
+      explicitResult.forEach((cd, abstractParticipantBehavior) -> Assert.assertEquals(
+            new HashSet<>(abstractParticipantBehavior.getTransitions()),
+            new HashSet<>(implicitResult.get(cd).getTransitions())));
+   }
+
+   @Test
+   public void testGetInternalTransitionsOfExplicitResult() {
+      CoordinationLogicExtractor extractor = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result = extractor.generate();
+
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         Set<Transition> internalTransitions = new HashSet<Transition>();
+         extractor.getImplicitInternalTransitions().getInternalTransitions(cd, abstractParticipantBehavior)
+               .forEach(internalTransitions::add);
+         Assert.assertFalse(internalTransitions.isEmpty());
+         Assert.assertTrue(abstractParticipantBehavior.getTransitions().containsAll(internalTransitions));
+      });
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testGetImplicitInternalTransitionsBeforeGenerate() {
+      new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).getImplicitInternalTransitions();
+   }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Message;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class IncrementalCoordinationLogicExtractorTest {
+
+   @Test
+   public void testUpdateBranchingState() {
+      IncrementalCoordinationLogicExtractor incrementalCoordinationLogicExtractor
+            = new IncrementalCoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      incrementalCoordinationLogicExtractor.generate();
+
+      // s2 is no longer a branching state towards s4
+      Transition removedTransition = new SendingMessageActionTransition(new State("s2"), new State("s4"),
+            new Participant("p5"), new Participant("p6"), new Message("m4"));
+      Transition addedTransition = new SendingMessageActionTransition(new State("s1"), new State("s4"),
+            new Participant("p5"), new Participant("p6"), new Message("m4"));
+      assertSameCoordinationDelegates(incrementalCoordinationLogicExtractor.update(new ChoreographySpecificationDelta(
+            null, null, Collections.singleton(addedTransition), Collections.singleton(removedTransition))),
+            incrementalCoordinationLogicExtractor);
+   }
+
+   @Test
+   public void testUpdateStates() {
+      IncrementalCoordinationLogicExtractor incrementalCoordinationLogicExtractor
+            = new IncrementalCoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      incrementalCoordinationLogicExtractor.generate();
+
+      Transition addedTransition = new SendingMessageActionTransition(new State("s5"), new State("s6"),
+            new Participant("p3"), new Participant("p6"), new Message("m8"));
+      assertSameCoordinationDelegates(
+            incrementalCoordinationLogicExtractor.update(new ChoreographySpecificationDelta(
+                  Collections.singleton(new State("s6")), null, Collections.singleton(addedTransition), null)),
+            incrementalCoordinationLogicExtractor);
+      assertSameCoordinationDelegates(
+            incrementalCoordinationLogicExtractor.update(new ChoreographySpecificationDelta(null,
+                  Collections.singleton(new State("s6")), null, Collections.singleton(addedTransition))),
+            incrementalCoordinationLogicExtractor);
+   }
+
+   @Test
+   public void testUpdateCoordinationDelegates() {
+      IncrementalCoordinationLogicExtractor incrementalCoordinationLogicExtractor
+            = new IncrementalCoordinationLogicExtractor(ChoreographySpecificationMocks.sample());
+      incrementalCoordinationLogicExtractor.generate();
+
+      Transition addedTransition = new SendingMessageActionTransition(new State("s5"), new State("s0"),
+            new Participant("p6"), new Participant("p1"), new Message("m8"));
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> cdNameToAbstractParticipantBehaviorMap
+            = incrementalCoordinationLogicExtractor.update(
+                  new ChoreographySpecificationDelta(null, null, Collections.singleton(addedTransition), null));
+      Assert.assertEquals(6, cdNameToAbstractParticipantBehaviorMap.size());
+      assertSameCoordinationDelegates(cdNameToAbstractParticipantBehaviorMap, incrementalCoordinationLogicExtractor);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testUpdateBeforeGenerate() {
+      new IncrementalCoordinationLogicExtractor(ChoreographySpecificationMocks.sample())
+            .update(new ChoreographySpecificationDelta(Collections.singleton(new State("s6")), null, null, null));
+   }
+
+   private static void assertSameCoordinationDelegates(
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual,
+         final IncrementalCoordinationLogicExtractor incrementalCoordinationLogicExtractor) {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected
+            = new CoordinationLogicExtractor(incrementalCoordinationLogicExtractor.getChoreographySpecification())
+                  .generate();
+
+      Assert.assertEquals(expected.keySet(), actual.keySet());
+      expected.forEach((cd, abstractParticipantBehavior) -> {
+         Assert.assertEquals(abstractParticipantBehavior.getInitialState(), actual.get(cd).getInitialState());
+         Assert.assertEquals(abstractParticipantBehavior.getStates(), actual.get(cd).getStates());
+         Assert.assertEquals(abstractParticipantBehavior.getTransitions(), actual.get(cd).getTransitions());
+      });
+   }
+
+}
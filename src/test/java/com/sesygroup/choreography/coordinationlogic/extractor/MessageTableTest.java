@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class MessageTableTest {
+   private static final Pair<Participant, Participant> P1_P3
+         = new ImmutablePair<Participant, Participant>(new Participant("p1"), new Participant("p3"));
+   private static final Pair<Participant, Participant> P2_P3
+         = new ImmutablePair<Participant, Participant>(new Participant("p2"), new Participant("p3"));
+   private static final Pair<Participant, Participant> P4_P6
+         = new ImmutablePair<Participant, Participant>(new Participant("p4"), new Participant("p6"));
+
+   @Test
+   public void testGetMessage() {
+      MessageTable messageTable = new MessageTable();
+
+      Assert.assertEquals("m1", messageTable.getInputMessage("m1").getName());
+      Assert.assertSame(messageTable.getInputMessage("m1"), messageTable.getInputMessage("m1"));
+      Assert.assertSame(messageTable.getOutputMessage("m1"), messageTable.getOutputMessage("m1"));
+   }
+
+   @Test
+   public void testGetSynchMessage() {
+      MessageTable messageTable = new MessageTable();
+
+      Assert.assertEquals("Synch_{p1,p3}->{p2,p3}", messageTable.getSynchOutputMessage(P1_P3, P2_P3).getName());
+      Assert.assertSame(messageTable.getSynchInputMessage(P1_P3, P2_P3),
+            messageTable.getSynchInputMessage(P1_P3, P2_P3));
+      // the same label shares the same message, whatever the way it is asked for
+      Assert.assertSame(messageTable.getOutputMessage("Synch_{p1,p3}->{p2,p3}"),
+            messageTable.getSynchOutputMessage(P1_P3, P2_P3));
+   }
+
+   @Test
+   public void testGetBranchingSynchMessage() {
+      MessageTable messageTable = new MessageTable();
+      List<Pair<Participant, Participant>> outgoingCds = Arrays.asList(P4_P6, P1_P3, P2_P3);
+
+      Assert.assertEquals("Synch_{p1,p3}->{p4,p6}{p2,p3}",
+            messageTable.getBranchingSynchOutputMessage(P1_P3, outgoingCds).getName());
+      Assert.assertEquals("Synch_{p4,p6}->{p1,p3}{p2,p3}",
+            messageTable.getBranchingSynchOutputMessage(P4_P6, outgoingCds).getName());
+      Assert.assertSame(messageTable.getBranchingSynchOutputMessage(P1_P3, outgoingCds),
+            messageTable.getBranchingSynchOutputMessage(P1_P3, Arrays.asList(P4_P6, P1_P3, P2_P3)));
+   }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Message;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.action.SendingMessageActionTransition;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ParticipantInteractionGraphTest {
+   private static final Pair<Participant, Participant> P2_P3
+         = new ImmutablePair<Participant, Participant>(new Participant("p2"), new Participant("p3"));
+   private static ChoreographySpecification choreographySpecification;
+
+   @BeforeClass
+   public static void setUp() {
+      choreographySpecification = ChoreographySpecificationMocks.sample();
+   }
+
+   @Test
+   public void testGetCoordinationDelegates() {
+      Assert.assertEquals(new ChoreographySpecificationIndex(choreographySpecification).getCoordinationDelegates(),
+            new ParticipantInteractionGraph(choreographySpecification).getCoordinationDelegates());
+   }
+
+   @Test
+   public void testGetInteraction() {
+      CoordinationDelegateInteraction interaction
+            = new ParticipantInteractionGraph(choreographySpecification).getInteraction(P2_P3);
+
+      Assert.assertEquals(2, interaction.getTransitionCount());
+      Assert.assertTrue(CollectionUtils.isEqualCollection(interaction.getStates(),
+            Arrays.asList(new State("s1"), new State("s2"), new State("s5"))));
+      Assert.assertTrue(CollectionUtils.isEqualCollection(interaction.getNeighbourCds(),
+            Arrays.asList(new ImmutablePair<Participant, Participant>(new Participant("p1"), new Participant("p3")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p4"), new Participant("p6")),
+                  new ImmutablePair<Participant, Participant>(new Participant("p5"), new Participant("p6")))));
+   }
+
+   @Test
+   public void testParallelAsSequential() {
+      Set<Transition> transitions = new LinkedHashSet<Transition>();
+      for (int index = 0; index < 5000; index++) {
+         transitions.add(new SendingMessageActionTransition(new State("s" + index), new State("s" + (index + 1)),
+               new Participant("p" + index % 7), new Participant("p" + index % 11), new Message("m" + index)));
+      }
+      ChoreographySpecification chain = new ChoreographySpecification(new LinkedHashSet<Participant>(),
+            new LinkedHashSet<State>(), new State("s0"), new LinkedHashSet<Message>(), transitions);
+
+      ParticipantInteractionGraph sequential = new ParticipantInteractionGraph(chain);
+      ParticipantInteractionGraph parallel = new ParticipantInteractionGraph(chain, new ForkJoinPool(4));
+      Assert.assertEquals(sequential.getCoordinationDelegates(), parallel.getCoordinationDelegates());
+      sequential.getCoordinationDelegates().forEach(cd -> {
+         Assert.assertEquals(sequential.getInteraction(cd).getTransitionCount(),
+               parallel.getInteraction(cd).getTransitionCount());
+         Assert.assertEquals(new ArrayList<State>(sequential.getInteraction(cd).getStates()),
+               new ArrayList<State>(parallel.getInteraction(cd).getStates()));
+         Assert.assertEquals(new ArrayList<Pair<Participant, Participant>>(sequential.getInteraction(cd)
+               .getNeighbourCds()),
+               new ArrayList<Pair<Participant, Participant>>(parallel.getInteraction(cd).getNeighbourCds()));
+      });
+   }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class SharedStateSetTest {
+
+   @Test
+   public void testGeneratedCoordinationDelegatesShareBaseStates() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      AbstractParticipantBehavior first = result.values().iterator().next();
+      State baseState = first.getStates().stream().filter(state -> "s0".equals(state.getName())).findFirst().get();
+
+      result.values().forEach(abstractParticipantBehavior -> {
+         Assert.assertTrue(abstractParticipantBehavior.getStates().stream().anyMatch(state -> state == baseState));
+         Assert.assertSame(baseState, abstractParticipantBehavior.getInitialState());
+      });
+   }
+
+   @Test
+   public void testAddAndRemove() {
+      Set<State> baseStates = new LinkedHashSet<State>(Arrays.asList(new State("s0"), new State("s1")));
+      SharedStateSet states = new SharedStateSet(baseStates);
+      SharedStateSet otherStates = new SharedStateSet(baseStates);
+
+      Assert.assertFalse(states.add(new State("s0")));
+      Assert.assertTrue(states.add(new State("s0_mid")));
+      Assert.assertEquals(3, states.size());
+      Assert.assertTrue(states.remove(new State("s1")));
+      Assert.assertFalse(states.remove(new State("s1")));
+
+      Assert.assertEquals(new LinkedHashSet<State>(Arrays.asList(new State("s0"), new State("s0_mid"))), states);
+      Assert.assertEquals(2, baseStates.size());
+      Assert.assertEquals(baseStates, otherStates);
+   }
+
+   @Test
+   public void testIteratorRemove() {
+      Set<State> baseStates = new LinkedHashSet<State>(Arrays.asList(new State("s0"), new State("s1")));
+      SharedStateSet states = new SharedStateSet(baseStates);
+      states.add(new State("s0_mid"));
+
+      Iterator<State> iterator = states.iterator();
+      Assert.assertEquals(new State("s0"), iterator.next());
+      iterator.remove();
+      Assert.assertEquals(new State("s1"), iterator.next());
+      Assert.assertEquals(new State("s0_mid"), iterator.next());
+      iterator.remove();
+      Assert.assertFalse(iterator.hasNext());
+
+      Assert.assertEquals(new LinkedHashSet<State>(Arrays.asList(new State("s1"))), states);
+      Assert.assertEquals(2, baseStates.size());
+   }
+
+}
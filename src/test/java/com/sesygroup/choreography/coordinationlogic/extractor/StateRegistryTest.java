@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.AbstractParticipantBehaviorMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class StateRegistryTest {
+
+   @Test
+   public void testFindExistingState() {
+      AbstractParticipantBehavior abstractParticipantBehavior = AbstractParticipantBehaviorMocks.p3();
+      StateRegistry stateRegistry = new StateRegistry(abstractParticipantBehavior);
+
+      Assert.assertTrue(stateRegistry.containsState("s2"));
+      Assert.assertTrue(abstractParticipantBehavior.getStates().stream()
+            .anyMatch(state -> state == stateRegistry.findState("s2")));
+      Assert.assertNull(stateRegistry.findState("s3"));
+   }
+
+   @Test
+   public void testAddState() {
+      AbstractParticipantBehavior abstractParticipantBehavior = AbstractParticipantBehaviorMocks.p1();
+      StateRegistry stateRegistry = new StateRegistry(abstractParticipantBehavior);
+
+      State midState = stateRegistry.addState("s0_mid");
+      Assert.assertSame(midState, stateRegistry.addState("s0_mid"));
+      Assert.assertSame(midState, stateRegistry.findState("s0_mid"));
+      Assert.assertTrue(abstractParticipantBehavior.getStates().contains(new State("s0_mid")));
+      Assert.assertEquals(3, abstractParticipantBehavior.getStates().size());
+   }
+
+}
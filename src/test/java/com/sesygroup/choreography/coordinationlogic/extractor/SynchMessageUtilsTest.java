@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class SynchMessageUtilsTest {
+   private static final Pair<Participant, Participant> P2_P3
+         = new ImmutablePair<Participant, Participant>(new Participant("p2"), new Participant("p3"));
+   private static final Pair<Participant, Participant> P4_P6
+         = new ImmutablePair<Participant, Participant>(new Participant("p4"), new Participant("p6"));
+   private static final Pair<Participant, Participant> P5_P6
+         = new ImmutablePair<Participant, Participant>(new Participant("p5"), new Participant("p6"));
+
+   @Test
+   public void testGetName() {
+      Assert.assertEquals("Synch_{p2,p3}->{p4,p6}{p5,p6}",
+            SynchMessageUtils.getName(P2_P3, Arrays.asList(P4_P6, P5_P6)));
+      Assert.assertEquals("Synch_{p2,p3}->{p4,p6}", SynchMessageUtils.getName(P2_P3, P4_P6));
+   }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class BinaryExtractionResultUtilsTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   @Test
+   public void testWriteHeader() throws IOException {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Path path = temporaryFolder.getRoot().toPath().resolve("result.bin");
+
+      BinaryExtractionResultUtils.write(result, path);
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+
+      Assert.assertEquals(BinaryExtractionResultUtils.MAGIC, buffer.getInt(0));
+      Assert.assertEquals(BinaryExtractionResultUtils.VERSION, buffer.getInt(4));
+      Assert.assertEquals(result.size(), buffer.getInt(12));
+      Assert.assertEquals(buffer.limit(),
+            buffer.getLong(24) + result.size() * BinaryExtractionResultUtils.DIRECTORY_ENTRY_SIZE);
+      Assert.assertEquals(1, temporaryFolder.getRoot().list().length);
+   }
+
+   @Test
+   public void testWriteReplacesExistingFile() throws IOException {
+      Path path = temporaryFolder.newFile("result.bin").toPath();
+
+      BinaryExtractionResultUtils.write(
+            new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate(), path);
+
+      Assert.assertEquals(BinaryExtractionResultUtils.MAGIC, ByteBuffer.wrap(Files.readAllBytes(path)).getInt(0));
+   }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.binary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultAssert;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class MappedExtractionResultTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   @Test
+   public void testRoundTrip() throws IOException {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Path path = temporaryFolder.getRoot().toPath().resolve("result.bin");
+      BinaryExtractionResultUtils.write(result, path);
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> readResult
+            = new MappedExtractionResult(path).toMap();
+
+      ExtractionResultAssert.assertEquals(result, readResult);
+      result.forEach((cd, abstractParticipantBehavior) -> Assert
+            .assertEquals(abstractParticipantBehavior.getMessages(), readResult.get(cd).getMessages()));
+   }
+
+   @Test
+   public void testSingleCoordinationDelegate() throws IOException {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Path path = temporaryFolder.getRoot().toPath().resolve("result.bin");
+      BinaryExtractionResultUtils.write(result, path);
+      MappedExtractionResult mappedExtractionResult = new MappedExtractionResult(path);
+      Pair<Participant, Participant> cd = result.keySet().iterator().next();
+
+      Assert.assertEquals(result.keySet().size(), mappedExtractionResult.getCoordinationDelegates().size());
+      Assert.assertEquals(result.get(cd).getStates().size(), mappedExtractionResult.getStateCount(cd));
+      Assert.assertEquals(result.get(cd).getTransitions().size(), mappedExtractionResult.getTransitionCount(cd));
+      Assert.assertEquals(result.get(cd).getTransitions(),
+            mappedExtractionResult.getAbstractParticipantBehavior(cd).getTransitions());
+
+      Pair<Participant, Participant> unknownCd
+            = new ImmutablePair<Participant, Participant>(new Participant("p0"), new Participant("p0"));
+      Assert.assertFalse(mappedExtractionResult.containsCoordinationDelegate(unknownCd));
+      Assert.assertNull(mappedExtractionResult.getAbstractParticipantBehavior(unknownCd));
+      Assert.assertEquals(-1, mappedExtractionResult.getStateCount(unknownCd));
+   }
+
+   @Test(expected = IOException.class)
+   public void testUnknownEncoding() throws IOException {
+      Path path = temporaryFolder.getRoot().toPath().resolve("result.bin");
+      Files.write(path, new byte[64]);
+
+      new MappedExtractionResult(path);
+   }
+
+}
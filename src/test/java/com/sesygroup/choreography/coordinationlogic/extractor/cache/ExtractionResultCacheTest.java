@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultCacheTest {
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   @Test
+   public void testMemoryTier() {
+      ExtractionResultCache extractionResultCache = new ExtractionResultCache(Long.MAX_VALUE);
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> cachedResult
+            = extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+      Assert.assertNotSame(result, cachedResult);
+      Assert.assertEquals(result.keySet(), cachedResult.keySet());
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         Assert.assertEquals(abstractParticipantBehavior.getStates(), cachedResult.get(cd).getStates());
+         Assert.assertEquals(abstractParticipantBehavior.getTransitions(), cachedResult.get(cd).getTransitions());
+      });
+
+      ExtractionResultCacheStatistics extractionResultCacheStatistics = extractionResultCache.getStatistics();
+      Assert.assertEquals(1, extractionResultCacheStatistics.getMemoryHitCount());
+      Assert.assertEquals(1, extractionResultCacheStatistics.getMissCount());
+      Assert.assertEquals(1, extractionResultCacheStatistics.getSize());
+      Assert.assertEquals(ExtractionResultCacheUtils.weigh(result), extractionResultCacheStatistics.getWeight());
+   }
+
+   @Test
+   public void testReturnedResultsDoNotShareTheCachedOne() {
+      ExtractionResultCache extractionResultCache = new ExtractionResultCache(Long.MAX_VALUE);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+      long weight = ExtractionResultCacheUtils.weigh(result);
+
+      // modified in place, as ImplicitInternalTransitions.materialize and BranchSynchGroupUtils.expand do
+      result.values().forEach(abstractParticipantBehavior -> {
+         abstractParticipantBehavior.getStates().clear();
+         abstractParticipantBehavior.getTransitions().clear();
+      });
+      result.clear();
+
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> cachedResult
+            = extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+      Assert.assertEquals(5, cachedResult.size());
+      Assert.assertEquals(weight, ExtractionResultCacheUtils.weigh(cachedResult));
+      Assert.assertEquals(1, extractionResultCache.getStatistics().getMemoryHitCount());
+   }
+
+   @Test
+   public void testEviction() {
+      ChoreographySpecification choreographySpecification = ChoreographySpecificationMocks.sample();
+      long weight = ExtractionResultCacheUtils.weigh(
+            new ExtractionResultCache(Long.MAX_VALUE).generate(choreographySpecification));
+      ExtractionResultCache extractionResultCache = new ExtractionResultCache(weight);
+
+      extractionResultCache.generate(choreographySpecification);
+      extractionResultCache.generate(withInitialState(choreographySpecification, "s1"));
+      extractionResultCache.generate(choreographySpecification);
+
+      ExtractionResultCacheStatistics extractionResultCacheStatistics = extractionResultCache.getStatistics();
+      Assert.assertEquals(0, extractionResultCacheStatistics.getMemoryHitCount());
+      Assert.assertEquals(3, extractionResultCacheStatistics.getMissCount());
+      Assert.assertEquals(2, extractionResultCacheStatistics.getEvictionCount());
+      Assert.assertEquals(1, extractionResultCacheStatistics.getSize());
+   }
+
+   @Test
+   public void testDiskTier() throws IOException {
+      Path directory = temporaryFolder.newFolder().toPath();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new ExtractionResultCache(Long.MAX_VALUE, directory, Long.MAX_VALUE)
+                  .generate(ChoreographySpecificationMocks.sample());
+
+      // a new cache, as a new process would do, finds the result on disk only
+      ExtractionResultCache extractionResultCache
+            = new ExtractionResultCache(Long.MAX_VALUE, directory, Long.MAX_VALUE);
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> diskResult
+            = extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+
+      Assert.assertEquals(result.keySet(), diskResult.keySet());
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         Assert.assertEquals(abstractParticipantBehavior.getStates(), diskResult.get(cd).getStates());
+         Assert.assertEquals(abstractParticipantBehavior.getTransitions(), diskResult.get(cd).getTransitions());
+      });
+      Assert.assertEquals(1, extractionResultCache.getStatistics().getDiskHitCount());
+      Assert.assertEquals(0, extractionResultCache.getStatistics().getMissCount());
+
+      extractionResultCache.invalidateAll();
+      extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+      Assert.assertEquals(1, extractionResultCache.getStatistics().getMissCount());
+   }
+
+   @Test
+   public void testDiskTierEviction() throws IOException {
+      Path directory = temporaryFolder.newFolder().toPath();
+      ExtractionResultCache extractionResultCache = new ExtractionResultCache(0, directory, 1);
+
+      extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+      extractionResultCache.generate(ChoreographySpecificationMocks.sample());
+
+      Assert.assertEquals(2, extractionResultCache.getStatistics().getMissCount());
+      Assert.assertEquals(0, directory.toFile().list().length);
+   }
+
+   private static ChoreographySpecification withInitialState(final ChoreographySpecification choreographySpecification,
+         final String initialStateName) {
+      return new ChoreographySpecification(choreographySpecification.getParticipants(),
+            choreographySpecification.getStates(), new State(initialStateName),
+            choreographySpecification.getMessages(), choreographySpecification.getTransitions());
+   }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.choreographyspecification.model.State;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultCacheUtilsTest {
+
+   @Test
+   public void testFingerprintIsOrderIndependent() {
+      ChoreographySpecification choreographySpecification = ChoreographySpecificationMocks.sample();
+      ChoreographySpecification reversedChoreographySpecification = new ChoreographySpecification(
+            reverse(choreographySpecification.getParticipants()), reverse(choreographySpecification.getStates()),
+            new State("s0"), reverse(choreographySpecification.getMessages()),
+            reverse(choreographySpecification.getTransitions()));
+
+      Assert.assertEquals(ExtractionResultCacheUtils.fingerprint(choreographySpecification),
+            ExtractionResultCacheUtils.fingerprint(reversedChoreographySpecification));
+      Assert.assertEquals(64, ExtractionResultCacheUtils.fingerprint(choreographySpecification).length());
+   }
+
+   @Test
+   public void testFingerprintCoversInitialState() {
+      ChoreographySpecification choreographySpecification = ChoreographySpecificationMocks.sample();
+      ChoreographySpecification otherChoreographySpecification = new ChoreographySpecification(
+            choreographySpecification.getParticipants(), choreographySpecification.getStates(), new State("s1"),
+            choreographySpecification.getMessages(), choreographySpecification.getTransitions());
+
+      Assert.assertNotEquals(ExtractionResultCacheUtils.fingerprint(choreographySpecification),
+            ExtractionResultCacheUtils.fingerprint(otherChoreographySpecification));
+   }
+
+   @Test
+   public void testWriteAndRead() throws IOException {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      ExtractionResultCacheUtils.write(result, new DataOutputStream(byteArrayOutputStream));
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> readResult = ExtractionResultCacheUtils
+            .read(new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())));
+
+      Assert.assertEquals(result.keySet(), readResult.keySet());
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         Assert.assertEquals(abstractParticipantBehavior.getInitialState(), readResult.get(cd).getInitialState());
+         Assert.assertEquals(abstractParticipantBehavior.getStates(), readResult.get(cd).getStates());
+         Assert.assertEquals(abstractParticipantBehavior.getTransitions(), readResult.get(cd).getTransitions());
+      });
+      Assert.assertEquals(ExtractionResultCacheUtils.weigh(result), ExtractionResultCacheUtils.weigh(readResult));
+   }
+
+   @Test
+   public void testWriteAndReadLongNames() throws IOException {
+      // longer than the 65535 bytes that DataOutputStream.writeUTF can write
+      StringBuilder longName = new StringBuilder();
+      while (longName.length() <= 70000) {
+         longName.append("Synch_{p\u00e8,p3}");
+      }
+      AbstractParticipantBehavior abstractParticipantBehavior = new AbstractParticipantBehavior();
+      com.sesygroup.choreography.abstractparticipantbehavior.model.State state
+            = new com.sesygroup.choreography.abstractparticipantbehavior.model.State(longName.toString());
+      abstractParticipantBehavior.setInitialState(state);
+      abstractParticipantBehavior.getStates().add(state);
+      abstractParticipantBehavior.getMessages().add(new OutputMessage(longName.toString()));
+      abstractParticipantBehavior.getTransitions()
+            .add(new SendActionTransition(state, state, new OutputMessage(longName.toString())));
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = Collections.singletonMap(new ImmutablePair<Participant, Participant>(new Participant("p1"),
+                  new Participant("p2")), abstractParticipantBehavior);
+
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      ExtractionResultCacheUtils.write(result, new DataOutputStream(byteArrayOutputStream));
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> readResult = ExtractionResultCacheUtils
+            .read(new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())));
+
+      AbstractParticipantBehavior readAbstractParticipantBehavior = readResult.values().iterator().next();
+      Assert.assertEquals(abstractParticipantBehavior.getInitialState(),
+            readAbstractParticipantBehavior.getInitialState());
+      Assert.assertEquals(abstractParticipantBehavior.getStates(), readAbstractParticipantBehavior.getStates());
+      Assert.assertEquals(abstractParticipantBehavior.getMessages(), readAbstractParticipantBehavior.getMessages());
+      Assert.assertEquals(abstractParticipantBehavior.getTransitions(),
+            readAbstractParticipantBehavior.getTransitions());
+   }
+
+   @Test
+   public void testCopy() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> copy = ExtractionResultCacheUtils.copy(result);
+
+      Assert.assertEquals(result.keySet(), copy.keySet());
+      result.forEach((cd, abstractParticipantBehavior) -> {
+         Assert.assertNotSame(abstractParticipantBehavior, copy.get(cd));
+         Assert.assertEquals(abstractParticipantBehavior.getInitialState(), copy.get(cd).getInitialState());
+         Assert.assertEquals(abstractParticipantBehavior.getStates(), copy.get(cd).getStates());
+         Assert.assertEquals(abstractParticipantBehavior.getMessages(), copy.get(cd).getMessages());
+         Assert.assertEquals(abstractParticipantBehavior.getTransitions(), copy.get(cd).getTransitions());
+         copy.get(cd).getTransitions().clear();
+         Assert.assertFalse(abstractParticipantBehavior.getTransitions().isEmpty());
+      });
+   }
+
+   private static <T> LinkedHashSet<T> reverse(final Set<T> elements) {
+      List<T> reversedElements = new ArrayList<T>(elements);
+      Collections.reverse(reversedElements);
+      return new LinkedHashSet<T>(reversedElements);
+   }
+
+}
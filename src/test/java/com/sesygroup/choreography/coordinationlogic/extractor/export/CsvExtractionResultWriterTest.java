@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.AbstractParticipantBehaviorMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultWriterMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CsvExtractionResultWriterTest {
+
+   @Test
+   public void testWrite() throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+      String csv = ExtractionResultWriterMocks.write(new CsvExtractionResultWriter(Channels.newChannel(outputStream)),
+            outputStream, AbstractParticipantBehaviorMocks.escapedStateNames());
+
+      Assert.assertEquals(CsvExtractionResultWriter.HEADER + "p1,p2,send,s0,\"s\"\"1,\u00e9\uD83D\uDE00\",m1\n"
+            + "p1,p2,receive,\"s\"\"1,\u00e9\uD83D\uDE00\",s0,m2\n" + "p1,p2,internal,s0,s0,\n", csv);
+   }
+
+   @Test
+   public void testWriteBeyondBuffer() throws IOException {
+      String name = ExtractionResultWriterMocks.longName();
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+      String csv = ExtractionResultWriterMocks.write(new CsvExtractionResultWriter(Channels.newChannel(outputStream)),
+            outputStream, AbstractParticipantBehaviorMocks.loop(name));
+
+      Assert.assertEquals(CsvExtractionResultWriter.HEADER + "p1,p2,send," + name + "," + name + ",m1\n", csv);
+   }
+
+   @Test
+   public void testWriteUtf8() throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      ExtractionResultWriterMocks.write(new CsvExtractionResultWriter(Channels.newChannel(outputStream)),
+            outputStream, AbstractParticipantBehaviorMocks.loop("\u00e9\uD83D\uDE00"));
+
+      // U+00E9 takes two bytes and U+1F600, written as a surrogate pair, four bytes
+      byte[] name = new byte[] { (byte) 0xC3, (byte) 0xA9, (byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80 };
+      ByteArrayOutputStream expectedOutputStream = new ByteArrayOutputStream();
+      expectedOutputStream.write((CsvExtractionResultWriter.HEADER + "p1,p2,send,").getBytes(StandardCharsets.UTF_8));
+      expectedOutputStream.write(name);
+      expectedOutputStream.write(',');
+      expectedOutputStream.write(name);
+      expectedOutputStream.write(",m1\n".getBytes(StandardCharsets.UTF_8));
+      Assert.assertArrayEquals(expectedOutputStream.toByteArray(), outputStream.toByteArray());
+   }
+
+   @Test
+   public void testWriteAsConsumer() throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      try (ExtractionResultWriter writer = new CsvExtractionResultWriter(Channels.newChannel(outputStream))) {
+         new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generateEach(writer);
+      }
+      int transitionCount = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate()
+            .values().stream().mapToInt(abstractParticipantBehavior -> abstractParticipantBehavior.getTransitions()
+                  .size()).sum();
+
+      Assert.assertEquals(transitionCount + 1,
+            new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n").length);
+   }
+
+   @Test
+   public void testWriteEmptyResult() throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      new CsvExtractionResultWriter(Channels.newChannel(outputStream)).close();
+
+      Assert.assertEquals(CsvExtractionResultWriter.HEADER,
+            new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+   }
+
+}
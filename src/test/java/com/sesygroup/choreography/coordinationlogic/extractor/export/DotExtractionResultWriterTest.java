@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.AbstractParticipantBehaviorMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultWriterMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class DotExtractionResultWriterTest {
+
+   @Test
+   public void testWrite() throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+      String dot = ExtractionResultWriterMocks.write(new DotExtractionResultWriter(Channels.newChannel(outputStream)),
+            outputStream, AbstractParticipantBehaviorMocks.escapedStateNames());
+
+      Assert.assertEquals("digraph \"p1,p2\" {\n" + "  \"s0\" [style=bold];\n"
+            + "  \"s\\\"1,\u00e9\uD83D\uDE00\";\n" + "  \"s0\" -> \"s\\\"1,\u00e9\uD83D\uDE00\" [label=\"!m1\"];\n"
+            + "  \"s\\\"1,\u00e9\uD83D\uDE00\" -> \"s0\" [label=\"?m2\"];\n" + "  \"s0\" -> \"s0\" [label=\"tau\"];\n"
+            + "}\n", dot);
+   }
+
+   @Test
+   public void testWriteBeyondBuffer() throws IOException {
+      String name = ExtractionResultWriterMocks.longName();
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+      String dot = ExtractionResultWriterMocks.write(new DotExtractionResultWriter(Channels.newChannel(outputStream)),
+            outputStream, AbstractParticipantBehaviorMocks.loop(name));
+
+      Assert.assertEquals("digraph \"p1,p2\" {\n" + "  \"" + name + "\" [style=bold];\n" + "  \"" + name + "\" -> \""
+            + name + "\" [label=\"!m1\"];\n" + "}\n", dot);
+   }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.AbstractParticipantBehaviorMocks;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ExtractionResultWriterMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class JsonLinesExtractionResultWriterTest {
+
+   @Test
+   public void testWrite() throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+      String json = ExtractionResultWriterMocks.write(
+            new JsonLinesExtractionResultWriter(Channels.newChannel(outputStream)), outputStream,
+            AbstractParticipantBehaviorMocks.escapedStateNames());
+
+      Assert.assertEquals("{\"cd\":[\"p1\",\"p2\"],\"initialState\":\"s0\","
+            + "\"states\":[\"s0\",\"s\\\"1,\u00e9\uD83D\uDE00\"],\"transitions\":["
+            + "{\"kind\":\"send\",\"source\":\"s0\",\"target\":\"s\\\"1,\u00e9\uD83D\uDE00\",\"message\":\"m1\"},"
+            + "{\"kind\":\"receive\",\"source\":\"s\\\"1,\u00e9\uD83D\uDE00\",\"target\":\"s0\",\"message\":\"m2\"},"
+            + "{\"kind\":\"internal\",\"source\":\"s0\",\"target\":\"s0\",\"message\":null}]}\n", json);
+   }
+
+   @Test
+   public void testWriteBeyondBuffer() throws IOException {
+      String name = ExtractionResultWriterMocks.longName();
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+      String json = ExtractionResultWriterMocks.write(
+            new JsonLinesExtractionResultWriter(Channels.newChannel(outputStream)), outputStream,
+            AbstractParticipantBehaviorMocks.loop(name));
+
+      Assert.assertEquals("{\"cd\":[\"p1\",\"p2\"],\"initialState\":\"" + name + "\",\"states\":[\"" + name
+            + "\"],\"transitions\":[{\"kind\":\"send\",\"source\":\"" + name + "\",\"target\":\"" + name
+            + "\",\"message\":\"m1\"}]}\n", json);
+   }
+
+   @Test
+   public void testWriteControlCharacter() throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      try (ExtractionResultWriter writer = new JsonLinesExtractionResultWriter(Channels.newChannel(outputStream))) {
+         writer.write(ExtractionResultWriterMocks.CD, new AbstractParticipantBehavior(new LinkedHashSet<State>(),
+               new State("s\t0"), new LinkedHashSet<Message>(), new LinkedHashSet<Transition>()));
+      }
+
+      Assert.assertEquals("{\"cd\":[\"p1\",\"p2\"],\"initialState\":\"s\\u00090\",\"states\":[],\"transitions\":[]}\n",
+            new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+   }
+
+}
@@ -115,4 +115,28 @@ public class AbstractParticipantBehaviorMocks {
 
       return new AbstractParticipantBehavior(states, initialState, messages, transitions);
    }
+
+   /**
+    * A behavior whose second state needs escaping in the exported formats and is not ASCII.
+    */
+   public static AbstractParticipantBehavior escapedStateNames() {
+      State s0 = new State("s0");
+      State s1 = new State("s\"1,\u00e9\uD83D\uDE00");
+      Set<State> states = new LinkedHashSet<State>(Arrays.asList(s0, s1));
+      Set<Transition> transitions = new LinkedHashSet<Transition>(Arrays.asList(
+            new SendActionTransition(s0, s1, new OutputMessage("m1")),
+            new ReceiveActionTransition(s1, s0, new InputMessage("m2")), new InternalActionTransition(s0, s0)));
+      return new AbstractParticipantBehavior(states, s0, new LinkedHashSet<Message>(), transitions);
+   }
+
+   /**
+    * A behavior of a single state, named by the given name, with a send transition to itself.
+    */
+   public static AbstractParticipantBehavior loop(final String stateName) {
+      State state = new State(stateName);
+      Set<Transition> transitions = new LinkedHashSet<Transition>(
+            Arrays.asList(new SendActionTransition(state, state, new OutputMessage("m1"))));
+      return new AbstractParticipantBehavior(new LinkedHashSet<State>(Arrays.asList(state)), state,
+            new LinkedHashSet<Message>(), transitions);
+   }
 }
@@ -17,6 +17,7 @@ package com.sesygroup.choreography.coordinationlogic.extractor.mock;
 
 import java.util.Arrays;
 import java.util.LinkedHashSet;
+import java.util.Random;
 import java.util.Set;
 
 import com.sesygroup.choreography.choreographyspecification.model.ChoreographySpecification;
@@ -54,4 +55,34 @@ public class ChoreographySpecificationMocks {
 
       return new ChoreographySpecification(participants, states, initialState, messages, transitions);
    }
+
+   /**
+    * Generates a choreography specification of the given number of sending message transitions between random states
+    * and participants, thus with many branching states. The same arguments always generate the same specification.
+    */
+   public static ChoreographySpecification generated(final int transitionCount, final long seed) {
+      Random random = new Random(seed);
+      int stateCount = Math.max(2, transitionCount / 3);
+      int participantCount = 8;
+      Set<Participant> participants = new LinkedHashSet<Participant>();
+      for (int index = 0; index < participantCount; index++) {
+         participants.add(new Participant("p" + index));
+      }
+      Set<State> states = new LinkedHashSet<State>();
+      for (int index = 0; index < stateCount; index++) {
+         states.add(new State("s" + index));
+      }
+      Set<Message> messages = new LinkedHashSet<Message>();
+      Set<Transition> transitions = new LinkedHashSet<Transition>();
+      for (int index = 0; index < transitionCount; index++) {
+         int sourceParticipant = random.nextInt(participantCount);
+         int targetParticipant = (sourceParticipant + 1 + random.nextInt(participantCount - 1)) % participantCount;
+         Message message = new Message("m" + index);
+         messages.add(message);
+         transitions.add(new SendingMessageActionTransition(new State("s" + random.nextInt(stateCount)),
+               new State("s" + random.nextInt(stateCount)), new Participant("p" + sourceParticipant),
+               new Participant("p" + targetParticipant), message));
+      }
+      return new ChoreographySpecification(participants, states, new State("s0"), messages, transitions);
+   }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.mock;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultAssert {
+
+   /**
+    * Asserts that the actual extraction result has the coordination delegates of the expected one, each with the same
+    * initial state, states and transitions, all in the same order.
+    */
+   public static void assertEquals(final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> expected,
+         final Map<Pair<Participant, Participant>, AbstractParticipantBehavior> actual) {
+      Assert.assertEquals(new ArrayList<Pair<Participant, Participant>>(expected.keySet()),
+            new ArrayList<Pair<Participant, Participant>>(actual.keySet()));
+      expected.forEach((cd, abstractParticipantBehavior) -> {
+         Assert.assertEquals(abstractParticipantBehavior.getInitialState(), actual.get(cd).getInitialState());
+         Assert.assertEquals(new ArrayList<State>(abstractParticipantBehavior.getStates()),
+               new ArrayList<State>(actual.get(cd).getStates()));
+         Assert.assertEquals(new ArrayList<Transition>(abstractParticipantBehavior.getTransitions()),
+               new ArrayList<Transition>(actual.get(cd).getTransitions()));
+      });
+   }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.export.ExtractionResultWriter;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class ExtractionResultWriterMocks {
+   public static final Pair<Participant, Participant> CD = Pair.of(new Participant("p1"), new Participant("p2"));
+
+   /**
+    * @return a name that takes more than the 64 KiB buffer of a writer once encoded as UTF-8, and whose characters
+    *         take two and four bytes, thus cross the end of the buffer.
+    */
+   public static String longName() {
+      StringBuilder builder = new StringBuilder();
+      for (int index = 0; index < 50000; index++) {
+         builder.append(index % 2 == 0 ? "\u00e9" : "\uD83D\uDE00");
+      }
+      return builder.toString();
+   }
+
+   /**
+    * Writes the given behavior of {@link #CD} with the given writer, which writes to the given output stream, and
+    * closes the writer.
+    *
+    * @return the output, decoded as UTF-8.
+    */
+   public static String write(final ExtractionResultWriter writer, final ByteArrayOutputStream outputStream,
+         final AbstractParticipantBehavior abstractParticipantBehavior) throws IOException {
+      try (ExtractionResultWriter closedWriter = writer) {
+         closedWriter.write(CD, abstractParticipantBehavior);
+      }
+      return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+   }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.runtime;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.choreographyspecification.model.Participant;
+import com.sesygroup.choreography.coordinationlogic.extractor.CoordinationLogicExtractor;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.ChoreographySpecificationMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateExecutorTest {
+
+   @Test
+   public void testStep() {
+      Map<Pair<Participant, Participant>, AbstractParticipantBehavior> result
+            = new CoordinationLogicExtractor(ChoreographySpecificationMocks.sample()).generate();
+      CoordinationDelegateTable coordinationDelegateTable = new CoordinationDelegateTable(
+            result.get(Pair.of(new Participant("p1"), new Participant("p3"))));
+      CoordinationDelegateExecutor coordinationDelegateExecutor
+            = new CoordinationDelegateExecutor(coordinationDelegateTable);
+      int inputM1 = coordinationDelegateTable.getMessageId(new InputMessage("m1"));
+      int outputM1 = coordinationDelegateTable.getMessageId(new OutputMessage("m1"));
+
+      Assert.assertFalse(coordinationDelegateExecutor.step(outputM1));
+      Assert.assertEquals(coordinationDelegateTable.getInitialState(), coordinationDelegateExecutor.getCurrentState());
+      Assert.assertTrue(coordinationDelegateExecutor.step(inputM1));
+      Assert.assertEquals(Collections.singleton(new State("s0_mid")),
+            coordinationDelegateTable.getStates(coordinationDelegateExecutor.getCurrentState()));
+      Assert.assertTrue(coordinationDelegateExecutor.isEnabled(outputM1));
+      Assert.assertTrue(coordinationDelegateExecutor.step(outputM1));
+      Assert.assertEquals(Collections.singleton(new State("s1")),
+            coordinationDelegateTable.getStates(coordinationDelegateExecutor.getCurrentState()));
+
+      coordinationDelegateExecutor.reset();
+      Assert.assertEquals(coordinationDelegateTable.getInitialState(), coordinationDelegateExecutor.getCurrentState());
+   }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Software Engineering and Synthesis Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sesygroup.choreography.coordinationlogic.extractor.runtime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sesygroup.choreography.abstractparticipantbehavior.model.AbstractParticipantBehavior;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Message;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.State;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.Transition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.InternalActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.ReceiveActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.action.SendActionTransition;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.InputMessage;
+import com.sesygroup.choreography.abstractparticipantbehavior.model.message.OutputMessage;
+import com.sesygroup.choreography.coordinationlogic.extractor.mock.AbstractParticipantBehaviorMocks;
+
+/**
+ *
+ * @author Alexander Perucci (http://www.alexanderperucci.com/)
+ *
+ */
+public class CoordinationDelegateTableTest {
+
+   @Test
+   public void testNextState() {
+      CoordinationDelegateTable coordinationDelegateTable
+            = new CoordinationDelegateTable(AbstractParticipantBehaviorMocks.p2());
+      int m2 = coordinationDelegateTable.getMessageId(new OutputMessage("m2"));
+      int m5 = coordinationDelegateTable.getMessageId(new OutputMessage("m5"));
+
+      Assert.assertEquals(3, coordinationDelegateTable.getStateCount());
+      Assert.assertEquals(2, coordinationDelegateTable.getMessageCount());
+      Assert.assertEquals(Collections.singleton(new State("s0")),
+            coordinationDelegateTable.getStates(coordinationDelegateTable.getInitialState()));
+      int s2 = coordinationDelegateTable.getNextState(coordinationDelegateTable.getInitialState(), m2);
+      Assert.assertEquals(Collections.singleton(new State("s2")), coordinationDelegateTable.getStates(s2));
+      Assert.assertFalse(coordinationDelegateTable.isEnabled(coordinationDelegateTable.getInitialState(), m5));
+      int s5 = coordinationDelegateTable.getNextState(s2, m5);
+      Assert.assertEquals(coordinationDelegateTable.getStateId(new State("s5")), s5);
+      Assert.assertTrue(coordinationDelegateTable.isTerminal(s5));
+      Assert.assertEquals(CoordinationDelegateTable.NO_MESSAGE,
+            coordinationDelegateTable.getMessageId(new InputMessage("m2")));
+   }
+
+   @Test
+   public void testInternalActionClosure() {
+      Set<State> states = new LinkedHashSet<State>(
+            Arrays.asList(new State("s0"), new State("s1"), new State("s2"), new State("s3"), new State("s4")));
+      Set<Message> messages
+            = new LinkedHashSet<Message>(Arrays.asList(new InputMessage("m1"), new OutputMessage("m2")));
+      Set<Transition> transitions = new LinkedHashSet<Transition>(
+            Arrays.asList(new InternalActionTransition(new State("s0"), new State("s1")),
+                  new InternalActionTransition(new State("s1"), new State("s2")),
+                  new InternalActionTransition(new State("s2"), new State("s0")),
+                  new ReceiveActionTransition(new State("s2"), new State("s3"), new InputMessage("m1")),
+                  new SendActionTransition(new State("s1"), new State("s4"), new OutputMessage("m2"))));
+      CoordinationDelegateTable coordinationDelegateTable = new CoordinationDelegateTable(
+            new AbstractParticipantBehavior(states, new State("s0"), messages, transitions));
+
+      int s0 = coordinationDelegateTable.getInitialState();
+      Assert.assertEquals(coordinationDelegateTable.getStateId(new State("s3")), coordinationDelegateTable
+            .getNextState(s0, coordinationDelegateTable.getMessageId(new InputMessage("m1"))));
+      Assert.assertEquals(coordinationDelegateTable.getStateId(new State("s4")), coordinationDelegateTable
+            .getNextState(s0, coordinationDelegateTable.getMessageId(new OutputMessage("m2"))));
+      Assert.assertFalse(coordinationDelegateTable.isTerminal(s0));
+   }
+
+   @Test
+   public void testSameMessageToSeveralTargets() {
+      Set<State> states = new LinkedHashSet<State>(Arrays.asList(new State("s0"), new State("s1"), new State("s2"),
+            new State("s3"), new State("s4"), new State("s5"), new State("s6")));
+      Set<Message> messages = new LinkedHashSet<Message>(
+            Arrays.asList(new InputMessage("m1"), new OutputMessage("m2"), new OutputMessage("m3")));
+      Set<Transition> transitions = new LinkedHashSet<Transition>(
+            Arrays.asList(new InternalActionTransition(new State("s0"), new State("s1")),
+                  new InternalActionTransition(new State("s0"), new State("s2")),
+                  new ReceiveActionTransition(new State("s1"), new State("s3"), new InputMessage("m1")),
+                  new ReceiveActionTransition(new State("s2"), new State("s4"), new InputMessage("m1")),
+                  new SendActionTransition(new State("s3"), new State("s5"), new OutputMessage("m2")),
+                  new SendActionTransition(new State("s4"), new State("s6"), new OutputMessage("m3"))));
+      CoordinationDelegateTable coordinationDelegateTable = new CoordinationDelegateTable(
+            new AbstractParticipantBehavior(states, new State("s0"), messages, transitions));
+      int m1 = coordinationDelegateTable.getMessageId(new InputMessage("m1"));
+      int m2 = coordinationDelegateTable.getMessageId(new OutputMessage("m2"));
+      int m3 = coordinationDelegateTable.getMessageId(new OutputMessage("m3"));
+
+      int s3s4 = coordinationDelegateTable.getNextState(coordinationDelegateTable.getInitialState(), m1);
+      Assert.assertEquals(new LinkedHashSet<State>(Arrays.asList(new State("s3"), new State("s4"))),
+            coordinationDelegateTable.getStates(s3s4));
+      Assert.assertEquals(CoordinationDelegateTable.NO_STATE, coordinationDelegateTable.getStateId(new State("s3")));
+      Assert.assertEquals(coordinationDelegateTable.getStateId(new State("s5")),
+            coordinationDelegateTable.getNextState(s3s4, m2));
+      Assert.assertEquals(coordinationDelegateTable.getStateId(new State("s6")),
+            coordinationDelegateTable.getNextState(s3s4, m3));
+   }
+
+   @Test(expected = NullPointerException.class)
+   public void testNullInitialState() {
+      new CoordinationDelegateTable(new AbstractParticipantBehavior());
+   }
+
+}